@@ -0,0 +1,183 @@
+package cinema.booking.cinemabooking.benchmark;
+
+import cinema.booking.cinemabooking.CinemaBookingApplication;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.*;
+import cinema.booking.cinemabooking.repository.*;
+import cinema.booking.cinemabooking.service.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Application context with an embedded H2 database (PostgreSQL mode) seeded with a dataset of configurable size.
+ * The first seance is left without reservations, so reservations can be created on it.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+    public static final String USERNAME = "benchmark";
+    public static final int ROOMS = 4;
+    public static final int ROWS = 10;
+    public static final int SEATS_PER_ROW = 15;
+    private static final int MOVIES = 8;
+    private static final int DAYS = 7;
+
+    /**
+     * Number of seances, spread over the next week.
+     */
+    @Param("20")
+    public int seances;
+
+    /**
+     * Number of paid two-ticket reservations, spread over all seances but the first one.
+     */
+    @Param("200")
+    public int reservations;
+
+    public ConfigurableApplicationContext context;
+    public List<Long> seanceIds;
+    public List<Long> reservationIds;
+    public List<Long> bookingSeatIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (seances < 2) {
+            throw new IllegalArgumentException("At least 2 seances are needed");
+        }
+        int seatsPerSeance = ROWS * SEATS_PER_ROW;
+        if (2L * reservations > (long) (seances - 1) * seatsPerSeance) {
+            throw new IllegalArgumentException("Too many reservations for " + seances + " seances");
+        }
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(CinemaBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.sql.init.mode=never",
+                        "--app.repertoire.prewarm-days=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.cinema.booking.cinemabooking=WARN");
+
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> seed());
+        bean(SalesRollupService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Get the date of a seance by its index.
+     * @param index the index of the seance
+     * @return the date of the seance
+     */
+    public LocalDate seanceDate(int index) {
+        return LocalDate.now().plusDays(1 + index % DAYS);
+    }
+
+    private void seed() {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setEmail(USERNAME + "@example.com");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setPassword("{noop}benchmark");
+        user.setRole("USER");
+        bean(UserRepository.class).save(user);
+
+        List<CinemaRoom> rooms = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            CinemaRoom room = new CinemaRoom();
+            room.setName("Room " + (r + 1));
+            for (int row = 1; row <= ROWS; row++) {
+                for (int number = 1; number <= SEATS_PER_ROW; number++) {
+                    Seat seat = new Seat();
+                    seat.setRowNumber(row);
+                    seat.setSeatNumber(number);
+                    seat.setCinemaRoom(room);
+                    room.getSeats().add(seat);
+                }
+            }
+            rooms.add(bean(CinemaRoomRepository.class).save(room));
+        }
+
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < MOVIES; m++) {
+            Movie movie = new Movie();
+            movie.setTitle("Movie " + (m + 1));
+            movie.setDescription("Benchmark movie " + (m + 1));
+            movie.setGenre("Drama");
+            movie.setDurationMin(90 + m * 10);
+            movie.setDirector("Director " + (m + 1));
+            movie.setMainCast("Cast " + (m + 1));
+            movie.setAgeRating("PG-13");
+            movies.add(bean(MovieRepository.class).save(movie));
+        }
+
+        List<Seance> savedSeances = new ArrayList<>();
+        for (int i = 0; i < seances; i++) {
+            Movie movie = movies.get(i % MOVIES);
+            Seance seance = new Seance();
+            seance.setMovie(movie);
+            seance.setCinemaRoom(rooms.get(i % ROOMS));
+            seance.setStartTime(seanceDate(i).atTime(10, 0).plusMinutes(15L * (i / DAYS)));
+            seance.setEndTime(seance.getStartTime().plusMinutes(movie.getDurationMin()));
+            seance.setRegularTicketPrice(25.0);
+            seance.setReducedTicketPrice(15.0);
+            savedSeances.add(bean(SeanceRepository.class).save(seance));
+        }
+        seanceIds = savedSeances.stream().map(Seance::getId).toList();
+        bookingSeatIds = savedSeances.getFirst().getCinemaRoom().getSeats().stream().map(Seat::getId).toList();
+
+        // Paid reservations fill the seats of the other seances from the front
+        int[] takenSeats = new int[seances];
+        List<Reservation> savedReservations = new ArrayList<>();
+        for (int k = 0; k < reservations; k++) {
+            int index = 1 + k % (seances - 1);
+            Seance seance = savedSeances.get(index);
+            LocalDateTime createdAt = LocalDateTime.now().minusDays(k % 30);
+
+            Reservation reservation = new Reservation();
+            reservation.setUser(user);
+            reservation.setStatus(ReservationStatus.PAID);
+            reservation.setReservationCode(UUID.randomUUID().toString());
+            reservation.setCreatedAt(createdAt);
+            reservation.setExpiresAt(createdAt.plusMinutes(15));
+
+            for (int t = 0; t < 2; t++) {
+                Ticket ticket = new Ticket();
+                ticket.setReservation(reservation);
+                ticket.setSeance(seance);
+                ticket.setSeat(seance.getCinemaRoom().getSeats().get(takenSeats[index]++));
+                ticket.setTicketType(t == 0 ? TicketType.REGULAR : TicketType.REDUCED);
+                ticket.setPrice(t == 0 ? seance.getRegularTicketPrice() : seance.getReducedTicketPrice());
+                ticket.setTicketCode(UUID.randomUUID().toString());
+                reservation.getTickets().add(ticket);
+            }
+            reservation.setTotalPrice(reservation.getTickets().stream().mapToDouble(Ticket::getPrice).sum());
+            savedReservations.add(reservation);
+        }
+        reservationIds = bean(ReservationRepository.class).saveAll(savedReservations).stream()
+                .map(Reservation::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,66 @@
+package cinema.booking.cinemabooking.benchmark;
+
+import cinema.booking.cinemabooking.dto.request.CreateReservationDto;
+import cinema.booking.cinemabooking.dto.response.MovieWithSeancesDto;
+import cinema.booking.cinemabooking.dto.response.ReservationSummaryDto;
+import cinema.booking.cinemabooking.dto.response.SeatDto;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.service.ReservationService;
+import cinema.booking.cinemabooking.service.SeanceService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the customer booking flow: repertoire, seat map and reservation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class BookingBenchmark {
+
+    private ReservationService reservationService;
+    private SeanceService seanceService;
+    private BenchmarkDataset dataset;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        this.dataset = dataset;
+        reservationService = dataset.bean(ReservationService.class);
+        seanceService = dataset.bean(SeanceService.class);
+    }
+
+    /**
+     * Create a one-ticket reservation and cancel it again, so the seat is free for the next invocation.
+     */
+    @Benchmark
+    public ReservationSummaryDto createAndCancelReservation() {
+        Long seatId = dataset.bookingSeatIds.get(next(dataset.bookingSeatIds.size()));
+        CreateReservationDto request = new CreateReservationDto();
+        request.setSeanceId(dataset.seanceIds.getFirst());
+        request.setTickets(List.of(new CreateReservationDto.TicketRequest(seatId, TicketType.REGULAR)));
+
+        ReservationSummaryDto reservation = reservationService.createReservation(request, BenchmarkDataset.USERNAME);
+        reservationService.cancelReservation(reservation.getId());
+        return reservation;
+    }
+
+    @Benchmark
+    public List<SeatDto> getSeatsStatusForMovie() {
+        return seanceService.getSeatsStatusForMovie(dataset.seanceIds.get(next(dataset.seanceIds.size())));
+    }
+
+    @Benchmark
+    public List<MovieWithSeancesDto> getRepertoireForDate() {
+        return seanceService.getRepertoireForDate(dataset.seanceDate(next(dataset.seanceIds.size())));
+    }
+
+    private int next(int size) {
+        cursor = (cursor + 1) % size;
+        return cursor;
+    }
+}
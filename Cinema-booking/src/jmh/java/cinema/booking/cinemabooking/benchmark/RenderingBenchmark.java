@@ -0,0 +1,94 @@
+package cinema.booking.cinemabooking.benchmark;
+
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.response.ReservationSummaryDto;
+import cinema.booking.cinemabooking.mapper.ReservationMapper;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import cinema.booking.cinemabooking.service.CsvExportService;
+import cinema.booking.cinemabooking.service.PdfTicketService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of rendering reservation summaries, PDF tickets and CSV reports.
+ * The reservation is loaded from the dataset once, so the database is not part of the summary and PDF measurements.
+ * CSV reports are streamed from the database into a blackhole, as the report endpoints stream them to the client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class RenderingBenchmark {
+
+    private ReservationMapper reservationMapper;
+    private PdfTicketService pdfTicketService;
+    private CsvExportService csvExportService;
+    private Reservation reservation;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDataset dataset) {
+        reservationMapper = dataset.bean(ReservationMapper.class);
+        pdfTicketService = dataset.bean(PdfTicketService.class);
+        csvExportService = dataset.bean(CsvExportService.class);
+
+        // Render once inside a transaction, so every association used by the renderers is loaded
+        reservation = dataset.bean(TransactionTemplate.class).execute(status -> {
+            Reservation loaded = dataset.bean(ReservationRepository.class)
+                    .findById(dataset.reservationIds.getFirst())
+                    .orElseThrow();
+            reservationMapper.toSummaryDto(loaded);
+            pdfTicketService.generateReservationPdf(loaded);
+            return loaded;
+        });
+    }
+
+    @Benchmark
+    public ReservationSummaryDto toSummaryDto() {
+        return reservationMapper.toSummaryDto(reservation);
+    }
+
+    @Benchmark
+    public ByteArrayInputStream generateReservationPdf() {
+        return pdfTicketService.generateReservationPdf(reservation);
+    }
+
+    @Benchmark
+    public void writeDailySalesCsv(Blackhole blackhole) throws IOException {
+        csvExportService.writeDailySalesCsv(ReportFilterDto.none(), new BlackholeOutputStream(blackhole));
+    }
+
+    @Benchmark
+    public void writeMovieSalesCsv(Blackhole blackhole) throws IOException {
+        csvExportService.writeMovieSalesCsv(ReportFilterDto.none(), new BlackholeOutputStream(blackhole));
+    }
+
+    /**
+     * Output stream handing every written chunk to the blackhole, so the rendering cannot be optimized away.
+     */
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cinema.booking.cinemabooking.benchmark;
+
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.CinemaRoom;
+import cinema.booking.cinemabooking.model.Movie;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.model.Seat;
+import cinema.booking.cinemabooking.model.Ticket;
+import cinema.booking.cinemabooking.service.PdfTicketService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of PDF ticket rendering in tickets per second, for a group booking rendered into one document.
+ * Compares stamping tickets onto the pre-rendered template with laying out every ticket from scratch.
+ * The reservation is built in memory, so no database is involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class TicketPdfBenchmark {
+    private static final int TICKETS = 20;
+
+    private PdfTicketService pdfTicketService;
+    private LegacyTicketRenderer legacyTicketRenderer;
+    private Reservation reservation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The baseline does not log, so the per document log lines must not count against the template
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(PdfTicketService.class))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        pdfTicketService = new PdfTicketService();
+        legacyTicketRenderer = new LegacyTicketRenderer();
+
+        Movie movie = new Movie();
+        movie.setTitle("Benchmark Movie");
+        CinemaRoom room = new CinemaRoom();
+        room.setName("Room 1");
+        Seance seance = new Seance();
+        seance.setMovie(movie);
+        seance.setCinemaRoom(room);
+        seance.setStartTime(LocalDateTime.of(2025, 1, 15, 18, 30));
+
+        reservation = new Reservation();
+        reservation.setReservationCode(UUID.randomUUID().toString());
+        for (int i = 0; i < TICKETS; i++) {
+            Seat seat = new Seat();
+            seat.setRowNumber(i / 10 + 1);
+            seat.setSeatNumber(i % 10 + 1);
+            seat.setCinemaRoom(room);
+
+            Ticket ticket = new Ticket();
+            ticket.setReservation(reservation);
+            ticket.setSeance(seance);
+            ticket.setSeat(seat);
+            ticket.setTicketType(i % 2 == 0 ? TicketType.REGULAR : TicketType.REDUCED);
+            ticket.setPrice(i % 2 == 0 ? 25.0 : 15.0);
+            ticket.setTicketCode(UUID.randomUUID().toString());
+            reservation.getTickets().add(ticket);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public ByteArrayInputStream templateTickets() {
+        return pdfTicketService.generateReservationPdf(reservation);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public ByteArrayInputStream layoutTickets() {
+        return legacyTicketRenderer.generateReservationPdf(reservation);
+    }
+}
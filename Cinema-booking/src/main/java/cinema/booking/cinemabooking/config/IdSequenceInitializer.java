@@ -0,0 +1,66 @@
+package cinema.booking.cinemabooking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of the pooled entities past the ids already in their tables.
+ * The reservation and ticket tables used to get their ids from IDENTITY columns. On an existing PostgreSQL database
+ * the schema update creates their sequences starting at 1, so without this step the first inserts would reuse taken ids.
+ * Runs once the entity manager factory, and with it the schema update, is ready and before any insert.
+ */
+@Component
+@Slf4j
+public class IdSequenceInitializer {
+    // Must match the allocationSize of the @SequenceGenerator of the entities
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Sequence name by table name
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "reservation", "reservation_seq",
+            "ticket", "ticket_seq",
+            "seat_hold", "seat_hold_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor taking the entity manager factory only to be created after the schema update.
+     *
+     * @param jdbcTemplate         Template running the sequence updates.
+     * @param entityManagerFactory Entity manager factory updating the schema.
+     */
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Set each sequence so its next block of ids starts after the highest id of its table.
+     * Sequences already past the table are left alone. Only needed, and only run, on PostgreSQL.
+     */
+    @PostConstruct
+    public void synchronizeSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        SEQUENCES.forEach((table, sequence) -> {
+            // A pooled sequence value is the last id of a block, so one block past the highest id starts after it
+            String sql = "SELECT setval('" + sequence + "', GREATEST(s.last_value, "
+                    + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + " + ALLOCATION_SIZE + ")) FROM " + sequence + " s";
+            try {
+                Long value = jdbcTemplate.queryForObject(sql, Long.class);
+                log.info("Sequence {} of table {} is at {}", sequence, table, value);
+            } catch (DataAccessException e) {
+                log.warn("Could not synchronize sequence {} with table {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+}
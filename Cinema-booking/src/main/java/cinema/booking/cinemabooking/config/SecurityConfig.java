@@ -44,6 +44,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/v1/seances/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/movies/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/seances/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/seances/*/tickets/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/seances/*/seats/stream").authenticated()
 
                         // API endpoints - GET only public
                         .requestMatchers(HttpMethod.GET, "/api/v1/movies/**").permitAll()
@@ -6,6 +6,10 @@ import cinema.booking.cinemabooking.exception.SeatAlreadyOccupiedException;
 import cinema.booking.cinemabooking.exception.UserAlreadyExistsException;
 import cinema.booking.cinemabooking.exception.SeanceConflictException;
 import cinema.booking.cinemabooking.exception.InvalidReservationActionException;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import cinema.booking.cinemabooking.exception.ReportNotReadyException;
+import cinema.booking.cinemabooking.exception.TooManyReportJobsException;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
 import cinema.booking.cinemabooking.exception.FileStorageException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +49,42 @@ public class ApiGlobalExceptionHandler {
         return createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
+    /**
+     * Handle exceptions for invalid report queries (HTTP 400).
+     */
+    @ExceptionHandler(InvalidReportQueryException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidReportQuery(InvalidReportQueryException ex, HttpServletRequest request) {
+        log.warn("API Invalid Report Query: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle exceptions for report jobs that are not done yet (HTTP 409).
+     */
+    @ExceptionHandler(ReportNotReadyException.class)
+    public ResponseEntity<ErrorResponseDto> handleReportNotReady(ReportNotReadyException ex, HttpServletRequest request) {
+        log.warn("API Report Not Ready: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle exceptions for rejected report jobs (HTTP 429).
+     */
+    @ExceptionHandler(TooManyReportJobsException.class)
+    public ResponseEntity<ErrorResponseDto> handleTooManyReportJobs(TooManyReportJobsException ex, HttpServletRequest request) {
+        log.warn("API Too Many Report Jobs: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle exceptions for rejected stream subscriptions (HTTP 429).
+     */
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<ErrorResponseDto> handleTooManySubscribers(TooManySubscribersException ex, HttpServletRequest request) {
+        log.warn("API Too Many Subscribers: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+    }
+
     /**
      * Handle exceptions for file storage issues (HTTP 500).
      */
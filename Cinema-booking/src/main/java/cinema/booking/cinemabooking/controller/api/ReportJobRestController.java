@@ -0,0 +1,130 @@
+package cinema.booking.cinemabooking.controller.api;
+
+import cinema.booking.cinemabooking.dto.report.ReportJobDto;
+import cinema.booking.cinemabooking.dto.request.ReportJobRequestDto;
+import cinema.booking.cinemabooking.enums.ContentEncoding;
+import cinema.booking.cinemabooking.service.ReportJobService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+/**
+ * REST API controller for generating reports in the background.
+ * A job is submitted, polled until it is done, then its report is downloaded.
+ */
+@RestController
+@RequestMapping("/api/v1/reports/jobs")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Report Jobs", description = "Endpoints for generating reports in the background")
+public class ReportJobRestController {
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Submits a report job.
+     * @param request the report to generate
+     * @param authentication the authenticated admin
+     * @return the submitted job, with its location
+     */
+    @PostMapping
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Report job accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid report request"),
+            @ApiResponse(responseCode = "429", description = "Too many report jobs in progress")
+    })
+    public ResponseEntity<ReportJobDto> submitJob(@Valid @RequestBody ReportJobRequestDto request, Authentication authentication) {
+        log.info("API: Submitting {} report job for user: {}", request.getType(), authentication.getName());
+        ReportJobDto job = reportJobService.submit(request, authentication.getName());
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Gets the status of a report job.
+     * @param id the ID of the job
+     * @param authentication the authenticated admin
+     * @return the job
+     */
+    @GetMapping("/{id}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report job"),
+            @ApiResponse(responseCode = "404", description = "Report job not found")
+    })
+    public ResponseEntity<ReportJobDto> getJob(@PathVariable String id, Authentication authentication) {
+        return ResponseEntity.ok(reportJobService.getJob(id, authentication.getName()));
+    }
+
+    /**
+     * Downloads the report of a finished job as CSV.
+     * Sent gzip compressed if the client accepts it, with a length, an ETag and support for Range requests,
+     * so an interrupted download can be resumed.
+     * @param id the ID of the job
+     * @param acceptEncoding the codings accepted by the client
+     * @param ifRange the ETag of the partial copy the client resumes, if any
+     * @param authentication the authenticated admin
+     * @return CSV file containing the report, or the requested ranges of it
+     * @throws IOException if the report file cannot be read
+     */
+    @GetMapping("/{id}/download")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully downloaded the report"),
+            @ApiResponse(responseCode = "206", description = "Successfully downloaded the requested ranges of the report"),
+            @ApiResponse(responseCode = "404", description = "Report job not found or its report expired"),
+            @ApiResponse(responseCode = "409", description = "Report job is not done")
+    })
+    public ResponseEntity<Resource> downloadReport(@PathVariable String id,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                   @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                   Authentication authentication) throws IOException {
+        log.info("API: Downloading report of job: {}", id);
+        ReportJobService.ReportResult result = reportJobService.getResult(id, authentication.getName());
+
+        ContentEncoding encoding = result.compressedFile() == null ? ContentEncoding.IDENTITY
+                : ContentEncoding.negotiate(acceptEncoding, EnumSet.of(ContentEncoding.GZIP));
+        Path file = encoding == ContentEncoding.GZIP ? result.compressedFile() : result.file();
+        // Each coding is a different representation, so each gets its own ETag
+        String eTag = "\"" + result.version() + (encoding == ContentEncoding.GZIP ? "-gzip" : "") + "\"";
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + result.fileName())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(eTag)
+                .contentType(MediaType.parseMediaType("text/csv"));
+        if (encoding != ContentEncoding.IDENTITY) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            // The partial copy of the client is of another representation, so the whole report is sent
+            // as a stream, which is never split into ranges
+            return response.contentLength(Files.size(file)).body(new InputStreamResource(Files.newInputStream(file)));
+        }
+        return response.body(new FileSystemResource(file));
+    }
+}
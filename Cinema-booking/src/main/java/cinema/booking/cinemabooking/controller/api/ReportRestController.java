@@ -1,20 +1,45 @@
 package cinema.booking.cinemabooking.controller.api;
 
+import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.OccupancySummaryDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SalesCubeCellDto;
+import cinema.booking.cinemabooking.dto.report.SalesReportDto;
+import cinema.booking.cinemabooking.dto.report.SalesTickerDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.dto.report.TicketPdfQueueStatsDto;
 import cinema.booking.cinemabooking.service.CsvExportService;
+import cinema.booking.cinemabooking.service.OccupancyReportService;
+import cinema.booking.cinemabooking.enums.ContentEncoding;
+import cinema.booking.cinemabooking.enums.SalesDimension;
 import cinema.booking.cinemabooking.service.ReportService;
+import cinema.booking.cinemabooking.service.SalesCubeService;
+import cinema.booking.cinemabooking.service.SalesRollupService;
+import cinema.booking.cinemabooking.service.SalesTickerService;
+import cinema.booking.cinemabooking.service.TicketPdfPregenerationService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * REST API controller for reports
@@ -25,51 +50,211 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 @Tag(name = "Reports", description = "Endpoints for generating sales reports")
 public class ReportRestController {
+    private static final Set<ContentEncoding> CSV_ENCODINGS = EnumSet.of(ContentEncoding.GZIP, ContentEncoding.DEFLATE);
 
     private final ReportService reportService;
     private final CsvExportService csvExportService;
+    private final SalesRollupService salesRollupService;
+    private final SalesCubeService salesCubeService;
+    private final OccupancyReportService occupancyReportService;
+    private final SalesTickerService salesTickerService;
+    private final TicketPdfPregenerationService ticketPdfPregenerationService;
+
+    /**
+     * Gets the daily sales report, optionally restricted by date range, movies, rooms and ticket type.
+     * @param filter the filters of the report
+     * @return list of daily sales
+     */
+    @GetMapping("/daily")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved daily sales report"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter")
+    })
+    public ResponseEntity<List<DailySalesDto>> getDailyReport(@Valid @ModelAttribute ReportFilterDto filter) {
+        log.info("API: Getting daily sales report with filter: {}", filter);
+        return ResponseEntity.ok(reportService.getDailySalesReport(filter));
+    }
+
+    /**
+     * Gets the movie sales report, optionally restricted by date range, movies, rooms and ticket type.
+     * @param filter the filters of the report
+     * @return list of sales per movie
+     */
+    @GetMapping("/movies")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved movie sales report"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter")
+    })
+    public ResponseEntity<List<SalesReportDto>> getMovieReport(@Valid @ModelAttribute ReportFilterDto filter) {
+        log.info("API: Getting movie sales report with filter: {}", filter);
+        return ResponseEntity.ok(reportService.getSalesReport(filter));
+    }
+
+    /**
+     * Slices paid tickets by any combination of dimensions, e.g. movie by day or room by hour.
+     * Answered from the in-memory sales cube without querying the database.
+     * @param groupBy the dimensions to group by
+     * @param filter the filters of the report
+     * @return sales per group
+     */
+    @GetMapping("/cube")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully aggregated sales"),
+            @ApiResponse(responseCode = "400", description = "Invalid dimensions or filter")
+    })
+    public ResponseEntity<List<SalesCubeCellDto>> getSalesCube(@RequestParam List<SalesDimension> groupBy,
+                                                               @Valid @ModelAttribute ReportFilterDto filter) {
+        log.info("API: Aggregating sales cube by {} with filter: {}", groupBy, filter);
+        return ResponseEntity.ok(salesCubeService.aggregate(filter, groupBy));
+    }
+
+    /**
+     * Gets the capacity, sold and held seats of each seance, optionally restricted by date range, movies, rooms and ticket type.
+     * @param filter the filters of the report
+     * @return occupancy of each seance
+     */
+    @GetMapping("/occupancy")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved seance occupancy"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter")
+    })
+    public ResponseEntity<List<SeanceOccupancyDto>> getSeanceOccupancy(@Valid @ModelAttribute ReportFilterDto filter) {
+        log.info("API: Getting seance occupancy with filter: {}", filter);
+        return ResponseEntity.ok(reportService.getSeanceOccupancy(filter));
+    }
+
+    /**
+     * Summarizes seance fill rates per cinema room and day of the week, optionally per start hour.
+     * @param byTimeSlot whether to split the summary by the hour the seances start at
+     * @param filter the filters of the report
+     * @return fill rate statistics per group
+     */
+    @GetMapping("/occupancy/summary")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully summarized seance occupancy"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter")
+    })
+    public ResponseEntity<List<OccupancySummaryDto>> getOccupancySummary(@RequestParam(defaultValue = "false") boolean byTimeSlot,
+                                                                         @Valid @ModelAttribute ReportFilterDto filter) {
+        log.info("API: Summarizing seance occupancy with filter: {}, by time slot: {}", filter, byTimeSlot);
+        return ResponseEntity.ok(occupancyReportService.getOccupancySummary(filter, byTimeSlot));
+    }
+
+    /**
+     * Gets the live sales activity of the last minute and hour, globally or for a single seance.
+     * @param seanceId the ID of the seance to follow, or none for all seances
+     * @return snapshot of the sales activity
+     */
+    @GetMapping("/ticker")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved sales activity")
+    })
+    public ResponseEntity<SalesTickerDto> getSalesTicker(@RequestParam(required = false) Long seanceId) {
+        log.debug("API: Getting sales ticker for seance ID: {}", seanceId);
+        return ResponseEntity.ok(salesTickerService.getTicker(seanceId));
+    }
+
+    /**
+     * Streams snapshots of the live sales activity every few seconds, globally or for a single seance.
+     * @param seanceId the ID of the seance to follow, or none for all seances
+     * @return Server-Sent Events stream of sales activity snapshots
+     */
+    @GetMapping(value = "/ticker/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully subscribed to sales activity"),
+            @ApiResponse(responseCode = "429", description = "Too many open streams")
+    })
+    public SseEmitter streamSalesTicker(@RequestParam(required = false) Long seanceId) {
+        log.debug("API: Subscribing to sales ticker for seance ID: {}", seanceId);
+        return salesTickerService.subscribe(seanceId);
+    }
+
+    /**
+     * Gets the state of the background pre-generation of ticket PDFs after payment.
+     * @return queue depth, workers and counts of generated, skipped and failed PDFs
+     */
+    @GetMapping("/tickets/pdf-queue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved ticket PDF queue statistics")
+    })
+    public ResponseEntity<TicketPdfQueueStatsDto> getTicketPdfQueueStats() {
+        return ResponseEntity.ok(ticketPdfPregenerationService.getStats());
+    }
 
     /**
      * Downloads daily sales report as CSV.
+     * Rows are streamed from the database to the response as they are read, compressed if the client accepts it.
+     * @param filter the filters of the report
+     * @param acceptEncoding the codings accepted by the client
      * @return CSV file containing daily sales report
      */
     @GetMapping("/daily/csv")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully downloaded daily sales report as CSV"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Resource> downloadDailyReportCsv() {
-        log.info("API: Downloading daily sales report as CSV");
-
-        // Fetching daily sales report data
-        var data = reportService.getDailySalesReport();
-        var file = new InputStreamResource(csvExportService.generateDailySalesCsv(data));
+    public ResponseEntity<StreamingResponseBody> downloadDailyReportCsv(@Valid @ModelAttribute ReportFilterDto filter,
+                                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("API: Downloading daily sales report as CSV with filter: {}", filter);
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=daily_sales_report.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(file);
+        ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding, CSV_ENCODINGS);
+        return csvResponse("daily_sales_report.csv", encoding, out -> csvExportService.writeDailySalesCsv(filter, out));
     }
 
     /**
-     * Downloads movie sales report as CSV
+     * Downloads movie sales report as CSV.
+     * Rows are streamed from the database to the response as they are read, compressed if the client accepts it.
+     * @param filter the filters of the report
+     * @param acceptEncoding the codings accepted by the client
      * @return CSV file containing movie sales report
      */
     @GetMapping("/movies/csv")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully downloaded movie sales report as CSV"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Resource> downloadMovieReportCsv() {
-        log.info("API: Downloading movie sales report as CSV");
+    public ResponseEntity<StreamingResponseBody> downloadMovieReportCsv(@Valid @ModelAttribute ReportFilterDto filter,
+                                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("API: Downloading movie sales report as CSV with filter: {}", filter);
 
-        // Fetching movie sales report data
-        var data = reportService.getSalesReport();
-        var file = new InputStreamResource(csvExportService.generateMovieSalesCsv(data));
+        ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding, CSV_ENCODINGS);
+        return csvResponse("movie_sales_report.csv", encoding, out -> csvExportService.writeMovieSalesCsv(filter, out));
+    }
+
+    /**
+     * Rebuilds the sales rollups from all paid tickets.
+     * @return empty response once the rollups are rebuilt
+     */
+    @PostMapping("/rollups/rebuild")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Sales rollups rebuilt successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Void> rebuildSalesRollups() {
+        log.info("API: Rebuilding sales rollups");
+        salesRollupService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Builds a streamed CSV download, compressing the body with the negotiated coding.
+     */
+    private static ResponseEntity<StreamingResponseBody> csvResponse(String fileName, ContentEncoding encoding, StreamingResponseBody csv) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("text/csv"));
+        if (encoding == ContentEncoding.IDENTITY) {
+            return response.body(csv);
+        }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=movie_sales_report.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(file);
+        return response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken())
+                .body(out -> {
+                    try (OutputStream encoded = encoding.wrap(out)) {
+                        csv.writeTo(encoded);
+                    }
+                });
     }
-}
\ No newline at end of file
+}
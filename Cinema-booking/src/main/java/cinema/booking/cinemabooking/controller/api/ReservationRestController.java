@@ -5,6 +5,7 @@ import cinema.booking.cinemabooking.dto.response.ReservationSummaryDto;
 import cinema.booking.cinemabooking.enums.TicketType;
 import cinema.booking.cinemabooking.service.PdfTicketService;
 import cinema.booking.cinemabooking.service.ReservationService;
+import cinema.booking.cinemabooking.service.TicketPdfCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -12,14 +13,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * REST API controller for managing reservations
@@ -30,6 +36,14 @@ import java.io.ByteArrayInputStream;
 @Slf4j
 @Tag(name = "Reservations", description = "Endpoints for managing reservations")
 public class ReservationRestController {
+    // Tomcat sends a file named in these request attributes with sendfile, without copying it through the heap
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Smaller files are cheaper to write from a buffer, the threshold of Tomcat's own static file servlet
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
     private final ReservationService reservationService;
     private final PdfTicketService pdfTicketService;
 
@@ -160,33 +174,56 @@ public class ReservationRestController {
 
     /**
      * Download reservation tickets as a PDF
+     * The PDF is served from the on-disk cache with a strong ETag and support for Range requests.
+     * Large files are handed to the servlet container to be sent straight from the file to the socket when it supports that.
      * @param id reservation ID
+     * @param ifRange the ETag of the partial copy the client resumes, if any
      * @param authentication authenticated user
-     * @return PDF file containing the tickets
+     * @param webRequest the current request
+     * @return PDF file containing the tickets, or the requested ranges of it
+     * @throws IOException if the cached PDF cannot be read
      */
     @GetMapping(value = "/{id}/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
     @Operation(summary = "Download reservation tickets as a PDF", description = "Download the tickets for a reservation as a PDF file")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully downloaded the PDF tickets"),
+            @ApiResponse(responseCode = "206", description = "Successfully downloaded the requested ranges of the PDF tickets"),
+            @ApiResponse(responseCode = "304", description = "The PDF tickets of the client are up to date"),
             @ApiResponse(responseCode = "400", description = "Invalid reservation ID"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<InputStreamResource> downloadPdf(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<Resource> downloadPdf(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                Authentication authentication,
+                                                ServletWebRequest webRequest) throws IOException {
         log.info("API: Downloading PDF tickets for reservationId: {} by user: {}", id, authentication.getName());
 
         String username = authentication.getName();
-
-        // Generate PDF
-        ByteArrayInputStream bis = reservationService.generatePdfForReservation(id, username);
-
-        // Set headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "inline; filename=bilety_" + id + ".pdf");
-
-        return ResponseEntity
-                .ok()
-                .headers(headers)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(new InputStreamResource(bis));
+        TicketPdfCacheService.CachedPdf pdf = reservationService.getPdfForReservation(id, username);
+
+        if (webRequest.checkNotModified(pdf.eTag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=bilety_" + id + ".pdf")
+                .eTag(pdf.eTag())
+                .contentType(MediaType.APPLICATION_PDF);
+
+        boolean wholeFile = webRequest.getHeader(HttpHeaders.RANGE) == null || (ifRange != null && !ifRange.equals(pdf.eTag()));
+        if (wholeFile && pdf.size() >= SENDFILE_MIN_SIZE
+                && Boolean.TRUE.equals(webRequest.getAttribute(SENDFILE_SUPPORT, RequestAttributes.SCOPE_REQUEST))) {
+            webRequest.setAttribute(SENDFILE_FILENAME, pdf.file().toString(), RequestAttributes.SCOPE_REQUEST);
+            webRequest.setAttribute(SENDFILE_START, 0L, RequestAttributes.SCOPE_REQUEST);
+            webRequest.setAttribute(SENDFILE_END, pdf.size(), RequestAttributes.SCOPE_REQUEST);
+            return response.contentLength(pdf.size()).build();
+        }
+
+        if (ifRange != null && !ifRange.equals(pdf.eTag())) {
+            // The partial copy of the client is of another file, so the whole PDF is sent
+            // as a stream, which is never split into ranges
+            return response.contentLength(pdf.size()).body(new InputStreamResource(Files.newInputStream(pdf.file())));
+        }
+        return response.body(new FileSystemResource(pdf.file()));
     }
 }
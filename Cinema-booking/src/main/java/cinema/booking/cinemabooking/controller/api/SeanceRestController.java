@@ -1,18 +1,26 @@
 package cinema.booking.cinemabooking.controller.api;
 
 import cinema.booking.cinemabooking.dto.response.SeatDto;
+import cinema.booking.cinemabooking.model.Seance;
 import cinema.booking.cinemabooking.service.SeanceService;
+import cinema.booking.cinemabooking.service.SeanceTicketExportService;
+import cinema.booking.cinemabooking.service.SeatMapStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,23 +34,78 @@ import java.util.List;
 @Tag(name = "Seances", description = "Endpoints for managing seances")
 public class SeanceRestController {
     private final SeanceService seanceService;
+    private final SeatMapStreamService seatMapStreamService;
+    private final SeanceTicketExportService seanceTicketExportService;
 
     /**
      * Get seat status for a specific seance
+     * The response carries the seat map version as an ETag, a matching If-None-Match is answered with 304
      * @param id seance ID
+     * @param request the current request
      * @return list of SeatDto with status
      */
     @GetMapping("/{id}/seats")
     @Operation(summary = "Get seat status for a specific seance", description = "Retrieve the list of seats with their status for a given seance ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved seat status for the seance"),
+            @ApiResponse(responseCode = "304", description = "Seat status has not changed since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Seance not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<SeatDto>> getSeatsForSeance(@PathVariable Long id) {
+    public ResponseEntity<List<SeatDto>> getSeatsForSeance(@PathVariable Long id, WebRequest request) {
         log.info("API: Fetching seat status for seance ID: {}", id);
 
+        // Read the version before the seats, so a concurrent change can only make the ETag older
+        String version = seanceService.getSeatMapVersion(id);
+        if (request.checkNotModified(version)) {
+            log.debug("API: Seat status for seance ID: {} not modified", id);
+            return null;
+        }
+
         List<SeatDto> seats = seanceService.getSeatsStatusForMovie(id);
-        return ResponseEntity.ok(seats);
+        return ResponseEntity.ok().eTag(version).body(seats);
+    }
+
+    /**
+     * Stream seat status changes for a specific seance
+     * The number of open streams is limited per seance and overall
+     * @param id seance ID
+     * @return Server-Sent Events stream of seat map deltas
+     */
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream seat status changes for a specific seance", description = "Subscribe to Server-Sent Events with seats that became occupied or free for a given seance ID, signed-in users only")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully subscribed to seat status changes"),
+            @ApiResponse(responseCode = "404", description = "Seance not found"),
+            @ApiResponse(responseCode = "429", description = "Too many open streams"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SseEmitter streamSeatsForSeance(@PathVariable Long id) {
+        log.debug("API: Subscribing to seat status changes for seance ID: {}", id);
+        seanceService.checkSeanceExists(id);
+        return seatMapStreamService.subscribe(id);
+    }
+
+    /**
+     * Download all paid tickets of a seance as a single PDF, one ticket per page ordered by row and seat
+     * The pages are streamed to the response as they are drawn
+     * @param id seance ID
+     * @return PDF file containing the tickets of the seance
+     */
+    @GetMapping(value = "/{id}/tickets/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    @Operation(summary = "Download all tickets of a seance as a PDF", description = "Download a printable pack of all paid tickets of a seance, admins only")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully downloaded the tickets of the seance"),
+            @ApiResponse(responseCode = "404", description = "Seance not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> downloadSeanceTickets(@PathVariable Long id) {
+        log.info("API: Downloading PDF tickets of seance ID: {}", id);
+
+        Seance seance = seanceTicketExportService.getSeance(id);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=seance_" + id + "_tickets.pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(out -> seanceTicketExportService.writeTicketPack(seance, out));
     }
 }
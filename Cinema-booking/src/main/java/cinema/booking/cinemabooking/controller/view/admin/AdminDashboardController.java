@@ -1,15 +1,19 @@
 package cinema.booking.cinemabooking.controller.view.admin;
 
-import cinema.booking.cinemabooking.repository.MovieRepository;
-import cinema.booking.cinemabooking.repository.ReservationRepository;
-import cinema.booking.cinemabooking.repository.UserRepository;
+import cinema.booking.cinemabooking.dto.report.DashboardStatsDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.service.DashboardStatsService;
 import cinema.booking.cinemabooking.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.time.LocalDate;
+
 /**
  * View controller for admin dashboard and reports
  */
@@ -17,38 +21,43 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequestMapping("/admin")
 @RequiredArgsConstructor
 public class AdminDashboardController {
-    private final MovieRepository movieRepository;
-    private final UserRepository userRepository;
-    private final ReservationRepository reservationRepository;
+    private final DashboardStatsService dashboardStatsService;
     private final ReportService reportService;
 
     /**
-     * Display admin dashboard with counts of movies, users, and reservations
+     * Display admin dashboard with counts of movies, users, and reservations, seats on hold and today's revenue
      * @param model Spring MVC model
      * @return admin dashboard view
      */
     @GetMapping
     public String dashboard(Model model) {
-        long moviesCount = movieRepository.count();
-        long usersCount = userRepository.count();
-        long reservationsCount = reservationRepository.count();
+        DashboardStatsDto stats = dashboardStatsService.getStats();
 
-        model.addAttribute("moviesCount", moviesCount);
-        model.addAttribute("usersCount", usersCount);
-        model.addAttribute("reservationsCount", reservationsCount);
+        model.addAttribute("moviesCount", stats.getMoviesCount());
+        model.addAttribute("usersCount", stats.getUsersCount());
+        model.addAttribute("reservationsCount", stats.getReservationsCount());
+        model.addAttribute("heldSeats", stats.getHeldSeats());
+        model.addAttribute("revenueToday", stats.getRevenueToday());
 
         return "admin/dashboard";
     }
 
     /**
-     * Display sales reports: by Movie and by Day
+     * Display sales reports: by Movie and by Day, optionally restricted by the filters
+     * @param filter the filters of the reports
      * @param model Spring MVC model
      * @return admin reports view
      */
     @GetMapping("/reports")
-    public String viewReports(Model model) {
-        model.addAttribute("salesByMovie", reportService.getSalesReport());
-        model.addAttribute("salesByDate", reportService.getDailySalesReport());
+    public String viewReports(@ModelAttribute("filter") ReportFilterDto filter, Model model) {
+        if (!filter.isDateRangeValid()) {
+            LocalDate from = filter.getTo();
+            filter.setTo(filter.getFrom());
+            filter.setFrom(from);
+        }
+        model.addAttribute("salesByMovie", reportService.getSalesReport(filter));
+        model.addAttribute("salesByDate", reportService.getDailySalesReport(filter));
+        model.addAttribute("ticketTypes", TicketType.values());
 
         return "admin/reports";
     }
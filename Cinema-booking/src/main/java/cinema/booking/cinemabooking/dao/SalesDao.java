@@ -1,15 +1,27 @@
 package cinema.booking.cinemabooking.dao;
 
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.enums.TicketType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -19,57 +31,444 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class SalesDao {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SALES_REPORT_SQL = """
+            SELECT
+                m.title as movie_title,
+                COALESCE(ms.tickets_sold, 0) as tickets_count,
+                COALESCE(ms.total_revenue, 0) as total_revenue
+            FROM movie m
+            LEFT JOIN movie_sales_rollup ms ON ms.movie_id = m.id
+            ORDER BY total_revenue DESC
+        """;
+
+    private static final String FILTERED_SALES_REPORT_SQL = """
+            SELECT
+                m.title as movie_title,
+                SUM(ds.tickets_sold) as tickets_count,
+                SUM(ds.total_revenue) as total_revenue
+            FROM daily_sales_rollup ds
+            JOIN movie m ON m.id = ds.movie_id
+            %s
+            GROUP BY m.id, m.title
+            ORDER BY total_revenue DESC
+        """;
+
+    private static final String DAILY_SALES_SQL = """
+            SELECT
+                ds.sale_date,
+                SUM(ds.tickets_sold) as tickets_sold,
+                SUM(ds.total_revenue) as total_revenue
+            FROM daily_sales_rollup ds
+            %s
+            GROUP BY ds.sale_date
+            ORDER BY ds.sale_date DESC
+        """;
+
+    // Capacity is the seat count of the room; sold tickets are paid, held ones belong to unexpired pending reservations
+    private static final String SEANCE_OCCUPANCY_SQL = """
+            SELECT
+                s.id as seance_id,
+                s.movie_id,
+                s.cinema_room_id,
+                s.start_time,
+                COALESCE(cap.capacity, 0) as capacity,
+                COUNT(CASE WHEN r.status = 'PAID' THEN t.id END) as sold,
+                COUNT(CASE WHEN r.status = 'PENDING' AND r.expires_at > ? THEN t.id END) as held
+            FROM seance s
+            LEFT JOIN (SELECT cinema_room_id, COUNT(*) as capacity FROM seat GROUP BY cinema_room_id) cap
+                ON cap.cinema_room_id = s.cinema_room_id
+            LEFT JOIN ticket t ON t.seance_id = s.id%s
+            LEFT JOIN reservation r ON r.id = t.reservation_id
+            %s
+            GROUP BY s.id, s.movie_id, s.cinema_room_id, s.start_time, cap.capacity
+            ORDER BY s.start_time, s.id
+        """;
+
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
     /**
      * Fetches sales report data including movie titles, ticket counts, and total revenue.
+     * Reads the movie sales rollup, one row per movie, or the daily sales rollup when the report is filtered.
+     * @param filter the filters of the report
      * @return list of SalesReportDto
      */
-    public List<SalesReportDto> fetchSalesReport() {
-        log.info("Fetching sales report");
-
-        String sql = """
-            SELECT\s
-                m.title as movie_title,\s
-                COUNT(t.id) as tickets_count,\s
-                COALESCE(SUM(t.price), 0) as total_revenue
-            FROM movie m
-            LEFT JOIN seance s ON s.movie_id = m.id
-            LEFT JOIN ticket t ON t.seance_id = s.id
-            LEFT JOIN reservation r ON t.reservation_id = r.id
-            WHERE r.status = 'PAID' OR r.status IS NULL
-            GROUP BY m.id, m.title
-            ORDER BY total_revenue DESC
-       \s""";
-
-        return jdbcTemplate.query(sql, new SalesReportRowMapper());
+    public List<SalesReportDto> fetchSalesReport(ReportFilterDto filter) {
+        log.info("Fetching sales report with filter: {}", filter);
+        Query query = salesReportQuery(filter);
+        return jdbcTemplate.query(query.sql(), new SalesReportRowMapper(), query.args());
     }
 
+    /**
+     * Streams sales report rows to a handler as they are read from the database cursor.
+     * Only a fetch-size worth of rows is held in memory at a time.
+     * @param filter the filters of the report
+     * @param handler the handler receiving each row
+     */
+    public void streamSalesReport(ReportFilterDto filter, SalesReportRowHandler handler) {
+        log.info("Streaming sales report with filter: {}", filter);
+        jdbcTemplate.query(streaming(salesReportQuery(filter)), (RowCallbackHandler) rs -> handler.handle(
+                rs.getString("movie_title"),
+                rs.getLong("tickets_count"),
+                rs.getDouble("total_revenue")));
+    }
 
     /**
      * Fetches daily sales data including date, tickets sold, and total revenue.
+     * Reads the daily sales rollup, a few rows per day.
+     * @param filter the filters of the report
      * @return list of DailySalesDto
      */
-    public List<DailySalesDto> fetchDailySales() {
-        log.info("Fetching daily sales report");
+    public List<DailySalesDto> fetchDailySales(ReportFilterDto filter) {
+        log.info("Fetching daily sales report with filter: {}", filter);
+        Query query = dailySalesQuery(filter);
 
-        String sql = """
-            SELECT 
-                CAST(r.created_at AS DATE) as sale_date,
-                COUNT(t.id) as tickets_sold,
-                COALESCE(SUM(t.price), 0) as total_revenue
-            FROM reservation r
-            JOIN ticket t ON t.reservation_id = r.id
-            WHERE r.status = 'PAID'
-            GROUP BY CAST(r.created_at AS DATE)
-            ORDER BY sale_date DESC
-        """;
-
-        return jdbcTemplate.query(sql, (rs, rowNum) -> new DailySalesDto(
+        return jdbcTemplate.query(query.sql(), (rs, rowNum) -> new DailySalesDto(
                 rs.getDate("sale_date").toLocalDate(),
                 rs.getLong("tickets_sold"),
                 rs.getDouble("total_revenue")
-        ));
+        ), query.args());
+    }
+
+    /**
+     * Streams daily sales rows to a handler as they are read from the database cursor.
+     * Only a fetch-size worth of rows is held in memory at a time.
+     * @param filter the filters of the report
+     * @param handler the handler receiving each row
+     */
+    public void streamDailySales(ReportFilterDto filter, DailySalesRowHandler handler) {
+        log.info("Streaming daily sales report with filter: {}", filter);
+        jdbcTemplate.query(streaming(dailySalesQuery(filter)), (RowCallbackHandler) rs -> handler.handle(
+                rs.getDate("sale_date").toLocalDate(),
+                rs.getLong("tickets_sold"),
+                rs.getDouble("total_revenue")));
+    }
+
+    /**
+     * Streams every paid ticket with the dimensions of its sale, ordered by reservation.
+     * Only a fetch-size worth of rows is held in memory at a time.
+     * @param handler the handler receiving each ticket
+     */
+    public void streamPaidTickets(PaidTicketRowHandler handler) {
+        log.info("Streaming paid tickets");
+        PreparedStatementCreator statement = streaming(new Query("""
+            SELECT r.id as reservation_id, r.created_at, s.movie_id, s.cinema_room_id, t.ticket_type, t.price
+            FROM ticket t
+            JOIN reservation r ON t.reservation_id = r.id
+            JOIN seance s ON t.seance_id = s.id
+            WHERE r.status = 'PAID'
+            ORDER BY r.id
+        """, new Object[0]));
+        jdbcTemplate.query(statement, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong("reservation_id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("movie_id"),
+                rs.getLong("cinema_room_id"),
+                TicketType.valueOf(rs.getString("ticket_type")),
+                rs.getDouble("price")));
+    }
+
+    /**
+     * Adds sold tickets to the sales totals of a movie.
+     * @param movieId the ID of the movie
+     * @param tickets the number of sold tickets
+     * @param revenue the revenue of the sold tickets
+     * @return true if the totals were updated, false if the movie has no rollup row yet
+     */
+    public boolean addMovieSales(Long movieId, long tickets, double revenue) {
+        return jdbcTemplate.update("""
+            UPDATE movie_sales_rollup
+            SET tickets_sold = tickets_sold + ?, total_revenue = total_revenue + ?
+            WHERE movie_id = ?
+        """, tickets, revenue, movieId) > 0;
+    }
+
+    /**
+     * Adds sold tickets to the sales totals of a day, movie, cinema room and ticket type.
+     * @param saleDate the day of the sale
+     * @param movieId the ID of the movie
+     * @param cinemaRoomId the ID of the cinema room
+     * @param ticketType the type of the tickets
+     * @param tickets the number of sold tickets
+     * @param revenue the revenue of the sold tickets
+     * @return true if the totals were updated, false if there is no rollup row for the key yet
+     */
+    public boolean addDailySales(LocalDate saleDate, Long movieId, Long cinemaRoomId, TicketType ticketType, long tickets, double revenue) {
+        return jdbcTemplate.update("""
+            UPDATE daily_sales_rollup
+            SET tickets_sold = tickets_sold + ?, total_revenue = total_revenue + ?
+            WHERE sale_date = ? AND movie_id = ? AND cinema_room_id = ? AND ticket_type = ?
+        """, tickets, revenue, saleDate, movieId, cinemaRoomId, ticketType.name()) > 0;
+    }
+
+    /**
+     * Creates an empty rollup row for a movie if there is none.
+     * A row created concurrently by another payment is skipped rather than failing the statement,
+     * so the insert can run in the payment transaction.
+     * @param movieId the ID of the movie
+     */
+    public void insertMovieSalesRow(Long movieId) {
+        jdbcTemplate.update("""
+            INSERT INTO movie_sales_rollup (movie_id, tickets_sold, total_revenue)
+            VALUES (?, 0, 0)
+            ON CONFLICT DO NOTHING
+        """, movieId);
+    }
+
+    /**
+     * Creates an empty rollup row for a day, movie, cinema room and ticket type if there is none.
+     * A row created concurrently by another payment is skipped rather than failing the statement.
+     * @param saleDate the day of the sale
+     * @param movieId the ID of the movie
+     * @param cinemaRoomId the ID of the cinema room
+     * @param ticketType the type of the tickets
+     */
+    public void insertDailySalesRow(LocalDate saleDate, Long movieId, Long cinemaRoomId, TicketType ticketType) {
+        jdbcTemplate.update("""
+            INSERT INTO daily_sales_rollup (sale_date, movie_id, cinema_room_id, ticket_type, tickets_sold, total_revenue)
+            VALUES (?, ?, ?, ?, 0, 0)
+            ON CONFLICT DO NOTHING
+        """, saleDate, movieId, cinemaRoomId, ticketType.name());
+    }
+
+    /**
+     * Fetches the capacity, sold and held seats of every seance matching the filter, in one grouped query.
+     * Dates restrict the start of the seances; a ticket type restricts the counted tickets.
+     * @param filter the filters of the report
+     * @return occupancy of each seance, ordered by start time
+     */
+    public List<SeanceOccupancyDto> fetchSeanceOccupancy(ReportFilterDto filter) {
+        List<Object> args = new ArrayList<>();
+        args.add(LocalDateTime.now());
+        String ticketJoin = "";
+        if (filter.getTicketType() != null) {
+            ticketJoin = " AND t.ticket_type = ?";
+            args.add(filter.getTicketType().name());
+        }
+
+        List<String> predicates = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            predicates.add("s.start_time >= ?");
+            args.add(filter.getFrom().atStartOfDay());
+        }
+        if (filter.getTo() != null) {
+            predicates.add("s.start_time < ?");
+            args.add(filter.getTo().plusDays(1).atStartOfDay());
+        }
+        if (filter.getMovieIds() != null && !filter.getMovieIds().isEmpty()) {
+            predicates.add("s.movie_id IN (" + placeholders(filter.getMovieIds().size()) + ")");
+            args.addAll(filter.getMovieIds());
+        }
+        if (filter.getRoomIds() != null && !filter.getRoomIds().isEmpty()) {
+            predicates.add("s.cinema_room_id IN (" + placeholders(filter.getRoomIds().size()) + ")");
+            args.addAll(filter.getRoomIds());
+        }
+        String where = predicates.isEmpty() ? "" : "WHERE " + String.join(" AND ", predicates);
+
+        return jdbcTemplate.query(SEANCE_OCCUPANCY_SQL.formatted(ticketJoin, where), new SeanceOccupancyRowMapper(), args.toArray());
+    }
+
+    /**
+     * Fetches the capacity, sold and held seats of the given seances.
+     * Seances that no longer exist are left out of the result.
+     * @param seanceIds the IDs of the seances
+     * @return occupancy of each existing seance
+     */
+    public List<SeanceOccupancyDto> fetchSeanceOccupancy(Collection<Long> seanceIds) {
+        List<Long> ids = List.copyOf(seanceIds);
+        List<SeanceOccupancyDto> result = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(start, Math.min(start + MAX_IDS_PER_QUERY, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(LocalDateTime.now());
+            args.addAll(chunk);
+            String where = "WHERE s.id IN (" + placeholders(chunk.size()) + ")";
+            result.addAll(jdbcTemplate.query(SEANCE_OCCUPANCY_SQL.formatted("", where), new SeanceOccupancyRowMapper(), args.toArray()));
+        }
+        return result;
+    }
+
+    /**
+     * Fetches a fingerprint of the sales data the reports are built from.
+     * It changes whenever a sale is recorded or the rollups are rebuilt with different totals.
+     * @return the version of the sales data
+     */
+    public String fetchSalesVersion() {
+        return jdbcTemplate.queryForObject("""
+            SELECT COUNT(*), COALESCE(SUM(tickets_sold), 0), COALESCE(SUM(total_revenue), 0)
+            FROM daily_sales_rollup
+            """, (rs, rowNum) -> rs.getLong(1) + ":" + rs.getLong(2) + ":" + rs.getDouble(3));
+    }
+
+    /**
+     * Fetches the revenue of the tickets sold on a day, dated like in the daily sales report.
+     * @param saleDate the day of the sales
+     * @return the total revenue of the day
+     */
+    public double fetchRevenue(LocalDate saleDate) {
+        Double revenue = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total_revenue), 0) FROM daily_sales_rollup WHERE sale_date = ?", Double.class, saleDate);
+        return revenue == null ? 0.0 : revenue;
+    }
+
+    /**
+     * Checks if the rollups are empty while there are paid tickets, meaning they were never built.
+     * @return true if the rollups need to be built
+     */
+    public boolean isRollupMissing() {
+        boolean empty = jdbcTemplate.queryForList("SELECT movie_id FROM movie_sales_rollup LIMIT 1", Long.class).isEmpty();
+        return empty && !jdbcTemplate.queryForList("SELECT id FROM reservation WHERE status = 'PAID' LIMIT 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Rebuilds both sales rollups from all paid tickets.
+     */
+    public void rebuildRollups() {
+        log.info("Rebuilding sales rollups");
+
+        jdbcTemplate.update("DELETE FROM movie_sales_rollup");
+        int movies = jdbcTemplate.update("""
+            INSERT INTO movie_sales_rollup (movie_id, tickets_sold, total_revenue)
+            SELECT s.movie_id, COUNT(t.id), SUM(t.price)
+            FROM ticket t
+            JOIN reservation r ON t.reservation_id = r.id
+            JOIN seance s ON t.seance_id = s.id
+            WHERE r.status = 'PAID'
+            GROUP BY s.movie_id
+        """);
+
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup");
+        int days = jdbcTemplate.update("""
+            INSERT INTO daily_sales_rollup (sale_date, movie_id, cinema_room_id, ticket_type, tickets_sold, total_revenue)
+            SELECT CAST(r.created_at AS DATE), s.movie_id, s.cinema_room_id, t.ticket_type, COUNT(t.id), SUM(t.price)
+            FROM ticket t
+            JOIN reservation r ON t.reservation_id = r.id
+            JOIN seance s ON t.seance_id = s.id
+            WHERE r.status = 'PAID'
+            GROUP BY CAST(r.created_at AS DATE), s.movie_id, s.cinema_room_id, t.ticket_type
+        """);
+
+        log.info("Sales rollups rebuilt with {} movie rows and {} daily rows", movies, days);
+    }
+
+    /**
+     * Builds the sales report query.
+     * Without filters the movie rollup answers it directly, including movies without sales.
+     */
+    private static Query salesReportQuery(ReportFilterDto filter) {
+        if (filter.isEmpty()) {
+            return new Query(SALES_REPORT_SQL, new Object[0]);
+        }
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+        return new Query(FILTERED_SALES_REPORT_SQL.formatted(where), args.toArray());
+    }
+
+    private static Query dailySalesQuery(ReportFilterDto filter) {
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+        return new Query(DAILY_SALES_SQL.formatted(where), args.toArray());
+    }
+
+    /**
+     * Builds the WHERE clause of a daily sales rollup query aliased as ds, adding the bound values to args.
+     * Only placeholders are added to the SQL, never the filter values themselves.
+     */
+    private static String where(ReportFilterDto filter, List<Object> args) {
+        List<String> predicates = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            predicates.add("ds.sale_date >= ?");
+            args.add(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            predicates.add("ds.sale_date <= ?");
+            args.add(filter.getTo());
+        }
+        if (filter.getMovieIds() != null && !filter.getMovieIds().isEmpty()) {
+            predicates.add("ds.movie_id IN (" + placeholders(filter.getMovieIds().size()) + ")");
+            args.addAll(filter.getMovieIds());
+        }
+        if (filter.getRoomIds() != null && !filter.getRoomIds().isEmpty()) {
+            predicates.add("ds.cinema_room_id IN (" + placeholders(filter.getRoomIds().size()) + ")");
+            args.addAll(filter.getRoomIds());
+        }
+        if (filter.getTicketType() != null) {
+            predicates.add("ds.ticket_type = ?");
+            args.add(filter.getTicketType().name());
+        }
+        return predicates.isEmpty() ? "" : "WHERE " + String.join(" AND ", predicates);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Creates a forward-only statement fetching rows in bounded batches.
+     * PostgreSQL only honours the fetch size inside a transaction, so callers stream within one.
+     */
+    private PreparedStatementCreator streaming(Query query) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(query.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(query.args()).setValues(ps);
+            return ps;
+        };
+    }
+
+    /**
+     * SQL of a report query with its bound values
+     */
+    private record Query(String sql, Object[] args) {
+    }
+
+    /**
+     * Handler of streamed sales report rows
+     */
+    @FunctionalInterface
+    public interface SalesReportRowHandler {
+        void handle(String movieTitle, long ticketsSold, double totalRevenue);
+    }
+
+    /**
+     * Handler of streamed daily sales rows
+     */
+    @FunctionalInterface
+    public interface DailySalesRowHandler {
+        void handle(LocalDate date, long ticketsSold, double totalRevenue);
+    }
+
+    /**
+     * Handler of streamed paid tickets
+     */
+    @FunctionalInterface
+    public interface PaidTicketRowHandler {
+        void handle(long reservationId, LocalDateTime soldAt, long movieId, long cinemaRoomId, TicketType ticketType, double price);
+    }
+
+    /**
+     * Internal RowMapper for SeanceOccupancyDto
+     */
+    private static class SeanceOccupancyRowMapper implements RowMapper<SeanceOccupancyDto> {
+
+        @Override
+        public SeanceOccupancyDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+            int capacity = rs.getInt("capacity");
+            long sold = rs.getLong("sold");
+            return new SeanceOccupancyDto(
+                    rs.getLong("seance_id"),
+                    rs.getLong("movie_id"),
+                    rs.getLong("cinema_room_id"),
+                    rs.getTimestamp("start_time").toLocalDateTime(),
+                    capacity,
+                    sold,
+                    rs.getLong("held"),
+                    capacity == 0 ? 0.0 : (double) sold / capacity
+            );
+        }
     }
 
     /**
@@ -0,0 +1,39 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO with the headline figures shown on the admin dashboard.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardStatsDto {
+
+    /**
+     * Number of movies in the catalog.
+     */
+    private long moviesCount;
+
+    /**
+     * Number of registered users.
+     */
+    private long usersCount;
+
+    /**
+     * Number of reservations ever made.
+     */
+    private long reservationsCount;
+
+    /**
+     * Number of seats currently held by pending reservations.
+     */
+    private long heldSeats;
+
+    /**
+     * Revenue of the tickets sold today.
+     */
+    private double revenueToday;
+}
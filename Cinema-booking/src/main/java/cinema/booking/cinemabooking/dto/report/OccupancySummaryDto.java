@@ -0,0 +1,74 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+
+/**
+ * DTO summarizing the fill rates of the seances of a cinema room on a day of the week.
+ * The start hour is only set when the summary is split by time slot.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OccupancySummaryDto {
+
+    /**
+     * ID of the cinema room.
+     */
+    @Schema(description = "ID of the cinema room", example = "1")
+    private Long cinemaRoomId;
+
+    /**
+     * Day of the week the seances start on.
+     */
+    @Schema(description = "Day of the week the seances start on", example = "FRIDAY")
+    private DayOfWeek dayOfWeek;
+
+    /**
+     * Hour the seances start at, when split by time slot.
+     */
+    @Schema(description = "Hour the seances start at", example = "18")
+    private Integer startHour;
+
+    /**
+     * Number of seances in the group.
+     */
+    @Schema(description = "Number of seances in the group", example = "12")
+    private int seances;
+
+    /**
+     * Average fill rate of the seances.
+     */
+    @Schema(description = "Average fill rate of the seances", example = "0.62")
+    private double averageFillRate;
+
+    /**
+     * Lowest fill rate of the seances.
+     */
+    @Schema(description = "Lowest fill rate of the seances", example = "0.1")
+    private double minFillRate;
+
+    /**
+     * Median fill rate of the seances.
+     */
+    @Schema(description = "Median fill rate of the seances", example = "0.6")
+    private double medianFillRate;
+
+    /**
+     * 90th percentile of the fill rates of the seances.
+     */
+    @Schema(description = "90th percentile of the fill rates of the seances", example = "0.95")
+    private double p90FillRate;
+
+    /**
+     * Highest fill rate of the seances.
+     */
+    @Schema(description = "Highest fill rate of the seances", example = "1.0")
+    private double maxFillRate;
+}
@@ -0,0 +1,82 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import cinema.booking.cinemabooking.enums.TicketType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO representing the optional filters of a sales report.
+ * Fields left empty do not restrict the report.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportFilterDto {
+
+    /**
+     * First day of sales to include.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "First day of sales to include", example = "2025-01-01")
+    private LocalDate from;
+
+    /**
+     * Last day of sales to include.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "Last day of sales to include", example = "2025-01-07")
+    private LocalDate to;
+
+    /**
+     * IDs of the movies to include.
+     */
+    @Schema(description = "IDs of the movies to include", example = "[1, 2]")
+    private List<Long> movieIds;
+
+    /**
+     * IDs of the cinema rooms to include.
+     */
+    @Schema(description = "IDs of the cinema rooms to include", example = "[1]")
+    private List<Long> roomIds;
+
+    /**
+     * Type of the tickets to include.
+     */
+    @Schema(description = "Type of the tickets to include", example = "REGULAR")
+    private TicketType ticketType;
+
+    /**
+     * Creates a filter that does not restrict the report.
+     * @return empty filter
+     */
+    public static ReportFilterDto none() {
+        return new ReportFilterDto();
+    }
+
+    /**
+     * Checks if the filter restricts the report at all.
+     * @return true if no field is set
+     */
+    @Schema(hidden = true)
+    public boolean isEmpty() {
+        return from == null && to == null && (movieIds == null || movieIds.isEmpty())
+                && (roomIds == null || roomIds.isEmpty()) && ticketType == null;
+    }
+
+    /**
+     * Validates that the date range is not reversed.
+     * @return true if the range is open or from is not after to
+     */
+    @Schema(hidden = true)
+    @AssertTrue(message = "From date must not be after to date")
+    public boolean isDateRangeValid() {
+        return from == null || to == null || !from.isAfter(to);
+    }
+}
@@ -0,0 +1,63 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import cinema.booking.cinemabooking.enums.ReportJobStatus;
+import cinema.booking.cinemabooking.enums.ReportType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing the state of a report job.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJobDto {
+
+    /**
+     * ID of the job.
+     */
+    @Schema(description = "ID of the job", example = "6f1c2b9e-8d1a-4f43-9a57-0f3c1e2d4b5a")
+    private String id;
+
+    /**
+     * Type of the generated report.
+     */
+    @Schema(description = "Type of the generated report", example = "DAILY_SALES")
+    private ReportType type;
+
+    /**
+     * Current status of the job.
+     */
+    @Schema(description = "Current status of the job", example = "RUNNING")
+    private ReportJobStatus status;
+
+    /**
+     * Whether the result was served from the report cache.
+     */
+    @Schema(description = "Whether the result was served from the report cache", example = "false")
+    private boolean cached;
+
+    /**
+     * When the job was submitted.
+     */
+    @Schema(description = "When the job was submitted", example = "2025-01-15T10:00:00")
+    private LocalDateTime submittedAt;
+
+    /**
+     * When the job finished, once it is done or failed.
+     */
+    @Schema(description = "When the job finished", example = "2025-01-15T10:00:05")
+    private LocalDateTime finishedAt;
+
+    /**
+     * Reason of the failure, when the job failed.
+     */
+    @Schema(description = "Reason of the failure", example = "Report generation failed")
+    private String error;
+}
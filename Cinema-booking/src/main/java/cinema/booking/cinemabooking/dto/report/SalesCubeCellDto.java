@@ -0,0 +1,63 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import cinema.booking.cinemabooking.enums.TicketType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO representing one group of a sales cube query.
+ * Only the dimensions the query grouped by are set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesCubeCellDto {
+
+    /**
+     * Day of the sales, when grouped by day.
+     */
+    @Schema(description = "Day of the sales", example = "2025-01-15")
+    private LocalDate date;
+
+    /**
+     * Hour of the day of the sales, when grouped by hour.
+     */
+    @Schema(description = "Hour of the day of the sales", example = "18")
+    private Integer hour;
+
+    /**
+     * ID of the movie, when grouped by movie.
+     */
+    @Schema(description = "ID of the movie", example = "1")
+    private Long movieId;
+
+    /**
+     * ID of the cinema room, when grouped by room.
+     */
+    @Schema(description = "ID of the cinema room", example = "1")
+    private Long cinemaRoomId;
+
+    /**
+     * Type of the tickets, when grouped by ticket type.
+     */
+    @Schema(description = "Type of the tickets", example = "REGULAR")
+    private TicketType ticketType;
+
+    /**
+     * The number of tickets sold in the group.
+     */
+    @Schema(description = "The number of tickets sold in the group", example = "42")
+    private Long ticketsSold;
+
+    /**
+     * The revenue of the tickets sold in the group.
+     */
+    @Schema(description = "The revenue of the tickets sold in the group", example = "630.00")
+    private Double totalRevenue;
+}
@@ -0,0 +1,60 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO with the sales and reservation activity of a rolling time window, globally or for a single seance.
+ * The seance ID is only set for the activity of a single seance.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesRateDto {
+
+    /**
+     * ID of the seance, when the activity is of a single seance.
+     */
+    @Schema(description = "ID of the seance", example = "1")
+    private Long seanceId;
+
+    /**
+     * Length of the window in minutes, including the current minute.
+     */
+    @Schema(description = "Length of the window in minutes", example = "60")
+    private int minutes;
+
+    /**
+     * Number of tickets paid in the window.
+     */
+    @Schema(description = "Number of tickets paid in the window", example = "42")
+    private long ticketsSold;
+
+    /**
+     * Revenue of the tickets paid in the window.
+     */
+    @Schema(description = "Revenue of the tickets paid in the window", example = "630.00")
+    private double revenue;
+
+    /**
+     * Number of reservations created in the window.
+     */
+    @Schema(description = "Number of reservations created in the window", example = "30")
+    private long reservationsCreated;
+
+    /**
+     * Number of reservations cancelled by users in the window.
+     */
+    @Schema(description = "Number of reservations cancelled in the window", example = "2")
+    private long reservationsCancelled;
+
+    /**
+     * Number of reservations that expired unpaid in the window.
+     */
+    @Schema(description = "Number of reservations that expired in the window", example = "5")
+    private long reservationsExpired;
+}
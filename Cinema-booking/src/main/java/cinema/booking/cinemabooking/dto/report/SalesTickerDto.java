@@ -0,0 +1,45 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO with a snapshot of the live sales telemetry pushed to the admin dashboard.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesTickerDto {
+
+    /**
+     * Time the snapshot was taken.
+     */
+    @Schema(description = "Time the snapshot was taken", example = "2024-05-01T18:30:05")
+    private LocalDateTime timestamp;
+
+    /**
+     * Activity of the current minute.
+     */
+    private SalesRateDto lastMinute;
+
+    /**
+     * Activity of the last hour.
+     */
+    private SalesRateDto lastHour;
+
+    /**
+     * Tickets paid in each minute of the last hour, oldest first.
+     */
+    @Schema(description = "Tickets paid in each minute of the last hour, oldest first")
+    private List<Long> ticketsPerMinute;
+
+    /**
+     * Seances with the most tickets paid in the last hour, best selling first.
+     */
+    private List<SalesRateDto> topSeances;
+}
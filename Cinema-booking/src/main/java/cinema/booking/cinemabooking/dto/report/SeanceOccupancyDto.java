@@ -0,0 +1,65 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing how full a seance is.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeanceOccupancyDto {
+
+    /**
+     * ID of the seance.
+     */
+    @Schema(description = "ID of the seance", example = "1")
+    private Long seanceId;
+
+    /**
+     * ID of the movie shown.
+     */
+    @Schema(description = "ID of the movie shown", example = "1")
+    private Long movieId;
+
+    /**
+     * ID of the cinema room of the seance.
+     */
+    @Schema(description = "ID of the cinema room of the seance", example = "1")
+    private Long cinemaRoomId;
+
+    /**
+     * Start time of the seance.
+     */
+    @Schema(description = "Start time of the seance", example = "2025-01-15T18:00:00")
+    private LocalDateTime startTime;
+
+    /**
+     * Number of seats in the cinema room.
+     */
+    @Schema(description = "Number of seats in the cinema room", example = "120")
+    private int capacity;
+
+    /**
+     * Number of paid tickets.
+     */
+    @Schema(description = "Number of paid tickets", example = "84")
+    private long sold;
+
+    /**
+     * Number of seats held by pending reservations.
+     */
+    @Schema(description = "Number of seats held by pending reservations", example = "6")
+    private long held;
+
+    /**
+     * Share of the seats that are sold, from 0 to 1.
+     */
+    @Schema(description = "Share of the seats that are sold, from 0 to 1", example = "0.7")
+    private double fillRate;
+}
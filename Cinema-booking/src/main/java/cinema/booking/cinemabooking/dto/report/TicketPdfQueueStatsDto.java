@@ -0,0 +1,54 @@
+package cinema.booking.cinemabooking.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO with the state of the background pre-generation of ticket PDFs.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketPdfQueueStatsDto {
+
+    /**
+     * Number of paid reservations waiting for a worker.
+     */
+    private int queued;
+
+    /**
+     * Number of reservations that may wait before new ones are skipped.
+     */
+    private int queueCapacity;
+
+    /**
+     * Number of PDFs being generated right now.
+     */
+    private int running;
+
+    /**
+     * Number of workers generating PDFs.
+     */
+    private int workers;
+
+    /**
+     * Number of PDFs generated ahead of the first download since startup.
+     */
+    private long completed;
+
+    /**
+     * Number of reservations no longer paid or deleted by the time a worker took them, for which nothing was generated.
+     */
+    private long skipped;
+
+    /**
+     * Number of reservations skipped because the queue was full, rendered on their first download instead.
+     */
+    private long rejected;
+
+    /**
+     * Number of generations that failed.
+     */
+    private long failed;
+}
@@ -0,0 +1,33 @@
+package cinema.booking.cinemabooking.dto.request;
+
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.enums.ReportType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for submitting a report job.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobRequestDto {
+
+    /**
+     * The type of the report to generate.
+     */
+    @NotNull(message = "Report type is required")
+    @Schema(description = "The type of the report to generate", example = "DAILY_SALES")
+    private ReportType type;
+
+    /**
+     * The filters of the report, or null for the whole sales history.
+     */
+    @Valid
+    @Schema(description = "The filters of the report")
+    private ReportFilterDto filter;
+}
@@ -0,0 +1,28 @@
+package cinema.booking.cinemabooking.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a change of seat states for a seance, pushed to seat map subscribers.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatMapDeltaDto {
+
+    @Schema(description = "Unique identifier of the seance", example = "1")
+    private Long seanceId;
+
+    @Schema(description = "IDs of seats that became occupied", example = "[12, 13]")
+    private List<Long> occupiedSeatIds;
+
+    @Schema(description = "IDs of seats that became free", example = "[7]")
+    private List<Long> freedSeatIds;
+}
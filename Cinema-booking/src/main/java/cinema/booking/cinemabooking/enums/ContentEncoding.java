@@ -0,0 +1,105 @@
+package cinema.booking.cinemabooking.enums;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP content codings that downloads can be compressed with.
+ */
+public enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Get the value of the coding in the Content-Encoding header.
+     * @return the coding token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Wrap a stream so that everything written to it is compressed with this coding.
+     * The returned stream must be closed to write the end of the compressed data.
+     * @param out the stream receiving the encoded bytes
+     * @return the stream to write the plain bytes to
+     * @throws IOException if the compressed stream cannot be started
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out);
+            case IDENTITY -> out;
+        };
+    }
+
+    /**
+     * Pick the coding the client prefers out of the supported ones, based on its Accept-Encoding header.
+     * Codings with equal preference are picked in declaration order, and identity is the fallback.
+     * @param acceptEncoding the Accept-Encoding header, or null if the client sent none
+     * @param supported the codings the response can be sent with
+     * @return the coding to send the response with
+     */
+    public static ContentEncoding negotiate(String acceptEncoding, Set<ContentEncoding> supported) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+
+        ContentEncoding best = IDENTITY;
+        double bestQuality = 0;
+        for (ContentEncoding encoding : values()) {
+            if (encoding == IDENTITY || !supported.contains(encoding)) {
+                continue;
+            }
+            double quality = quality(acceptEncoding, encoding);
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the quality the client gave a coding, falling back to the wildcard, or 0 if it is not acceptable.
+     */
+    private static double quality(String acceptEncoding, ContentEncoding encoding) {
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (coding.equals(encoding.token) || (encoding == GZIP && coding.equals("x-gzip"))) {
+                return quality;
+            }
+            if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+}
@@ -0,0 +1,7 @@
+package cinema.booking.cinemabooking.enums;
+
+public enum MovieEventType {
+    ADDED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,11 @@
+package cinema.booking.cinemabooking.enums;
+
+/**
+ * Statuses of a report job.
+ */
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
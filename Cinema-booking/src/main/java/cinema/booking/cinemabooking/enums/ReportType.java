@@ -0,0 +1,9 @@
+package cinema.booking.cinemabooking.enums;
+
+/**
+ * Types of reports that can be generated as report jobs.
+ */
+public enum ReportType {
+    DAILY_SALES,
+    MOVIE_SALES
+}
@@ -0,0 +1,10 @@
+package cinema.booking.cinemabooking.enums;
+
+public enum ReservationEventType {
+    CREATED,
+    TICKET_ADDED,
+    TICKET_REMOVED,
+    PAID,
+    CANCELLED,
+    EXPIRED
+}
@@ -0,0 +1,12 @@
+package cinema.booking.cinemabooking.enums;
+
+/**
+ * Dimensions the sales cube can group paid tickets by.
+ */
+public enum SalesDimension {
+    DAY,
+    HOUR,
+    MOVIE,
+    ROOM,
+    TICKET_TYPE
+}
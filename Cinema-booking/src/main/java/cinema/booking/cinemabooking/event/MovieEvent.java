@@ -0,0 +1,25 @@
+package cinema.booking.cinemabooking.event;
+
+import cinema.booking.cinemabooking.enums.MovieEventType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Domain event published by the movie service whenever a movie is added to, updated in or deleted from the catalog.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MovieEvent {
+
+    /**
+     * Kind of change that happened to the movie.
+     */
+    private final MovieEventType type;
+
+    /**
+     * ID of the affected movie.
+     */
+    private final Long movieId;
+}
@@ -0,0 +1,51 @@
+package cinema.booking.cinemabooking.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Domain event published whenever a change to seances or movies affects the repertoire.
+ * Only the fields describing the change are set, the others are null.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RepertoireChangedEvent {
+
+    /**
+     * Date of the repertoire that changed.
+     */
+    private final LocalDate date;
+
+    /**
+     * ID of the changed movie.
+     */
+    private final Long movieId;
+
+    /**
+     * ID of the changed seance.
+     */
+    private final Long seanceId;
+
+    /**
+     * Create an event for a created or deleted seance.
+     * @param seanceId the ID of the seance
+     * @param date the date of the seance, or null if unknown
+     * @return the event
+     */
+    public static RepertoireChangedEvent forSeance(Long seanceId, LocalDate date) {
+        return new RepertoireChangedEvent(date, null, seanceId);
+    }
+
+    /**
+     * Create an event for an updated or deleted movie.
+     * @param movieId the ID of the movie
+     * @return the event
+     */
+    public static RepertoireChangedEvent forMovie(Long movieId) {
+        return new RepertoireChangedEvent(null, movieId, null);
+    }
+}
@@ -0,0 +1,61 @@
+package cinema.booking.cinemabooking.event;
+
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Domain event published by the reservation service whenever the seats held by a reservation change.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ReservationEvent {
+
+    /**
+     * Kind of change that happened to the reservation.
+     */
+    private final ReservationEventType type;
+
+    /**
+     * ID of the affected reservation.
+     */
+    private final Long reservationId;
+
+    /**
+     * ID of the seance the seats belong to.
+     */
+    private final Long seanceId;
+
+    /**
+     * IDs of the seats affected by the change.
+     */
+    private final List<Long> seatIds;
+
+    /**
+     * Expiration time of the hold, only relevant for pending reservations.
+     */
+    private final LocalDateTime expiresAt;
+
+    /**
+     * Check if the event marks seats as taken.
+     * @return true for newly held seats
+     */
+    public boolean isHold() {
+        return type == ReservationEventType.CREATED || type == ReservationEventType.TICKET_ADDED;
+    }
+
+    /**
+     * Check if the event frees seats.
+     * @return true for removed, cancelled or expired seats
+     */
+    public boolean isRelease() {
+        return type == ReservationEventType.TICKET_REMOVED
+                || type == ReservationEventType.CANCELLED
+                || type == ReservationEventType.EXPIRED;
+    }
+}
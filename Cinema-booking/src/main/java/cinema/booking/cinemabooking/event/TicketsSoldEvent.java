@@ -0,0 +1,66 @@
+package cinema.booking.cinemabooking.event;
+
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.Reservation;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Domain event published by the reservation service when a reservation is paid, carrying what was sold.
+ * Listeners tracking sales in memory read it instead of loading the reservation again.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class TicketsSoldEvent {
+
+    /**
+     * ID of the paid reservation.
+     */
+    private final Long reservationId;
+
+    /**
+     * Time of the sale, the creation time of the reservation like in the sales reports.
+     */
+    private final LocalDateTime soldAt;
+
+    /**
+     * Tickets of the reservation.
+     */
+    private final List<SoldTicket> tickets;
+
+    /**
+     * Create the event for a paid reservation.
+     * @param reservation the paid reservation with its tickets, seances, movies and rooms loaded
+     * @return the event
+     */
+    public static TicketsSoldEvent of(Reservation reservation) {
+        List<SoldTicket> tickets = reservation.getTickets().stream()
+                .map(ticket -> new SoldTicket(
+                        ticket.getSeance().getId(),
+                        ticket.getSeance().getMovie().getId(),
+                        ticket.getSeance().getCinemaRoom().getId(),
+                        ticket.getTicketType(),
+                        ticket.getPrice()))
+                .toList();
+        return new TicketsSoldEvent(reservation.getId(), reservation.getCreatedAt(), tickets);
+    }
+
+    /**
+     * Total price of the sold tickets.
+     * @return the revenue of the sale
+     */
+    public double getRevenue() {
+        return tickets.stream().mapToDouble(SoldTicket::price).sum();
+    }
+
+    /**
+     * A single sold ticket.
+     */
+    public record SoldTicket(Long seanceId, Long movieId, Long cinemaRoomId, TicketType ticketType, double price) {
+    }
+}
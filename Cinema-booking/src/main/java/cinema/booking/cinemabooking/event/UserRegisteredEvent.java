@@ -0,0 +1,24 @@
+package cinema.booking.cinemabooking.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Domain event published by the user service when a new account is registered.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class UserRegisteredEvent {
+
+    /**
+     * ID of the registered user.
+     */
+    private final Long userId;
+
+    /**
+     * Username of the registered user.
+     */
+    private final String username;
+}
@@ -0,0 +1,14 @@
+package cinema.booking.cinemabooking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a report is requested with an unsupported combination of parameters.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidReportQueryException extends RuntimeException {
+    public InvalidReportQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package cinema.booking.cinemabooking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a report job cannot be accepted because the admin or the queue is at its limit.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyReportJobsException extends RuntimeException {
+    public TooManyReportJobsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,72 @@
+package cinema.booking.cinemabooking.model;
+
+import cinema.booking.cinemabooking.enums.TicketType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Entity holding the running sales totals of a day, broken down by movie, cinema room and ticket type.
+ * Rows are incremented in the payment transaction and can be rebuilt from the tickets at any time.
+ * The unique key leads with the sale date, so date range reports scan a single index range,
+ * and the movie and room indexes serve reports filtered by those without a date range.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_sales_rollup_key", columnNames = {"sale_date", "movie_id", "cinema_room_id", "ticket_type"})
+}, indexes = {
+        @Index(name = "idx_daily_sales_rollup_movie", columnList = "movie_id, sale_date"),
+        @Index(name = "idx_daily_sales_rollup_room", columnList = "cinema_room_id, sale_date")
+})
+public class DailySalesRollup {
+
+    /**
+     * Unique identifier for the rollup row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Day of the sale, the creation date of the reservation.
+     */
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    /**
+     * ID of the movie of the sold seances.
+     */
+    @Column(nullable = false)
+    private Long movieId;
+
+    /**
+     * ID of the cinema room of the sold seances.
+     */
+    @Column(nullable = false)
+    private Long cinemaRoomId;
+
+    /**
+     * Type of the sold tickets.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TicketType ticketType;
+
+    /**
+     * Number of paid tickets.
+     */
+    @Column(nullable = false)
+    private long ticketsSold;
+
+    /**
+     * Revenue of the paid tickets.
+     */
+    @Column(nullable = false)
+    private double totalRevenue;
+}
@@ -0,0 +1,37 @@
+package cinema.booking.cinemabooking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Entity holding the running sales totals of a movie.
+ * Rows are incremented in the payment transaction and can be rebuilt from the tickets at any time.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+public class MovieSalesRollup {
+
+    /**
+     * ID of the movie the totals belong to.
+     */
+    @Id
+    private Long movieId;
+
+    /**
+     * Number of paid tickets of the movie.
+     */
+    @Column(nullable = false)
+    private long ticketsSold;
+
+    /**
+     * Revenue of the paid tickets of the movie.
+     */
+    @Column(nullable = false)
+    private double totalRevenue;
+}
@@ -15,17 +15,22 @@ import java.time.LocalDateTime;
 
 /**
  * Entity representing a cinema reservation.
+ * The status and expiry index lets the expiry job find pending reservations past their hold time without scanning the table.
  */
 @Entity
 @Getter
 @Setter
 @ToString
+@Table(indexes = {
+        @Index(name = "idx_reservation_status_expires_at", columnList = "status, expires_at")
+})
 public class Reservation {
     /**
      * Unique identifier for the reservation.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -0,0 +1,61 @@
+package cinema.booking.cinemabooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a claim on a seat for a specific seance.
+ * The unique constraint on (seance, seat) makes a booking an insert that either succeeds or fails,
+ * so competing buyers only contend when they want the same seat of the same seance.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_seat_hold_seance_seat", columnNames = {"seance_id", "seat_id"})
+})
+public class SeatHold {
+
+    /**
+     * Unique identifier for the seat hold.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_hold_seq")
+    @SequenceGenerator(name = "seat_hold_seq", sequenceName = "seat_hold_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Seance for which the seat is held.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seance_id", nullable = false)
+    @ToString.Exclude // Exclude seance from toString to prevent circular dependencies
+    private Seance seance;
+
+    /**
+     * Seat that is held.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seat_id", nullable = false)
+    @ToString.Exclude // Exclude seat from toString to prevent circular dependencies
+    private Seat seat;
+
+    /**
+     * Reservation holding the seat.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reservation_id", nullable = false)
+    @ToString.Exclude // Exclude reservation from toString to prevent circular dependencies
+    private Reservation reservation;
+
+    /**
+     * Timestamp when the hold expires.
+     * Null once the reservation is paid.
+     */
+    private LocalDateTime expiresAt;
+}
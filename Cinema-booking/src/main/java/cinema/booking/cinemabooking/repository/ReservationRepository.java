@@ -1,14 +1,21 @@
 package cinema.booking.cinemabooking.repository;
 import cinema.booking.cinemabooking.enums.ReservationStatus;
 import cinema.booking.cinemabooking.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import cinema.booking.cinemabooking.model.Reservation;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Reservation entity
@@ -34,12 +41,83 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     Page<Reservation> findAllByUserAndStatus(User user, ReservationStatus status, Pageable pageable);
 
     /**
-     * Find all reservations with a specific status that have expired before the given time
-     * Used in scheduler that cleans up expired reservations
+     * Find a reservation with its tickets and everything printed on them, in one query
+     * Used to render the PDF tickets outside a transaction
+     * @param id the ID of the reservation
+     * @return the reservation with its tickets, seats, seances, movies and cinema rooms loaded
+     */
+    @EntityGraph(attributePaths = {"tickets", "tickets.seat", "tickets.seance", "tickets.seance.movie", "tickets.seance.cinemaRoom"})
+    Optional<Reservation> findWithTicketsById(Long id);
+
+    /**
+     * Find IDs of reservations with a specific status that have expired before the given time, oldest first
+     * Used in scheduler that expires reservations in chunks without loading entities
      * @param status the status of the reservations to filter by
      * @param now the cutoff time for expiration
-     * @return a list of reservations with the specified status that have expired before the given time
+     * @param limit the maximum number of IDs to return
+     * @return a list of reservation IDs
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<Long> findIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Find which of the given reservations have a specific status
+     * @param ids the IDs of the reservations
+     * @param status the status to filter by
+     * @return a list of reservation IDs with the specified status
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status);
+
+    /**
+     * Find IDs and expiry times of all reservations with a specific status
+     * Used to rebuild the in-memory expiry schedule on startup
+     * @param status the status of the reservations to filter by
+     * @return a list of reservation expiries
+     */
+    @Query("SELECT r.id AS id, r.expiresAt AS expiresAt FROM Reservation r WHERE r.status = :status")
+    List<ReservationExpiry> findExpiriesByStatus(@Param("status") ReservationStatus status);
+
+    /**
+     * Find the codes of the reservations in a given status with tickets for seances of a movie
+     * @param movieId the ID of the movie
+     * @param status the status of the reservations
+     * @return the reservation codes
+     */
+    @Query("SELECT DISTINCT r.reservationCode FROM Reservation r JOIN r.tickets t WHERE t.seance.movie.id = :movieId AND r.status = :status")
+    List<String> findReservationCodesByMovieIdAndStatus(@Param("movieId") Long movieId, @Param("status") ReservationStatus status);
+
+    /**
+     * Change the status of a reservation only if it still has the expected status.
+     * The check and the update are a single statement, so a concurrent status change makes it update nothing.
+     * @param id the ID of the reservation
+     * @param currentStatus the status the reservation must still have
+     * @param newStatus the status to set
+     * @return the number of updated reservations, 0 if the status changed in the meantime
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :newStatus WHERE r.id = :id AND r.status = :currentStatus")
+    int updateStatusById(@Param("id") Long id, @Param("currentStatus") ReservationStatus currentStatus,
+                         @Param("newStatus") ReservationStatus newStatus);
+
+    /**
+     * Change the status of multiple reservations in one statement, skipping those no longer in the expected status
+     * @param ids the IDs of the reservations
+     * @param currentStatus the status the reservations must still have
+     * @param newStatus the status to set
+     * @return the number of updated reservations
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :newStatus WHERE r.id IN :ids AND r.status = :currentStatus")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("currentStatus") ReservationStatus currentStatus,
+                           @Param("newStatus") ReservationStatus newStatus);
+
+    /**
+     * Projection of a reservation expiry
      */
-    List<Reservation> findAllByStatusAndExpiresAtBefore(ReservationStatus status, LocalDateTime now);
+    interface ReservationExpiry {
+        Long getId();
 
+        LocalDateTime getExpiresAt();
+    }
 }
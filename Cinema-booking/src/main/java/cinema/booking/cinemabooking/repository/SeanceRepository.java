@@ -1,5 +1,6 @@
 package cinema.booking.cinemabooking.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import cinema.booking.cinemabooking.model.Seance;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Seance entity
@@ -23,11 +25,20 @@ public interface SeanceRepository extends JpaRepository<Seance, Long> {
     List<Seance> findByMovieId(Long movieId);
 
     /**
-     * Find seances within a specific time range
+     * Find a seance together with its movie and cinema room
+     * @param id the ID of the seance
+     * @return the seance, if it exists
+     */
+    @EntityGraph(attributePaths = {"movie", "cinemaRoom"})
+    Optional<Seance> findWithMovieAndCinemaRoomById(Long id);
+
+    /**
+     * Find seances within a specific time range, together with their movies and cinema rooms
      * @param start the start time of the range
      * @param end the end time of the range
      * @return a list of seances occurring within the specified time range
      */
+    @EntityGraph(attributePaths = {"movie", "cinemaRoom"})
     List<Seance> findByStartTimeBetween(LocalDateTime start, LocalDateTime end);
 
     /**
@@ -0,0 +1,75 @@
+package cinema.booking.cinemabooking.repository;
+
+import cinema.booking.cinemabooking.model.SeatHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository interface for SeatHold entity
+ */
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
+
+    /**
+     * Delete expired holds on specific seats of a seance, so the seats can be claimed again
+     * @param seanceId the ID of the seance
+     * @param seatIds the IDs of the seats
+     * @param now the current date and time
+     * @return the number of deleted holds
+     */
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.seance.id = :seanceId AND h.seat.id IN :seatIds " +
+            "AND h.expiresAt IS NOT NULL AND h.expiresAt <= :now")
+    int deleteExpiredHolds(@Param("seanceId") Long seanceId, @Param("seatIds") Collection<Long> seatIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete all holds of a reservation
+     * @param reservationId the ID of the reservation
+     * @return the number of deleted holds
+     */
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.reservation.id = :reservationId")
+    int deleteByReservationId(@Param("reservationId") Long reservationId);
+
+    /**
+     * Delete all holds of multiple reservations
+     * @param reservationIds the IDs of the reservations
+     * @return the number of deleted holds
+     */
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.reservation.id IN :reservationIds")
+    int deleteByReservationIdIn(@Param("reservationIds") Collection<Long> reservationIds);
+
+    /**
+     * Delete the hold of a reservation on a specific seat
+     * @param reservationId the ID of the reservation
+     * @param seatId the ID of the seat
+     * @return the number of deleted holds
+     */
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.reservation.id = :reservationId AND h.seat.id = :seatId")
+    int deleteByReservationIdAndSeatId(@Param("reservationId") Long reservationId, @Param("seatId") Long seatId);
+
+    /**
+     * Make all holds of a reservation permanent after payment
+     * @param reservationId the ID of the reservation
+     * @return the number of updated holds
+     */
+    @Modifying
+    @Query("UPDATE SeatHold h SET h.expiresAt = NULL WHERE h.reservation.id = :reservationId")
+    int confirmByReservationId(@Param("reservationId") Long reservationId);
+
+    /**
+     * Count the seats held by pending reservations that have not expired yet
+     * @param now the current date and time
+     * @return the number of pending holds
+     */
+    @Query("SELECT COUNT(h) FROM SeatHold h WHERE h.expiresAt IS NOT NULL AND h.expiresAt > :now")
+    long countPendingHolds(@Param("now") LocalDateTime now);
+}
@@ -1,8 +1,7 @@
 package cinema.booking.cinemabooking.repository;
+import cinema.booking.cinemabooking.dto.response.SeatDto;
 import cinema.booking.cinemabooking.model.Seat;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,12 +22,28 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
     List<Seat> findAllByCinemaRoom_Id(Long cinemaRoomId);
 
     /**
-     * Find all seats by a list of IDs with a pessimistic write lock
-     * This is used to prevent concurrent modifications when reserving seats
+     * Find IDs of all seats in a cinema room, ordered by ID
+     * @param cinemaRoomId the ID of the cinema room
+     * @return a list of seat IDs in the specified cinema room
+     */
+    @Query("SELECT s.id FROM Seat s WHERE s.cinemaRoom.id = :cinemaRoomId ORDER BY s.id")
+    List<Long> findIdsByCinemaRoomId(@Param("cinemaRoomId") Long cinemaRoomId);
+
+    /**
+     * Find the seat layout of a cinema room as DTOs, without loading Seat entities
+     * Seats are returned as free, occupancy is applied by the caller
+     * @param cinemaRoomId the ID of the cinema room
+     * @return a list of seat DTOs ordered by row and seat number
+     */
+    @Query("SELECT new cinema.booking.cinemabooking.dto.response.SeatDto(s.id, s.rowNumber, s.seatNumber, false) " +
+            "FROM Seat s WHERE s.cinemaRoom.id = :cinemaRoomId ORDER BY s.rowNumber, s.seatNumber")
+    List<SeatDto> findSeatDtosByCinemaRoomId(@Param("cinemaRoomId") Long cinemaRoomId);
+
+    /**
+     * Find all seats by a list of IDs
+     * No lock is taken, concurrent bookings are resolved by the seance-scoped seat holds
      * @param ids the list of seat IDs
      * @return a list of seats with the specified IDs
      */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT s from Seat s WHERE s.id IN :ids")
-    List<Seat> findAllByIdInWithLock(@Param("ids") List<Long> ids);
+    List<Seat> findAllByIdIn(List<Long> ids);
 }
@@ -1,11 +1,15 @@
 package cinema.booking.cinemabooking.repository;
 
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.enums.TicketType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import cinema.booking.cinemabooking.model.Ticket;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -16,16 +20,17 @@ import java.util.List;
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     /**
-     * Fetch all tickets for a specific seance that are either paid or pending (not yet expired)
+     * Fetch seat IDs of all paid or pending (not yet expired) tickets for a specific seance
+     * Used to rebuild the in-memory seat occupancy without loading Ticket entities
      * @param seanceId the ID of the seance
      * @param now the current date and time
-     * @return a list of taken tickets for the specified seance
+     * @return a list of taken seats with the ID, status and expiration of their reservation
      */
-    @Query("SELECT t FROM Ticket t " +
+    @Query("SELECT t.seat.id AS seatId, r.id AS reservationId, r.status AS status, r.expiresAt AS expiresAt FROM Ticket t " +
             "JOIN t.reservation r " +
             "WHERE t.seance.id = :seanceId " +
             "AND (r.status = 'PAID' OR (r.status = 'PENDING' AND r.expiresAt > :now))")
-    List<Ticket> findAllTakenTickets(@Param("seanceId") Long seanceId, @Param("now") LocalDateTime now);
+    List<TakenSeat> findTakenSeats(@Param("seanceId") Long seanceId, @Param("now") LocalDateTime now);
 
 
     /**
@@ -34,4 +39,70 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      * @return a list of tickets associated with the user's reservations
      */
     List<Ticket> findByReservationUserId(Long userId);
+
+    /**
+     * Find the seances and seats booked by multiple reservations, without loading tickets
+     * @param reservationIds the IDs of the reservations
+     * @return a list of booked seats of the reservations
+     */
+    @Query("SELECT t.reservation.id AS reservationId, t.seance.id AS seanceId, t.seat.id AS seatId " +
+            "FROM Ticket t WHERE t.reservation.id IN :reservationIds")
+    List<ReservationSeat> findSeatsByReservationIds(@Param("reservationIds") Collection<Long> reservationIds);
+
+    /**
+     * Fetch the next chunk of paid tickets of a seance, ordered by seat, starting after the given seat
+     * Keyset pagination, so every chunk is an index range scan no matter how far into the seance it starts
+     * @param seanceId the ID of the seance
+     * @param rowNumber the row of the last seat of the previous chunk, 0 for the first chunk
+     * @param seatNumber the number of the last seat of the previous chunk, 0 for the first chunk
+     * @param limit the size of the chunk
+     * @return the printable fields of the tickets, without loading Ticket entities
+     */
+    @Query("SELECT t.ticketCode AS ticketCode, t.ticketType AS ticketType, t.price AS price, " +
+            "s.rowNumber AS rowNumber, s.seatNumber AS seatNumber FROM Ticket t " +
+            "JOIN t.seat s JOIN t.reservation r " +
+            "WHERE t.seance.id = :seanceId AND r.status = 'PAID' " +
+            "AND (s.rowNumber > :rowNumber OR (s.rowNumber = :rowNumber AND s.seatNumber > :seatNumber)) " +
+            "ORDER BY s.rowNumber, s.seatNumber")
+    List<PrintableTicket> findPaidTicketsAfterSeat(@Param("seanceId") Long seanceId, @Param("rowNumber") int rowNumber,
+                                                   @Param("seatNumber") int seatNumber, Limit limit);
+
+    /**
+     * Projection of a taken seat
+     */
+    interface TakenSeat {
+        Long getSeatId();
+
+        Long getReservationId();
+
+        ReservationStatus getStatus();
+
+        LocalDateTime getExpiresAt();
+    }
+
+    /**
+     * Projection of a seat booked by a reservation
+     */
+    interface ReservationSeat {
+        Long getReservationId();
+
+        Long getSeanceId();
+
+        Long getSeatId();
+    }
+
+    /**
+     * Projection of the printed fields of a paid ticket
+     */
+    interface PrintableTicket {
+        String getTicketCode();
+
+        TicketType getTicketType();
+
+        double getPrice();
+
+        int getRowNumber();
+
+        int getSeatNumber();
+    }
 }
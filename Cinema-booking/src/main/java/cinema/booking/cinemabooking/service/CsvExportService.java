@@ -1,18 +1,14 @@
 package cinema.booking.cinemabooking.service;
 
-import cinema.booking.cinemabooking.dto.report.DailySalesDto;
-import cinema.booking.cinemabooking.dto.report.SalesReportDto;
-import cinema.booking.cinemabooking.exception.FileStorageException;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Locale;
 
 
 /**
@@ -20,78 +16,60 @@ import java.util.Locale;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class CsvExportService {
     private static final String DAILY_HEADER = "Date,Tickets Sold,Total Revenue";
     private static final String MOVIE_HEADER = "Movie Title,Tickets Sold,Total Revenue";
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final ReportService reportService;
 
     /**
-     * Generates a CSV file for daily sales data.
+     * Streams the daily sales report as CSV, writing each row as it is read from the database.
      *
-     * @param data List of DailySalesDto containing daily sales information.
-     * @return ByteArrayInputStream representing the generated CSV file.
-     * @throws FileStorageException if an I/O error occurs during CSV generation.
+     * @param filter the filters of the report
+     * @param out the stream to write the CSV file to
+     * @throws IOException if writing to the stream fails, e.g. because the client disconnected
      */
-    public ByteArrayInputStream generateDailySalesCsv(List<DailySalesDto> data) {
-        log.info("Generating daily sales CSV with {} records", data.size());
-
-        // Using try-with-resources to ensure streams are closed properly
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             PrintWriter writer = new PrintWriter(out, true, StandardCharsets.UTF_8)) {
-
-            out.write(new byte[]{(byte)0xEF, (byte)0xBB, (byte)0xBF});
-            writer.println(DAILY_HEADER);
-
-            // Write each data row
-            for (DailySalesDto row : data) {
-                log.debug("Writing row: {}", row);
-
-                writer.printf(Locale.US, "%s,%d,%.2f%n",
-                        row.getDate(),
-                        row.getTicketsSold(),
-                        row.getTotalRevenue());
-            }
-
-            writer.flush();
-            log.info("Daily sales CSV generation completed");
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (IOException e) {
-            log.error("Error generating daily sales CSV", e);
-            throw new FileStorageException("Error during generating CSV: " + e.getMessage());
+    public void writeDailySalesCsv(ReportFilterDto filter, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out, DAILY_HEADER);
+        try {
+            reportService.streamDailySalesReport(filter, (date, ticketsSold, totalRevenue) -> {
+                try {
+                    csv.dailyRow(date.toString(), ticketsSold, totalRevenue);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        csv.flush();
+        log.info("Daily sales CSV streamed with {} records", csv.getRows());
     }
 
     /**
-     * Generates a CSV file for movie sales data.
+     * Streams the movie sales report as CSV, writing each row as it is read from the database.
      *
-     * @param data List of SalesReportDto containing movie sales information.
-     * @return ByteArrayInputStream representing the generated CSV file.
-     * @throws FileStorageException if an I/O error occurs during CSV generation.
+     * @param filter the filters of the report
+     * @param out the stream to write the CSV file to
+     * @throws IOException if writing to the stream fails, e.g. because the client disconnected
      */
-    public ByteArrayInputStream generateMovieSalesCsv(List<SalesReportDto> data) {
-        log.info("Generating movie sales CSV with {} records", data.size());
-
-        // Using try-with-resources to ensure streams are closed properly
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             PrintWriter writer = new PrintWriter(out, true, StandardCharsets.UTF_8)) {
-
-            out.write(new byte[]{(byte)0xEF, (byte)0xBB, (byte)0xBF});
-            writer.println(MOVIE_HEADER);
-
-            // Write each data row
-            for (SalesReportDto row : data) {
-                log.debug("Writing row: {}", row);
-                writer.printf(Locale.US, "%s,%d,%.2f%n",
-                        escapeSpecialCharacters(row.getMovieTitle()),
-                        row.getTicketsSold(),
-                        row.getTotalRevenue());
-            }
-            writer.flush();
-            log.info("Movie sales CSV generation completed");
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (IOException e) {
-            log.error("Error generating movie sales CSV", e);
-            throw new FileStorageException("Error CSV: " + e.getMessage());
+    public void writeMovieSalesCsv(ReportFilterDto filter, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out, MOVIE_HEADER);
+        try {
+            reportService.streamSalesReport(filter, (movieTitle, ticketsSold, totalRevenue) -> {
+                try {
+                    csv.movieRow(movieTitle, ticketsSold, totalRevenue);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        csv.flush();
+        log.info("Movie sales CSV streamed with {} records", csv.getRows());
     }
 
     /**
@@ -100,7 +78,10 @@ public class CsvExportService {
      * @param data The input string to escape.
      * @return The escaped string.
      */
-    private String escapeSpecialCharacters(String data) {
+    private static String escapeSpecialCharacters(String data) {
+        if (!needsEscaping(data)) {
+            return data;
+        }
         String escapedData = data.replaceAll("\\R", " ");
         if (data.contains(",") || data.contains("\"") || data.contains("'")) {
             data = data.replace("\"", "\"\"");
@@ -108,4 +89,91 @@ public class CsvExportService {
         }
         return escapedData;
     }
-}
\ No newline at end of file
+
+    /**
+     * Check for quoting characters and line breaks without allocating, most values contain neither.
+     */
+    private static boolean needsEscaping(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            switch (data.charAt(i)) {
+                case ',', '"', '\'', '\n', '\r', '\u000B', '\f', '\u0085', '\u2028', '\u2029' -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Buffered CSV writer formatting numbers without format strings.
+     * Writes the UTF-8 byte order mark and the header on creation.
+     */
+    private static final class CsvWriter {
+        private final OutputStream out;
+        private final Writer writer;
+        private long rows;
+
+        CsvWriter(OutputStream out, String header) throws IOException {
+            out.write(BOM);
+            this.out = out;
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(header);
+            writer.write(System.lineSeparator());
+        }
+
+        void dailyRow(String date, long ticketsSold, double totalRevenue) throws IOException {
+            writer.write(date);
+            writeNumbers(ticketsSold, totalRevenue);
+        }
+
+        void movieRow(String movieTitle, long ticketsSold, double totalRevenue) throws IOException {
+            writer.write(escapeSpecialCharacters(movieTitle));
+            writeNumbers(ticketsSold, totalRevenue);
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        void flush() throws IOException {
+            writer.flush();
+            out.flush();
+        }
+
+        private void writeNumbers(long ticketsSold, double totalRevenue) throws IOException {
+            writer.write(',');
+            writer.write(Long.toString(ticketsSold));
+            writer.write(',');
+            writeMoney(totalRevenue);
+            writer.write(System.lineSeparator());
+            rows++;
+        }
+
+        /**
+         * Write an amount with two decimals, rounded half up like {@code %.2f}.
+         * Other amounts are rounded from their shortest decimal form, as {@code %.2f} does, not from the binary value,
+         * so 1.005 is written as 1.01.
+         * Amounts that are whole cents, as ticket prices are, are written from a long.
+         */
+        private void writeMoney(double value) throws IOException {
+            double cents = value * 100;
+            if (cents != Math.rint(cents) || Math.abs(cents) >= 1e15) {
+                writer.write(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+                return;
+            }
+
+            long whole = (long) cents;
+            if (whole < 0) {
+                writer.write('-');
+                whole = -whole;
+            }
+            writer.write(Long.toString(whole / 100));
+            writer.write('.');
+            int fraction = (int) (whole % 100);
+            writer.write('0' + fraction / 10);
+            writer.write('0' + fraction % 10);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.DashboardStatsDto;
+import cinema.booking.cinemabooking.event.MovieEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.event.UserRegisteredEvent;
+import cinema.booking.cinemabooking.repository.MovieRepository;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import cinema.booking.cinemabooking.repository.SeatHoldRepository;
+import cinema.booking.cinemabooking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service keeping the admin dashboard figures in memory.
+ * The counters are loaded from the database once, kept current by the committed domain events
+ * and periodically reconciled with the database to correct any drift, e.g. from deletions without events.
+ * The figures are eventually consistent: an event racing a reconciliation can be lost or counted twice until the next one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+    private final MovieRepository movieRepository;
+    private final UserRepository userRepository;
+    private final ReservationRepository reservationRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final SalesDao salesDao;
+
+    private final LongAdder movies = new LongAdder();
+    private final LongAdder users = new LongAdder();
+    private final LongAdder reservations = new LongAdder();
+    // Seats held by pending reservations
+    private final LongAdder heldSeats = new LongAdder();
+    // Revenue in cents of the day it was collected for, replaced when the day changes
+    private final AtomicReference<DailyRevenue> revenue = new AtomicReference<>(new DailyRevenue(LocalDate.MIN));
+    private final Object reconcileMonitor = new Object();
+    private volatile boolean loaded;
+
+    /**
+     * Get the current dashboard figures, loading them from the database on first use.
+     * @return the dashboard figures
+     */
+    public DashboardStatsDto getStats() {
+        if (!loaded) {
+            reconcile();
+        }
+        DailyRevenue today = revenue.get();
+        long revenueCents = today.date().equals(LocalDate.now()) ? today.cents().sum() : 0;
+        return new DashboardStatsDto(
+                Math.max(movies.sum(), 0),
+                Math.max(users.sum(), 0),
+                Math.max(reservations.sum(), 0),
+                Math.max(heldSeats.sum(), 0),
+                revenueCents / 100.0);
+    }
+
+    /**
+     * Load the counters when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Set the counters to the values in the database.
+     * Runs every five minutes.
+     */
+    @Scheduled(fixedRate = 300000, initialDelay = 300000)
+    public void reconcile() {
+        synchronized (reconcileMonitor) {
+            LocalDate today = LocalDate.now();
+            long drift = reset(movies, movieRepository.count())
+                    + reset(users, userRepository.count())
+                    + reset(reservations, reservationRepository.count())
+                    + reset(heldSeats, seatHoldRepository.countPendingHolds(LocalDateTime.now()));
+
+            DailyRevenue current = currentRevenue(today);
+            drift += reset(current.cents(), toCents(salesDao.fetchRevenue(today)));
+
+            if (loaded && drift != 0) {
+                log.debug("Reconciled dashboard counters, corrected a drift of {}", drift);
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Count added and deleted movies.
+     * @param event the movie event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMovieChanged(MovieEvent event) {
+        switch (event.getType()) {
+            case ADDED -> movies.increment();
+            case DELETED -> movies.decrement();
+            case UPDATED -> {
+            }
+        }
+    }
+
+    /**
+     * Count registered users.
+     * @param event the registration event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        users.increment();
+    }
+
+    /**
+     * Count created reservations and the seats held by pending ones.
+     * Payment makes the holds permanent, so paid seats are no longer in flight.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationCommitted(ReservationEvent event) {
+        int seats = event.getSeatIds().size();
+        switch (event.getType()) {
+            case CREATED -> {
+                reservations.increment();
+                heldSeats.add(seats);
+            }
+            case TICKET_ADDED -> heldSeats.add(seats);
+            case TICKET_REMOVED, PAID, CANCELLED, EXPIRED -> heldSeats.add(-seats);
+        }
+    }
+
+    /**
+     * Add the revenue of a sale dated today.
+     * @param event the sale event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketsSold(TicketsSoldEvent event) {
+        LocalDate today = LocalDate.now();
+        if (event.getSoldAt() != null && event.getSoldAt().toLocalDate().equals(today)) {
+            currentRevenue(today).cents().add(toCents(event.getRevenue()));
+        }
+    }
+
+    /**
+     * Get the revenue of the given day, starting from zero if the held one is of an earlier day.
+     */
+    private DailyRevenue currentRevenue(LocalDate today) {
+        DailyRevenue current = revenue.get();
+        while (current.date().isBefore(today)) {
+            revenue.compareAndSet(current, new DailyRevenue(today));
+            current = revenue.get();
+        }
+        return current;
+    }
+
+    /**
+     * Move a counter to the given value, adding the difference rather than replacing the count.
+     * This is not atomic with the events: one applied between the database query and this call is cancelled,
+     * and one committed before the query but applied after it is counted twice.
+     * Either error is corrected by the next reconciliation.
+     * @return the difference that was corrected
+     */
+    private static long reset(LongAdder counter, long value) {
+        long drift = value - counter.sum();
+        counter.add(drift);
+        return Math.abs(drift);
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private record DailyRevenue(LocalDate date, LongAdder cents) {
+        DailyRevenue(LocalDate date) {
+            this(date, new LongAdder());
+        }
+    }
+}
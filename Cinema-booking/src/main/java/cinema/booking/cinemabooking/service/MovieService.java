@@ -2,12 +2,16 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.response.MovieDto;
 import cinema.booking.cinemabooking.dto.request.MovieRequestDto;
+import cinema.booking.cinemabooking.enums.MovieEventType;
+import cinema.booking.cinemabooking.event.MovieEvent;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
 import cinema.booking.cinemabooking.mapper.MovieMapper;
 import cinema.booking.cinemabooking.model.Movie;
 import cinema.booking.cinemabooking.repository.MovieRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,6 +28,7 @@ public class MovieService {
     private final MovieRepository movieRepository;
     private final FileStorageService fileStorageService;
     private final MovieMapper movieMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Add new movie
@@ -41,6 +46,7 @@ public class MovieService {
         handleGalleryUpdate(dto, movie);
 
         movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieEvent(MovieEventType.ADDED, movie.getId()));
         log.info("Movie added successfully with ID: {}", movie.getId());
     }
 
@@ -65,6 +71,8 @@ public class MovieService {
         handleGalleryUpdate(dto, movie);
 
         movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieEvent(MovieEventType.UPDATED, id));
+        eventPublisher.publishEvent(RepertoireChangedEvent.forMovie(id));
         log.info("Movie with ID {} updated successfully", id);
     }
 
@@ -116,6 +124,8 @@ public class MovieService {
                 fileStorageService.deleteFile(m.getImageUrl());
             }
             movieRepository.deleteById(id);
+            eventPublisher.publishEvent(new MovieEvent(MovieEventType.DELETED, id));
+            eventPublisher.publishEvent(RepertoireChangedEvent.forMovie(id));
             log.info("Movie with ID: {} deleted successfully", id);
         } else {
             log.warn("Movie with ID: {} not found for deletion", id);
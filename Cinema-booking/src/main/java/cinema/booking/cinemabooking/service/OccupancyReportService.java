@@ -0,0 +1,168 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.OccupancySummaryDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service summarizing seance fill rates per cinema room, day of the week and time slot.
+ * The occupancy of every seance is kept in memory. The first summary loads all seances,
+ * later ones only query the seances whose reservations or schedule changed since the previous run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OccupancyReportService {
+    private static final Comparator<OccupancySummaryDto> SUMMARY_ORDER = Comparator
+            .comparing(OccupancySummaryDto::getCinemaRoomId)
+            .thenComparing(OccupancySummaryDto::getDayOfWeek)
+            .thenComparing(OccupancySummaryDto::getStartHour, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final SalesDao salesDao;
+
+    // Occupancy of every seance by seance ID, valid once loaded
+    private final Map<Long, SeanceOccupancyDto> occupancy = new ConcurrentHashMap<>();
+    // Seances changed since the last refresh
+    private final Set<Long> changedSeances = ConcurrentHashMap.newKeySet();
+    private final Object refreshMonitor = new Object();
+    private volatile boolean loaded;
+
+    /**
+     * Summarize the fill rates of the seances matching the filter.
+     * Dates restrict the start of the seances. Seances that have not started yet count with their current sales.
+     *
+     * @param filter     the filters of the report
+     * @param byTimeSlot whether to split the summary by the hour the seances start at
+     * @return fill rate statistics per cinema room and day of the week
+     * @throws InvalidReportQueryException if the filter restricts the ticket type
+     */
+    public List<OccupancySummaryDto> getOccupancySummary(ReportFilterDto filter, boolean byTimeSlot) {
+        if (filter.getTicketType() != null) {
+            throw new InvalidReportQueryException("Occupancy summaries cannot be filtered by ticket type");
+        }
+        refresh();
+
+        Set<Long> movieIds = toSet(filter.getMovieIds());
+        Set<Long> roomIds = toSet(filter.getRoomIds());
+        Map<GroupKey, List<SeanceOccupancyDto>> groups = occupancy.values().stream()
+                .filter(seance -> matches(seance, filter.getFrom(), filter.getTo(), movieIds, roomIds))
+                .collect(Collectors.groupingBy(seance -> new GroupKey(seance.getCinemaRoomId(),
+                        seance.getStartTime().getDayOfWeek(), byTimeSlot ? seance.getStartTime().getHour() : null)));
+
+        List<OccupancySummaryDto> result = new ArrayList<>(groups.size());
+        groups.forEach((key, seances) -> result.add(summarize(key, seances)));
+        result.sort(SUMMARY_ORDER);
+        return result;
+    }
+
+    /**
+     * Bring the in-memory occupancy up to date.
+     * Loads every seance on the first run, afterwards only the seances changed since the last run.
+     *
+     * @return the number of seances queried
+     */
+    public int refresh() {
+        synchronized (refreshMonitor) {
+            if (!loaded) {
+                // Changes committed from now on are picked up by the next refresh
+                changedSeances.clear();
+                List<SeanceOccupancyDto> all = salesDao.fetchSeanceOccupancy(ReportFilterDto.none());
+                occupancy.clear();
+                all.forEach(seance -> occupancy.put(seance.getSeanceId(), seance));
+                loaded = true;
+                log.info("Loaded occupancy of {} seances", all.size());
+                return all.size();
+            }
+            if (changedSeances.isEmpty()) {
+                return 0;
+            }
+
+            Set<Long> changed = new HashSet<>(changedSeances);
+            changedSeances.removeAll(changed);
+            List<SeanceOccupancyDto> updated = salesDao.fetchSeanceOccupancy(changed);
+            updated.forEach(seance -> occupancy.put(seance.getSeanceId(), seance));
+            // Changed seances missing from the result no longer exist
+            Set<Long> found = updated.stream().map(SeanceOccupancyDto::getSeanceId).collect(Collectors.toSet());
+            changed.stream().filter(id -> !found.contains(id)).forEach(occupancy::remove);
+
+            log.debug("Refreshed occupancy of {} changed seances", changed.size());
+            return changed.size();
+        }
+    }
+
+    /**
+     * Mark the seance of a committed reservation change for the next refresh.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationCommitted(ReservationEvent event) {
+        changedSeances.add(event.getSeanceId());
+    }
+
+    /**
+     * Mark created or deleted seances for the next refresh, or reload everything when a movie with its seances changes.
+     * @param event the repertoire change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        if (event.getSeanceId() != null) {
+            changedSeances.add(event.getSeanceId());
+        } else if (event.getMovieId() != null) {
+            loaded = false;
+        }
+    }
+
+    private static boolean matches(SeanceOccupancyDto seance, LocalDate from, LocalDate to, Set<Long> movieIds, Set<Long> roomIds) {
+        LocalDate date = seance.getStartTime().toLocalDate();
+        return (from == null || !date.isBefore(from))
+                && (to == null || !date.isAfter(to))
+                && (movieIds.isEmpty() || movieIds.contains(seance.getMovieId()))
+                && (roomIds.isEmpty() || roomIds.contains(seance.getCinemaRoomId()));
+    }
+
+    private static OccupancySummaryDto summarize(GroupKey key, List<SeanceOccupancyDto> seances) {
+        double[] fillRates = seances.stream().mapToDouble(SeanceOccupancyDto::getFillRate).sorted().toArray();
+        return new OccupancySummaryDto(key.cinemaRoomId(), key.dayOfWeek(), key.startHour(), fillRates.length,
+                Arrays.stream(fillRates).average().orElse(0.0),
+                fillRates[0],
+                percentile(fillRates, 50),
+                percentile(fillRates, 90),
+                fillRates[fillRates.length - 1]);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static Set<Long> toSet(List<Long> ids) {
+        return ids == null ? Set.of() : new HashSet<>(ids);
+    }
+
+    private record GroupKey(Long cinemaRoomId, DayOfWeek dayOfWeek, Integer startHour) {
+    }
+}
@@ -1,28 +1,43 @@
 package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.exception.FileStorageException;
+import cinema.booking.cinemabooking.enums.TicketType;
 import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.model.Seance;
 import cinema.booking.cinemabooking.model.Ticket;
+import cinema.booking.cinemabooking.repository.TicketRepository;
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.MultiFormatWriter;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.EncodeHintType;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
 import com.lowagie.text.*;
-import com.lowagie.text.pdf.PdfPCell;
-import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfImportedPage;
+import com.lowagie.text.pdf.PdfReader;
 import com.lowagie.text.pdf.PdfWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Service responsible for generating PDF documents with tickets.
  * Uses OpenPDF (lowagie) for PDF creation and ZXing for QR code generation.
+ * QR codes are drawn as vector rectangles, one per run of dark modules, so they stay sharp at any zoom.
+ * <p>
+ * The static part of a ticket (header, frame, labels, separators and footer) is rendered once into a template page
+ * when the service is created. Each document imports that page once and draws it under every ticket,
+ * so only the fields of the ticket itself are laid out per ticket.
  */
 @Slf4j
 @Service
@@ -32,8 +47,47 @@ public class PdfTicketService {
     private static final Color PRIMARY_COLOR = new Color(76, 29, 149);
     private static final Color BORDER_COLOR = new Color(139, 69, 19);
     private static final Color BACKGROUND_COLOR = new Color(240, 240, 240);
+    private static final Color VALUE_COLOR = new Color(50, 50, 50);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
+    private static final BaseFont HELVETICA = createFont(BaseFont.HELVETICA);
+    private static final BaseFont HELVETICA_BOLD = createFont(BaseFont.HELVETICA_BOLD);
+    private static final BaseFont COURIER_BOLD = createFont(BaseFont.COURIER_BOLD);
+    private static final float TITLE_SIZE = 22;
+    private static final float TITLE_MIN_SIZE = 12;
+    private static final String ELLIPSIS = "...";
+
+    // Layout of the ticket on an A4 page, in points from the bottom left corner
+    private static final float LEFT = 30;
+    private static final float RIGHT = 565;
+    private static final float CENTER = (LEFT + RIGHT) / 2;
+    private static final float HEADER_TOP = 812;
+    private static final float HEADER_BOTTOM = 752;
+    private static final float BODY_BOTTOM = 352;
+    private static final float CONTENT_LEFT = 50;
+    private static final float CONTENT_RIGHT = 545;
+    private static final float TITLE_TOP = 745;
+    private static final float TITLE_BOTTOM = 688;
+    private static final float FIRST_ROW_BASELINE = 650;
+    private static final float ROW_HEIGHT = 30;
+    private static final float LABEL_WIDTH = 148;
+    private static final float QR_SIZE = 120;
+    private static final float QR_LEFT = 125;
+    private static final float QR_BOTTOM = 370;
+    private static final float CODE_CENTER = 420;
+    private static final String[] LABELS = {"DATE:", "ROOM:", "ROW/SEAT:", "TICKET TYPE:", "PRICE:"};
+
+    private static final QRCodeWriter QR_WRITER = new QRCodeWriter();
+    // Quiet zone around the code, in modules
+    private static final Map<EncodeHintType, Object> QR_HINTS = Map.of(EncodeHintType.MARGIN, 2);
+
+    private final byte[] template;
+
+    public PdfTicketService() {
+        this.template = renderTemplate();
+        log.info("Rendered PDF ticket template, size: {} bytes", template.length);
+    }
+
     /**
      * Generates a PDF file containing tickets for a given reservation.
      *
@@ -48,19 +102,24 @@ public class PdfTicketService {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         try {
-            PdfWriter.getInstance(document, out);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
             document.open();
 
             document.addTitle("Ticket - Reservation " + reservation.getReservationCode());
             document.addAuthor("CinemaBooking System");
 
+            // The template page is written to the document once and referenced by every ticket page
+            PdfImportedPage layout = writer.getImportedPage(new PdfReader(template), 1);
+            PdfContentByte canvas = writer.getDirectContent();
+
             for (int i = 0; i < reservation.getTickets().size(); i++) {
                 if (i > 0) {
                     document.newPage();
                 }
                 Ticket ticket = reservation.getTickets().get(i);
                 log.debug("Processing ticket [{}] for seance: {}", ticket.getTicketCode(), ticket.getSeance().getMovie().getTitle()); //
-                addTicketToDocument(document, ticket);
+                canvas.addTemplate(layout, 0, 0);
+                stampTicket(canvas, TicketFields.of(ticket));
             }
 
             document.close();
@@ -75,182 +134,351 @@ public class PdfTicketService {
     }
 
     /**
-     * Adds a single ticket layout to the PDF document.
+     * Opens a document writing the tickets of a seance to a stream, one page per ticket.
+     * Each page is written to the stream as soon as the next one starts, so the pack never has to fit in memory.
      *
-     * @param document The target PDF document.
-     * @param ticket   The ticket entity to visualize.
+     * @param seance The seance, with its movie and room loaded.
+     * @param out    The stream to write the PDF to. It is not closed with the pack.
+     * @return The open pack, to add the tickets to and close.
+     * @throws FileStorageException if the document cannot be started.
+     */
+    public TicketPack openSeancePack(Seance seance, OutputStream out) {
+        log.info("Starting PDF ticket pack for seance ID: {}", seance.getId());
+        return new TicketPack(seance, out);
+    }
+
+    /**
+     * Draws the fields of a single ticket over the template layout.
+     *
+     * @param canvas The content of the current page.
+     * @param ticket The fields of the ticket to visualize.
      * @throws Exception If PDF construction fails.
      */
-    private void addTicketToDocument(Document document, Ticket ticket) throws Exception {
-        PdfPTable mainTable = new PdfPTable(1);
-        mainTable.setWidthPercentage(95);
-        mainTable.setSpacingBefore(10);
-        mainTable.setSpacingAfter(10);
-
-        // Header Section
-        PdfPCell header = new PdfPCell(new Phrase("🎬 Cinema Ticket",
-                FontFactory.getFont(FontFactory.HELVETICA_BOLD, 24, Color.WHITE)));
-        header.setBackgroundColor(PRIMARY_COLOR);
-        header.setHorizontalAlignment(Element.ALIGN_CENTER);
-        header.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        header.setPadding(15);
-        header.setBorder(Rectangle.BOX);
-        header.setBorderWidth(3);
-        header.setBorderColor(BORDER_COLOR);
-        mainTable.addCell(header);
-
-        // Body Section
-        PdfPCell body = new PdfPCell();
-        body.setPadding(20);
-        body.setBorder(Rectangle.BOX);
-        body.setBorderWidth(2);
-        body.setBorderColor(PRIMARY_COLOR);
-
-        // Movie Title
-        Paragraph movieTitle = new Paragraph(ticket.getSeance().getMovie().getTitle(),
-                FontFactory.getFont(FontFactory.HELVETICA_BOLD, 22, PRIMARY_COLOR));
-        movieTitle.setAlignment(Element.ALIGN_CENTER);
-        movieTitle.setSpacingAfter(15);
-        body.addElement(movieTitle);
-
-        addSeparator(body, 2);
-
-        // Info Table (Details)
-        PdfPTable infoTable = new PdfPTable(2);
-        infoTable.setWidthPercentage(100);
-        infoTable.setSpacingBefore(10);
-        infoTable.setSpacingAfter(20);
-        infoTable.setWidths(new float[]{30, 70});
-
-        infoTable.addCell(createLabelCell("DATE:"));
-        infoTable.addCell(createValueCell(ticket.getSeance().getStartTime().format(DATE_FORMATTER)));
-
-        infoTable.addCell(createLabelCell("ROOM:"));
-        infoTable.addCell(createValueCell(ticket.getSeance().getCinemaRoom().getName()));
-
-        infoTable.addCell(createLabelCell("ROW/SEAT:"));
-        infoTable.addCell(createValueCell(
-                String.format("ROW %d | SEAT %d", ticket.getSeat().getRowNumber(), ticket.getSeat().getSeatNumber())
-        ));
-
-        infoTable.addCell(createLabelCell("TICKET TYPE:"));
-        String ticketType = "REGULAR".equals(ticket.getTicketType().name()) ? "Regular" : "Reduced";
-        infoTable.addCell(createValueCell(ticketType));
-
-        infoTable.addCell(createLabelCell("PRICE:"));
-        infoTable.addCell(createValueCell(String.format("%.2f zl", ticket.getPrice())));
-
-        body.addElement(infoTable);
-
-        addSeparator(body, 1);
-
-        // QR Code & Ticket Code Section
-        PdfPTable qrCodeTable = new PdfPTable(2);
-        qrCodeTable.setWidthPercentage(100);
-        qrCodeTable.setWidths(new float[]{50, 50});
-        qrCodeTable.setSpacingAfter(10);
-
-        // QR Image
-        PdfPCell qrCell = new PdfPCell();
-        qrCell.setBorder(Rectangle.NO_BORDER);
-        qrCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        qrCell.setPadding(10);
-
-        // Generate QR Code
-        log.trace("Generating QR code for ticket: {}", ticket.getTicketCode());
-        Image qrImage = generateQRCode(ticket.getTicketCode());
-        qrImage.scaleToFit(150, 150);
-        qrCell.addElement(qrImage);
-        qrCodeTable.addCell(qrCell);
-
-        // Text Code
-        PdfPCell codeTextCell = new PdfPCell();
-        codeTextCell.setBorder(Rectangle.NO_BORDER);
-        codeTextCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        codeTextCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-
-        Paragraph codeLabel = new Paragraph("TICKET CODE:",
-                FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, Color.DARK_GRAY));
-        codeLabel.setAlignment(Element.ALIGN_CENTER);
-        codeTextCell.addElement(codeLabel);
-
-        Paragraph code = new Paragraph(ticket.getTicketCode(),
-                FontFactory.getFont(FontFactory.COURIER_BOLD, 10, PRIMARY_COLOR));
-        code.setAlignment(Element.ALIGN_CENTER);
-        codeTextCell.addElement(code);
-
-        qrCodeTable.addCell(codeTextCell);
-        body.addElement(qrCodeTable);
-
-        mainTable.addCell(body);
-
-        // Footer
-        PdfPCell footer = new PdfPCell(new Phrase(
-                "Keep this ticket safe. Valid only for the specified seance. Enjoy your movie!",
-                FontFactory.getFont(FontFactory.HELVETICA, 9, Color.GRAY)
-        ));
-        footer.setHorizontalAlignment(Element.ALIGN_CENTER);
-        footer.setPadding(10);
-        footer.setBorder(Rectangle.NO_BORDER);
-        mainTable.addCell(footer);
-
-        document.add(mainTable);
+    private void stampTicket(PdfContentByte canvas, TicketFields ticket) throws Exception {
+        stampTitle(canvas, ticket.movieTitle());
+
+        // Details, one per label row
+        String ticketType = ticket.ticketType() == TicketType.REGULAR ? "Regular" : "Reduced";
+        String[] values = {
+                ticket.startTime().format(DATE_FORMATTER),
+                ticket.roomName(),
+                String.format("ROW %d | SEAT %d", ticket.rowNumber(), ticket.seatNumber()),
+                ticketType,
+                String.format("%.2f zl", ticket.price())
+        };
+
+        canvas.beginText();
+        canvas.setColorFill(VALUE_COLOR);
+        canvas.setFontAndSize(HELVETICA, 12);
+        for (int i = 0; i < values.length; i++) {
+            canvas.showTextAligned(Element.ALIGN_LEFT, values[i], CONTENT_LEFT + LABEL_WIDTH + 8, rowBaseline(i), 0);
+        }
+
+        // Ticket Code
+        canvas.setColorFill(PRIMARY_COLOR);
+        canvas.setFontAndSize(COURIER_BOLD, 10);
+        canvas.showTextAligned(Element.ALIGN_CENTER, ticket.ticketCode(), CODE_CENTER, 418, 0);
+        canvas.endText();
+
+        // QR Code
+        log.trace("Generating QR code for ticket: {}", ticket.ticketCode());
+        drawQRCode(canvas, ticket.ticketCode(), QR_LEFT, QR_BOTTOM, QR_SIZE);
+    }
+
+    /**
+     * Draws the movie title, wrapped and centered above the first separator.
+     * A title that does not fit is drawn smaller, down to a minimum size at which it is cut with an ellipsis.
+     *
+     * @param canvas The content of the current page.
+     * @param movieTitle The title of the movie.
+     * @throws DocumentException If PDF construction fails.
+     */
+    private void stampTitle(PdfContentByte canvas, String movieTitle) throws DocumentException {
+        // Most titles fit on one line, which needs no trial layout
+        if (HELVETICA_BOLD.getWidthPoint(movieTitle, TITLE_SIZE) <= CONTENT_RIGHT - CONTENT_LEFT) {
+            drawTitle(canvas, movieTitle, TITLE_SIZE, false);
+            return;
+        }
+
+        for (float size = TITLE_SIZE; size >= TITLE_MIN_SIZE; size -= 2) {
+            if (fitsTitle(canvas, movieTitle, size)) {
+                drawTitle(canvas, movieTitle, size, false);
+                return;
+            }
+        }
+
+        // Longest prefix that fits with the ellipsis at the minimum size
+        int low = 0;
+        int high = movieTitle.length();
+        while (low < high) {
+            int middle = (low + high + 1) / 2;
+            if (fitsTitle(canvas, shortenedTitle(movieTitle, middle), TITLE_MIN_SIZE)) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        drawTitle(canvas, shortenedTitle(movieTitle, low), TITLE_MIN_SIZE, false);
+    }
+
+    private static boolean fitsTitle(PdfContentByte canvas, String text, float size) throws DocumentException {
+        // The column runs out before the text when the title needs more lines than it holds
+        return (drawTitle(canvas, text, size, true) & ColumnText.NO_MORE_COLUMN) == 0;
+    }
+
+    private static String shortenedTitle(String movieTitle, int length) {
+        return movieTitle.substring(0, length).stripTrailing() + ELLIPSIS;
+    }
+
+    /**
+     * Lays out a title in the title column, or only measures it when simulating.
+     *
+     * @return the status of the layout, {@link ColumnText#NO_MORE_COLUMN} if text was left over
+     */
+    private static int drawTitle(PdfContentByte canvas, String text, float size, boolean simulate) throws DocumentException {
+        ColumnText title = new ColumnText(canvas);
+        title.setSimpleColumn(new Phrase(text, new Font(HELVETICA_BOLD, size, Font.NORMAL, PRIMARY_COLOR)),
+                CONTENT_LEFT, TITLE_BOTTOM, CONTENT_RIGHT, TITLE_TOP, size + 2, Element.ALIGN_CENTER);
+        return title.go(simulate);
+    }
+
+    /**
+     * Renders the static part of a ticket into a single page PDF.
+     *
+     * @return the template page as PDF bytes
+     * @throws FileStorageException if the template cannot be rendered
+     */
+    private static byte[] renderTemplate() {
+        Document document = new Document(PageSize.A4, 20, 20, 20, 20);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            document.open();
+            PdfContentByte canvas = writer.getDirectContent();
+
+            // Header Section
+            canvas.setColorFill(PRIMARY_COLOR);
+            canvas.setColorStroke(BORDER_COLOR);
+            canvas.setLineWidth(3);
+            canvas.rectangle(LEFT, HEADER_BOTTOM, RIGHT - LEFT, HEADER_TOP - HEADER_BOTTOM);
+            canvas.fillStroke();
+
+            // Body Section
+            canvas.setColorStroke(PRIMARY_COLOR);
+            canvas.setLineWidth(2);
+            canvas.rectangle(LEFT, BODY_BOTTOM, RIGHT - LEFT, HEADER_BOTTOM - BODY_BOTTOM);
+            canvas.stroke();
+
+            // Separators around the details
+            drawSeparator(canvas, TITLE_BOTTOM - 8, 2);
+            drawSeparator(canvas, rowBaseline(LABELS.length - 1) - 30, 1);
+
+            // Label backgrounds
+            canvas.setColorFill(BACKGROUND_COLOR);
+            for (int i = 0; i < LABELS.length; i++) {
+                canvas.rectangle(CONTENT_LEFT, rowBaseline(i) - 10, LABEL_WIDTH, ROW_HEIGHT - 2);
+            }
+            canvas.fill();
+
+            canvas.beginText();
+            canvas.setColorFill(Color.WHITE);
+            canvas.setFontAndSize(HELVETICA_BOLD, 24);
+            canvas.showTextAligned(Element.ALIGN_CENTER, "Cinema Ticket", CENTER, HEADER_BOTTOM + 21, 0);
+
+            canvas.setColorFill(Color.DARK_GRAY);
+            canvas.setFontAndSize(HELVETICA_BOLD, 11);
+            for (int i = 0; i < LABELS.length; i++) {
+                canvas.showTextAligned(Element.ALIGN_LEFT, LABELS[i], CONTENT_LEFT + 8, rowBaseline(i), 0);
+            }
+            canvas.showTextAligned(Element.ALIGN_CENTER, "TICKET CODE:", CODE_CENTER, 436, 0);
+
+            // Footer
+            canvas.setColorFill(Color.GRAY);
+            canvas.setFontAndSize(HELVETICA, 9);
+            canvas.showTextAligned(Element.ALIGN_CENTER,
+                    "Keep this ticket safe. Valid only for the specified seance. Enjoy your movie!",
+                    CENTER, BODY_BOTTOM - 18, 0);
+            canvas.endText();
+
+            document.close();
+        } catch (Exception e) {
+            throw new FileStorageException("Failed to render PDF ticket template", e);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Helper to draw a separator line across the content.
+     */
+    private static void drawSeparator(PdfContentByte canvas, float y, float width) {
+        canvas.setColorStroke(PRIMARY_COLOR);
+        canvas.setLineWidth(width);
+        canvas.moveTo(CONTENT_LEFT, y);
+        canvas.lineTo(CONTENT_RIGHT, y);
+        canvas.stroke();
     }
 
     /**
-     * Helper to create a styled label cell for the info table.
+     * Baseline of the text in a row of the details.
      */
-    private PdfPCell createLabelCell(String text) {
-        PdfPCell cell = new PdfPCell(new Phrase(text,
-                FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, Color.DARK_GRAY)));
-        cell.setHorizontalAlignment(Element.ALIGN_LEFT);
-        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        cell.setBorder(Rectangle.NO_BORDER);
-        cell.setPadding(8);
-        cell.setBackgroundColor(BACKGROUND_COLOR);
-        return cell;
+    private static float rowBaseline(int row) {
+        return FIRST_ROW_BASELINE - row * ROW_HEIGHT;
+    }
+
+    private static BaseFont createFont(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load font " + name, e);
+        }
     }
 
     /**
-     * Helper to create a styled value cell for the info table.
+     * Draws a QR Code of a text string as filled rectangles, merging the dark modules of each row into runs.
+     *
+     * @param canvas The content to draw on.
+     * @param text   The text to encode.
+     * @param x      The left edge of the code.
+     * @param y      The bottom edge of the code.
+     * @param size   The width and height of the code, including the quiet zone.
+     * @throws Exception If the text cannot be encoded.
      */
-    private PdfPCell createValueCell(String text) {
-        PdfPCell cell = new PdfPCell(new Phrase(text,
-                FontFactory.getFont(FontFactory.HELVETICA, 12, new Color(50, 50, 50))));
-        cell.setHorizontalAlignment(Element.ALIGN_LEFT);
-        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        cell.setBorder(Rectangle.NO_BORDER);
-        cell.setPadding(8);
-        return cell;
+    static void drawQRCode(PdfContentByte canvas, String text, float x, float y, float size) throws Exception {
+        // A zero size makes ZXing return one bit per module
+        BitMatrix matrix = QR_WRITER.encode(text, BarcodeFormat.QR_CODE, 0, 0, QR_HINTS);
+        int modules = matrix.getWidth();
+        float module = size / modules;
+
+        canvas.setColorFill(Color.BLACK);
+        for (int row = 0; row < modules; row++) {
+            // Rows of the matrix run top to bottom, PDF coordinates bottom to top
+            float top = y + size - row * module;
+            int column = 0;
+            while (column < modules) {
+                if (!matrix.get(column, row)) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < modules && matrix.get(column, row)) {
+                    column++;
+                }
+                canvas.rectangle(x + start * module, top - module, (column - start) * module, module);
+            }
+        }
+        canvas.fill();
     }
 
     /**
-     * Helper to add a separator line.
+     * The fields printed on a ticket.
      */
-    private void addSeparator(PdfPCell container, float width) {
-        PdfPTable separator = new PdfPTable(1);
-        separator.setWidthPercentage(100);
-        separator.setSpacingAfter(15);
-        PdfPCell sepCell = new PdfPCell();
-        sepCell.setBorder(Rectangle.TOP);
-        sepCell.setBorderWidth(width);
-        sepCell.setBorderColor(PRIMARY_COLOR);
-        sepCell.setPadding(0);
-        separator.addCell(sepCell);
-        container.addElement(separator);
+    private record TicketFields(String movieTitle, LocalDateTime startTime, String roomName, int rowNumber, int seatNumber,
+                                TicketType ticketType, double price, String ticketCode) {
+
+        static TicketFields of(Ticket ticket) {
+            Seance seance = ticket.getSeance();
+            return new TicketFields(seance.getMovie().getTitle(), seance.getStartTime(), seance.getCinemaRoom().getName(),
+                    ticket.getSeat().getRowNumber(), ticket.getSeat().getSeatNumber(),
+                    ticket.getTicketType(), ticket.getPrice(), ticket.getTicketCode());
+        }
+
+        static TicketFields of(Seance seance, TicketRepository.PrintableTicket ticket) {
+            return new TicketFields(seance.getMovie().getTitle(), seance.getStartTime(), seance.getCinemaRoom().getName(),
+                    ticket.getRowNumber(), ticket.getSeatNumber(),
+                    ticket.getTicketType(), ticket.getPrice(), ticket.getTicketCode());
+        }
     }
 
     /**
-     * Generates a QR Code image from a text string.
+     * A PDF document of the tickets of a seance being written to a stream.
+     * Not thread-safe, tickets are added by the thread writing the response.
      */
-    private Image generateQRCode(String text) throws Exception {
-        MultiFormatWriter writer = new MultiFormatWriter();
-        BitMatrix bitMatrix = writer.encode(text, BarcodeFormat.QR_CODE, 200, 200);
-        BufferedImage bufferedImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+    public final class TicketPack implements Closeable {
+        private final Seance seance;
+        private final OutputStream out;
+        private final Document document = new Document(PageSize.A4, 20, 20, 20, 20);
+        private final PdfWriter writer;
+        private final PdfImportedPage layout;
+        private int tickets;
+
+        private TicketPack(Seance seance, OutputStream out) {
+            this.seance = seance;
+            this.out = out;
+            try {
+                writer = PdfWriter.getInstance(document, out);
+                // Keep the stream open for the caller, it belongs to the response
+                writer.setCloseStream(false);
+                document.open();
+                document.addTitle("Tickets - Seance " + seance.getId());
+                document.addAuthor("CinemaBooking System");
+                layout = writer.getImportedPage(new PdfReader(template), 1);
+            } catch (Exception e) {
+                throw new FileStorageException("Failed to start PDF ticket pack", e);
+            }
+        }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        javax.imageio.ImageIO.write(bufferedImage, "png", baos);
+        /**
+         * Adds a ticket on a new page.
+         *
+         * @param ticket The paid ticket.
+         * @throws FileStorageException if the page cannot be drawn.
+         */
+        public void add(TicketRepository.PrintableTicket ticket) {
+            try {
+                if (tickets > 0) {
+                    document.newPage();
+                }
+                PdfContentByte canvas = writer.getDirectContent();
+                canvas.addTemplate(layout, 0, 0);
+                stampTicket(canvas, TicketFields.of(seance, ticket));
+                tickets++;
+            } catch (Exception e) {
+                throw new FileStorageException("Failed to add ticket " + ticket.getTicketCode() + " to PDF ticket pack", e);
+            }
+        }
+
+        /**
+         * Pushes the finished pages to the stream.
+         *
+         * @throws IOException if writing to the stream fails, e.g. because the client disconnected.
+         */
+        public void flush() throws IOException {
+            try {
+                // The writer buffers its output, finished pages only reach the stream once it is flushed
+                writer.flush();
+            } catch (ExceptionConverter e) {
+                if (e.getException() instanceof IOException io) {
+                    throw io;
+                }
+                throw e;
+            }
+            out.flush();
+        }
 
-        return Image.getInstance(baos.toByteArray());
+        /**
+         * Get the number of tickets added so far.
+         *
+         * @return the ticket count
+         */
+        public int getTickets() {
+            return tickets;
+        }
+
+        /**
+         * Finishes the document, with a notice page if no ticket was added, and flushes it to the stream.
+         *
+         * @throws IOException if writing to the stream fails.
+         */
+        @Override
+        public void close() throws IOException {
+            if (tickets == 0) {
+                document.add(new Paragraph("No tickets sold for this seance.", new Font(HELVETICA, 12)));
+            }
+            document.close();
+            flush();
+            log.info("PDF ticket pack for seance ID: {} completed with {} tickets", seance.getId(), tickets);
+        }
     }
-}
\ No newline at end of file
+}
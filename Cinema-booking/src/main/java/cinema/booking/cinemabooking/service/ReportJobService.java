@@ -0,0 +1,408 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.ReportJobDto;
+import cinema.booking.cinemabooking.dto.request.ReportJobRequestDto;
+import cinema.booking.cinemabooking.enums.ReportJobStatus;
+import cinema.booking.cinemabooking.enums.ReportType;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.exception.FileStorageException;
+import cinema.booking.cinemabooking.exception.ReportNotReadyException;
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.exception.TooManyReportJobsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service generating CSV reports in the background.
+ * Jobs run on a bounded pool of worker threads instead of request threads, each admin may only have
+ * a few unfinished jobs, and the results are cached on disk under a key made of the report spec and
+ * the version of the sales data, so the same report is generated once until new sales come in.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final String TEMP_EXTENSION = ".tmp";
+    // Cached reports and their compressed copies
+    private static final String REPORT_GLOB = "*{" + CSV_EXTENSION + "," + CSV_EXTENSION + GZIP_EXTENSION + "}";
+
+    private final CsvExportService csvExportService;
+    private final ReportService reportService;
+    private final Path cacheDir;
+    private final int maxJobsPerAdmin;
+    private final Duration retention;
+    private final ThreadPoolExecutor workers;
+
+    // Submitted jobs by ID, kept until they expire
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Queued or running generations by cache key, shared by all jobs asking for the same report
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize the report job service with configuration values.
+     *
+     * @param csvExportService  Service writing the reports.
+     * @param reportService     Service providing the version of the sales data.
+     * @param cacheDir          Directory where generated reports are cached.
+     * @param workerCount       Number of reports generated at the same time.
+     * @param queueCapacity     Number of generations that may wait for a worker.
+     * @param maxJobsPerAdmin   Number of unfinished jobs a single admin may have.
+     * @param retentionHours    How long finished jobs and unused cached reports are kept.
+     * @throws FileStorageException if the cache directory cannot be created.
+     */
+    public ReportJobService(
+            CsvExportService csvExportService,
+            ReportService reportService,
+            @Value("${app.reports.cache-dir:${java.io.tmpdir}/cinema-booking-reports}") String cacheDir,
+            @Value("${app.reports.workers:2}") int workerCount,
+            @Value("${app.reports.queue-capacity:20}") int queueCapacity,
+            @Value("${app.reports.max-jobs-per-admin:3}") int maxJobsPerAdmin,
+            @Value("${app.reports.retention-hours:24}") long retentionHours) {
+
+        this.csvExportService = csvExportService;
+        this.reportService = reportService;
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxJobsPerAdmin = maxJobsPerAdmin;
+        this.retention = Duration.ofHours(retentionHours);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("report-job-", 1).daemon().factory());
+
+        try {
+            Files.createDirectories(this.cacheDir);
+            log.info("Initialized report cache at {}", this.cacheDir);
+        } catch (IOException ex) {
+            log.error("Could not create report cache directory", ex);
+            throw new FileStorageException("Could not create report cache directory", ex);
+        }
+    }
+
+    /**
+     * Submit a report job.
+     * The job is done right away when the report is cached, and joins the running generation
+     * when the same report is already being generated.
+     *
+     * @param request  The report to generate.
+     * @param username The admin submitting the job.
+     * @return The submitted job.
+     * @throws TooManyReportJobsException if the admin has too many unfinished jobs or the queue is full.
+     */
+    public ReportJobDto submit(ReportJobRequestDto request, String username) {
+        ReportType type = request.getType();
+        ReportFilterDto filter = request.getFilter() != null ? request.getFilter() : ReportFilterDto.none();
+        String key = cacheKey(type, filter, reportService.getSalesVersion());
+        Path file = cacheDir.resolve(key + CSV_EXTENSION);
+
+        ReportJob job;
+        if (touch(file) && touch(compressed(file))) {
+            job = new ReportJob(username, type, Generation.completed(file), true);
+            jobs.put(job.id, job);
+        } else {
+            synchronized (this) {
+                long unfinished = jobs.values().stream()
+                        .filter(existing -> existing.owner.equals(username) && !existing.generation.result.isDone())
+                        .count();
+                if (unfinished >= maxJobsPerAdmin) {
+                    throw new TooManyReportJobsException("You already have " + unfinished + " report jobs in progress, wait for them to finish");
+                }
+
+                Generation generation = generations.get(key);
+                if (generation == null) {
+                    generation = start(type, filter, key, file);
+                }
+                job = new ReportJob(username, type, generation, false);
+                jobs.put(job.id, job);
+            }
+        }
+
+        log.info("Report job {} submitted by {}: {} with filter {}, cached: {}", job.id, username, type, filter, job.cached);
+        return toDto(job);
+    }
+
+    /**
+     * Get a report job of an admin.
+     *
+     * @param id       The ID of the job.
+     * @param username The admin who submitted the job.
+     * @return The job.
+     * @throws ResourceNotFoundException if the job does not exist or belongs to another admin.
+     */
+    public ReportJobDto getJob(String id, String username) {
+        return toDto(findJob(id, username));
+    }
+
+    /**
+     * Get the generated report of a finished job.
+     *
+     * @param id       The ID of the job.
+     * @param username The admin who submitted the job.
+     * @return The report file, its compressed copy and the name to download it as.
+     * @throws ResourceNotFoundException if the job does not exist, belongs to another admin or its report expired.
+     * @throws ReportNotReadyException if the job is not done.
+     */
+    public ReportResult getResult(String id, String username) {
+        ReportJob job = findJob(id, username);
+        if (job.status() != ReportJobStatus.DONE) {
+            throw new ReportNotReadyException("Report job " + id + " is " + job.status());
+        }
+
+        Path file = job.generation.file;
+        if (!Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Report of job " + id + " has expired, submit the job again");
+        }
+        Path compressed = compressed(file);
+        String version = file.getFileName().toString().replace(CSV_EXTENSION, "");
+        return new ReportResult(version, file, Files.isReadable(compressed) ? compressed : null,
+                job.type.name().toLowerCase() + "_report" + CSV_EXTENSION);
+    }
+
+    /**
+     * Drop cached movie reports when a movie changes, as they contain movie titles.
+     *
+     * @param event The repertoire change event.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        if (event.getMovieId() == null) {
+            return;
+        }
+        int deleted = deleteFiles(prefix(ReportType.MOVIE_SALES) + REPORT_GLOB, Instant.MAX);
+        log.debug("Dropped {} cached movie reports after change of movie ID: {}", deleted, event.getMovieId());
+    }
+
+    /**
+     * Scheduled task to drop expired jobs, unused cached reports and leftovers of interrupted generations.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictExpired() {
+        LocalDateTime jobCutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(jobCutoff));
+
+        Instant fileCutoff = Instant.now().minus(retention);
+        int deleted = deleteFiles(REPORT_GLOB, fileCutoff) + deleteFiles("*" + TEMP_EXTENSION, fileCutoff);
+        log.debug("Report cache cleaned up, deleted files: {}, jobs left: {}", deleted, jobs.size());
+    }
+
+    /**
+     * Stop the workers, abandoning queued generations and giving running ones a moment to clean up.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Report workers did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Generation start(ReportType type, ReportFilterDto filter, String key, Path file) {
+        Generation generation = new Generation(file);
+        generations.put(key, generation);
+        try {
+            workers.execute(() -> generate(type, filter, key, generation));
+        } catch (RejectedExecutionException e) {
+            generations.remove(key);
+            throw new TooManyReportJobsException("Too many reports are being generated, try again later");
+        }
+        return generation;
+    }
+
+    private void generate(ReportType type, ReportFilterDto filter, String key, Generation generation) {
+        generation.started = true;
+        long start = System.currentTimeMillis();
+        Path temp = null;
+        Path compressedTemp = null;
+        try {
+            // Written next to the target and moved in one step, so readers never see a partial report
+            temp = Files.createTempFile(cacheDir, prefix(type), TEMP_EXTENSION);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                switch (type) {
+                    case DAILY_SALES -> csvExportService.writeDailySalesCsv(filter, out);
+                    case MOVIE_SALES -> csvExportService.writeMovieSalesCsv(filter, out);
+                }
+            }
+            // Compressed once here, so gzip downloads have a length and can be resumed
+            compressedTemp = Files.createTempFile(cacheDir, prefix(type), TEMP_EXTENSION);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedTemp), 8192)) {
+                Files.copy(temp, out);
+            }
+            // The plain report goes last, as it marks the report as cached
+            Files.move(compressedTemp, compressed(generation.file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(temp, generation.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.info("Generated {} report {} in {} ms", type, generation.file.getFileName(), System.currentTimeMillis() - start);
+            generation.result.complete(generation.file);
+        } catch (Exception e) {
+            log.error("Could not generate {} report", type, e);
+            deleteQuietly(temp);
+            deleteQuietly(compressedTemp);
+            generation.result.completeExceptionally(e);
+        } finally {
+            generations.remove(key, generation);
+        }
+    }
+
+    private ReportJob findJob(String id, String username) {
+        ReportJob job = jobs.get(id);
+        if (job == null || !job.owner.equals(username)) {
+            throw new ResourceNotFoundException("Report job not found with ID: " + id);
+        }
+        return job;
+    }
+
+    private static String cacheKey(ReportType type, ReportFilterDto filter, String salesVersion) {
+        String spec = String.join("|", type.name(), String.valueOf(filter.getFrom()), String.valueOf(filter.getTo()),
+                String.valueOf(sortedIds(filter.getMovieIds())), String.valueOf(sortedIds(filter.getRoomIds())),
+                String.valueOf(filter.getTicketType()), salesVersion);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(spec.getBytes(StandardCharsets.UTF_8));
+            return prefix(type) + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static List<Long> sortedIds(List<Long> ids) {
+        return ids == null ? List.of() : ids.stream().distinct().sorted().toList();
+    }
+
+    private static Path compressed(Path file) {
+        return file.resolveSibling(file.getFileName() + GZIP_EXTENSION);
+    }
+
+    private static String prefix(ReportType type) {
+        return type.name().toLowerCase() + "-";
+    }
+
+    /**
+     * Mark a cached report as used, so it is not evicted while jobs still point to it.
+     * @return true if the report is cached
+     */
+    private static boolean touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private int deleteFiles(String glob, Instant modifiedBefore) {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, glob)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(modifiedBefore) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up report cache {}: {}", cacheDir, e.getMessage());
+        }
+        return deleted;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static ReportJobDto toDto(ReportJob job) {
+        ReportJobStatus status = job.status();
+        String error = status == ReportJobStatus.FAILED ? "Report generation failed" : null;
+        return new ReportJobDto(job.id, job.type, status, job.cached, job.submittedAt, job.finishedAt, error);
+    }
+
+    /**
+     * Generated report of a finished job.
+     * @param version the cache key of the report, which changes whenever its content does
+     * @param file the report file
+     * @param compressedFile the gzip compressed report file, or null if there is none
+     * @param fileName the name to download the report as
+     */
+    public record ReportResult(String version, Path file, Path compressedFile, String fileName) {
+    }
+
+    private static final class Generation {
+        private final Path file;
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
+        private volatile boolean started;
+
+        Generation(Path file) {
+            this.file = file;
+        }
+
+        static Generation completed(Path file) {
+            Generation generation = new Generation(file);
+            generation.started = true;
+            generation.result.complete(file);
+            return generation;
+        }
+    }
+
+    private static final class ReportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final String owner;
+        private final ReportType type;
+        private final Generation generation;
+        private final boolean cached;
+        private volatile LocalDateTime finishedAt;
+
+        ReportJob(String owner, ReportType type, Generation generation, boolean cached) {
+            this.owner = owner;
+            this.type = type;
+            this.generation = generation;
+            this.cached = cached;
+            generation.result.whenComplete((file, error) -> finishedAt = LocalDateTime.now());
+        }
+
+        ReportJobStatus status() {
+            if (generation.result.isDone()) {
+                return generation.result.isCompletedExceptionally() ? ReportJobStatus.FAILED : ReportJobStatus.DONE;
+            }
+            return generation.started ? ReportJobStatus.RUNNING : ReportJobStatus.QUEUED;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dao.SalesDao;
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,31 +23,82 @@ public class ReportService {
     private final SalesDao salesDao;
 
     /**
-     * Retrieves the overall sales report.
+     * Retrieves the sales report restricted by the given filters.
      *
+     * @param filter the filters of the report
      * @return List of SalesReportDto containing sales data per movie.
      */
     @Transactional(readOnly = true)
-    public List<SalesReportDto> getSalesReport() {
-        log.info("Generating overall sales report");
-        List<SalesReportDto> report = salesDao.fetchSalesReport();
+    public List<SalesReportDto> getSalesReport(ReportFilterDto filter) {
+        log.info("Generating sales report");
+        List<SalesReportDto> report = salesDao.fetchSalesReport(filter);
 
         log.debug("Sales report generated with {} records", report.size());
         return report;
     }
 
     /**
-     * Retrieves the daily sales report.
+     * Retrieves the daily sales report restricted by the given filters.
      *
+     * @param filter the filters of the report
      * @return List of DailySalesDto containing daily sales data.
      */
     @Transactional(readOnly = true)
-    public List<DailySalesDto> getDailySalesReport() {
+    public List<DailySalesDto> getDailySalesReport(ReportFilterDto filter) {
         log.info("Generating daily sales report");
 
-        List<DailySalesDto> report = salesDao.fetchDailySales();
+        List<DailySalesDto> report = salesDao.fetchDailySales(filter);
 
         log.debug("Daily sales report generated with {} records", report.size());
         return report;
     }
+
+    /**
+     * Retrieves the capacity, sold and held seats of each seance matching the filters.
+     *
+     * @param filter the filters of the report
+     * @return List of SeanceOccupancyDto ordered by seance start time.
+     */
+    @Transactional(readOnly = true)
+    public List<SeanceOccupancyDto> getSeanceOccupancy(ReportFilterDto filter) {
+        log.info("Generating seance occupancy report");
+        List<SeanceOccupancyDto> report = salesDao.fetchSeanceOccupancy(filter);
+
+        log.debug("Seance occupancy report generated with {} records", report.size());
+        return report;
+    }
+
+    /**
+     * Retrieves the version of the sales data, used to tell if a generated report is still current.
+     *
+     * @return the version of the sales data
+     */
+    @Transactional(readOnly = true)
+    public String getSalesVersion() {
+        return salesDao.fetchSalesVersion();
+    }
+
+    /**
+     * Streams the overall sales report row by row.
+     * Runs in a read-only transaction, so the rows are read from a database cursor.
+     *
+     * @param filter the filters of the report
+     * @param handler the handler receiving each row
+     */
+    @Transactional(readOnly = true)
+    public void streamSalesReport(ReportFilterDto filter, SalesDao.SalesReportRowHandler handler) {
+        salesDao.streamSalesReport(filter, handler);
+    }
+
+    /**
+     * Streams the daily sales report row by row.
+     * Runs in a read-only transaction, so the rows are read from a database cursor.
+     *
+     * @param filter the filters of the report
+     * @param handler the handler receiving each row
+     */
+    @Transactional(readOnly = true)
+    public void streamDailySalesReport(ReportFilterDto filter, SalesDao.DailySalesRowHandler handler) {
+        salesDao.streamDailySales(filter, handler);
+    }
 }
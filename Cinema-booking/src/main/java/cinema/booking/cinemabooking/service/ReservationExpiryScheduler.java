@@ -0,0 +1,138 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service expiring pending reservations at their exact expiry time.
+ * Each new reservation is registered in a delay queue, and a single worker thread cancels it
+ * as soon as its hold time passes. Pending reservations are recovered from the database on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryScheduler {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+
+    private final DelayQueue<ScheduledExpiry> queue = new DelayQueue<>();
+    private volatile Thread worker;
+
+    /**
+     * Register all pending reservations and start the expiry worker once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<ReservationRepository.ReservationExpiry> pending = reservationRepository.findExpiriesByStatus(ReservationStatus.PENDING);
+        for (ReservationRepository.ReservationExpiry expiry : pending) {
+            schedule(expiry.getId(), expiry.getExpiresAt());
+        }
+        log.info("Recovered {} pending reservation expiries", pending.size());
+
+        worker = Thread.ofPlatform()
+                .name("reservation-expiry")
+                .daemon()
+                .start(this::run);
+    }
+
+    /**
+     * Stop the expiry worker.
+     */
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Register a new reservation after its creation is committed.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservationCommitted(ReservationEvent event) {
+        if (event.getType() == ReservationEventType.CREATED && event.getExpiresAt() != null) {
+            schedule(event.getReservationId(), event.getExpiresAt());
+        }
+    }
+
+    /**
+     * Schedule a reservation to be expired at the given time.
+     * Reservations paid or cancelled before that are skipped when the time comes.
+     * @param reservationId the ID of the reservation
+     * @param expiresAt the expiry time of the reservation
+     */
+    public void schedule(Long reservationId, LocalDateTime expiresAt) {
+        queue.put(new ScheduledExpiry(reservationId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+
+    /**
+     * Worker loop, waits for the next due reservation and expires it together with any other due ones.
+     */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<ScheduledExpiry> due = new ArrayList<>();
+                due.add(queue.take());
+                queue.drainTo(due, MAX_BATCH_SIZE - 1);
+                expire(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.debug("Reservation expiry worker stopped");
+    }
+
+    /**
+     * Expire a batch of due reservations.
+     * Failures are left to the periodic sweep in {@link ReservationService#autoCancelExpiredReservations()}.
+     * @param due the due reservations
+     */
+    private void expire(List<ScheduledExpiry> due) {
+        List<Long> reservationIds = due.stream()
+                .map(ScheduledExpiry::reservationId)
+                .distinct()
+                .toList();
+        try {
+            reservationService.expireReservations(reservationIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire reservations {}, leaving them to the periodic sweep", reservationIds, e);
+        }
+    }
+
+    /**
+     * Reservation waiting in the delay queue until its expiry time.
+     */
+    record ScheduledExpiry(Long reservationId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
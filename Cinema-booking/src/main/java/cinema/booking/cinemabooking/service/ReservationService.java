@@ -2,8 +2,11 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.request.CreateReservationDto;
 import cinema.booking.cinemabooking.dto.response.ReservationSummaryDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
 import cinema.booking.cinemabooking.enums.ReservationStatus;
 import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
 import cinema.booking.cinemabooking.exception.InvalidReservationActionException;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
 import cinema.booking.cinemabooking.exception.SeatAlreadyOccupiedException;
@@ -13,6 +16,9 @@ import cinema.booking.cinemabooking.model.*;
 import cinema.booking.cinemabooking.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,12 +26,14 @@ import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayInputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing reservations.
@@ -40,12 +48,22 @@ public class ReservationService {
     private final SeatRepository seatRepository;
     private final UserRepository userRepository;
     private final ReservationRepository reservationRepository;
-    private final PdfTicketService pdfTicketService;
+    private final SeatHoldRepository seatHoldRepository;
+    private final TicketPdfCacheService ticketPdfCacheService;
     private final ReservationMapper reservationMapper;
     private final TicketMapper ticketMapper;
+    private final SeatOccupancyService seatOccupancyService;
+    private final SeatHoldManager seatHoldManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int EXPIRY_CHUNK_SIZE = 500;
 
     /**
      * Create a new reservation with proper concurrency handling.
+     * The requested seats are claimed in memory before the transaction opens, so requests losing
+     * a race for the same seats are rejected without using a database connection.
      *
      * @param request  the reservation request data
      * @param username the username of the user making the reservation
@@ -54,11 +72,10 @@ public class ReservationService {
      * @throws SeatAlreadyOccupiedException       if any of the requested seats are already taken
      * @throws InvalidReservationActionException  if the reservation request is invalid
      */
-    @Transactional
     public ReservationSummaryDto createReservation(CreateReservationDto request, String username) {
         log.info("Attempting to create reservation for user: {} on seance ID: {}", username, request.getSeanceId());
 
-        // Fetch seance and user
+        // Fetch seance
         Seance seance = seanceRepository.findById(request.getSeanceId())
                 .orElseThrow(() -> {
                     log.warn("Seance with ID {} not found", request.getSeanceId());
@@ -71,37 +88,58 @@ public class ReservationService {
             throw new InvalidReservationActionException("Cannot create reservation for past seance.");
         }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.warn("User with username {} not found", username);
-                    return new ResourceNotFoundException("User not found");
-                });
-
         // Collect requested seat IDs
         List<Long> requestedSeatIds = request.getTickets().stream()
                 .map(CreateReservationDto.TicketRequest::getSeatId)
                 .toList();
 
-        // Lock the seats to prevent concurrent modifications
-        log.debug("Locking seats for reservation: {}", requestedSeatIds);
-        List<Seat> lockedSeats = seatRepository.findAllByIdInWithLock(requestedSeatIds);
+        // Check if any of the requested seats are already taken
+        List<Long> takenSeatIds = seatOccupancyService.findOccupiedSeatIds(seance, requestedSeatIds);
+        if (!takenSeatIds.isEmpty()) {
+            log.warn("Seat ID {} is already taken", takenSeatIds.getFirst());
+            throw new SeatAlreadyOccupiedException("Seat " + takenSeatIds.getFirst() + " is already taken");
+        }
 
-        if (lockedSeats.size() != requestedSeatIds.size()) {
-            log.warn("Invalid seat IDs in the reservation request: {}", requestedSeatIds);
-            throw new InvalidReservationActionException("Invalid seat IDs in the request");
+        // Claim the seats against concurrent requests
+        long claim = seatHoldManager.tryClaim(seance, requestedSeatIds);
+        if (claim == 0) {
+            log.warn("Seats {} for seance ID {} are being reserved by another request", requestedSeatIds, seance.getId());
+            throw new SeatAlreadyOccupiedException("One of the selected seats is already taken");
         }
 
-        // Check if any of the requested seats are already taken
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), LocalDateTime.now());
-        List<Long> takenSeatIds = takenTickets.stream()
-                .map(ticket -> ticket.getSeat().getId())
-                .toList();
+        try {
+            return transactionTemplate.execute(status -> saveReservation(request, username, seance.getId(), requestedSeatIds));
+        } finally {
+            seatHoldManager.release(seance.getId(), requestedSeatIds, claim);
+        }
+    }
+
+    /**
+     * Persist a new reservation for seats already claimed in memory.
+     * Must run inside a transaction.
+     *
+     * @param request          the reservation request data
+     * @param username         the username of the user making the reservation
+     * @param seanceId         the ID of the seance
+     * @param requestedSeatIds the IDs of the requested seats
+     * @return summary of the created reservation
+     */
+    private ReservationSummaryDto saveReservation(CreateReservationDto request, String username, Long seanceId, List<Long> requestedSeatIds) {
+        Seance seance = seanceRepository.findById(seanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Seance not found"));
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.warn("User with username {} not found", username);
+                    return new ResourceNotFoundException("User not found");
+                });
+
+        // Fetch the requested seats
+        List<Seat> seats = seatRepository.findAllByIdIn(requestedSeatIds);
 
-        for (Long seatId : requestedSeatIds) {
-            if (takenSeatIds.contains(seatId)) {
-                log.warn("Seat ID {} is already taken", seatId);
-                throw new SeatAlreadyOccupiedException("Seat " + seatId + " is already taken");
-            }
+        if (seats.size() != requestedSeatIds.size()) {
+            log.warn("Invalid seat IDs in the reservation request: {}", requestedSeatIds);
+            throw new InvalidReservationActionException("Invalid seat IDs in the request");
         }
 
         // Create reservation and tickets
@@ -116,7 +154,7 @@ public class ReservationService {
 
         // Iterate over ticket requests to create Ticket entities
         for (CreateReservationDto.TicketRequest ticketRequest : request.getTickets()) {
-            Seat seat = lockedSeats.stream()
+            Seat seat = seats.stream()
                     .filter(s -> s.getId().equals(ticketRequest.getSeatId()))
                     .findFirst()
                     .orElseThrow();
@@ -134,12 +172,17 @@ public class ReservationService {
         reservation.setTotalPrice(totalPrice);
 
         Reservation savedReservation = reservationRepository.save(reservation);
+
+        // Claim the seats, concurrent buyers of the same seats fail on the unique constraint
+        claimSeats(savedReservation, seance, seats);
         log.info("Reservation created successfully with ID: {} for user: {}", savedReservation.getId(), username);
 
+        eventPublisher.publishEvent(new ReservationEvent(ReservationEventType.CREATED, savedReservation.getId(),
+                seance.getId(), requestedSeatIds, reservation.getExpiresAt()));
+
         return reservationMapper.toSummaryDto(savedReservation);
     }
 
-
     /**
      * Pay for a reservation, updating its status and generating unique codes.
      * @param reservationId the ID of the reservation to pay for
@@ -168,6 +211,13 @@ public class ReservationService {
             throw new InvalidReservationActionException("Reservation has expired and cannot be paid.");
         }
 
+        // The expiry sweep may have cancelled the reservation and released its seats since it was read,
+        // so only move it to PAID if it is still pending
+        if (reservationRepository.updateStatusById(reservationId, ReservationStatus.PENDING, ReservationStatus.PAID) == 0) {
+            log.warn("Reservation ID {} was cancelled before its payment completed", reservationId);
+            throw new InvalidReservationActionException("Reservation cannot be paid in its current status.");
+        }
+
         // Update reservation status and generate codes
         reservation.setStatus(ReservationStatus.PAID);
         reservation.setReservationCode(UUID.randomUUID().toString());
@@ -176,6 +226,10 @@ public class ReservationService {
             ticket.setTicketCode(UUID.randomUUID().toString());
         }
         reservationRepository.save(reservation);
+        seatHoldRepository.confirmByReservationId(reservationId);
+        salesRollupService.recordPayment(reservation);
+        publishReservationEvent(ReservationEventType.PAID, reservation, reservation.getTickets());
+        eventPublisher.publishEvent(TicketsSoldEvent.of(reservation));
         log.info("Payment processed successfully for reservation ID: {}", reservationId);
     }
 
@@ -242,7 +296,9 @@ public class ReservationService {
 
         reservation.getTickets().remove(ticketToRemove);
         ticketRepository.delete(ticketToRemove);
+        seatHoldRepository.deleteByReservationIdAndSeatId(reservationId, ticketToRemove.getSeat().getId());
         recalculateReservationTotal(reservation);
+        publishReservationEvent(ReservationEventType.TICKET_REMOVED, reservation, List.of(ticketToRemove));
 
         log.info("Ticket ID: {} removed successfully from reservation ID: {}", ticketId, reservationId);
 
@@ -303,6 +359,7 @@ public class ReservationService {
      * @throws ResourceNotFoundException if the reservation is not found
      * @throws InvalidReservationActionException if the reservation cannot be cancelled
      */
+    @Transactional
     public void cancelReservation(Long reservationId) {
         log.info("Cancelling reservation ID: {}", reservationId);
 
@@ -319,6 +376,8 @@ public class ReservationService {
 
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
+        seatHoldRepository.deleteByReservationId(reservationId);
+        publishReservationEvent(ReservationEventType.CANCELLED, reservation, reservation.getTickets());
         log.info("Reservation ID: {} cancelled successfully", reservationId);
     }
 
@@ -334,17 +393,7 @@ public class ReservationService {
     public Reservation getReservationDetails(Long reservationId, String username) {
         log.debug("Fetching details for reservation ID: {} for user: {}", reservationId, username);
 
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> {
-                    log.warn("Reservation with ID {} not found", reservationId);
-                    return new ResourceNotFoundException("Reservation not found");
-                });
-
-        if (!reservation.getUser().getUsername().equals(username)) {
-            log.warn("User: {} attempted to access reservation ID: {} without permission", username, reservationId);
-            throw new SecurityException("Access denied to this reservation.");
-        }
-
+        Reservation reservation = getOwnedReservation(reservationId, username);
         reservation.getTickets().size(); // Initialize lazy loading
         return reservation;
     }
@@ -373,14 +422,12 @@ public class ReservationService {
             throw new InvalidReservationActionException("Cannot modify a paid reservation.");
         }
 
-        // Lock the seat
-        Seat seat = seatRepository.findAllByIdInWithLock(List.of(seatId)).stream()
-                .findFirst()
+        Seat seat = seatRepository.findById(seatId)
                 .orElseThrow(() -> new ResourceNotFoundException("Seat not found"));
 
         // Check if the seat is already taken for the seance
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(reservation.getTickets().get(0).getSeance().getId(), LocalDateTime.now());
-        boolean isTaken = takenTickets.stream().anyMatch(t -> t.getSeat().getId().equals(seatId));
+        Seance seance = reservation.getTickets().getFirst().getSeance();
+        boolean isTaken = !seatOccupancyService.findOccupiedSeatIds(seance, List.of(seatId)).isEmpty();
 
         if (isTaken) {
             log.warn("Seat ID {} is already taken for reservation ID: {}", seatId, reservationId);
@@ -388,15 +435,18 @@ public class ReservationService {
         }
 
         Ticket ticket = ticketMapper.toEntity(reservation,
-                reservation.getTickets().getFirst().getSeance(),
+                seance,
                 seat,
                 TicketType.REGULAR,
-                reservation.getTickets().getFirst().getSeance().getRegularTicketPrice());
+                seance.getRegularTicketPrice());
 
+        claimSeats(reservation, seance, List.of(seat));
         ticketRepository.save(ticket);
         reservation.getTickets().add(ticket);
 
         recalculateReservationTotal(reservation);
+        eventPublisher.publishEvent(new ReservationEvent(ReservationEventType.TICKET_ADDED, reservation.getId(),
+                seance.getId(), List.of(seatId), reservation.getExpiresAt()));
 
         log.info("Ticket for seat ID: {} added successfully to reservation ID: {}", seatId, reservationId);
 
@@ -404,46 +454,105 @@ public class ReservationService {
     }
 
     /**
-     * Generate a PDF ticket for a paid reservation.
+     * Get the PDF tickets of a paid reservation.
+     * The PDF of a paid reservation never changes, so it is generated on the first download and served from the cache afterwards.
+     * Only the ownership check runs in a transaction, the PDF is rendered outside it so a slow render holds no database connection.
      * @param reservationId the ID of the reservation
      * @param username the username of the user
-     * @return ByteArrayInputStream containing the PDF data
+     * @return the cached PDF file with its ETag
      * @throws ResourceNotFoundException if the reservation is not found
      * @throws InvalidReservationActionException if the reservation is not paid
      */
-    @Transactional(readOnly = true)
-    public ByteArrayInputStream generatePdfForReservation(Long reservationId, String username) {
-        log.info("Generating PDF ticket for reservation ID: {} for user: {}", reservationId, username);
-        Reservation reservation = getReservationDetails(reservationId, username);
+    public TicketPdfCacheService.CachedPdf getPdfForReservation(Long reservationId, String username) {
+        log.info("Getting PDF tickets for reservation ID: {} for user: {}", reservationId, username);
+        // The tickets are left unloaded, the cache fetches them only if the PDF is not cached yet
+        Reservation reservation = transactionTemplate.execute(status -> getOwnedReservation(reservationId, username));
 
         if (reservation.getStatus() != ReservationStatus.PAID) {
             log.warn("Cannot generate PDF for unpaid reservation ID: {}", reservationId);
             throw new InvalidReservationActionException("Cannot generate PDF for unpaid reservation.");
         }
 
-        return pdfTicketService.generateReservationPdf(reservation);
+        return ticketPdfCacheService.getPdf(reservation);
     }
 
     /**
      * Scheduled task to automatically cancel expired reservations.
+     * Expired reservations are cancelled with bulk updates in chunks, each chunk in its own transaction.
+     * Reservations are normally expired on time by {@link ReservationExpiryScheduler}, this is a safety sweep.
      * Runs every minute.
      */
     @Scheduled(fixedRate = 60000)
-    @Transactional
     public void autoCancelExpiredReservations() {
         LocalDateTime now = LocalDateTime.now();
-        List<Reservation> expiredReservations = reservationRepository.findAllByStatusAndExpiresAtBefore(ReservationStatus.PENDING, now);
+        int chunkSize;
+
+        do {
+            List<Long> expiredIds = transactionTemplate.execute(status -> {
+                List<Long> ids = reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                        ReservationStatus.PENDING, now, Limit.of(EXPIRY_CHUNK_SIZE));
+                if (!ids.isEmpty()) {
+                    expireReservations(ids);
+                }
+                return ids;
+            });
+            chunkSize = expiredIds == null ? 0 : expiredIds.size();
+        } while (chunkSize == EXPIRY_CHUNK_SIZE);
+    }
+
+    /**
+     * Cancel reservations whose hold time has passed, release their seat holds and publish expiry events.
+     * Reservations that are no longer pending are skipped.
+     * @param reservationIds the IDs of the expired reservations
+     * @return the IDs of the reservations cancelled by this call
+     */
+    @Transactional
+    public List<Long> expireReservations(List<Long> reservationIds) {
+        int cancelled = reservationRepository.updateStatusByIdIn(reservationIds, ReservationStatus.PENDING, ReservationStatus.CANCELLED);
+        if (cancelled == 0) {
+            return List.of();
+        }
+
+        // Some reservations may have been paid or cancelled in the meantime, keep only the ones cancelled here
+        List<Long> cancelledIds = cancelled == reservationIds.size()
+                ? reservationIds
+                : reservationRepository.findIdsByIdInAndStatus(reservationIds, ReservationStatus.CANCELLED);
+
+        seatHoldRepository.deleteByReservationIdIn(cancelledIds);
 
-        if (!expiredReservations.isEmpty()) {
-            log.info("Found {} expired reservations to cancel", expiredReservations.size());
-            for (Reservation reservation : expiredReservations) {
-                reservation.setStatus(ReservationStatus.CANCELLED);
+        Map<Long, List<TicketRepository.ReservationSeat>> seatsByReservation = ticketRepository.findSeatsByReservationIds(cancelledIds)
+                .stream()
+                .collect(Collectors.groupingBy(TicketRepository.ReservationSeat::getReservationId));
+        seatsByReservation.forEach((reservationId, seats) -> eventPublisher.publishEvent(new ReservationEvent(
+                ReservationEventType.EXPIRED, reservationId, seats.getFirst().getSeanceId(),
+                seats.stream().map(TicketRepository.ReservationSeat::getSeatId).toList(), null)));
 
-                //TODO: send notification to user about cancellation
-            }
-            reservationRepository.saveAll(expiredReservations);
-            log.info("Successfully cancelled {} expired reservations.", expiredReservations.size());
+        //TODO: send notification to user about cancellation
+
+        log.info("Successfully cancelled {} expired reservations.", cancelledIds.size());
+        return cancelledIds;
+    }
+
+    /**
+     * Get a reservation of a user, without loading its tickets.
+     * @param reservationId the ID of the reservation
+     * @param username the username of the user
+     * @return the reservation
+     * @throws ResourceNotFoundException if the reservation is not found
+     * @throws SecurityException if the user does not own the reservation
+     */
+    private Reservation getOwnedReservation(Long reservationId, String username) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> {
+                    log.warn("Reservation with ID {} not found", reservationId);
+                    return new ResourceNotFoundException("Reservation not found");
+                });
+
+        if (!reservation.getUser().getUsername().equals(username)) {
+            log.warn("User: {} attempted to access reservation ID: {} without permission", username, reservationId);
+            throw new SecurityException("Access denied to this reservation.");
         }
+        return reservation;
     }
 
     /**
@@ -458,6 +567,55 @@ public class ReservationService {
                 : seance.getRegularTicketPrice();
     }
 
+    /**
+     * Claim seats for a reservation by inserting seance-scoped seat holds.
+     * Expired holds on the same seats are removed first, so abandoned reservations do not block them.
+     * @param reservation the reservation claiming the seats
+     * @param seance the seance of the reservation
+     * @param seats the seats to claim
+     * @throws SeatAlreadyOccupiedException if any of the seats is held by another reservation
+     */
+    private void claimSeats(Reservation reservation, Seance seance, List<Seat> seats) {
+        List<Long> seatIds = seats.stream().map(Seat::getId).toList();
+        seatHoldRepository.deleteExpiredHolds(seance.getId(), seatIds, LocalDateTime.now());
+
+        List<SeatHold> holds = new ArrayList<>();
+        for (Seat seat : seats) {
+            SeatHold hold = new SeatHold();
+            hold.setSeance(seance);
+            hold.setSeat(seat);
+            hold.setReservation(reservation);
+            hold.setExpiresAt(reservation.getExpiresAt());
+            holds.add(hold);
+        }
+
+        try {
+            seatHoldRepository.saveAllAndFlush(holds);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Seats {} for seance ID {} were claimed by another reservation", seatIds, seance.getId());
+            throw new SeatAlreadyOccupiedException("One of the selected seats is already taken");
+        }
+    }
+
+    /**
+     * Publish a reservation event for the seats of the given tickets.
+     * @param type the type of the event
+     * @param reservation the affected reservation
+     * @param tickets the tickets whose seats changed
+     */
+    private void publishReservationEvent(ReservationEventType type, Reservation reservation, List<Ticket> tickets) {
+        if (tickets == null || tickets.isEmpty()) {
+            return;
+        }
+
+        List<Long> seatIds = tickets.stream()
+                .map(ticket -> ticket.getSeat().getId())
+                .toList();
+        Long seanceId = tickets.getFirst().getSeance().getId();
+
+        eventPublisher.publishEvent(new ReservationEvent(type, reservation.getId(), seanceId, seatIds, reservation.getExpiresAt()));
+    }
+
     /**
      * Recalculate the total price of a reservation based on its tickets.
      * @param reservation the reservation to recalculate
@@ -0,0 +1,485 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SalesCubeCellDto;
+import cinema.booking.cinemabooking.enums.SalesDimension;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service holding every paid ticket in memory as a columnar store for interactive sales analytics.
+ * Each ticket is one row across primitive columns of sale day, sale hour, movie, cinema room, ticket type and price in cents.
+ * Movie and room IDs are dictionary encoded to dense codes, so a group-by adds up into flat arrays indexed by group
+ * instead of hashing every row. Queries scan the columns in parallel fork-join tasks and never touch the database.
+ * The store is loaded once from the database and appended to after every committed payment.
+ */
+@Service
+@Slf4j
+public class SalesCubeService {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MIN_ROWS_PER_TASK = 1 << 15;
+    private static final int MAX_GROUPS = 1 << 18;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+
+    private final SalesDao salesDao;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadMonitor = new Object();
+
+    /**
+     * Loaded tickets, guarded by the lock.
+     */
+    private Columns columns = new Columns();
+
+    /**
+     * Sales committed while the store is loading, guarded by the lock and null when not loading.
+     */
+    private List<TicketsSoldEvent> pendingSales;
+
+    private volatile boolean loaded;
+
+    public SalesCubeService(SalesDao salesDao, PlatformTransactionManager transactionManager) {
+        this.salesDao = salesDao;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Load the store once the application is ready, so the first query does not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not load sales cube on startup, it will be loaded on first use", e);
+        }
+    }
+
+    /**
+     * Append the tickets of a payment once it is committed.
+     * Payments committed before the store is loaded are skipped, the load reads them from the database.
+     * @param event the sold tickets
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTicketsSold(TicketsSoldEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingSales != null) {
+                pendingSales.add(event);
+            } else if (loaded) {
+                columns.append(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sum up paid tickets and revenue per group of the given dimensions.
+     * Groups are ordered by the values of the first dimension, then the second and so on, and groups without sales are left out.
+     * @param filter the filters restricting the tickets
+     * @param groupBy the dimensions to group by, at least one and each at most once
+     * @return the sales per group
+     * @throws InvalidReportQueryException if the dimensions are invalid or would produce too many groups
+     */
+    public List<SalesCubeCellDto> aggregate(ReportFilterDto filter, List<SalesDimension> groupBy) {
+        if (groupBy == null || groupBy.isEmpty() || EnumSet.copyOf(groupBy).size() != groupBy.size()) {
+            throw new InvalidReportQueryException("Group by at least one dimension, each at most once");
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            if (columns.size == 0) {
+                return List.of();
+            }
+            CubeQuery query = new CubeQuery(columns, filter, groupBy);
+            Totals totals = ForkJoinPool.commonPool().invoke(new ScanTask(columns, query, 0, columns.size));
+            return query.cells(columns, totals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of tickets held in the store.
+     * @return the number of loaded tickets
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadMonitor) {
+            if (!loaded) {
+                load();
+            }
+        }
+    }
+
+    /**
+     * Load all paid tickets into fresh columns without blocking queries or payments.
+     * Payments committed meanwhile are held back and added afterwards, unless the load already read their reservation.
+     */
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            pendingSales = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh = new Columns();
+        ReservationIds loadedReservations = new ReservationIds();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> salesDao.streamPaidTickets(
+                    (reservationId, soldAt, movieId, cinemaRoomId, ticketType, price) -> {
+                        loadedReservations.add(reservationId);
+                        fresh.append(soldAt, movieId, cinemaRoomId, ticketType, price);
+                    }));
+        } catch (RuntimeException e) {
+            finishLoading(columns, new ReservationIds(), loaded);
+            throw e;
+        }
+
+        finishLoading(fresh, loadedReservations, true);
+        log.info("Sales cube loaded with {} tickets", fresh.size);
+    }
+
+    private void finishLoading(Columns target, ReservationIds loadedReservations, boolean nowLoaded) {
+        lock.writeLock().lock();
+        try {
+            for (TicketsSoldEvent event : pendingSales) {
+                if (nowLoaded && !loadedReservations.contains(event.getReservationId())) {
+                    target.append(event);
+                }
+            }
+            columns = target;
+            pendingSales = null;
+            loaded = nowLoaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Growable primitive columns, one entry per ticket.
+     */
+    private static final class Columns {
+        private int size;
+        private int[] days = new int[INITIAL_CAPACITY];
+        private byte[] hours = new byte[INITIAL_CAPACITY];
+        private int[] movies = new int[INITIAL_CAPACITY];
+        private int[] rooms = new int[INITIAL_CAPACITY];
+        private byte[] ticketTypes = new byte[INITIAL_CAPACITY];
+        private int[] prices = new int[INITIAL_CAPACITY];
+        private final Dictionary movieIds = new Dictionary();
+        private final Dictionary roomIds = new Dictionary();
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        void append(TicketsSoldEvent event) {
+            for (TicketsSoldEvent.SoldTicket ticket : event.getTickets()) {
+                append(event.getSoldAt(), ticket.movieId(), ticket.cinemaRoomId(), ticket.ticketType(), ticket.price());
+            }
+        }
+
+        void append(LocalDateTime soldAt, long movieId, long cinemaRoomId, TicketType ticketType, double price) {
+            if (size == days.length) {
+                grow();
+            }
+            int day = (int) soldAt.toLocalDate().toEpochDay();
+            days[size] = day;
+            hours[size] = (byte) soldAt.getHour();
+            movies[size] = movieIds.encode(movieId);
+            rooms[size] = roomIds.encode(cinemaRoomId);
+            ticketTypes[size] = (byte) ticketType.ordinal();
+            prices[size] = (int) Math.round(price * 100);
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            size++;
+        }
+
+        private void grow() {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            hours = Arrays.copyOf(hours, capacity);
+            movies = Arrays.copyOf(movies, capacity);
+            rooms = Arrays.copyOf(rooms, capacity);
+            ticketTypes = Arrays.copyOf(ticketTypes, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+    }
+
+    /**
+     * Mapping of entity IDs to dense codes in order of first appearance.
+     */
+    private static final class Dictionary {
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private long[] ids = new long[16];
+
+        int encode(long id) {
+            Integer code = codes.get(id);
+            if (code != null) {
+                return code;
+            }
+            int next = codes.size();
+            if (next == ids.length) {
+                ids = Arrays.copyOf(ids, next * 2);
+            }
+            ids[next] = id;
+            codes.put(id, next);
+            return next;
+        }
+
+        Integer find(long id) {
+            return codes.get(id);
+        }
+
+        long decode(int code) {
+            return ids[code];
+        }
+
+        int size() {
+            return codes.size();
+        }
+    }
+
+    /**
+     * Sorted distinct reservation IDs read by a load, relying on the tickets being streamed ordered by reservation.
+     */
+    private static final class ReservationIds {
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    /**
+     * A group-by query translated to the codes of the columns.
+     * A group is numbered in mixed radix, with one digit per dimension and the first dimension as the most significant.
+     */
+    private static final class CubeQuery {
+        private final SalesDimension[] dimensions;
+        private final int[] cardinalities;
+        private final int groups;
+        private final int firstDay;
+        private final int lastDay;
+        private final boolean[] movieFilter;
+        private final boolean[] roomFilter;
+        private final int ticketType;
+        private final int rowsPerTask;
+
+        CubeQuery(Columns columns, ReportFilterDto filter, List<SalesDimension> groupBy) {
+            firstDay = filter.getFrom() == null ? columns.minDay : Math.max(columns.minDay, (int) filter.getFrom().toEpochDay());
+            lastDay = filter.getTo() == null ? columns.maxDay : Math.min(columns.maxDay, (int) filter.getTo().toEpochDay());
+            movieFilter = codes(filter.getMovieIds(), columns.movieIds);
+            roomFilter = codes(filter.getRoomIds(), columns.roomIds);
+            ticketType = filter.getTicketType() == null ? -1 : filter.getTicketType().ordinal();
+
+            dimensions = groupBy.toArray(SalesDimension[]::new);
+            cardinalities = new int[dimensions.length];
+            long product = 1;
+            for (int i = 0; i < dimensions.length; i++) {
+                cardinalities[i] = switch (dimensions[i]) {
+                    case DAY -> Math.max(lastDay - firstDay + 1, 1);
+                    case HOUR -> 24;
+                    case MOVIE -> columns.movieIds.size();
+                    case ROOM -> columns.roomIds.size();
+                    case TICKET_TYPE -> TICKET_TYPES.length;
+                };
+                product *= cardinalities[i];
+                if (product > MAX_GROUPS) {
+                    throw new InvalidReportQueryException("Query would produce more than " + MAX_GROUPS
+                            + " groups, narrow the date range or group by fewer dimensions");
+                }
+            }
+            groups = (int) product;
+            rowsPerTask = Math.max(MIN_ROWS_PER_TASK, columns.size / (ForkJoinPool.getCommonPoolParallelism() * 2));
+        }
+
+        /**
+         * Translate filtered IDs to a lookup by code, IDs without sales are ignored.
+         */
+        private static boolean[] codes(List<Long> ids, Dictionary dictionary) {
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            boolean[] allowed = new boolean[dictionary.size()];
+            for (Long id : ids) {
+                Integer code = dictionary.find(id);
+                if (code != null) {
+                    allowed[code] = true;
+                }
+            }
+            return allowed;
+        }
+
+        boolean matches(Columns columns, int row) {
+            int day = columns.days[row];
+            return day >= firstDay && day <= lastDay
+                    && (movieFilter == null || movieFilter[columns.movies[row]])
+                    && (roomFilter == null || roomFilter[columns.rooms[row]])
+                    && (ticketType < 0 || columns.ticketTypes[row] == ticketType);
+        }
+
+        int group(Columns columns, int row) {
+            int group = 0;
+            for (int i = 0; i < dimensions.length; i++) {
+                int digit = switch (dimensions[i]) {
+                    case DAY -> columns.days[row] - firstDay;
+                    case HOUR -> columns.hours[row];
+                    case MOVIE -> columns.movies[row];
+                    case ROOM -> columns.rooms[row];
+                    case TICKET_TYPE -> columns.ticketTypes[row];
+                };
+                group = group * cardinalities[i] + digit;
+            }
+            return group;
+        }
+
+        List<SalesCubeCellDto> cells(Columns columns, Totals totals) {
+            List<SalesCubeCellDto> cells = new ArrayList<>();
+            for (int group = 0; group < groups; group++) {
+                if (totals.tickets[group] == 0) {
+                    continue;
+                }
+                SalesCubeCellDto cell = new SalesCubeCellDto();
+                int rest = group;
+                for (int i = dimensions.length - 1; i >= 0; i--) {
+                    int digit = rest % cardinalities[i];
+                    rest /= cardinalities[i];
+                    switch (dimensions[i]) {
+                        case DAY -> cell.setDate(LocalDate.ofEpochDay(firstDay + digit));
+                        case HOUR -> cell.setHour(digit);
+                        case MOVIE -> cell.setMovieId(columns.movieIds.decode(digit));
+                        case ROOM -> cell.setCinemaRoomId(columns.roomIds.decode(digit));
+                        case TICKET_TYPE -> cell.setTicketType(TICKET_TYPES[digit]);
+                    }
+                }
+                cell.setTicketsSold((long) totals.tickets[group]);
+                cell.setTotalRevenue(totals.cents[group] / 100.0);
+                cells.add(cell);
+            }
+            cells.sort(order());
+            return cells;
+        }
+
+        /**
+         * Order of the cells by the grouped dimensions, needed as movie and room codes follow first appearance, not ID.
+         */
+        private Comparator<SalesCubeCellDto> order() {
+            Comparator<SalesCubeCellDto> order = (a, b) -> 0;
+            for (SalesDimension dimension : dimensions) {
+                order = order.thenComparing(switch (dimension) {
+                    case DAY -> Comparator.comparing(SalesCubeCellDto::getDate);
+                    case HOUR -> Comparator.comparing(SalesCubeCellDto::getHour);
+                    case MOVIE -> Comparator.comparing(SalesCubeCellDto::getMovieId);
+                    case ROOM -> Comparator.comparing(SalesCubeCellDto::getCinemaRoomId);
+                    case TICKET_TYPE -> Comparator.comparing(SalesCubeCellDto::getTicketType);
+                });
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Tickets and revenue in cents per group.
+     */
+    private static final class Totals {
+        private final int[] tickets;
+        private final long[] cents;
+
+        Totals(int groups) {
+            tickets = new int[groups];
+            cents = new long[groups];
+        }
+
+        Totals add(Totals other) {
+            for (int i = 0; i < tickets.length; i++) {
+                tickets[i] += other.tickets[i];
+                cents[i] += other.cents[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Fork-join scan of a range of rows, split in halves until a range is small enough to scan directly.
+     */
+    private static final class ScanTask extends RecursiveTask<Totals> {
+        private final Columns columns;
+        private final CubeQuery query;
+        private final int from;
+        private final int to;
+
+        ScanTask(Columns columns, CubeQuery query, int from, int to) {
+            this.columns = columns;
+            this.query = query;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= query.rowsPerTask) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(columns, query, from, middle);
+            left.fork();
+            Totals right = new ScanTask(columns, query, middle, to).compute();
+            return right.add(left.join());
+        }
+
+        private Totals scan() {
+            Totals totals = new Totals(query.groups);
+            for (int row = from; row < to; row++) {
+                if (query.matches(columns, row)) {
+                    int group = query.group(columns, row);
+                    totals.tickets[group]++;
+                    totals.cents[group] += columns.prices[row];
+                }
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.model.Ticket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the sales rollups read by the reports.
+ * Each payment adds its tickets to the per-movie and per-day totals in the payment transaction,
+ * so the reports read a few rows per movie and day instead of every ticket ever sold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+    private final SalesDao salesDao;
+
+    /**
+     * Add the tickets of a paid reservation to the sales rollups.
+     * Must run in the payment transaction, so the totals are committed or rolled back together with the payment.
+     * A missing row is created in the same transaction, an insert racing another payment is skipped by the database.
+     * @param reservation the paid reservation
+     */
+    @Transactional
+    public void recordPayment(Reservation reservation) {
+        LocalDate saleDate = reservation.getCreatedAt().toLocalDate();
+
+        Map<Long, List<Ticket>> byMovie = reservation.getTickets().stream()
+                .collect(Collectors.groupingBy(ticket -> ticket.getSeance().getMovie().getId()));
+        byMovie.forEach((movieId, tickets) -> {
+            if (!salesDao.addMovieSales(movieId, tickets.size(), revenue(tickets))) {
+                salesDao.insertMovieSalesRow(movieId);
+                salesDao.addMovieSales(movieId, tickets.size(), revenue(tickets));
+            }
+        });
+
+        Map<DailyKey, List<Ticket>> byDay = reservation.getTickets().stream()
+                .collect(Collectors.groupingBy(ticket -> new DailyKey(
+                        ticket.getSeance().getMovie().getId(), ticket.getSeance().getCinemaRoom().getId(), ticket.getTicketType())));
+        byDay.forEach((key, tickets) -> {
+            if (!salesDao.addDailySales(saleDate, key.movieId(), key.cinemaRoomId(), key.ticketType(), tickets.size(), revenue(tickets))) {
+                salesDao.insertDailySalesRow(saleDate, key.movieId(), key.cinemaRoomId(), key.ticketType());
+                salesDao.addDailySales(saleDate, key.movieId(), key.cinemaRoomId(), key.ticketType(), tickets.size(), revenue(tickets));
+            }
+        });
+
+        log.debug("Recorded {} tickets of reservation ID: {} in sales rollups", reservation.getTickets().size(), reservation.getId());
+    }
+
+    /**
+     * Rebuild the sales rollups from all paid tickets, e.g. to backfill them or to repair drift.
+     * Payments committed while the rebuild runs may be counted twice or not at all, so run it in a quiet period.
+     */
+    @Transactional
+    public void rebuild() {
+        salesDao.rebuildRollups();
+    }
+
+    /**
+     * Build the sales rollups once the application is ready, if paid reservations exist but the rollups were never built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfMissing() {
+        if (salesDao.isRollupMissing()) {
+            log.info("Sales rollups are empty, backfilling them from paid tickets");
+            rebuild();
+        }
+    }
+
+    private static double revenue(List<Ticket> tickets) {
+        return tickets.stream().mapToDouble(Ticket::getPrice).sum();
+    }
+
+    /**
+     * Key of a daily rollup row within one reservation, which always has a single sale date.
+     */
+    private record DailyKey(Long movieId, Long cinemaRoomId, TicketType ticketType) {
+    }
+}
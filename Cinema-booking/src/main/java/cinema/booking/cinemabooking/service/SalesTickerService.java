@@ -0,0 +1,351 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.SalesRateDto;
+import cinema.booking.cinemabooking.dto.report.SalesTickerDto;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Service collecting live sales telemetry for the admin dashboard without querying the database.
+ * Committed reservation and sale events are counted per minute in lock-free ring buffers covering the last hour,
+ * globally and per seance, and snapshots are pushed to the subscribed dashboards over Server-Sent Events.
+ * Snapshots are queued per subscriber, see {@link SseSubscriber}, so a dashboard that stops reading only blocks its own stream.
+ * The number of open streams is capped.
+ */
+@Service
+@Slf4j
+public class SalesTickerService {
+    static final int WINDOW_MINUTES = 60;
+    private static final int TOP_SEANCES = 10;
+    private static final long EMITTER_TIMEOUT = 30 * 60 * 1000L;
+    // A minute of snapshots
+    private static final int MAX_PENDING_EVENTS = 12;
+
+    private final RollingWindow global = new RollingWindow();
+    private final Map<Long, RollingWindow> seances = new ConcurrentHashMap<>();
+    // Open streams with the ID of the followed seance, or an empty subscription for the global ticker
+    private final Map<SseSubscriber, Subscription> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final int maxSubscribers;
+
+    /**
+     * Constructor to initialize the ticker service with configuration values.
+     *
+     * @param senderCount    Number of threads sending snapshots to subscribers.
+     * @param maxSubscribers Number of ticker streams that may be open at once.
+     */
+    public SalesTickerService(
+            @Value("${app.sales-ticker.stream-senders:2}") int senderCount,
+            @Value("${app.sales-ticker.max-subscribers:50}") int maxSubscribers) {
+
+        this.maxSubscribers = maxSubscribers;
+        this.senders = Executors.newFixedThreadPool(senderCount,
+                Thread.ofPlatform().name("sales-ticker-", 1).daemon().factory());
+    }
+
+    /**
+     * Take a snapshot of the sales activity.
+     * @param seanceId the ID of the seance to follow, or null for all seances
+     * @return the activity of the last minute and hour, with the best selling seances when not following one
+     */
+    public SalesTickerDto getTicker(Long seanceId) {
+        return snapshot(seanceId, currentMinute());
+    }
+
+    /**
+     * Subscribe to the sales ticker. A snapshot is sent right away and then every few seconds.
+     * @param seanceId the ID of the seance to follow, or null for all seances
+     * @return the emitter streaming the snapshots
+     * @throws TooManySubscribersException if the limit of open ticker streams is reached
+     */
+    public SseEmitter subscribe(Long seanceId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            log.warn("Sales ticker stream limit of {} reached, rejecting subscriber for seance ID: {}", maxSubscribers, seanceId);
+            throw new TooManySubscribersException("Too many open sales ticker streams, try again later.");
+        }
+
+        SseSubscriber subscriber = new SseSubscriber(createEmitter(), "sales ticker subscriber for seance ID: " + seanceId,
+                senders, MAX_PENDING_EVENTS, this::unsubscribe);
+        subscribers.put(subscriber, new Subscription(seanceId));
+
+        SseEmitter emitter = subscriber.getEmitter();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscriber.offer(event(snapshot(seanceId, currentMinute())));
+        log.debug("New sales ticker subscriber for seance ID: {}, subscribers: {}", seanceId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Create the emitter of a new subscriber.
+     * @return the emitter
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT);
+    }
+
+    /**
+     * Get the number of open ticker streams.
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Count created, cancelled and expired reservations.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationCommitted(ReservationEvent event) {
+        Metric metric = switch (event.getType()) {
+            case CREATED -> Metric.RESERVATIONS_CREATED;
+            case CANCELLED -> Metric.RESERVATIONS_CANCELLED;
+            case EXPIRED -> Metric.RESERVATIONS_EXPIRED;
+            default -> null;
+        };
+        if (metric == null) {
+            return;
+        }
+
+        long minute = currentMinute();
+        global.add(minute, metric, 1);
+        if (event.getSeanceId() != null) {
+            window(event.getSeanceId()).add(minute, metric, 1);
+        }
+    }
+
+    /**
+     * Count the tickets and revenue of a paid reservation, at the time of payment.
+     * @param event the sale event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketsSold(TicketsSoldEvent event) {
+        long minute = currentMinute();
+        for (TicketsSoldEvent.SoldTicket ticket : event.getTickets()) {
+            long cents = Math.round(ticket.price() * 100);
+            global.add(minute, Metric.TICKETS_SOLD, 1);
+            global.add(minute, Metric.REVENUE_CENTS, cents);
+            RollingWindow seance = window(ticket.seanceId());
+            seance.add(minute, Metric.TICKETS_SOLD, 1);
+            seance.add(minute, Metric.REVENUE_CENTS, cents);
+        }
+    }
+
+    /**
+     * Scheduled task to push a snapshot to every subscriber.
+     * Runs every 5 seconds.
+     */
+    @Scheduled(fixedRate = 5000)
+    public void pushTicker() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long minute = currentMinute();
+        // Subscribers following the same seance share a snapshot
+        Map<Long, Set<ResponseBodyEmitter.DataWithMediaType>> events = new HashMap<>();
+        subscribers.forEach((subscriber, subscription) -> subscriber.offer(
+                events.computeIfAbsent(subscription.seanceId(), id -> event(snapshot(id, minute)))));
+    }
+
+    /**
+     * Scheduled task to drop the windows of seances without activity in the last hour.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictIdleSeances() {
+        long oldest = currentMinute() - WINDOW_MINUTES;
+        int before = seances.size();
+        seances.values().removeIf(window -> window.lastMinute() <= oldest);
+        log.debug("Evicted {} idle seance sales windows", before - seances.size());
+    }
+
+    /**
+     * Stop broadcasting and close all open streams.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.keySet().forEach(subscriber -> subscriber.getEmitter().complete());
+        subscribers.clear();
+        subscriberCount.set(0);
+    }
+
+    /**
+     * Build a snapshot of the windows ending with the given minute.
+     */
+    SalesTickerDto snapshot(Long seanceId, long minute) {
+        RollingWindow window = seanceId == null ? global : seances.getOrDefault(seanceId, RollingWindow.EMPTY);
+
+        List<SalesRateDto> topSeances = List.of();
+        if (seanceId == null) {
+            topSeances = seances.entrySet().stream()
+                    .map(entry -> rate(entry.getValue(), entry.getKey(), minute, WINDOW_MINUTES))
+                    .filter(rate -> rate.getTicketsSold() > 0)
+                    .sorted(Comparator.comparingLong(SalesRateDto::getTicketsSold).reversed()
+                            .thenComparing(SalesRateDto::getSeanceId))
+                    .limit(TOP_SEANCES)
+                    .toList();
+        }
+
+        return new SalesTickerDto(LocalDateTime.now(),
+                rate(window, seanceId, minute, 1),
+                rate(window, seanceId, minute, WINDOW_MINUTES),
+                Arrays.stream(window.series(minute, Metric.TICKETS_SOLD)).boxed().toList(),
+                topSeances);
+    }
+
+    private static SalesRateDto rate(RollingWindow window, Long seanceId, long minute, int minutes) {
+        return new SalesRateDto(seanceId, minutes,
+                window.sum(minute, minutes, Metric.TICKETS_SOLD),
+                window.sum(minute, minutes, Metric.REVENUE_CENTS) / 100.0,
+                window.sum(minute, minutes, Metric.RESERVATIONS_CREATED),
+                window.sum(minute, minutes, Metric.RESERVATIONS_CANCELLED),
+                window.sum(minute, minutes, Metric.RESERVATIONS_EXPIRED));
+    }
+
+    private RollingWindow window(Long seanceId) {
+        return seances.computeIfAbsent(seanceId, id -> new RollingWindow());
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> event(SalesTickerDto ticker) {
+        return SseEmitter.event().name("ticker").data(ticker).build();
+    }
+
+    /**
+     * Remove a subscriber.
+     */
+    private void unsubscribe(SseSubscriber subscriber) {
+        if (subscribers.remove(subscriber) != null) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60000;
+    }
+
+    /**
+     * Counted quantities, the position of each in a minute slot.
+     */
+    enum Metric {
+        TICKETS_SOLD,
+        REVENUE_CENTS,
+        RESERVATIONS_CREATED,
+        RESERVATIONS_CANCELLED,
+        RESERVATIONS_EXPIRED
+    }
+
+    private record Subscription(Long seanceId) {
+    }
+
+    /**
+     * Ring buffer of per-minute counters covering the last hour.
+     * Each slot is stamped with the minute it counts; the first update of a new minute claims the slot
+     * with a compare-and-set, clears it and stamps it, while concurrent updates of that minute wait for the stamp.
+     * Readers skip slots stamped with another minute, so stale counts never leak into a window.
+     */
+    static final class RollingWindow {
+        static final RollingWindow EMPTY = new RollingWindow();
+        private static final long CLEARING = Long.MIN_VALUE;
+        private static final int METRICS = Metric.values().length;
+
+        private final AtomicLongArray minutes;
+        private final AtomicLongArray counts = new AtomicLongArray(WINDOW_MINUTES * METRICS);
+
+        RollingWindow() {
+            long[] unused = new long[WINDOW_MINUTES];
+            Arrays.fill(unused, -1);
+            minutes = new AtomicLongArray(unused);
+        }
+
+        /**
+         * Add to a counter of a minute. Updates of minutes that already left the buffer are dropped.
+         */
+        void add(long minute, Metric metric, long amount) {
+            int slot = Math.floorMod(minute, WINDOW_MINUTES);
+            while (true) {
+                long stamp = minutes.get(slot);
+                if (stamp == minute) {
+                    counts.addAndGet(slot * METRICS + metric.ordinal(), amount);
+                    return;
+                }
+                if (stamp == CLEARING) {
+                    Thread.onSpinWait();
+                } else if (stamp > minute) {
+                    return;
+                } else if (minutes.compareAndSet(slot, stamp, CLEARING)) {
+                    for (int i = 0; i < METRICS; i++) {
+                        counts.set(slot * METRICS + i, 0);
+                    }
+                    minutes.set(slot, minute);
+                }
+            }
+        }
+
+        /**
+         * Sum a counter over the given number of minutes up to and including the current one.
+         */
+        long sum(long now, int span, Metric metric) {
+            long total = 0;
+            for (int i = 0; i < span; i++) {
+                total += get(now - i, metric);
+            }
+            return total;
+        }
+
+        /**
+         * Get a counter for every minute of the buffer, oldest first.
+         */
+        long[] series(long now, Metric metric) {
+            long[] series = new long[WINDOW_MINUTES];
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                series[i] = get(now - WINDOW_MINUTES + 1 + i, metric);
+            }
+            return series;
+        }
+
+        /**
+         * Get the latest minute with any update.
+         */
+        long lastMinute() {
+            long last = -1;
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                last = Math.max(last, minutes.get(i));
+            }
+            return last;
+        }
+
+        private long get(long minute, Metric metric) {
+            int slot = Math.floorMod(minute, WINDOW_MINUTES);
+            return minutes.get(slot) == minute ? counts.get(slot * METRICS + metric.ordinal()) : 0;
+        }
+    }
+}
@@ -4,25 +4,35 @@ import cinema.booking.cinemabooking.dto.request.SeanceRequestDto;
 import cinema.booking.cinemabooking.dto.response.MovieWithSeancesDto;
 import cinema.booking.cinemabooking.dto.response.SeanceDto;
 import cinema.booking.cinemabooking.dto.response.SeatDto;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
 import cinema.booking.cinemabooking.exception.SeanceConflictException;
 import cinema.booking.cinemabooking.mapper.MovieMapper;
 import cinema.booking.cinemabooking.mapper.SeanceMapper;
-import cinema.booking.cinemabooking.mapper.SeatMapper;
 import cinema.booking.cinemabooking.model.*;
 import cinema.booking.cinemabooking.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Map;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for managing seances (movie showings).
@@ -33,20 +43,116 @@ import java.util.ArrayList;
 public class SeanceService {
     private final SeanceRepository seanceRepository;
     private final SeatRepository seatRepository;
-    private final TicketRepository ticketRepository;
+    private final SeatOccupancyService seatOccupancyService;
     private final CinemaRoomRepository cinemaRoomRepository;
     private final MovieRepository movieRepository;
     private final SeanceMapper seanceMapper;
     private final MovieMapper movieMapper;
-    private final SeatMapper seatMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Built repertoires of the pre-warmed dates, invalidated by RepertoireChangedEvent
+    private final Map<LocalDate, List<MovieWithSeancesDto>> repertoireCache = new ConcurrentHashMap<>();
+    private final AtomicLong repertoireGeneration = new AtomicLong();
+
+    @Value("${app.repertoire.prewarm-days:6}")
+    private int prewarmDays;
 
     /**
      * Get the repertoire of movies with their seances for a specific date.
+     * Repertoires of today and the pre-warmed days after it are cached until a seance or movie of the date changes.
+     * Other dates are rarely requested and are loaded on every call, so the cache cannot grow with the requested dates.
      * @param date the date for which to retrieve the repertoire
-     * @return list of MovieWithSeancesDto
+     * @return unmodifiable list of MovieWithSeancesDto
      */
-    @Transactional(readOnly = true)
     public List<MovieWithSeancesDto> getRepertoireForDate(LocalDate date) {
+        if (!isCacheable(date)) {
+            return loadRepertoire(date);
+        }
+
+        List<MovieWithSeancesDto> cached = repertoireCache.get(date);
+        if (cached != null) {
+            log.debug("Serving cached repertoire for date: {}", date);
+            return cached;
+        }
+
+        long generation = repertoireGeneration.get();
+        List<MovieWithSeancesDto> repertoire = loadRepertoire(date);
+        repertoireCache.put(date, repertoire);
+
+        // An invalidation running during the load may have missed the new entry, so drop it
+        if (repertoireGeneration.get() != generation) {
+            repertoireCache.remove(date, repertoire);
+        }
+        return repertoire;
+    }
+
+    /**
+     * Invalidate the cached repertoires affected by a committed change.
+     * @param event the repertoire change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        repertoireGeneration.incrementAndGet();
+        repertoireCache.entrySet().removeIf(entry -> isAffected(entry.getKey(), entry.getValue(), event));
+        log.debug("Repertoire cache invalidated by {}, cached dates left: {}", event, repertoireCache.size());
+    }
+
+    /**
+     * Build the repertoires of today and the configured number of following days once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmRepertoire() {
+        LocalDate today = LocalDate.now();
+        try {
+            for (int i = 0; i <= prewarmDays; i++) {
+                getRepertoireForDate(today.plusDays(i));
+            }
+            log.info("Pre-warmed repertoire for {} days from {}", prewarmDays + 1, today);
+        } catch (RuntimeException e) {
+            log.warn("Failed to pre-warm repertoire, it will be built on first request", e);
+        }
+    }
+
+    /**
+     * Scheduled task to drop cached repertoires of past dates.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictPastRepertoires() {
+        LocalDate today = LocalDate.now();
+        repertoireCache.keySet().removeIf(date -> date.isBefore(today));
+    }
+
+    /**
+     * Check if a date is within the pre-warmed window, from today to the configured number of days after it.
+     */
+    private boolean isCacheable(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(prewarmDays));
+    }
+
+    /**
+     * Check if a cached repertoire contains the date, movie or seance of a change.
+     */
+    private boolean isAffected(LocalDate date, List<MovieWithSeancesDto> repertoire, RepertoireChangedEvent event) {
+        if (date.equals(event.getDate())) {
+            return true;
+        }
+        return repertoire.stream().anyMatch(movie -> matches(event.getMovieId(), movie.getMovieId())
+                || movie.getSeances().stream().anyMatch(seance -> matches(event.getSeanceId(), seance.getId())));
+    }
+
+    private static boolean matches(Long changedId, Long cachedId) {
+        return changedId != null && changedId.equals(cachedId);
+    }
+
+    /**
+     * Load the repertoire of a date from the database.
+     * Movies and cinema rooms are fetched together with the seances, so the mapping needs no open session.
+     * @param date the date for which to load the repertoire
+     * @return unmodifiable list of MovieWithSeancesDto sorted by title
+     */
+    private List<MovieWithSeancesDto> loadRepertoire(LocalDate date) {
         log.info("Fetching repertoire for date: {}", date);
 
         LocalDateTime startOfDay = date.atStartOfDay();
@@ -72,7 +178,7 @@ public class SeanceService {
         }
 
         // Sort movies by title
-        return result.stream().sorted((a, b) -> a.getTitle().compareTo(b.getTitle())).collect(Collectors.toList());
+        return result.stream().sorted((a, b) -> a.getTitle().compareTo(b.getTitle())).toList();
     }
 
     /**
@@ -94,6 +200,18 @@ public class SeanceService {
         return seanceMapper.toDto(seance);
     }
 
+    /**
+     * Check that a seance exists, without loading it.
+     * @param seanceId the ID of the seance
+     * @throws ResourceNotFoundException if seance not found
+     */
+    public void checkSeanceExists(Long seanceId) {
+        if (!seanceRepository.existsById(seanceId)) {
+            log.warn("Seance with ID {} not found", seanceId);
+            throw new ResourceNotFoundException("Seance not found");
+        }
+    }
+
     /**
      * Get the status of seats (occupied/free) for a specific seance.
      * @param seanceId the ID of the seance
@@ -109,21 +227,31 @@ public class SeanceService {
             return new ResourceNotFoundException("Seance not found");
         });
 
-        // Get all seats in the cinema room
-        List<Seat> allSeats = seatRepository.findAllByCinemaRoom_Id(seance.getCinemaRoom().getId());
+        // Get the seat layout of the cinema room as DTOs
+        List<SeatDto> seats = seatRepository.findSeatDtosByCinemaRoomId(seance.getCinemaRoom().getId());
 
-        // Get all taken tickets for the seance
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seanceId, LocalDateTime.now());
+        // Get all taken seats for the seance
+        Set<Long> takenSeatIds = seatOccupancyService.getOccupiedSeatIds(seance);
 
-        List<Long> takenSeatIds = takenTickets.stream()
-                .map(ticket -> ticket.getSeat().getId())
-                .toList();
+        log.debug("Total seats: {}, Taken seats: {}", seats.size(), takenSeatIds.size());
 
-        log.debug("Total seats: {}, Taken seats: {}", allSeats.size(), takenSeatIds.size());
+        seats.forEach(seat -> seat.setOccupied(takenSeatIds.contains(seat.getId())));
+        return seats;
+    }
 
-        return allSeats.stream()
-                .map(seat -> seatMapper.toDto(seat, takenSeatIds.contains(seat.getId())))
-                .collect(Collectors.toList());
+    /**
+     * Get the current version of the seat map of a seance.
+     * The version changes whenever a seat of the seance is taken or released.
+     * Unknown seances have a version too, so the seance is looked up unless its seat map is already tracked.
+     * @param seanceId the ID of the seance
+     * @return the seat map version
+     * @throws ResourceNotFoundException if seance not found
+     */
+    public String getSeatMapVersion(Long seanceId) {
+        if (!seatOccupancyService.isTracked(seanceId)) {
+            checkSeanceExists(seanceId);
+        }
+        return seatOccupancyService.getVersion(seanceId);
     }
 
     /**
@@ -163,6 +291,7 @@ public class SeanceService {
         Seance seance = seanceMapper.toEntity(dto, movie, room);
 
         seanceRepository.save(seance);
+        eventPublisher.publishEvent(RepertoireChangedEvent.forSeance(seance.getId(), startTime.toLocalDate()));
         log.info("Seance created successfully with ID: {}", seance.getId());
     }
 
@@ -174,6 +303,7 @@ public class SeanceService {
     public void deleteSeance(Long id) {
         log.info("Deleting seance with ID: {}", id);
         seanceRepository.deleteById(id);
+        eventPublisher.publishEvent(RepertoireChangedEvent.forSeance(id, null));
     }
 
     /**
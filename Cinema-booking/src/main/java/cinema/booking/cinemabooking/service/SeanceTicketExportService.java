@@ -0,0 +1,73 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeanceRepository;
+import cinema.booking.cinemabooking.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Service exporting all paid tickets of a seance as a single printable PDF for the box office.
+ * Tickets are read in fixed-size chunks ordered by seat and each chunk is flushed to the stream once drawn,
+ * so memory stays flat however large the room is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeanceTicketExportService {
+    private static final int CHUNK_SIZE = 100;
+
+    private final SeanceRepository seanceRepository;
+    private final TicketRepository ticketRepository;
+    private final PdfTicketService pdfTicketService;
+
+    /**
+     * Get the seance to export, before the response is started, so a missing seance is still a 404.
+     *
+     * @param seanceId the ID of the seance
+     * @return the seance with its movie and room loaded
+     * @throws ResourceNotFoundException if the seance is not found
+     */
+    public Seance getSeance(Long seanceId) {
+        return seanceRepository.findWithMovieAndCinemaRoomById(seanceId)
+                .orElseThrow(() -> {
+                    log.warn("Seance with ID {} not found for ticket export", seanceId);
+                    return new ResourceNotFoundException("Seance not found with ID: " + seanceId);
+                });
+    }
+
+    /**
+     * Streams the paid tickets of a seance as a PDF, one page per ticket ordered by row and seat.
+     *
+     * @param seance the seance, as returned by {@link #getSeance(Long)}
+     * @param out the stream to write the PDF to
+     * @throws IOException if writing to the stream fails, e.g. because the client disconnected
+     */
+    public void writeTicketPack(Seance seance, OutputStream out) throws IOException {
+        try (PdfTicketService.TicketPack pack = pdfTicketService.openSeancePack(seance, out)) {
+            int rowNumber = 0;
+            int seatNumber = 0;
+            while (true) {
+                List<TicketRepository.PrintableTicket> chunk = ticketRepository.findPaidTicketsAfterSeat(
+                        seance.getId(), rowNumber, seatNumber, Limit.of(CHUNK_SIZE));
+                for (TicketRepository.PrintableTicket ticket : chunk) {
+                    pack.add(ticket);
+                }
+                pack.flush();
+                if (chunk.size() < CHUNK_SIZE) {
+                    break;
+                }
+                TicketRepository.PrintableTicket last = chunk.getLast();
+                rowNumber = last.getRowNumber();
+                seatNumber = last.getSeatNumber();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Service arbitrating in-flight seat claims per seance without locks.
+ * A claim marks the requested seats with a compare-and-set on an atomic array, all or nothing,
+ * before any database work starts. It lasts only until the claiming transaction completes;
+ * the seat hold rows remain the source of truth.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldManager {
+    private final SeatRepository seatRepository;
+
+    private final Map<Long, SeanceClaims> claims = new ConcurrentHashMap<>();
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     * Try to claim all given seats of a seance.
+     * @param seance the seance
+     * @param seatIds the IDs of the seats to claim
+     * @return the claim token, or 0 if any of the seats is claimed by another request
+     */
+    public long tryClaim(Seance seance, Collection<Long> seatIds) {
+        long token = tokens.incrementAndGet();
+        return getClaims(seance).tryClaim(seatIds, token) ? token : 0;
+    }
+
+    /**
+     * Release seats claimed with the given token.
+     * @param seanceId the ID of the seance
+     * @param seatIds the IDs of the claimed seats
+     * @param token the claim token returned by {@link #tryClaim}
+     */
+    public void release(Long seanceId, Collection<Long> seatIds, long token) {
+        SeanceClaims seanceClaims = claims.get(seanceId);
+        if (seanceClaims != null) {
+            seanceClaims.release(seatIds, token);
+        }
+    }
+
+    /**
+     * Scheduled task to drop claim arrays of seances that have already ended.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictFinishedSeances() {
+        long now = System.currentTimeMillis();
+        claims.values().removeIf(seanceClaims -> seanceClaims.endsAt < now);
+    }
+
+    /**
+     * Get the claim array of a seance, sizing it from the seats of its cinema room when missing.
+     * @param seance the seance
+     * @return the seance claims
+     */
+    private SeanceClaims getClaims(Seance seance) {
+        return claims.computeIfAbsent(seance.getId(), id -> {
+            long[] seatIds = seatRepository.findIdsByCinemaRoomId(seance.getCinemaRoom().getId()).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            long endsAt = seance.getEndTime() == null
+                    ? Long.MAX_VALUE
+                    : seance.getEndTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            log.debug("Created seat claim array for seance ID: {} with {} seats", id, seatIds.length);
+            return new SeanceClaims(seatIds, endsAt);
+        });
+    }
+
+    /**
+     * Claim words of a single seance, one per seat ordinal. A zero word means the seat is free,
+     * otherwise it holds the token of the claiming request.
+     */
+    static final class SeanceClaims {
+        private final long[] seatIds;
+        private final AtomicLongArray owners;
+        private final long endsAt;
+
+        SeanceClaims(long[] seatIds, long endsAt) {
+            this.seatIds = seatIds;
+            this.owners = new AtomicLongArray(seatIds.length);
+            this.endsAt = endsAt;
+        }
+
+        boolean tryClaim(Collection<Long> requestedSeatIds, long token) {
+            int[] ordinals = ordinals(requestedSeatIds);
+            for (int i = 0; i < ordinals.length; i++) {
+                if (!owners.compareAndSet(ordinals[i], 0, token)) {
+                    // Roll back the seats claimed so far, so the claim stays all or nothing
+                    for (int j = 0; j < i; j++) {
+                        owners.compareAndSet(ordinals[j], token, 0);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void release(Collection<Long> requestedSeatIds, long token) {
+            for (int ordinal : ordinals(requestedSeatIds)) {
+                owners.compareAndSet(ordinal, token, 0);
+            }
+        }
+
+        /**
+         * Map seat IDs to distinct ordinals in ascending order. Seats outside the room are skipped
+         * and left to the database checks.
+         */
+        private int[] ordinals(Collection<Long> requestedSeatIds) {
+            return requestedSeatIds.stream()
+                    .mapToInt(seatId -> Arrays.binarySearch(seatIds, seatId))
+                    .filter(ordinal -> ordinal >= 0)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+        }
+    }
+}
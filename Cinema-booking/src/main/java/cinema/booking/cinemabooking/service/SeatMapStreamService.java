@@ -0,0 +1,194 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.response.SeatMapDeltaDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service pushing seat map changes to open seat selection pages over Server-Sent Events.
+ * Committed reservation events are turned into compact deltas and queued per subscriber,
+ * see {@link SseSubscriber}, so a client that stops reading only blocks its own stream.
+ * The number of open streams is capped per seance and overall.
+ */
+@Service
+@Slf4j
+public class SeatMapStreamService {
+    private static final long EMITTER_TIMEOUT = 30 * 60 * 1000L;
+    private static final int MAX_PENDING_EVENTS = 50;
+
+    private final Map<Long, Set<SseSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final int maxSubscribersPerSeance;
+    private final int maxSubscribers;
+
+    /**
+     * Constructor to initialize the stream service with configuration values.
+     *
+     * @param senderCount             Number of threads sending events to subscribers.
+     * @param maxSubscribersPerSeance Number of streams that may be open for a single seance.
+     * @param maxSubscribers          Number of streams that may be open across all seances.
+     */
+    public SeatMapStreamService(
+            @Value("${app.seat-map.stream-senders:4}") int senderCount,
+            @Value("${app.seat-map.max-subscribers-per-seance:200}") int maxSubscribersPerSeance,
+            @Value("${app.seat-map.max-subscribers:2000}") int maxSubscribers) {
+
+        this.maxSubscribersPerSeance = maxSubscribersPerSeance;
+        this.maxSubscribers = maxSubscribers;
+        this.senders = Executors.newFixedThreadPool(senderCount,
+                Thread.ofPlatform().name("seat-map-stream-", 1).daemon().factory());
+    }
+
+    /**
+     * Subscribe to seat map changes of a seance.
+     * @param seanceId the ID of the seance
+     * @return the emitter streaming the changes
+     * @throws TooManySubscribersException if the seance or the application has reached its limit of open streams
+     */
+    public SseEmitter subscribe(Long seanceId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            log.warn("Seat map stream limit of {} reached, rejecting subscriber for seance ID: {}", maxSubscribers, seanceId);
+            throw new TooManySubscribersException("Too many open seat map streams, try again later.");
+        }
+
+        SseSubscriber subscriber = new SseSubscriber(createEmitter(), "seat map subscriber for seance ID: " + seanceId,
+                senders, MAX_PENDING_EVENTS, dropped -> unsubscribe(seanceId, dropped));
+        Set<SseSubscriber> seanceSubscribers = subscribers.compute(seanceId, (id, current) -> {
+            Set<SseSubscriber> updated = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (updated.size() < maxSubscribersPerSeance) {
+                updated.add(subscriber);
+            }
+            return updated.isEmpty() ? null : updated;
+        });
+        if (seanceSubscribers == null || !seanceSubscribers.contains(subscriber)) {
+            subscriberCount.decrementAndGet();
+            log.warn("Seat map stream limit of {} reached for seance ID: {}", maxSubscribersPerSeance, seanceId);
+            throw new TooManySubscribersException("Too many open seat map streams for this seance, try again later.");
+        }
+
+        SseEmitter emitter = subscriber.getEmitter();
+        emitter.onCompletion(() -> unsubscribe(seanceId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(seanceId, subscriber));
+        emitter.onError(e -> unsubscribe(seanceId, subscriber));
+
+        log.debug("New seat map subscriber for seance ID: {}, subscribers: {}", seanceId, seanceSubscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Create the emitter of a new subscriber.
+     * @return the emitter
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT);
+    }
+
+    /**
+     * Get the number of open subscriptions for a seance.
+     * @param seanceId the ID of the seance
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount(Long seanceId) {
+        Set<SseSubscriber> seanceSubscribers = subscribers.get(seanceId);
+        return seanceSubscribers == null ? 0 : seanceSubscribers.size();
+    }
+
+    /**
+     * Broadcast the seat changes of a committed reservation event.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservationCommitted(ReservationEvent event) {
+        SeatMapDeltaDto delta = toDelta(event);
+        if (delta == null || getSubscriberCount(event.getSeanceId()) == 0) {
+            return;
+        }
+        send(event.getSeanceId(), SseEmitter.event().name("seats").data(delta).build());
+    }
+
+    /**
+     * Scheduled task to send a heartbeat comment, keeping idle connections open through proxies.
+     * Runs every 30 seconds.
+     */
+    @Scheduled(fixedRate = 30000)
+    public void sendHeartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        subscribers.keySet().forEach(seanceId -> send(seanceId, heartbeat));
+    }
+
+    /**
+     * Stop broadcasting and close all open streams.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(seanceSubscribers -> seanceSubscribers.forEach(subscriber -> subscriber.getEmitter().complete()));
+        subscribers.clear();
+        subscriberCount.set(0);
+    }
+
+    /**
+     * Build the seat map delta of a reservation event.
+     * @param event the reservation event
+     * @return the delta, or null if the event does not change the seat map
+     */
+    static SeatMapDeltaDto toDelta(ReservationEvent event) {
+        // A paid reservation keeps seats that were already shown as occupied
+        if (event.getType() == ReservationEventType.PAID || event.getSeatIds() == null || event.getSeatIds().isEmpty()) {
+            return null;
+        }
+
+        return SeatMapDeltaDto.builder()
+                .seanceId(event.getSeanceId())
+                .occupiedSeatIds(event.isHold() ? event.getSeatIds() : List.of())
+                .freedSeatIds(event.isRelease() ? event.getSeatIds() : List.of())
+                .build();
+    }
+
+    /**
+     * Queue a built event for all subscribers of a seance.
+     */
+    private void send(Long seanceId, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        Set<SseSubscriber> seanceSubscribers = subscribers.get(seanceId);
+        if (seanceSubscribers == null) {
+            return;
+        }
+
+        seanceSubscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    /**
+     * Remove a subscriber of a seance.
+     */
+    private void unsubscribe(Long seanceId, SseSubscriber subscriber) {
+        subscribers.computeIfPresent(seanceId, (id, seanceSubscribers) -> {
+            if (seanceSubscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return seanceSubscribers.isEmpty() ? null : seanceSubscribers;
+        });
+    }
+}
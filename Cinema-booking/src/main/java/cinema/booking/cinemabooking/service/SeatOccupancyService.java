@@ -0,0 +1,305 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeatRepository;
+import cinema.booking.cinemabooking.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service keeping an in-memory seat occupancy bitmap per seance.
+ * Each snapshot is rebuilt from the database on first use and then kept current
+ * through reservation events, so seat map reads and conflict checks are memory lookups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatOccupancyService {
+    private final SeatRepository seatRepository;
+    private final TicketRepository ticketRepository;
+
+    private final Map<Long, SeanceOccupancy> occupancies = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Distinguishes versions issued by this instance from those issued before a restart
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Get IDs of all seats currently taken for a seance.
+     * @param seance the seance
+     * @return set of occupied seat IDs
+     */
+    public Set<Long> getOccupiedSeatIds(Seance seance) {
+        return getOccupancy(seance).occupiedSeatIds(System.currentTimeMillis());
+    }
+
+    /**
+     * Find which of the given seats are already taken for a seance.
+     * @param seance the seance
+     * @param seatIds the seat IDs to check
+     * @return list of seat IDs from the input that are occupied
+     */
+    public List<Long> findOccupiedSeatIds(Seance seance, Collection<Long> seatIds) {
+        SeanceOccupancy occupancy = getOccupancy(seance);
+        long now = System.currentTimeMillis();
+
+        List<Long> occupied = new ArrayList<>();
+        for (Long seatId : seatIds) {
+            if (occupancy.isOccupied(seatId, now)) {
+                occupied.add(seatId);
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Get the occupancy version of a seance.
+     * The version changes whenever a reservation event changes the seats of the seance.
+     * @param seanceId the ID of the seance
+     * @return the occupancy version
+     */
+    public String getVersion(Long seanceId) {
+        return instanceId + "-" + currentVersion(seanceId);
+    }
+
+    /**
+     * Check whether the seat map of a seance is tracked, either as a loaded snapshot or a version.
+     * Only existing seances are tracked, so a tracked seance needs no database lookup to prove it exists.
+     * @param seanceId the ID of the seance
+     * @return true if the seance is tracked
+     */
+    public boolean isTracked(Long seanceId) {
+        return occupancies.containsKey(seanceId) || versions.containsKey(seanceId);
+    }
+
+    /**
+     * Stop tracking a created or deleted seance once the change is committed.
+     * @param event the repertoire event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        if (event.getSeanceId() != null) {
+            occupancies.remove(event.getSeanceId());
+            versions.remove(event.getSeanceId());
+        }
+    }
+
+    /**
+     * Apply a reservation event as soon as it is published.
+     * Runs inside the publishing transaction, so the change is visible to competing bookings right away.
+     * @param event the reservation event
+     */
+    @EventListener
+    public void onReservationEvent(ReservationEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Re-apply a reservation event after commit.
+     * Covers snapshots that were rebuilt from the database while the publishing transaction was still open.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservationCommitted(ReservationEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Drop the snapshot of a seance whose change was rolled back, so it is rebuilt from the database.
+     * @param event the reservation event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onReservationRolledBack(ReservationEvent event) {
+        log.debug("Reservation change rolled back, evicting occupancy for seance ID: {}", event.getSeanceId());
+        evict(event.getSeanceId());
+    }
+
+    /**
+     * Remove the snapshot of a seance.
+     * @param seanceId the ID of the seance
+     */
+    public void evict(Long seanceId) {
+        occupancies.remove(seanceId);
+        bumpVersion(seanceId);
+    }
+
+    /**
+     * Scheduled task to drop snapshots of seances that have already ended.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictFinishedSeances() {
+        long now = System.currentTimeMillis();
+        occupancies.entrySet().removeIf(entry -> {
+            boolean finished = entry.getValue().endsAt < now;
+            if (finished) {
+                versions.remove(entry.getKey());
+            }
+            return finished;
+        });
+    }
+
+    /**
+     * Apply a reservation event to the snapshot of its seance, if one is loaded, and bump its version.
+     * The version is bumped last, so a reader never sees the new version with the old seats.
+     * @param event the reservation event
+     */
+    private void apply(ReservationEvent event) {
+        SeanceOccupancy occupancy = occupancies.get(event.getSeanceId());
+        if (occupancy != null && event.getSeatIds() != null) {
+            long reservationId = event.getReservationId() != null ? event.getReservationId() : 0;
+            for (Long seatId : event.getSeatIds()) {
+                if (event.isHold()) {
+                    occupancy.hold(seatId, reservationId, toMillis(event.getExpiresAt()));
+                } else if (event.isRelease()) {
+                    occupancy.release(seatId, reservationId);
+                } else {
+                    occupancy.hold(seatId, reservationId, SeanceOccupancy.PERMANENT);
+                }
+            }
+        }
+
+        bumpVersion(event.getSeanceId());
+    }
+
+    /**
+     * Increment the occupancy version of a seance.
+     * @param seanceId the ID of the seance
+     */
+    private void bumpVersion(Long seanceId) {
+        versions.computeIfAbsent(seanceId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Get the snapshot of a seance, building it from the database when missing.
+     * The snapshot is loaded outside the map, so a slow query never blocks other seances.
+     * Concurrent loads of the same seance keep the first snapshot stored, and a snapshot
+     * raced by a reservation event is used once but not stored, so the next read loads it again.
+     * @param seance the seance
+     * @return the seance occupancy
+     */
+    private SeanceOccupancy getOccupancy(Seance seance) {
+        SeanceOccupancy occupancy = occupancies.get(seance.getId());
+        if (occupancy != null) {
+            return occupancy;
+        }
+
+        long version = currentVersion(seance.getId());
+        SeanceOccupancy loaded = load(seance);
+        if (currentVersion(seance.getId()) != version) {
+            return loaded;
+        }
+        occupancy = occupancies.putIfAbsent(seance.getId(), loaded);
+        return occupancy != null ? occupancy : loaded;
+    }
+
+    private long currentVersion(Long seanceId) {
+        AtomicLong version = versions.get(seanceId);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Build the occupancy snapshot of a seance from the database.
+     * @param seance the seance
+     * @return the loaded seance occupancy
+     */
+    private SeanceOccupancy load(Seance seance) {
+        log.debug("Building seat occupancy for seance ID: {}", seance.getId());
+
+        long[] seatIds = seatRepository.findIdsByCinemaRoomId(seance.getCinemaRoom().getId()).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        SeanceOccupancy occupancy = new SeanceOccupancy(seatIds, toMillis(seance.getEndTime()));
+
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), LocalDateTime.now());
+        for (TicketRepository.TakenSeat taken : takenSeats) {
+            long until = taken.getStatus() == ReservationStatus.PAID
+                    ? SeanceOccupancy.PERMANENT
+                    : toMillis(taken.getExpiresAt());
+            occupancy.hold(taken.getSeatId(), taken.getReservationId(), until);
+        }
+
+        log.debug("Seat occupancy for seance ID: {} built with {} seats, {} taken", seance.getId(), seatIds.length, takenSeats.size());
+        return occupancy;
+    }
+
+    /**
+     * Convert a local date time to epoch milliseconds.
+     */
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? SeanceOccupancy.PERMANENT : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Occupancy of a single seance.
+     * Seats are addressed by their ordinal, which is the index of the seat ID in the sorted ID array.
+     */
+    static final class SeanceOccupancy {
+        static final long PERMANENT = Long.MAX_VALUE;
+
+        private final long[] seatIds;
+        private final BitSet occupied;
+        private final long[] heldUntil;
+        private final long[] holders;
+        private final long endsAt;
+
+        SeanceOccupancy(long[] seatIds, long endsAt) {
+            this.seatIds = seatIds;
+            this.occupied = new BitSet(seatIds.length);
+            this.heldUntil = new long[seatIds.length];
+            this.holders = new long[seatIds.length];
+            this.endsAt = endsAt;
+        }
+
+        synchronized void hold(long seatId, long reservationId, long until) {
+            int ordinal = Arrays.binarySearch(seatIds, seatId);
+            if (ordinal < 0) {
+                return;
+            }
+            occupied.set(ordinal);
+            heldUntil[ordinal] = until;
+            holders[ordinal] = reservationId;
+        }
+
+        synchronized void release(long seatId, long reservationId) {
+            int ordinal = Arrays.binarySearch(seatIds, seatId);
+            // Only the reservation holding the seat may free it
+            if (ordinal < 0 || holders[ordinal] != reservationId) {
+                return;
+            }
+            occupied.clear(ordinal);
+            heldUntil[ordinal] = 0;
+            holders[ordinal] = 0;
+        }
+
+        synchronized boolean isOccupied(long seatId, long now) {
+            int ordinal = Arrays.binarySearch(seatIds, seatId);
+            return ordinal >= 0 && occupied.get(ordinal) && heldUntil[ordinal] > now;
+        }
+
+        synchronized Set<Long> occupiedSeatIds(long now) {
+            Set<Long> result = new HashSet<>();
+            for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+                if (heldUntil[i] > now) {
+                    result.add(seatIds[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
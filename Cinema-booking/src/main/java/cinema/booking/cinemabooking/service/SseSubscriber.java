@@ -0,0 +1,115 @@
+package cinema.booking.cinemabooking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An open Server-Sent Events stream with the events waiting to be sent to it.
+ * Events are queued and drained on a shared pool of senders, at most one sender at a time per subscriber,
+ * so the client receives them in the order they were queued while a client that stops reading only blocks its own stream.
+ * A subscriber whose queue grows past the limit is dropped instead of buffering without limit.
+ */
+@Slf4j
+final class SseSubscriber {
+    private final SseEmitter emitter;
+    private final String name;
+    private final ExecutorService senders;
+    private final int maxPendingEvents;
+    private final Consumer<SseSubscriber> onDropped;
+    private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean dropped;
+
+    /**
+     * Constructor to initialize the subscriber of an open stream.
+     *
+     * @param emitter          The emitter of the stream.
+     * @param name             Description of the subscriber used in log messages.
+     * @param senders          Pool of threads sending the queued events.
+     * @param maxPendingEvents Number of events that may wait for the client before it is dropped.
+     * @param onDropped        Called once when the subscriber is dropped, to stop queueing events for it.
+     */
+    SseSubscriber(SseEmitter emitter, String name, ExecutorService senders, int maxPendingEvents, Consumer<SseSubscriber> onDropped) {
+        this.emitter = emitter;
+        this.name = name;
+        this.senders = senders;
+        this.maxPendingEvents = maxPendingEvents;
+        this.onDropped = onDropped;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Queue an event and make sure a sender drains the queue.
+     * A client too slow to keep up is dropped.
+     * @param event the built event
+     */
+    void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (dropped) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxPendingEvents) {
+            log.debug("Dropping slow {}", name);
+            drop();
+            return;
+        }
+        pending.add(event);
+        scheduleDrain();
+    }
+
+    private void drain() {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while (!dropped && (event = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping {}", name);
+                    drop();
+                }
+            }
+            draining.set(false);
+            // An event queued after the last poll but before the flag was cleared still needs a sender
+        } while (!dropped && !pending.isEmpty() && draining.compareAndSet(false, true));
+
+        if (dropped) {
+            pending.clear();
+            // Completed from the sender, so a send blocked on the client never holds up the broadcasting thread
+            emitter.complete();
+        }
+    }
+
+    private void drop() {
+        if (dropped) {
+            return;
+        }
+        dropped = true;
+        onDropped.accept(this);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.exception.FileStorageException;
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Service caching the PDF tickets of paid reservations on disk.
+ * The PDF is generated once, keyed by the reservation code, and every later download is served from the file.
+ * The tickets of a paid reservation do not change, but the movie printed on them can be renamed,
+ * so the PDFs of a movie's reservations are dropped when the movie changes and regenerated on the next download.
+ */
+@Service
+@Slf4j
+public class TicketPdfCacheService {
+    private static final String PDF_EXTENSION = ".pdf";
+    private static final String TEMP_EXTENSION = ".tmp";
+    // Reservation codes are UUIDs, anything else is hashed before it becomes a file name
+    private static final Pattern SAFE_CODE = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final PdfTicketService pdfTicketService;
+    private final ReservationRepository reservationRepository;
+    private final Path cacheDir;
+    private final Duration retention;
+
+    // Running generations by cache key, so concurrent downloads of a missing PDF render it once
+    private final Map<String, CompletableFuture<Path>> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize the ticket PDF cache with configuration values.
+     *
+     * @param pdfTicketService      Service rendering the PDF tickets.
+     * @param reservationRepository Repository fetching the tickets to render and the reservations whose PDFs a change makes stale.
+     * @param cacheDir              Directory where generated PDFs are cached.
+     * @param retentionDays         How long a cached PDF is kept after it was generated.
+     * @throws FileStorageException if the cache directory cannot be created.
+     */
+    public TicketPdfCacheService(
+            PdfTicketService pdfTicketService,
+            ReservationRepository reservationRepository,
+            @Value("${app.tickets.pdf-cache-dir:${java.io.tmpdir}/cinema-booking-tickets}") String cacheDir,
+            @Value("${app.tickets.pdf-retention-days:30}") long retentionDays) {
+
+        this.pdfTicketService = pdfTicketService;
+        this.reservationRepository = reservationRepository;
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.retention = Duration.ofDays(retentionDays);
+
+        try {
+            Files.createDirectories(this.cacheDir);
+            log.info("Initialized ticket PDF cache at {}", this.cacheDir);
+        } catch (IOException ex) {
+            log.error("Could not create ticket PDF cache directory", ex);
+            throw new FileStorageException("Could not create ticket PDF cache directory", ex);
+        }
+    }
+
+    /**
+     * Get the cached PDF of a paid reservation, generating it on the first request.
+     * The tickets of the reservation are only read when the PDF is not cached yet, fetched in one query
+     * with everything printed on them, so the PDF can be rendered outside a transaction.
+     * Call it outside a transaction, so neither the render nor the downloads waiting for it hold a database connection.
+     *
+     * @param reservation The paid reservation.
+     * @return The cached PDF, with its size and ETag.
+     * @throws ResourceNotFoundException if the reservation no longer exists.
+     * @throws FileStorageException if the PDF cannot be written to the cache.
+     */
+    public CachedPdf getPdf(Reservation reservation) {
+        String key = cacheKey(reservation.getReservationCode());
+        Path file = cacheDir.resolve(key + PDF_EXTENSION);
+
+        CachedPdf cached = lookup(key, file);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Path> generation = new CompletableFuture<>();
+        CompletableFuture<Path> running = generations.putIfAbsent(key, generation);
+        if (running != null) {
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        } else {
+            try {
+                // Checked again, another download may have finished the PDF before this one took the key
+                if (!Files.isRegularFile(file)) {
+                    write(fetchTickets(reservation), file);
+                }
+                generation.complete(file);
+            } catch (RuntimeException e) {
+                generation.completeExceptionally(e);
+                throw e;
+            } finally {
+                generations.remove(key, generation);
+            }
+        }
+
+        cached = lookup(key, file);
+        if (cached == null) {
+            throw new FileStorageException("Ticket PDF disappeared from the cache: " + file.getFileName());
+        }
+        return cached;
+    }
+
+    /**
+     * Drop the cached PDFs of the paid reservations of a movie once a change to it is committed,
+     * so the next download prints the current movie details and gets a new ETag.
+     * A generation already running when the change commits may still cache the old details.
+     *
+     * @param event The repertoire change event.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        if (event.getMovieId() == null) {
+            return;
+        }
+        List<String> reservationCodes = reservationRepository.findReservationCodesByMovieIdAndStatus(
+                event.getMovieId(), ReservationStatus.PAID);
+        int deleted = 0;
+        for (String reservationCode : reservationCodes) {
+            if (deleteQuietly(cacheDir.resolve(cacheKey(reservationCode) + PDF_EXTENSION))) {
+                deleted++;
+            }
+        }
+        log.debug("Dropped {} cached ticket PDFs after change of movie ID: {}", deleted, event.getMovieId());
+    }
+
+    /**
+     * Scheduled task to drop cached PDFs past their retention and leftovers of interrupted generations.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        int deleted = deleteFiles("*" + PDF_EXTENSION, cutoff)
+                + deleteFiles("*" + TEMP_EXTENSION, Instant.now().minus(Duration.ofHours(1)));
+        log.debug("Ticket PDF cache cleaned up, deleted files: {}", deleted);
+    }
+
+    /**
+     * Get the cached PDF, or null if it is not cached.
+     * The ETag names the generation of the file, so a PDF regenerated after eviction never matches a stale copy.
+     */
+    private static CachedPdf lookup(String key, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String eTag = "\"" + key + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+            return new CachedPdf(file, attributes.size(), eTag);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cached ticket PDF {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Reservation fetchTickets(Reservation reservation) {
+        return reservationRepository.findWithTicketsById(reservation.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
+    }
+
+    private void write(Reservation reservation, Path file) {
+        log.info("Caching PDF tickets of reservation ID: {}", reservation.getId());
+        Path temp = null;
+        try (InputStream pdf = pdfTicketService.generateReservationPdf(reservation)) {
+            // Written next to the target and moved in one step, so readers never see a partial PDF
+            temp = Files.createTempFile(cacheDir, file.getFileName().toString(), TEMP_EXTENSION);
+            Files.copy(pdf, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            deleteQuietly(temp);
+            log.error("Could not cache PDF tickets of reservation ID: {}", reservation.getId(), ex);
+            throw new FileStorageException("Could not cache PDF tickets", ex);
+        }
+    }
+
+    private static String cacheKey(String reservationCode) {
+        if (SAFE_CODE.matcher(reservationCode).matches()) {
+            return reservationCode;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(reservationCode.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private int deleteFiles(String glob, Instant modifiedBefore) {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, glob)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(modifiedBefore) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up ticket PDF cache {}: {}", cacheDir, e.getMessage());
+        }
+        return deleted;
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        if (file == null) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * A PDF in the cache.
+     *
+     * @param file The cached file, never modified once it is in place.
+     * @param size The size of the file in bytes.
+     * @param eTag The strong ETag of the file, quoted.
+     */
+    public record CachedPdf(Path file, long size, String eTag) {
+    }
+}
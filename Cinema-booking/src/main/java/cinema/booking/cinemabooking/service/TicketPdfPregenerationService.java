@@ -0,0 +1,115 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.TicketPdfQueueStatsDto;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service rendering the PDF tickets of paid reservations in the background, right after the payment commits,
+ * so the first download is served from the cache.
+ * Generations run on a small pool of low priority workers with a bounded queue. When a payment spike fills the queue,
+ * further reservations are skipped rather than rendered on the paying thread, and their PDF is generated on the first download.
+ */
+@Service
+@Slf4j
+public class TicketPdfPregenerationService {
+    private final TicketPdfCacheService ticketPdfCacheService;
+    private final ReservationRepository reservationRepository;
+    private final ThreadPoolExecutor workers;
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Constructor to initialize the pre-generation service with configuration values.
+     *
+     * @param ticketPdfCacheService Cache the PDFs are generated into.
+     * @param reservationRepository Repository loading the paid reservations.
+     * @param workerCount           Number of PDFs generated at the same time.
+     * @param queueCapacity         Number of paid reservations that may wait for a worker.
+     */
+    public TicketPdfPregenerationService(
+            TicketPdfCacheService ticketPdfCacheService,
+            ReservationRepository reservationRepository,
+            @Value("${app.tickets.pdf-workers:1}") int workerCount,
+            @Value("${app.tickets.pdf-queue-capacity:100}") int queueCapacity) {
+
+        this.ticketPdfCacheService = ticketPdfCacheService;
+        this.reservationRepository = reservationRepository;
+        this.queueCapacity = queueCapacity;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("ticket-pdf-", 1).priority(Thread.MIN_PRIORITY).daemon().factory());
+    }
+
+    /**
+     * Queue the PDF of a reservation for generation once its payment is committed.
+     * Never blocks the paying thread: the reservation is skipped when the queue is full.
+     * @param event the sale event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketsSold(TicketsSoldEvent event) {
+        Long reservationId = event.getReservationId();
+        try {
+            workers.execute(() -> generate(reservationId));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Ticket PDF queue is full, PDF of reservation ID: {} will be generated on first download", reservationId);
+        }
+    }
+
+    /**
+     * Get the state of the queue and the counts of processed reservations since startup.
+     * @return the queue statistics
+     */
+    public TicketPdfQueueStatsDto getStats() {
+        return new TicketPdfQueueStatsDto(workers.getQueue().size(), queueCapacity,
+                workers.getActiveCount(), workers.getMaximumPoolSize(),
+                completed.sum(), skipped.sum(), rejected.sum(), failed.sum());
+    }
+
+    /**
+     * Stop the workers, abandoning queued generations. Their PDFs are generated on first download.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void generate(Long reservationId) {
+        try {
+            Optional<Reservation> reservation = reservationRepository.findById(reservationId)
+                    .filter(paid -> paid.getStatus() == ReservationStatus.PAID);
+            if (reservation.isEmpty()) {
+                skipped.increment();
+                log.debug("Reservation ID: {} is no longer paid, skipping its PDF tickets", reservationId);
+                return;
+            }
+
+            // Rendered outside a transaction, the cache fetches the tickets in a query of its own
+            ticketPdfCacheService.getPdf(reservation.get());
+            completed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Could not pre-generate PDF tickets of reservation ID: {}", reservationId, e);
+        }
+    }
+}
@@ -2,12 +2,14 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.request.UserDto;
 import cinema.booking.cinemabooking.enums.UserRole;
+import cinema.booking.cinemabooking.event.UserRegisteredEvent;
 import cinema.booking.cinemabooking.exception.UserAlreadyExistsException;
 import cinema.booking.cinemabooking.mapper.UserMapper;
 import cinema.booking.cinemabooking.model.User;
 import cinema.booking.cinemabooking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,6 +24,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Registers a new user.
@@ -45,6 +48,7 @@ public class UserService {
         user.setRole(UserRole.USER.name());
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUsername()));
         log.info("User {} registered successfully", dto.getUsername());
     }
 
@@ -108,4 +108,4 @@ INSERT INTO seat (cinema_room_id, row_number, seat_number) VALUES (2, 5, 1), (2,
 INSERT INTO seat (cinema_room_id, row_number, seat_number) VALUES
                                                                (3, 1, 1), (3, 1, 2), (3, 1, 3), (3, 1, 4),
                                                                (3, 2, 1), (3, 2, 2), (3, 2, 3), (3, 2, 4),
-                                                               (3, 3, 1), (3, 3, 2), (3, 3, 3), (3, 3, 4);
\ No newline at end of file
+                                                               (3, 3, 1), (3, 3, 2), (3, 3, 3), (3, 3, 4);
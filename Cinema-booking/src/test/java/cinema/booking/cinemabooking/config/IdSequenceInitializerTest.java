@@ -0,0 +1,46 @@
+package cinema.booking.cinemabooking.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdSequenceInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testSynchronizeSequencesMovesEachSequencePastItsTableOnPostgres() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+
+        new IdSequenceInitializer(jdbcTemplate, entityManagerFactory).synchronizeSequences();
+
+        verify(jdbcTemplate).queryForObject(contains("setval('reservation_seq'"), eq(Long.class));
+        verify(jdbcTemplate).queryForObject(contains("setval('ticket_seq'"), eq(Long.class));
+        verify(jdbcTemplate).queryForObject(contains("setval('seat_hold_seq'"), eq(Long.class));
+        verify(jdbcTemplate).queryForObject(contains("MAX(id) FROM reservation)"), eq(Long.class));
+    }
+
+    @Test
+    void testSynchronizeSequencesSkipsOtherDatabases() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        new IdSequenceInitializer(jdbcTemplate, entityManagerFactory).synchronizeSequences();
+
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+}
@@ -0,0 +1,252 @@
+package cinema.booking.cinemabooking.controller.api;
+
+import cinema.booking.cinemabooking.config.SecurityConfig;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.ReportJobDto;
+import cinema.booking.cinemabooking.dto.request.ReportJobRequestDto;
+import cinema.booking.cinemabooking.enums.ReportJobStatus;
+import cinema.booking.cinemabooking.enums.ReportType;
+import cinema.booking.cinemabooking.exception.ReportNotReadyException;
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.exception.TooManyReportJobsException;
+import cinema.booking.cinemabooking.service.ReportJobService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportJobRestController.class)
+@Import(SecurityConfig.class)
+@DisplayName("REST API Tests for ReportJobRestController")
+class ReportJobRestControllerTest {
+
+    private static final String JOB_ID = "6f1c2b9e-8d1a-4f43-9a57-0f3c1e2d4b5a";
+    private static final String CSV_CONTENT = "Date,Total Tickets,Revenue\n2025-01-15,150,1800.00";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReportJobService reportJobService;
+
+    @TempDir
+    private Path tempDir;
+
+    private byte[] givenCompressedReport() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("daily_sales-abc.csv"), CSV_CONTENT);
+        Path compressedFile = tempDir.resolve("daily_sales-abc.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedFile))) {
+            out.write(CSV_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        when(reportJobService.getResult(JOB_ID, "admin"))
+                .thenReturn(new ReportJobService.ReportResult("daily_sales-abc", file, compressedFile, "daily_sales_report.csv"));
+        return Files.readAllBytes(compressedFile);
+    }
+
+    private static ReportJobDto job(ReportJobStatus status) {
+        return new ReportJobDto(JOB_ID, ReportType.DAILY_SALES, status, false,
+                LocalDateTime.of(2025, 1, 15, 10, 0), null, null);
+    }
+
+    @Test
+    @DisplayName("Scenario 1: Submit report job - accepted with location")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testSubmitJob_Accepted() throws Exception {
+        when(reportJobService.submit(any(ReportJobRequestDto.class), eq("admin"))).thenReturn(job(ReportJobStatus.QUEUED));
+
+        mockMvc.perform(post("/api/v1/reports/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"type": "DAILY_SALES", "filter": {"from": "2025-01-01", "to": "2025-01-07", "movieIds": [1, 2]}}
+                                """))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/reports/jobs/" + JOB_ID))
+                .andExpect(jsonPath("$.id").value(JOB_ID))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.finishedAt").doesNotExist());
+
+        ArgumentCaptor<ReportJobRequestDto> captor = ArgumentCaptor.forClass(ReportJobRequestDto.class);
+        verify(reportJobService).submit(captor.capture(), eq("admin"));
+        ReportFilterDto filter = captor.getValue().getFilter();
+        assertThat(filter.getFrom()).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(filter.getMovieIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Scenario 2: Submit report job - missing type and reversed dates are rejected")
+    @WithMockUser(roles = "ADMIN")
+    void testSubmitJob_InvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/reports/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/reports/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"type": "MOVIE_SALES", "filter": {"from": "2025-01-07", "to": "2025-01-01"}}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reportJobService);
+    }
+
+    @Test
+    @DisplayName("Scenario 3: Submit report job - too many jobs")
+    @WithMockUser(roles = "ADMIN")
+    void testSubmitJob_TooManyJobs() throws Exception {
+        when(reportJobService.submit(any(), any())).thenThrow(new TooManyReportJobsException("You already have 3 report jobs in progress"));
+
+        mockMvc.perform(post("/api/v1/reports/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\": \"DAILY_SALES\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.message").value("You already have 3 report jobs in progress"));
+    }
+
+    @Test
+    @DisplayName("Scenario 4: Report jobs - access denied for users")
+    @WithMockUser(roles = "USER")
+    void testReportJobs_UserDenied() throws Exception {
+        mockMvc.perform(post("/api/v1/reports/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\": \"DAILY_SALES\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(reportJobService);
+    }
+
+    @Test
+    @DisplayName("Scenario 5: Get report job - status")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testGetJob_Success() throws Exception {
+        when(reportJobService.getJob(JOB_ID, "admin")).thenReturn(job(ReportJobStatus.RUNNING));
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.type").value("DAILY_SALES"));
+    }
+
+    @Test
+    @DisplayName("Scenario 6: Get report job - not found")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testGetJob_NotFound() throws Exception {
+        when(reportJobService.getJob("missing", "admin")).thenThrow(new ResourceNotFoundException("Report job not found with ID: missing"));
+
+        mockMvc.perform(get("/api/v1/reports/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Scenario 7: Download report - finished job")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_Success() throws Exception {
+        String csvContent = "Date,Total Tickets,Revenue\n2025-01-15,150,1800.00";
+        Path file = Files.writeString(tempDir.resolve("daily_sales-abc.csv"), csvContent);
+        when(reportJobService.getResult(JOB_ID, "admin"))
+                .thenReturn(new ReportJobService.ReportResult("daily_sales-abc", file, null, "daily_sales_report.csv"));
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=daily_sales_report.csv"))
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Length", String.valueOf(csvContent.length())))
+                .andExpect(header().string("ETag", "\"daily_sales-abc\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(csvContent));
+    }
+
+    @Test
+    @DisplayName("Scenario 8: Download report - gzip copy sent when accepted")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_Gzip() throws Exception {
+        byte[] compressed = givenCompressedReport();
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download")
+                        .header("Accept-Encoding", "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("Content-Length", String.valueOf(compressed.length)))
+                .andExpect(header().string("ETag", "\"daily_sales-abc-gzip\""))
+                .andExpect(content().bytes(compressed));
+    }
+
+    @Test
+    @DisplayName("Scenario 9: Download report - resumed with a range")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_Range() throws Exception {
+        givenCompressedReport();
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download")
+                        .header("Range", "bytes=5-9")
+                        .header("If-Range", "\"daily_sales-abc\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-9/" + CSV_CONTENT.length()))
+                .andExpect(content().string(CSV_CONTENT.substring(5, 10)));
+    }
+
+    @Test
+    @DisplayName("Scenario 10: Download report - stale If-Range sends the whole report")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_StaleIfRange() throws Exception {
+        givenCompressedReport();
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download")
+                        .header("Range", "bytes=5-9")
+                        .header("If-Range", "\"daily_sales-old\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", String.valueOf(CSV_CONTENT.length())))
+                .andExpect(content().string(CSV_CONTENT));
+    }
+
+    @Test
+    @DisplayName("Scenario 11: Download report - not modified for a matching ETag")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_NotModified() throws Exception {
+        givenCompressedReport();
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download")
+                        .header("If-None-Match", "\"daily_sales-abc\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Scenario 12: Download report - job not done")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testDownloadReport_NotReady() throws Exception {
+        when(reportJobService.getResult(JOB_ID, "admin")).thenThrow(new ReportNotReadyException("Report job " + JOB_ID + " is RUNNING"));
+
+        mockMvc.perform(get("/api/v1/reports/jobs/" + JOB_ID + "/download"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -2,34 +2,78 @@ package cinema.booking.cinemabooking.controller.api;
 
 import cinema.booking.cinemabooking.config.SecurityConfig;
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.OccupancySummaryDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SalesCubeCellDto;
+import cinema.booking.cinemabooking.dto.report.SalesRateDto;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
+import cinema.booking.cinemabooking.dto.report.SalesTickerDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.dto.report.TicketPdfQueueStatsDto;
+import cinema.booking.cinemabooking.enums.SalesDimension;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
 import cinema.booking.cinemabooking.service.CsvExportService;
+import cinema.booking.cinemabooking.service.OccupancyReportService;
 import cinema.booking.cinemabooking.service.ReportService;
-import org.junit.jupiter.api.BeforeEach;
+import cinema.booking.cinemabooking.service.SalesCubeService;
+import cinema.booking.cinemabooking.service.SalesRollupService;
+import cinema.booking.cinemabooking.service.SalesTickerService;
+import cinema.booking.cinemabooking.service.TicketPdfPregenerationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ReportRestController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, ReportRestControllerTest.SyncAsyncConfig.class})
 @DisplayName("REST API Tests for ReportRestController")
 class ReportRestControllerTest {
 
+    /**
+     * Writes streamed bodies on the request thread, so they never race the filter chain on the mock response.
+     */
+    @TestConfiguration
+    static class SyncAsyncConfig implements WebMvcConfigurer {
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(Runnable::run));
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -39,21 +83,20 @@ class ReportRestControllerTest {
     @MockitoBean
     private CsvExportService csvExportService;
 
-    private DailySalesDto dailySalesDto;
-    private SalesReportDto salesReportDto;
+    @MockitoBean
+    private SalesRollupService salesRollupService;
 
-    @BeforeEach
-    void setUp() {
-        dailySalesDto = new DailySalesDto();
-        dailySalesDto.setDate(LocalDate.of(2025, 1, 15));
-        dailySalesDto.setTicketsSold(150L);
-        dailySalesDto.setTotalRevenue(1800.00);
+    @MockitoBean
+    private SalesCubeService salesCubeService;
 
-        salesReportDto = new SalesReportDto();
-        salesReportDto.setMovieTitle("Test Movie");
-        salesReportDto.setTicketsSold(75L);
-        salesReportDto.setTotalRevenue(900.00);
-    }
+    @MockitoBean
+    private OccupancyReportService occupancyReportService;
+
+    @MockitoBean
+    private SalesTickerService salesTickerService;
+
+    @MockitoBean
+    private TicketPdfPregenerationService ticketPdfPregenerationService;
 
     // ============= DOWNLOAD DAILY REPORT CSV =============
 
@@ -62,19 +105,21 @@ class ReportRestControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testDownloadDailyReportCsv_AdminOnly_Success() throws Exception {
         String csvContent = "Date,Total Tickets,Revenue\n2025-01-15,150,1800.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getDailySalesReport()).thenReturn(List.of(dailySalesDto));
-        doReturn(csvStream).when(csvExportService).generateDailySalesCsv(List.of(dailySalesDto));
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeDailySalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/v1/reports/daily/csv")
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=daily_sales_report.csv"))
-                .andExpect(header().string("Content-Type", "text/csv"));
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string(csvContent));
 
-        verify(reportService, times(1)).getDailySalesReport();
-        verify(csvExportService, times(1)).generateDailySalesCsv(List.of(dailySalesDto));
+        verify(csvExportService, times(1)).writeDailySalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
     }
 
     @Test
@@ -85,8 +130,7 @@ class ReportRestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());
 
-        verify(reportService, never()).getDailySalesReport();
-        verify(csvExportService, never()).generateDailySalesCsv(any());
+        verify(csvExportService, never()).writeDailySalesCsv(any(), any());
     }
 
     @Test
@@ -96,8 +140,7 @@ class ReportRestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().is3xxRedirection());
 
-        verify(reportService, never()).getDailySalesReport();
-        verify(csvExportService, never()).generateDailySalesCsv(any());
+        verify(csvExportService, never()).writeDailySalesCsv(any(), any());
     }
 
     @Test
@@ -105,43 +148,34 @@ class ReportRestControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testDownloadDailyReportCsv_EmptyReport() throws Exception {
         String csvContent = "Date,Total Tickets,Revenue\n";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getDailySalesReport()).thenReturn(List.of());
-        doReturn(csvStream).when(csvExportService).generateDailySalesCsv(List.of());
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeDailySalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/v1/reports/daily/csv")
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=daily_sales_report.csv"))
-                .andExpect(header().string("Content-Type", "text/csv"));
-
-        verify(reportService, times(1)).getDailySalesReport();
-        verify(csvExportService, times(1)).generateDailySalesCsv(List.of());
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string(csvContent));
     }
 
     @Test
-    @DisplayName("Scenario 5: Download daily report CSV - multiple entries")
+    @DisplayName("Scenario 5: Download daily report CSV - response is not buffered by the controller")
     @WithMockUser(roles = "ADMIN")
-    void testDownloadDailyReportCsv_MultipleEntries() throws Exception {
-        DailySalesDto dailySalesDto2 = new DailySalesDto();
-        dailySalesDto2.setDate(LocalDate.of(2025, 1, 16));
-        dailySalesDto2.setTicketsSold(200L);
-        dailySalesDto2.setTotalRevenue(2380.00);
-
-        String csvContent = "Date,Total Tickets,Revenue\n2025-01-15,150,1800.00\n2025-01-16,200,2380.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getDailySalesReport()).thenReturn(List.of(dailySalesDto, dailySalesDto2));
-        doReturn(csvStream).when(csvExportService).generateDailySalesCsv(List.of(dailySalesDto, dailySalesDto2));
-
-        mockMvc.perform(get("/api/v1/reports/daily/csv")
+    void testDownloadDailyReportCsv_StreamedAfterHandlerReturns() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(header().string("Content-Disposition", "attachment; filename=daily_sales_report.csv"));
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        verify(reportService, never()).getDailySalesReport(any());
 
-        verify(reportService, times(1)).getDailySalesReport();
-        verify(csvExportService, times(1)).generateDailySalesCsv(List.of(dailySalesDto, dailySalesDto2));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
     }
 
     // ============= DOWNLOAD MOVIE REPORT CSV =============
@@ -151,19 +185,21 @@ class ReportRestControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testDownloadMovieReportCsv_AdminOnly_Success() throws Exception {
         String csvContent = "Title,Total Tickets,Revenue\nTest Movie,75,900.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getSalesReport()).thenReturn(List.of(salesReportDto));
-        doReturn(csvStream).when(csvExportService).generateMovieSalesCsv(List.of(salesReportDto));
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeMovieSalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/v1/reports/movies/csv")
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=movie_sales_report.csv"))
-                .andExpect(header().string("Content-Type", "text/csv"));
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string(csvContent));
 
-        verify(reportService, times(1)).getSalesReport();
-        verify(csvExportService, times(1)).generateMovieSalesCsv(List.of(salesReportDto));
+        verify(csvExportService, times(1)).writeMovieSalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
     }
 
     @Test
@@ -174,8 +210,7 @@ class ReportRestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());
 
-        verify(reportService, never()).getSalesReport();
-        verify(csvExportService, never()).generateMovieSalesCsv(any());
+        verify(csvExportService, never()).writeMovieSalesCsv(any(), any());
     }
 
     @Test
@@ -185,8 +220,7 @@ class ReportRestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().is3xxRedirection());
 
-        verify(reportService, never()).getSalesReport();
-        verify(csvExportService, never()).generateMovieSalesCsv(any());
+        verify(csvExportService, never()).writeMovieSalesCsv(any(), any());
     }
 
     @Test
@@ -194,79 +228,405 @@ class ReportRestControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testDownloadMovieReportCsv_EmptyReport() throws Exception {
         String csvContent = "Title,Total Tickets,Revenue\n";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getSalesReport()).thenReturn(List.of());
-        doReturn(csvStream).when(csvExportService).generateMovieSalesCsv(List.of());
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeMovieSalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/v1/reports/movies/csv")
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(header().string("Content-Disposition", "attachment; filename=movie_sales_report.csv"));
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        verify(reportService, times(1)).getSalesReport();
-        verify(csvExportService, times(1)).generateMovieSalesCsv(List.of());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=movie_sales_report.csv"))
+                .andExpect(content().string(csvContent));
     }
 
     @Test
     @DisplayName("Scenario 10: Download movie report CSV - multiple movies")
     @WithMockUser(roles = "ADMIN")
     void testDownloadMovieReportCsv_MultipleMovies() throws Exception {
-        SalesReportDto salesReportDto2 = new SalesReportDto();
-        salesReportDto2.setMovieTitle("Another Movie");
-        salesReportDto2.setTicketsSold(120L);
-        salesReportDto2.setTotalRevenue(1440.00);
-
         String csvContent = "Title,Total Tickets,Revenue\nTest Movie,75,900.00\nAnother Movie,120,1440.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
-
-        when(reportService.getSalesReport()).thenReturn(List.of(salesReportDto, salesReportDto2));
-        doReturn(csvStream).when(csvExportService).generateMovieSalesCsv(List.of(salesReportDto, salesReportDto2));
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeMovieSalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/v1/reports/movies/csv")
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(header().string("Content-Disposition", "attachment; filename=movie_sales_report.csv"));
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        verify(reportService, times(1)).getSalesReport();
-        verify(csvExportService, times(1)).generateMovieSalesCsv(List.of(salesReportDto, salesReportDto2));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(csvContent));
     }
 
     @Test
     @DisplayName("Scenario 11: Download movie report CSV - verify content type")
     @WithMockUser(roles = "ADMIN")
     void testDownloadMovieReportCsv_VerifyContentType() throws Exception {
-        String csvContent = "Title,Total Tickets,Revenue\nTest Movie,75,900.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        when(reportService.getSalesReport()).thenReturn(List.of(salesReportDto));
-        doReturn(csvStream).when(csvExportService).generateMovieSalesCsv(List.of(salesReportDto));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andExpect(header().exists("Content-Type"));
+    }
 
-        mockMvc.perform(get("/api/v1/reports/movies/csv")
+    @Test
+    @DisplayName("Scenario 12: Download daily report CSV - verify content type")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadDailyReportCsv_VerifyContentType() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().exists("Content-Disposition"))
                 .andExpect(header().exists("Content-Type"));
+    }
+
+    // ============= REBUILD SALES ROLLUPS =============
+
+    @Test
+    @DisplayName("Scenario 13: Rebuild sales rollups - admin only")
+    @WithMockUser(roles = "ADMIN")
+    void testRebuildSalesRollups() throws Exception {
+        mockMvc.perform(post("/api/v1/reports/rollups/rebuild"))
+                .andExpect(status().isNoContent());
 
-        verify(reportService, times(1)).getSalesReport();
+        verify(salesRollupService, times(1)).rebuild();
     }
 
     @Test
-    @DisplayName("Scenario 12: Download daily report CSV - verify content type")
+    @DisplayName("Scenario 14: Rebuild sales rollups - forbidden for user")
+    @WithMockUser(roles = "USER")
+    void testRebuildSalesRollups_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/v1/reports/rollups/rebuild"))
+                .andExpect(status().isForbidden());
+
+        verify(salesRollupService, never()).rebuild();
+    }
+
+    // ============= FILTERED REPORTS =============
+
+    @Test
+    @DisplayName("Scenario 15: Get daily report - filters bound from query parameters")
     @WithMockUser(roles = "ADMIN")
-    void testDownloadDailyReportCsv_VerifyContentType() throws Exception {
+    void testGetDailyReport_Filtered() throws Exception {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 7), List.of(1L, 2L), List.of(3L), TicketType.REGULAR);
+        when(reportService.getDailySalesReport(filter)).thenReturn(List.of(new DailySalesDto(LocalDate.of(2025, 1, 2), 10L, 150.0)));
+
+        mockMvc.perform(get("/api/v1/reports/daily")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-07")
+                        .param("movieIds", "1", "2")
+                        .param("roomIds", "3")
+                        .param("ticketType", "REGULAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2025-01-02"))
+                .andExpect(jsonPath("$[0].ticketsSold").value(10));
+
+        verify(reportService, times(1)).getDailySalesReport(filter);
+    }
+
+    @Test
+    @DisplayName("Scenario 16: Get movie report - no filters")
+    @WithMockUser(roles = "ADMIN")
+    void testGetMovieReport_Unfiltered() throws Exception {
+        when(reportService.getSalesReport(ReportFilterDto.none())).thenReturn(List.of(new SalesReportDto("Test Movie", 75L, 900.0)));
+
+        mockMvc.perform(get("/api/v1/reports/movies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieTitle").value("Test Movie"));
+
+        verify(reportService, times(1)).getSalesReport(ReportFilterDto.none());
+    }
+
+    @Test
+    @DisplayName("Scenario 17: Get movie report - reversed date range rejected")
+    @WithMockUser(roles = "ADMIN")
+    void testGetMovieReport_ReversedDateRange() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/movies")
+                        .param("from", "2025-01-07")
+                        .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    @DisplayName("Scenario 18: Get daily report - access denied for users")
+    @WithMockUser(roles = "USER")
+    void testGetDailyReport_UserDenied() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/daily"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    @DisplayName("Scenario 19: Download movie report CSV - filters passed to export")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadMovieReportCsv_Filtered() throws Exception {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2025, 1, 1), null, null, null, TicketType.REDUCED);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
+                        .param("from", "2025-01-01")
+                        .param("ticketType", "REDUCED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(csvExportService, times(1)).writeMovieSalesCsv(eq(filter), any(OutputStream.class));
+    }
+
+    // ============= SALES CUBE =============
+
+    @Test
+    @DisplayName("Scenario 20: Sales cube - grouped by movie and day with filter")
+    @WithMockUser(roles = "ADMIN")
+    void testGetSalesCube_Grouped() throws Exception {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2025, 1, 1), null, null, null, null);
+        when(salesCubeService.aggregate(filter, List.of(SalesDimension.MOVIE, SalesDimension.DAY)))
+                .thenReturn(List.of(new SalesCubeCellDto(LocalDate.of(2025, 1, 2), null, 1L, null, null, 4L, 60.0)));
+
+        mockMvc.perform(get("/api/v1/reports/cube")
+                        .param("groupBy", "MOVIE", "DAY")
+                        .param("from", "2025-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieId").value(1))
+                .andExpect(jsonPath("$[0].date").value("2025-01-02"))
+                .andExpect(jsonPath("$[0].ticketsSold").value(4))
+                .andExpect(jsonPath("$[0].hour").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Scenario 21: Sales cube - too many groups rejected")
+    @WithMockUser(roles = "ADMIN")
+    void testGetSalesCube_TooManyGroups() throws Exception {
+        when(salesCubeService.aggregate(any(), any())).thenThrow(new InvalidReportQueryException("Too many groups"));
+
+        mockMvc.perform(get("/api/v1/reports/cube")
+                        .param("groupBy", "DAY", "MOVIE", "ROOM"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Too many groups"));
+    }
+
+    @Test
+    @DisplayName("Scenario 22: Sales cube - unknown dimension rejected")
+    @WithMockUser(roles = "ADMIN")
+    void testGetSalesCube_UnknownDimension() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/cube")
+                        .param("groupBy", "WEEKDAY"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(salesCubeService);
+    }
+
+    // ============= OCCUPANCY =============
+
+    @Test
+    @DisplayName("Scenario 23: Seance occupancy - filtered by room")
+    @WithMockUser(roles = "ADMIN")
+    void testGetSeanceOccupancy_Filtered() throws Exception {
+        when(reportService.getSeanceOccupancy(any(ReportFilterDto.class))).thenReturn(List.of(
+                new SeanceOccupancyDto(1L, 2L, 3L, LocalDateTime.of(2025, 1, 15, 18, 0), 120, 84, 6, 0.7)));
+
+        mockMvc.perform(get("/api/v1/reports/occupancy")
+                        .param("roomIds", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].seanceId").value(1))
+                .andExpect(jsonPath("$[0].capacity").value(120))
+                .andExpect(jsonPath("$[0].held").value(6))
+                .andExpect(jsonPath("$[0].fillRate").value(0.7));
+
+        verify(reportService).getSeanceOccupancy(new ReportFilterDto(null, null, null, List.of(3L), null));
+    }
+
+    @Test
+    @DisplayName("Scenario 24: Occupancy summary - by time slot")
+    @WithMockUser(roles = "ADMIN")
+    void testGetOccupancySummary_ByTimeSlot() throws Exception {
+        when(occupancyReportService.getOccupancySummary(any(ReportFilterDto.class), eq(true))).thenReturn(List.of(
+                new OccupancySummaryDto(3L, DayOfWeek.FRIDAY, 18, 4, 0.6, 0.2, 0.6, 0.9, 0.95)));
+
+        mockMvc.perform(get("/api/v1/reports/occupancy/summary")
+                        .param("byTimeSlot", "true")
+                        .param("from", "2025-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].dayOfWeek").value("FRIDAY"))
+                .andExpect(jsonPath("$[0].startHour").value(18))
+                .andExpect(jsonPath("$[0].p90FillRate").value(0.9));
+    }
+
+    @Test
+    @DisplayName("Scenario 25: Occupancy summary - access denied for users")
+    @WithMockUser(roles = "USER")
+    void testGetOccupancySummary_UserDenied() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/occupancy/summary"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(occupancyReportService);
+    }
+
+    // ============= COMPRESSION =============
+
+    @Test
+    @DisplayName("Scenario 26: Download daily report CSV - gzip when accepted")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadDailyReportCsv_Gzip() throws Exception {
         String csvContent = "Date,Total Tickets,Revenue\n2025-01-15,150,1800.00";
-        InputStream csvStream = new ByteArrayInputStream(csvContent.getBytes());
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeDailySalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
 
-        when(reportService.getDailySalesReport()).thenReturn(List.of(dailySalesDto));
-        doReturn(csvStream).when(csvExportService).generateDailySalesCsv(List.of(dailySalesDto));
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/v1/reports/daily/csv")
-                        .contentType(MediaType.APPLICATION_JSON))
+        byte[] body = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(header().exists("Content-Disposition"))
-                .andExpect(header().exists("Content-Type"));
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csvContent);
+        }
+    }
+
+    @Test
+    @DisplayName("Scenario 27: Download movie report CSV - deflate when gzip is refused")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadMovieReportCsv_Deflate() throws Exception {
+        String csvContent = "Movie Title,Tickets Sold,Total Revenue\nInception,50,750.00";
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeMovieSalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/movies/csv")
+                        .header("Accept-Encoding", "gzip;q=0, *"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "deflate"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csvContent);
+        }
+    }
+
+    @Test
+    @DisplayName("Scenario 28: Download daily report CSV - uncompressed for unsupported codings")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadDailyReportCsv_UnsupportedEncoding() throws Exception {
+        String csvContent = "Date,Total Tickets,Revenue\n";
+        doAnswer(invocation -> write(invocation.getArgument(1), csvContent))
+                .when(csvExportService).writeDailySalesCsv(any(ReportFilterDto.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reports/daily/csv")
+                        .header("Accept-Encoding", "br"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(csvContent));
+    }
+
+    @Test
+    @DisplayName("Scenario 29: Get sales ticker - admin access")
+    @WithMockUser(roles = "ADMIN")
+    void testGetSalesTicker_Success() throws Exception {
+        SalesTickerDto ticker = new SalesTickerDto(LocalDateTime.of(2024, 5, 1, 18, 30),
+                new SalesRateDto(null, 1, 3L, 45.0, 2L, 0L, 0L),
+                new SalesRateDto(null, 60, 42L, 630.0, 30L, 2L, 5L),
+                List.of(0L, 3L),
+                List.of(new SalesRateDto(7L, 60, 40L, 600.0, 28L, 2L, 4L)));
+        when(salesTickerService.getTicker(null)).thenReturn(ticker);
+
+        mockMvc.perform(get("/api/v1/reports/ticker"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastMinute.ticketsSold").value(3))
+                .andExpect(jsonPath("$.lastHour.revenue").value(630.0))
+                .andExpect(jsonPath("$.lastHour.seanceId").doesNotExist())
+                .andExpect(jsonPath("$.ticketsPerMinute[1]").value(3))
+                .andExpect(jsonPath("$.topSeances[0].seanceId").value(7));
+    }
+
+    @Test
+    @DisplayName("Scenario 30: Stream sales ticker - admin only")
+    @WithMockUser(roles = "ADMIN")
+    void testStreamSalesTicker_Success() throws Exception {
+        when(salesTickerService.subscribe(7L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/reports/ticker/stream")
+                        .param("seanceId", "7")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(salesTickerService, times(1)).subscribe(7L);
+    }
+
+    @Test
+    @DisplayName("Scenario 31: Stream sales ticker - access denied for users")
+    @WithMockUser(roles = "USER")
+    void testStreamSalesTicker_UserDenied() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/ticker/stream"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(salesTickerService);
+    }
+
+    @Test
+    @DisplayName("Scenario 32: Get ticket PDF queue statistics - admin access")
+    @WithMockUser(roles = "ADMIN")
+    void testGetTicketPdfQueueStats_AdminAccess() throws Exception {
+        when(ticketPdfPregenerationService.getStats()).thenReturn(new TicketPdfQueueStatsDto(4, 100, 1, 1, 250, 2, 3, 1));
+
+        mockMvc.perform(get("/api/v1/reports/tickets/pdf-queue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queued").value(4))
+                .andExpect(jsonPath("$.queueCapacity").value(100))
+                .andExpect(jsonPath("$.completed").value(250))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.rejected").value(3));
+    }
+
+    @Test
+    @DisplayName("Scenario 33: Get ticket PDF queue statistics - access denied for users")
+    @WithMockUser(roles = "USER")
+    void testGetTicketPdfQueueStats_UserDenied() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/tickets/pdf-queue"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(ticketPdfPregenerationService);
+    }
+
+    @Test
+    @DisplayName("Scenario 34: Stream sales ticker - too many open streams")
+    @WithMockUser(roles = "ADMIN")
+    void testStreamSalesTicker_TooManySubscribers() throws Exception {
+        when(salesTickerService.subscribe(null)).thenThrow(new TooManySubscribersException("Too many open sales ticker streams"));
+
+        mockMvc.perform(get("/api/v1/reports/ticker/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isTooManyRequests());
+    }
 
-        verify(reportService, times(1)).getDailySalesReport();
+    private static Object write(OutputStream out, String content) throws IOException {
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        return null;
     }
 }
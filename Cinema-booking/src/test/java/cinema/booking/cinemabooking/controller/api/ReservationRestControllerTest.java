@@ -11,10 +11,12 @@ import cinema.booking.cinemabooking.exception.InvalidReservationActionException;
 import cinema.booking.cinemabooking.exception.SeatAlreadyOccupiedException;
 import cinema.booking.cinemabooking.service.PdfTicketService;
 import cinema.booking.cinemabooking.service.ReservationService;
+import cinema.booking.cinemabooking.service.TicketPdfCacheService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
@@ -23,11 +25,14 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -40,6 +45,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @DisplayName("REST API Tests for ReservationRestController")
 class ReservationRestControllerTest {
 
+    private static final String PDF_CONTENT = "%PDF-1.4\n%Sample PDF content";
+    private static final String PDF_ETAG = "\"0b7e4c1a-19b8c3f2a10\"";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -49,6 +57,9 @@ class ReservationRestControllerTest {
     @MockitoBean
     private PdfTicketService pdfTicketService;
 
+    @TempDir
+    private Path tempDir;
+
     private ObjectMapper objectMapper;
     private CreateReservationDto createReservationDto;
     private ReservationSummaryDto reservationSummaryDto;
@@ -485,18 +496,17 @@ class ReservationRestControllerTest {
     @DisplayName("Scenario 25: Download PDF tickets - authenticated user")
     @WithMockUser(username = "testUser", roles = "USER")
     void testDownloadPdf_AuthenticatedUser_Success() throws Exception {
-        String pdfContent = "%PDF-1.4\n%Sample PDF content";
-        ByteArrayInputStream pdfStream = new ByteArrayInputStream(pdfContent.getBytes());
-
-        when(reservationService.generatePdfForReservation(1L, "testUser"))
-                .thenReturn(pdfStream);
+        givenCachedPdf(PDF_CONTENT.getBytes());
 
         mockMvc.perform(get("/api/v1/reservations/1/pdf"))
                 .andExpect(status().isOk())
-                .andExpect(header().exists("Content-Disposition"))
-                .andExpect(header().string("Content-Type", MediaType.APPLICATION_PDF_VALUE));
+                .andExpect(header().string("Content-Disposition", "inline; filename=bilety_1.pdf"))
+                .andExpect(header().string("Content-Length", String.valueOf(PDF_CONTENT.length())))
+                .andExpect(header().string("ETag", PDF_ETAG))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().string(PDF_CONTENT));
 
-        verify(reservationService, times(1)).generatePdfForReservation(1L, "testUser");
+        verify(reservationService, times(1)).getPdfForReservation(1L, "testUser");
     }
 
     @Test
@@ -505,37 +515,99 @@ class ReservationRestControllerTest {
         mockMvc.perform(get("/api/v1/reservations/1/pdf"))
                 .andExpect(status().is3xxRedirection());
 
-        verify(reservationService, never()).generatePdfForReservation(anyLong(), anyString());
+        verify(reservationService, never()).getPdfForReservation(anyLong(), anyString());
     }
 
     @Test
     @DisplayName("Scenario 27: Download PDF tickets - reservation not found")
     @WithMockUser(username = "testUser", roles = "USER")
     void testDownloadPdf_ReservationNotFound() throws Exception {
-        when(reservationService.generatePdfForReservation(999L, "testUser"))
+        when(reservationService.getPdfForReservation(999L, "testUser"))
                 .thenThrow(new ResourceNotFoundException("Reservation not found"));
 
         mockMvc.perform(get("/api/v1/reservations/999/pdf"))
                 .andExpect(status().isNotFound());
 
-        verify(reservationService, times(1)).generatePdfForReservation(999L, "testUser");
+        verify(reservationService, times(1)).getPdfForReservation(999L, "testUser");
     }
 
     @Test
     @DisplayName("Scenario 28: Download PDF tickets - verify PDF content type")
     @WithMockUser(username = "testUser", roles = "USER")
     void testDownloadPdf_VerifyContentType() throws Exception {
-        String pdfContent = "%PDF-1.4\n%Sample PDF content";
-        ByteArrayInputStream pdfStream = new ByteArrayInputStream(pdfContent.getBytes());
-
-        when(reservationService.generatePdfForReservation(1L, "testUser"))
-                .thenReturn(pdfStream);
+        givenCachedPdf(PDF_CONTENT.getBytes());
 
         mockMvc.perform(get("/api/v1/reservations/1/pdf"))
                 .andExpect(status().isOk())
-                .andExpect(header().exists("Content-Disposition"))
                 .andExpect(header().string("Content-Type", MediaType.APPLICATION_PDF_VALUE));
+    }
+
+    @Test
+    @DisplayName("Scenario 29: Download PDF tickets - not modified for a matching ETag")
+    @WithMockUser(username = "testUser", roles = "USER")
+    void testDownloadPdf_NotModified() throws Exception {
+        givenCachedPdf(PDF_CONTENT.getBytes());
+
+        mockMvc.perform(get("/api/v1/reservations/1/pdf")
+                        .header("If-None-Match", PDF_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Scenario 30: Download PDF tickets - resumed with a range")
+    @WithMockUser(username = "testUser", roles = "USER")
+    void testDownloadPdf_Range() throws Exception {
+        givenCachedPdf(PDF_CONTENT.getBytes());
+
+        mockMvc.perform(get("/api/v1/reservations/1/pdf")
+                        .header("Range", "bytes=0-7")
+                        .header("If-Range", PDF_ETAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-7/" + PDF_CONTENT.length()))
+                .andExpect(content().string(PDF_CONTENT.substring(0, 8)));
+
+        mockMvc.perform(get("/api/v1/reservations/1/pdf")
+                        .header("Range", "bytes=0-7")
+                        .header("If-Range", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(PDF_CONTENT));
+    }
+
+    @Test
+    @DisplayName("Scenario 31: Download PDF tickets - large file handed to the container's sendfile")
+    @WithMockUser(username = "testUser", roles = "USER")
+    void testDownloadPdf_Sendfile() throws Exception {
+        Path file = givenCachedPdf(new byte[64 * 1024]);
+
+        mockMvc.perform(get("/api/v1/reservations/1/pdf")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", String.valueOf(64 * 1024)))
+                .andExpect(header().string("ETag", PDF_ETAG))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", file.toString()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 64 * 1024L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Scenario 32: Download PDF tickets - small file written directly despite sendfile support")
+    @WithMockUser(username = "testUser", roles = "USER")
+    void testDownloadPdf_SmallFileWithoutSendfile() throws Exception {
+        givenCachedPdf(PDF_CONTENT.getBytes());
+
+        mockMvc.perform(get("/api/v1/reservations/1/pdf")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", nullValue()))
+                .andExpect(content().string(PDF_CONTENT));
+    }
 
-        verify(reservationService, times(1)).generatePdfForReservation(1L, "testUser");
+    private Path givenCachedPdf(byte[] content) throws IOException {
+        Path file = Files.write(tempDir.resolve("reservation.pdf"), content);
+        when(reservationService.getPdfForReservation(1L, "testUser"))
+                .thenReturn(new TicketPdfCacheService.CachedPdf(file, content.length, PDF_ETAG));
+        return file;
     }
 }
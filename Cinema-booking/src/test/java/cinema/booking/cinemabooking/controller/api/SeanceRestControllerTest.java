@@ -3,7 +3,11 @@ package cinema.booking.cinemabooking.controller.api;
 import cinema.booking.cinemabooking.config.SecurityConfig;
 import cinema.booking.cinemabooking.dto.response.SeatDto;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
+import cinema.booking.cinemabooking.model.Seance;
 import cinema.booking.cinemabooking.service.SeanceService;
+import cinema.booking.cinemabooking.service.SeanceTicketExportService;
+import cinema.booking.cinemabooking.service.SeatMapStreamService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,17 +19,25 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SeanceRestController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, ReportRestControllerTest.SyncAsyncConfig.class})
 @DisplayName("REST API Tests for SeanceRestController")
 class SeanceRestControllerTest {
 
@@ -35,6 +47,12 @@ class SeanceRestControllerTest {
     @MockitoBean
     private SeanceService seanceService;
 
+    @MockitoBean
+    private SeatMapStreamService seatMapStreamService;
+
+    @MockitoBean
+    private SeanceTicketExportService seanceTicketExportService;
+
     private ObjectMapper objectMapper;
     private List<SeatDto> seatDtos;
 
@@ -48,6 +66,8 @@ class SeanceRestControllerTest {
         seatDtos.add(SeatDto.builder().id(3L).rowNumber(1).seatNumber(3).isOccupied(true).build());
         seatDtos.add(SeatDto.builder().id(4L).rowNumber(2).seatNumber(1).isOccupied(true).build());
         seatDtos.add(SeatDto.builder().id(5L).rowNumber(2).seatNumber(2).isOccupied(false).build());
+
+        when(seanceService.getSeatMapVersion(anyLong())).thenReturn("v1-7");
     }
 
     // ============= GET SEATS FOR SEANCE =============
@@ -243,4 +263,155 @@ class SeanceRestControllerTest {
 
         verify(seanceService, times(1)).getSeatsStatusForMovie(1L);
     }
+
+    @Test
+    @DisplayName("Scenario 11: Get seats for seance - returns seat map version as ETag")
+    @WithMockUser(roles = "USER")
+    void testGetSeatsForSeance_ReturnsETag() throws Exception {
+        when(seanceService.getSeatsStatusForMovie(1L)).thenReturn(seatDtos);
+
+        mockMvc.perform(get("/api/v1/seances/1/seats")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1-7\""));
+    }
+
+    @Test
+    @DisplayName("Scenario 12: Get seats for seance - not modified for current ETag")
+    @WithMockUser(roles = "USER")
+    void testGetSeatsForSeance_NotModified() throws Exception {
+        mockMvc.perform(get("/api/v1/seances/1/seats")
+                        .header("If-None-Match", "\"v1-7\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verify(seanceService, never()).getSeatsStatusForMovie(anyLong());
+    }
+
+    @Test
+    @DisplayName("Scenario 13: Get seats for seance - stale ETag returns seats")
+    @WithMockUser(roles = "USER")
+    void testGetSeatsForSeance_StaleETag() throws Exception {
+        when(seanceService.getSeatsStatusForMovie(1L)).thenReturn(seatDtos);
+
+        mockMvc.perform(get("/api/v1/seances/1/seats")
+                        .header("If-None-Match", "\"v1-6\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+    }
+
+    // ============= STREAM SEATS FOR SEANCE =============
+
+    @Test
+    @DisplayName("Scenario 14: Stream seats for seance - signed-in user")
+    @WithMockUser(roles = "USER")
+    void testStreamSeatsForSeance_SignedInUser_Success() throws Exception {
+        when(seatMapStreamService.subscribe(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/seances/1/seats/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(seatMapStreamService, times(1)).subscribe(1L);
+    }
+
+    // ============= DOWNLOAD SEANCE TICKETS =============
+
+    @Test
+    @DisplayName("Scenario 15: Download seance tickets - admin streams the PDF")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadSeanceTickets_Admin_Success() throws Exception {
+        String pdfContent = "%PDF-1.4\n%Sample PDF content";
+        Seance seance = new Seance();
+        seance.setId(1L);
+        when(seanceTicketExportService.getSeance(1L)).thenReturn(seance);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(pdfContent.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(seanceTicketExportService).writeTicketPack(eq(seance), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/seances/1/tickets/pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=seance_1_tickets.pdf"))
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_PDF_VALUE))
+                .andExpect(content().string(pdfContent));
+    }
+
+    @Test
+    @DisplayName("Scenario 16: Download seance tickets - access denied for users and guests")
+    void testDownloadSeanceTickets_NotAdmin_Denied() throws Exception {
+        mockMvc.perform(get("/api/v1/seances/1/tickets/pdf"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/api/v1/seances/1/tickets/pdf")
+                        .with(user("user").roles("USER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(seanceTicketExportService);
+    }
+
+    @Test
+    @DisplayName("Scenario 17: Download seance tickets - seance not found")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadSeanceTickets_NotFound() throws Exception {
+        when(seanceTicketExportService.getSeance(999L)).thenThrow(new ResourceNotFoundException("Seance not found with ID: 999"));
+
+        mockMvc.perform(get("/api/v1/seances/999/tickets/pdf"))
+                .andExpect(status().isNotFound());
+
+        verify(seanceTicketExportService, never()).writeTicketPack(any(), any());
+    }
+
+    @Test
+    @DisplayName("Scenario 18: Stream seats for seance - guests are sent to login")
+    void testStreamSeatsForSeance_Anonymous_Denied() throws Exception {
+        mockMvc.perform(get("/api/v1/seances/1/seats/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().is3xxRedirection());
+
+        verifyNoInteractions(seatMapStreamService);
+    }
+
+    @Test
+    @DisplayName("Scenario 19: Stream seats for seance - seance not found")
+    @WithMockUser(roles = "USER")
+    void testStreamSeatsForSeance_SeanceNotFound() throws Exception {
+        doThrow(new ResourceNotFoundException("Seance not found")).when(seanceService).checkSeanceExists(999L);
+
+        mockMvc.perform(get("/api/v1/seances/999/seats/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(seatMapStreamService);
+    }
+
+    @Test
+    @DisplayName("Scenario 20: Stream seats for seance - too many open streams")
+    @WithMockUser(roles = "USER")
+    void testStreamSeatsForSeance_TooManySubscribers() throws Exception {
+        when(seatMapStreamService.subscribe(1L)).thenThrow(new TooManySubscribersException("Too many open seat map streams"));
+
+        mockMvc.perform(get("/api/v1/seances/1/seats/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("Scenario 21: Get seats for seance - matching ETag of a missing seance returns 404")
+    @WithMockUser(roles = "USER")
+    void testGetSeatsForSeance_MatchingETagOfMissingSeance_NotFound() throws Exception {
+        when(seanceService.getSeatMapVersion(999L)).thenThrow(new ResourceNotFoundException("Seance not found"));
+
+        mockMvc.perform(get("/api/v1/seances/999/seats")
+                        .header("If-None-Match", "\"v1-7\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        verify(seanceService, never()).getSeatsStatusForMovie(anyLong());
+    }
 }
@@ -3,10 +3,11 @@ package cinema.booking.cinemabooking.controller.view.admin;
 import cinema.booking.cinemabooking.config.SecurityConfig;
 import cinema.booking.cinemabooking.controller.view.GlobalControllerAdvice;
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.DashboardStatsDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
-import cinema.booking.cinemabooking.repository.MovieRepository;
-import cinema.booking.cinemabooking.repository.ReservationRepository;
-import cinema.booking.cinemabooking.repository.UserRepository;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.service.DashboardStatsService;
 import cinema.booking.cinemabooking.service.ReportService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -20,6 +21,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,13 +36,7 @@ class AdminDashboardControllerTest {
     private MockMvc mockMvc;
 
     @MockitoBean
-    private MovieRepository movieRepository;
-
-    @MockitoBean
-    private UserRepository userRepository;
-
-    @MockitoBean
-    private ReservationRepository reservationRepository;
+    private DashboardStatsService dashboardStatsService;
 
     @MockitoBean
     private ReportService reportService;
@@ -64,40 +61,37 @@ class AdminDashboardControllerTest {
     @DisplayName("Scenario 3: Admin dashboard - admin user - success")
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testAdminDashboard_Success() throws Exception {
-        when(movieRepository.count()).thenReturn(15L);
-        when(userRepository.count()).thenReturn(42L);
-        when(reservationRepository.count()).thenReturn(128L);
+        when(dashboardStatsService.getStats()).thenReturn(new DashboardStatsDto(15L, 42L, 128L, 7L, 312.5));
 
         mockMvc.perform(get("/admin"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/dashboard"))
                 .andExpect(model().attribute("moviesCount", 15L))
                 .andExpect(model().attribute("usersCount", 42L))
-                .andExpect(model().attribute("reservationsCount", 128L));
+                .andExpect(model().attribute("reservationsCount", 128L))
+                .andExpect(model().attribute("heldSeats", 7L))
+                .andExpect(model().attribute("revenueToday", 312.5))
+                .andExpect(content().string(containsString("312.50")));
 
-        verify(movieRepository, times(1)).count();
-        verify(userRepository, times(1)).count();
-        verify(reservationRepository, times(1)).count();
+        verify(dashboardStatsService, times(1)).getStats();
     }
 
     @Test
     @DisplayName("Scenario 4: Admin dashboard - zero counts")
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testAdminDashboard_ZeroCounts() throws Exception {
-        when(movieRepository.count()).thenReturn(0L);
-        when(userRepository.count()).thenReturn(0L);
-        when(reservationRepository.count()).thenReturn(0L);
+        when(dashboardStatsService.getStats()).thenReturn(new DashboardStatsDto(0L, 0L, 0L, 0L, 0.0));
 
         mockMvc.perform(get("/admin"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/dashboard"))
                 .andExpect(model().attribute("moviesCount", 0L))
                 .andExpect(model().attribute("usersCount", 0L))
-                .andExpect(model().attribute("reservationsCount", 0L));
+                .andExpect(model().attribute("reservationsCount", 0L))
+                .andExpect(model().attribute("heldSeats", 0L))
+                .andExpect(model().attribute("revenueToday", 0.0));
 
-        verify(movieRepository, times(1)).count();
-        verify(userRepository, times(1)).count();
-        verify(reservationRepository, times(1)).count();
+        verify(dashboardStatsService, times(1)).getStats();
     }
 
     @Test
@@ -130,24 +124,24 @@ class AdminDashboardControllerTest {
                 new DailySalesDto(LocalDate.of(2024, 12, 21), 75L, 900.0)
         );
 
-        when(reportService.getSalesReport()).thenReturn(salesByMovie);
-        when(reportService.getDailySalesReport()).thenReturn(salesByDate);
+        when(reportService.getSalesReport(any(ReportFilterDto.class))).thenReturn(salesByMovie);
+        when(reportService.getDailySalesReport(any(ReportFilterDto.class))).thenReturn(salesByDate);
 
         mockMvc.perform(get("/admin/reports"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/reports"))
                 .andExpect(model().attributeExists("salesByMovie", "salesByDate"));
 
-        verify(reportService, times(1)).getSalesReport();
-        verify(reportService, times(1)).getDailySalesReport();
+        verify(reportService, times(1)).getSalesReport(any(ReportFilterDto.class));
+        verify(reportService, times(1)).getDailySalesReport(any(ReportFilterDto.class));
     }
 
     @Test
     @DisplayName("Scenario 8: Admin reports - empty reports")
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testAdminReports_EmptyReports() throws Exception {
-        when(reportService.getSalesReport()).thenReturn(List.of());
-        when(reportService.getDailySalesReport()).thenReturn(List.of());
+        when(reportService.getSalesReport(any(ReportFilterDto.class))).thenReturn(List.of());
+        when(reportService.getDailySalesReport(any(ReportFilterDto.class))).thenReturn(List.of());
 
         mockMvc.perform(get("/admin/reports"))
                 .andExpect(status().isOk())
@@ -155,7 +149,44 @@ class AdminDashboardControllerTest {
                 .andExpect(model().attribute("salesByMovie", List.of()))
                 .andExpect(model().attribute("salesByDate", List.of()));
 
-        verify(reportService, times(1)).getSalesReport();
-        verify(reportService, times(1)).getDailySalesReport();
+        verify(reportService, times(1)).getSalesReport(any(ReportFilterDto.class));
+        verify(reportService, times(1)).getDailySalesReport(any(ReportFilterDto.class));
+    }
+
+    @Test
+    @DisplayName("Scenario 9: Admin reports - filtered by date range and ticket type")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testAdminReports_Filtered() throws Exception {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 7), null, null, TicketType.REDUCED);
+        when(reportService.getSalesReport(filter)).thenReturn(List.of());
+        when(reportService.getDailySalesReport(filter)).thenReturn(List.of());
+
+        mockMvc.perform(get("/admin/reports")
+                        .param("from", "2024-12-01")
+                        .param("to", "2024-12-07")
+                        .param("ticketType", "REDUCED"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin/reports"))
+                .andExpect(model().attribute("filter", filter));
+
+        verify(reportService, times(1)).getSalesReport(filter);
+        verify(reportService, times(1)).getDailySalesReport(filter);
+    }
+
+    @Test
+    @DisplayName("Scenario 10: Admin reports - reversed date range is swapped")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testAdminReports_ReversedDateRange() throws Exception {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 7), null, null, null);
+        when(reportService.getSalesReport(filter)).thenReturn(List.of());
+        when(reportService.getDailySalesReport(filter)).thenReturn(List.of());
+
+        mockMvc.perform(get("/admin/reports")
+                        .param("from", "2024-12-07")
+                        .param("to", "2024-12-01"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("filter", filter));
+
+        verify(reportService, times(1)).getDailySalesReport(filter);
     }
 }
@@ -1,7 +1,10 @@
 package cinema.booking.cinemabooking.dao;
 
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.enums.TicketType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,41 +38,256 @@ public class SalesDaoTest {
         salesDao = new SalesDao(jdbcTemplate);
     }
 
+    // Tests sales rollups
+
+    @Test
+    void testFetchSalesReportIsEmptyForEveryMovieBeforeRollupsAreBuilt() {
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
+        assertThat(result).hasSize(3).allMatch(report -> report.getTicketsSold() == 0);
+    }
+
+    @Test
+    void testRebuildRollupsMatchesPaidTicketsPerMovie() {
+        salesDao.rebuildRollups();
+
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
+        assertThat(result).extracting(SalesReportDto::getMovieTitle)
+                .containsExactly("Inception", "The Matrix", "Interstellar");
+        assertThat(result).extracting(SalesReportDto::getTicketsSold).containsExactly(4L, 2L, 1L);
+        assertThat(result).extracting(SalesReportDto::getTotalRevenue).containsExactly(55.0, 23.0, 15.0);
+    }
+
+    @Test
+    void testRebuildRollupsMatchesPaidTicketsPerDay() {
+        salesDao.rebuildRollups();
+
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
+        assertThat(result).extracting(DailySalesDto::getDate)
+                .containsExactly(LocalDate.of(2024, 5, 3), LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 1));
+        assertThat(result).extracting(DailySalesDto::getTicketsSold).containsExactly(1L, 1L, 5L);
+        assertThat(result).extracting(DailySalesDto::getTotalRevenue).containsExactly(15.0, 15.0, 63.0);
+    }
+
+    @Test
+    void testRebuildRollupsIsRepeatable() {
+        salesDao.rebuildRollups();
+        salesDao.rebuildRollups();
+
+        assertThat(salesDao.fetchDailySales(ReportFilterDto.none())).extracting(DailySalesDto::getTicketsSold).containsExactly(1L, 1L, 5L);
+    }
+
+    @Test
+    void testAddMovieSalesWithoutRowUpdatesNothing() {
+        assertThat(salesDao.addMovieSales(1L, 2, 30.0)).isFalse();
+    }
+
+    @Test
+    void testAddMovieSalesAfterInsertingRow() {
+        salesDao.insertMovieSalesRow(2L);
+        salesDao.insertMovieSalesRow(2L);
+
+        assertThat(salesDao.addMovieSales(2L, 2, 30.0)).isTrue();
+        assertThat(salesDao.addMovieSales(2L, 1, 10.0)).isTrue();
+        assertThat(salesDao.fetchSalesReport(ReportFilterDto.none()).getFirst())
+                .isEqualTo(new SalesReportDto("The Matrix", 3L, 40.0));
+    }
+
+    @Test
+    void testAddDailySalesAfterInsertingRow() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        salesDao.insertDailySalesRow(date, 1L, 1L, TicketType.REGULAR);
+        salesDao.insertDailySalesRow(date, 1L, 1L, TicketType.REDUCED);
+
+        assertThat(salesDao.addDailySales(date, 1L, 1L, TicketType.REGULAR, 2, 30.0)).isTrue();
+        assertThat(salesDao.addDailySales(date, 1L, 1L, TicketType.REDUCED, 1, 10.0)).isTrue();
+        assertThat(salesDao.fetchDailySales(ReportFilterDto.none())).containsExactly(new DailySalesDto(date, 3L, 40.0));
+    }
+
+    @Test
+    void testFetchSalesReportFilteredByDateRange() {
+        salesDao.rebuildRollups();
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 2), null, null, null);
+
+        assertThat(salesDao.fetchSalesReport(filter)).containsExactly(
+                new SalesReportDto("Inception", 4L, 55.0),
+                new SalesReportDto("The Matrix", 2L, 23.0));
+    }
+
+    @Test
+    void testFetchSalesReportFilteredByTicketType() {
+        salesDao.rebuildRollups();
+        ReportFilterDto filter = new ReportFilterDto(null, null, null, null, TicketType.REDUCED);
+
+        assertThat(salesDao.fetchSalesReport(filter)).containsExactly(
+                new SalesReportDto("Inception", 1L, 10.0),
+                new SalesReportDto("The Matrix", 1L, 8.0));
+    }
+
+    @Test
+    void testFetchDailySalesFilteredByRoom() {
+        salesDao.rebuildRollups();
+        ReportFilterDto filter = new ReportFilterDto(null, null, null, List.of(2L), null);
+
+        assertThat(salesDao.fetchDailySales(filter)).containsExactly(
+                new DailySalesDto(LocalDate.of(2024, 5, 1), 2L, 23.0));
+    }
+
+    @Test
+    void testFetchDailySalesFilteredByMoviesAndStartDate() {
+        salesDao.rebuildRollups();
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 5, 2), null, List.of(1L, 3L), null, null);
+
+        assertThat(salesDao.fetchDailySales(filter)).containsExactly(
+                new DailySalesDto(LocalDate.of(2024, 5, 3), 1L, 15.0),
+                new DailySalesDto(LocalDate.of(2024, 5, 2), 1L, 15.0));
+    }
+
+    @Test
+    void testStreamDailySalesAppliesFilter() {
+        salesDao.rebuildRollups();
+        ReportFilterDto filter = new ReportFilterDto(null, LocalDate.of(2024, 5, 1), null, null, TicketType.REGULAR);
+        List<DailySalesDto> rows = new ArrayList<>();
+
+        salesDao.streamDailySales(filter, (date, ticketsSold, totalRevenue) -> rows.add(new DailySalesDto(date, ticketsSold, totalRevenue)));
+
+        assertThat(rows).containsExactly(new DailySalesDto(LocalDate.of(2024, 5, 1), 3L, 45.0));
+    }
+
+    @Test
+    void testStreamPaidTicketsOrderedByReservation() {
+        List<Long> reservationIds = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+
+        salesDao.streamPaidTickets((reservationId, soldAt, movieId, cinemaRoomId, ticketType, price) -> {
+            reservationIds.add(reservationId);
+            prices.add(price);
+        });
+
+        assertThat(reservationIds).hasSize(7).isSorted();
+        assertThat(prices.stream().mapToDouble(Double::doubleValue).sum()).isEqualTo(93.0);
+    }
+
+    // Tests seance occupancy
+
+    @Test
+    void testFetchSeanceOccupancyCountsPaidTicketsAgainstRoomCapacity() {
+        List<SeanceOccupancyDto> result = salesDao.fetchSeanceOccupancy(ReportFilterDto.none());
+
+        assertThat(result).extracting(SeanceOccupancyDto::getSeanceId).containsExactly(1L, 3L, 2L, 4L);
+        assertThat(result).extracting(SeanceOccupancyDto::getCapacity).containsExactly(5, 3, 5, 5);
+        assertThat(result).extracting(SeanceOccupancyDto::getSold).containsExactly(3L, 2L, 1L, 1L);
+        assertThat(result.get(0).getFillRate()).isEqualTo(0.6);
+        assertThat(result).allMatch(seance -> seance.getHeld() == 0);
+    }
+
+    @Test
+    void testFetchSeanceOccupancyCountsUnexpiredPendingTicketsAsHeld() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("""
+                INSERT INTO reservation (id, user_id, reservation_code, created_at, expires_at, status, total_price) VALUES
+                    (6, 1, 'RES006', ?, ?, 'PENDING', 15.0),
+                    (7, 2, 'RES007', ?, ?, 'PENDING', 15.0),
+                    (8, 3, 'RES008', ?, ?, 'CANCELLED', 15.0)
+                """, now, now.plusMinutes(10), now, now.minusMinutes(1), now, now.plusMinutes(10));
+        jdbcTemplate.update("""
+                INSERT INTO ticket (id, reservation_id, seance_id, seat_id, ticket_code, ticket_type, price) VALUES
+                    (8, 6, 2, 1, 'TICK008', 'REGULAR', 15.0),
+                    (9, 7, 2, 2, 'TICK009', 'REGULAR', 15.0),
+                    (10, 8, 2, 3, 'TICK010', 'REGULAR', 15.0)
+                """);
+
+        SeanceOccupancyDto seance = salesDao.fetchSeanceOccupancy(List.of(2L)).get(0);
+
+        assertThat(seance.getSold()).isEqualTo(1L);
+        assertThat(seance.getHeld()).isEqualTo(1L);
+    }
+
+    @Test
+    void testFetchSeanceOccupancyAppliesFilters() {
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 2),
+                null, List.of(1L), TicketType.REGULAR);
+
+        List<SeanceOccupancyDto> result = salesDao.fetchSeanceOccupancy(filter);
+
+        assertThat(result).extracting(SeanceOccupancyDto::getSeanceId).containsExactly(1L, 2L);
+        assertThat(result).extracting(SeanceOccupancyDto::getSold).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testFetchSeanceOccupancyByIdsSkipsMissingSeances() {
+        List<SeanceOccupancyDto> result = salesDao.fetchSeanceOccupancy(List.of(3L, 99L));
+
+        assertThat(result).extracting(SeanceOccupancyDto::getSeanceId).containsExactly(3L);
+        assertThat(result.get(0).getCinemaRoomId()).isEqualTo(2L);
+        assertThat(result.get(0).getStartTime()).isEqualTo(LocalDateTime.of(2024, 5, 1, 19, 0));
+    }
+
+    @Test
+    void testSalesVersionChangesWithRecordedSales() {
+        salesDao.rebuildRollups();
+        String version = salesDao.fetchSalesVersion();
+
+        assertThat(salesDao.fetchSalesVersion()).isEqualTo(version);
+        salesDao.insertDailySalesRow(LocalDate.of(2024, 6, 1), 1L, 1L, TicketType.REGULAR);
+        String withRow = salesDao.fetchSalesVersion();
+        salesDao.addDailySales(LocalDate.of(2024, 6, 1), 1L, 1L, TicketType.REGULAR, 1, 15.0);
+
+        assertThat(withRow).isNotEqualTo(version);
+        assertThat(salesDao.fetchSalesVersion()).isNotEqualTo(withRow);
+    }
+
+    @Test
+    void testFetchRevenueOfDay() {
+        salesDao.rebuildRollups();
+
+        assertThat(salesDao.fetchRevenue(LocalDate.of(2024, 5, 1))).isEqualTo(63.0);
+        assertThat(salesDao.fetchRevenue(LocalDate.of(2024, 6, 1))).isZero();
+    }
+
+    @Test
+    void testIsRollupMissingUntilRebuilt() {
+        assertThat(salesDao.isRollupMissing()).isTrue();
+
+        salesDao.rebuildRollups();
+
+        assertThat(salesDao.isRollupMissing()).isFalse();
+    }
+
     // Tests fetchSalesReport
 
     @Test
     void testFetchSalesReportReturnsNotNull() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         assertThat(result).isNotNull();
     }
 
     @Test
     void testFetchSalesReportReturnsList() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         assertThat(result).isInstanceOf(List.class);
     }
 
     @Test
     void testFetchSalesReportAllHaveMovieTitle() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         assertThat(result).allMatch(report -> report.getMovieTitle() != null && !report.getMovieTitle().isBlank());
     }
 
     @Test
     void testFetchSalesReportAllTicketsCountIsZeroOrPositive() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         assertThat(result).allMatch(report -> report.getTicketsSold() >= 0);
     }
 
     @Test
     void testFetchSalesReportAllTotalRevenueIsZeroOrPositive() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         assertThat(result).allMatch(report -> report.getTotalRevenue() >= 0);
     }
 
     @Test
     void testFetchSalesReportOrderedByRevenueDescending() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
         if (result.size() > 1) {
             assertThat(result.get(0).getTotalRevenue()).isGreaterThanOrEqualTo(result.get(1).getTotalRevenue());
         }
@@ -77,37 +297,37 @@ public class SalesDaoTest {
 
     @Test
     void testFetchDailySalesReturnsNotNull() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).isNotNull();
     }
 
     @Test
     void testFetchDailySalesReturnsList() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).isInstanceOf(List.class);
     }
 
     @Test
     void testFetchDailySalesAllDateNotNull() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).allMatch(sales -> sales.getDate() != null);
     }
 
     @Test
     void testFetchDailySalesAllTicketsSoldIsZeroOrPositive() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).allMatch(sales -> sales.getTicketsSold() >= 0);
     }
 
     @Test
     void testFetchDailySalesAllTotalRevenueIsZeroOrPositive() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).allMatch(sales -> sales.getTotalRevenue() >= 0);
     }
 
     @Test
     void testFetchDailySalesOrderedByDateDescending() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         if (result.size() > 1) {
             assertThat(result.get(0).getDate()).isAfterOrEqualTo(result.get(1).getDate());
         }
@@ -115,7 +335,7 @@ public class SalesDaoTest {
 
     @Test
     void testFetchDailySalesAllDatesNotInFuture() {
-        List<DailySalesDto> result = salesDao.fetchDailySales();
+        List<DailySalesDto> result = salesDao.fetchDailySales(ReportFilterDto.none());
         assertThat(result).allMatch(sales -> !sales.getDate().isAfter(LocalDate.now()));
     }
 
@@ -244,7 +464,7 @@ public class SalesDaoTest {
 
     @Test
     void testSalesReportCountMatchesDirectJdbcQuery() {
-        List<SalesReportDto> daoResult = salesDao.fetchSalesReport();
+        List<SalesReportDto> daoResult = salesDao.fetchSalesReport(ReportFilterDto.none());
 
         String countSql = "SELECT COUNT(DISTINCT m.id) FROM movie m";
         Integer dbCount = jdbcTemplate.queryForObject(countSql, Integer.class);
@@ -255,7 +475,7 @@ public class SalesDaoTest {
 
     @Test
     void testDailySalesCountMatchesDirectJdbcQuery() {
-        List<DailySalesDto> daoResult = salesDao.fetchDailySales();
+        List<DailySalesDto> daoResult = salesDao.fetchDailySales(ReportFilterDto.none());
 
         String countSql = "SELECT COUNT(DISTINCT CAST(r.created_at AS DATE)) FROM reservation r WHERE r.status = 'PAID'";
         Integer dbCount = jdbcTemplate.queryForObject(countSql, Integer.class);
@@ -266,7 +486,7 @@ public class SalesDaoTest {
 
     @Test
     void testSalesReportRevenueMatchesSumOfTickets() {
-        List<SalesReportDto> result = salesDao.fetchSalesReport();
+        List<SalesReportDto> result = salesDao.fetchSalesReport(ReportFilterDto.none());
 
         String sql = "SELECT COALESCE(SUM(t.price), 0) FROM ticket t JOIN reservation r ON t.reservation_id = r.id WHERE r.status = 'PAID'";
         Double totalFromDb = jdbcTemplate.queryForObject(sql, Double.class);
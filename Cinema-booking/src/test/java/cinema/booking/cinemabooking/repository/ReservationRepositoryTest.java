@@ -1,17 +1,23 @@
 package cinema.booking.cinemabooking.repository;
 
 import cinema.booking.cinemabooking.enums.ReservationStatus;
-import cinema.booking.cinemabooking.model.Reservation;
-import cinema.booking.cinemabooking.model.User;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -20,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Test class for ReservationRepository.
  */
 @DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class ReservationRepositoryTest {
 
     @Autowired
@@ -28,6 +35,21 @@ public class ReservationRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaRoomRepository cinemaRoomRepository;
+
+    @Autowired
+    private SeanceRepository seanceRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User user;
     private Reservation reservation;
 
@@ -162,42 +184,54 @@ public class ReservationRepositoryTest {
         assertThat(pendingReservations.getContent().get(0).getStatus()).isEqualTo(ReservationStatus.PENDING);
     }
 
-    @Test
-    void testFindAllByStatusAndExpiresAtBeforeReturnsExpiredReservations() {
-        reservationRepository.save(reservation);
-
+    private Reservation saveExpiredReservation(String code, int minutesAgo) {
         Reservation expiredReservation = new Reservation();
-        expiredReservation.setReservationCode("RES002");
+        expiredReservation.setReservationCode(code);
         expiredReservation.setCreatedAt(LocalDateTime.now().minusHours(3));
-        expiredReservation.setExpiresAt(LocalDateTime.now().minusHours(1));
+        expiredReservation.setExpiresAt(LocalDateTime.now().minusMinutes(minutesAgo));
         expiredReservation.setStatus(ReservationStatus.PENDING);
         expiredReservation.setTotalPrice(50.0);
         expiredReservation.setUser(user);
-        reservationRepository.save(expiredReservation);
+        return reservationRepository.save(expiredReservation);
+    }
+
+    @Test
+    void testFindIdsByStatusAndExpiresAtBeforeReturnsOldestFirstWithinLimit() {
+        reservationRepository.save(reservation);
+        Reservation older = saveExpiredReservation("RES002", 60);
+        saveExpiredReservation("RES003", 10);
 
-        LocalDateTime cutoffTime = LocalDateTime.now();
-        List<Reservation> expiredReservations = reservationRepository.findAllByStatusAndExpiresAtBefore(ReservationStatus.PENDING, cutoffTime);
+        List<Long> expiredIds = reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                ReservationStatus.PENDING, LocalDateTime.now(), Limit.of(1));
 
-        assertThat(expiredReservations).hasSize(1);
+        assertThat(expiredIds).containsExactly(older.getId());
     }
 
     @Test
-    void testFindAllByStatusAndExpiresAtBeforeReturnsCorrectCode() {
-        reservationRepository.save(reservation);
+    void testUpdateStatusByIdInSkipsReservationsInOtherStatus() {
+        Reservation expired = saveExpiredReservation("RES002", 60);
+        Reservation paid = saveExpiredReservation("RES003", 60);
+        paid.setStatus(ReservationStatus.PAID);
+        reservationRepository.saveAndFlush(paid);
+
+        int updated = reservationRepository.updateStatusByIdIn(List.of(expired.getId(), paid.getId()),
+                ReservationStatus.PENDING, ReservationStatus.CANCELLED);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(reservationRepository.findIdsByIdInAndStatus(List.of(expired.getId(), paid.getId()), ReservationStatus.CANCELLED))
+                .containsExactly(expired.getId());
+    }
 
-        Reservation expiredReservation = new Reservation();
-        expiredReservation.setReservationCode("RES002");
-        expiredReservation.setCreatedAt(LocalDateTime.now().minusHours(3));
-        expiredReservation.setExpiresAt(LocalDateTime.now().minusHours(1));
-        expiredReservation.setStatus(ReservationStatus.PENDING);
-        expiredReservation.setTotalPrice(50.0);
-        expiredReservation.setUser(user);
-        reservationRepository.save(expiredReservation);
+    @Test
+    void testUpdateStatusByIdUpdatesNothingOnceCancelled() {
+        Reservation cancelled = saveExpiredReservation("RES002", 60);
+        reservationRepository.updateStatusByIdIn(List.of(cancelled.getId()), ReservationStatus.PENDING, ReservationStatus.CANCELLED);
 
-        LocalDateTime cutoffTime = LocalDateTime.now();
-        List<Reservation> expiredReservations = reservationRepository.findAllByStatusAndExpiresAtBefore(ReservationStatus.PENDING, cutoffTime);
+        int updated = reservationRepository.updateStatusById(cancelled.getId(), ReservationStatus.PENDING, ReservationStatus.PAID);
 
-        assertThat(expiredReservations.get(0).getReservationCode()).isEqualTo("RES002");
+        assertThat(updated).isZero();
+        assertThat(reservationRepository.findIdsByIdInAndStatus(List.of(cancelled.getId()), ReservationStatus.CANCELLED))
+                .containsExactly(cancelled.getId());
     }
 
     @Test
@@ -214,4 +248,122 @@ public class ReservationRepositoryTest {
         reservationRepository.deleteById(saved.getId());
         assertThat(reservationRepository.findById(saved.getId())).isEmpty();
     }
+
+    @Test
+    void testSaveReservationWithTicketsBatchesInserts() {
+        Seance seance = saveSeance();
+        CinemaRoom cinemaRoom = seance.getCinemaRoom();
+
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Seat seat = new Seat();
+            seat.setRowNumber(1);
+            seat.setSeatNumber(i);
+            seat.setCinemaRoom(cinemaRoom);
+            seat = seatRepository.save(seat);
+
+            Ticket ticket = new Ticket();
+            ticket.setTicketType(TicketType.REGULAR);
+            ticket.setPrice(25.0);
+            ticket.setReservation(reservation);
+            ticket.setSeance(seance);
+            ticket.setSeat(seat);
+            tickets.add(ticket);
+        }
+        reservation.setTickets(tickets);
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        reservationRepository.save(reservation);
+        entityManager.flush();
+
+        // One reservation insert and one batched ticket insert, plus at most one sequence call per entity
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(11);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testFindReservationCodesByMovieIdAndStatusReturnsPaidReservationsOfMovie() {
+        Seance seance = saveSeance();
+        Seat seat = new Seat();
+        seat.setRowNumber(1);
+        seat.setSeatNumber(1);
+        seat.setCinemaRoom(seance.getCinemaRoom());
+        seat = seatRepository.save(seat);
+
+        Ticket ticket = new Ticket();
+        ticket.setTicketType(TicketType.REGULAR);
+        ticket.setPrice(25.0);
+        ticket.setReservation(reservation);
+        ticket.setSeance(seance);
+        ticket.setSeat(seat);
+        reservation.setTickets(new ArrayList<>(List.of(ticket)));
+        reservation.setStatus(ReservationStatus.PAID);
+        reservationRepository.saveAndFlush(reservation);
+        Long movieId = seance.getMovie().getId();
+
+        assertThat(reservationRepository.findReservationCodesByMovieIdAndStatus(movieId, ReservationStatus.PAID))
+                .containsExactly("RES001");
+        assertThat(reservationRepository.findReservationCodesByMovieIdAndStatus(movieId, ReservationStatus.PENDING))
+                .isEmpty();
+        assertThat(reservationRepository.findReservationCodesByMovieIdAndStatus(movieId + 1, ReservationStatus.PAID))
+                .isEmpty();
+    }
+
+    @Test
+    void testFindWithTicketsByIdLoadsEverythingPrintedOnTickets() {
+        Seance seance = saveSeance();
+        Seat seat = new Seat();
+        seat.setRowNumber(3);
+        seat.setSeatNumber(7);
+        seat.setCinemaRoom(seance.getCinemaRoom());
+        seat = seatRepository.save(seat);
+
+        Ticket ticket = new Ticket();
+        ticket.setTicketType(TicketType.REGULAR);
+        ticket.setPrice(25.0);
+        ticket.setReservation(reservation);
+        ticket.setSeance(seance);
+        ticket.setSeat(seat);
+        reservation.setTickets(new ArrayList<>(List.of(ticket)));
+        reservation.setStatus(ReservationStatus.PAID);
+        Long id = reservationRepository.saveAndFlush(reservation).getId();
+        entityManager.clear();
+
+        Reservation found = reservationRepository.findWithTicketsById(id).orElseThrow();
+        // Detached, as when the PDF is rendered outside a transaction
+        entityManager.clear();
+
+        assertThat(found.getTickets()).hasSize(1);
+        Ticket foundTicket = found.getTickets().get(0);
+        assertThat(foundTicket.getSeance().getMovie().getTitle()).isEqualTo("Inception");
+        assertThat(foundTicket.getSeance().getCinemaRoom().getName()).isEqualTo("Sala 1");
+        assertThat(foundTicket.getSeat().getRowNumber()).isEqualTo(3);
+    }
+
+    private Seance saveSeance() {
+        Movie movie = new Movie();
+        movie.setTitle("Inception");
+        movie.setGenre("Science Fiction");
+        movie.setDurationMin(148);
+        movie.setDirector("Christopher Nolan");
+        movie.setMainCast("Leonardo DiCaprio");
+        movie.setAgeRating("PG-13");
+        movie = movieRepository.save(movie);
+
+        CinemaRoom cinemaRoom = new CinemaRoom();
+        cinemaRoom.setName("Sala 1");
+        cinemaRoom = cinemaRoomRepository.save(cinemaRoom);
+
+        Seance seance = new Seance();
+        seance.setMovie(movie);
+        seance.setCinemaRoom(cinemaRoom);
+        seance.setStartTime(LocalDateTime.now().plusDays(1));
+        seance.setEndTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        seance.setRegularTicketPrice(25.0);
+        seance.setReducedTicketPrice(15.0);
+        return seanceRepository.save(seance);
+    }
 }
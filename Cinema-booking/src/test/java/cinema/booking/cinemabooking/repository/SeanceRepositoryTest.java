@@ -3,10 +3,12 @@ package cinema.booking.cinemabooking.repository;
 import cinema.booking.cinemabooking.model.CinemaRoom;
 import cinema.booking.cinemabooking.model.Movie;
 import cinema.booking.cinemabooking.model.Seance;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,6 +31,9 @@ public class SeanceRepositoryTest {
     @Autowired
     private CinemaRoomRepository cinemaRoomRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Movie movie;
     private CinemaRoom cinemaRoom;
     private Seance seance;
@@ -152,6 +157,20 @@ public class SeanceRepositoryTest {
         assertThat(seances).hasSize(2);
     }
 
+    @Test
+    void testFindByStartTimeBetweenFetchesMovieAndCinemaRoom() {
+        seanceRepository.save(seance);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Seance> seances = seanceRepository.findByStartTimeBetween(
+                LocalDateTime.of(2025, 1, 15, 0, 0), LocalDateTime.of(2025, 1, 15, 23, 59));
+
+        assertThat(seances).hasSize(1);
+        assertThat(Hibernate.isInitialized(seances.get(0).getMovie())).isTrue();
+        assertThat(Hibernate.isInitialized(seances.get(0).getCinemaRoom())).isTrue();
+    }
+
     @Test
     void testFindByCinemaRoomIdReturnsMultipleSeances() {
         seanceRepository.save(seance);
@@ -0,0 +1,180 @@
+package cinema.booking.cinemabooking.repository;
+
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for SeatHoldRepository.
+ */
+@DataJpaTest
+public class SeatHoldRepositoryTest {
+
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaRoomRepository cinemaRoomRepository;
+
+    @Autowired
+    private SeanceRepository seanceRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private User user;
+    private Seance seance;
+    private Seat seat;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("password123");
+        user.setUsername("testuser");
+        user = userRepository.save(user);
+
+        Movie movie = new Movie();
+        movie.setTitle("Inception");
+        movie.setGenre("Science Fiction");
+        movie.setDurationMin(148);
+        movie.setDirector("Christopher Nolan");
+        movie.setMainCast("Leonardo DiCaprio");
+        movie.setAgeRating("PG-13");
+        movie = movieRepository.save(movie);
+
+        CinemaRoom cinemaRoom = new CinemaRoom();
+        cinemaRoom.setName("Sala 1");
+        cinemaRoom = cinemaRoomRepository.save(cinemaRoom);
+
+        seance = new Seance();
+        seance.setMovie(movie);
+        seance.setCinemaRoom(cinemaRoom);
+        seance.setStartTime(LocalDateTime.now().plusDays(1));
+        seance.setEndTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        seance.setRegularTicketPrice(25.0);
+        seance.setReducedTicketPrice(15.0);
+        seance = seanceRepository.save(seance);
+
+        seat = new Seat();
+        seat.setRowNumber(1);
+        seat.setSeatNumber(1);
+        seat.setCinemaRoom(cinemaRoom);
+        seat = seatRepository.save(seat);
+
+        reservation = createReservation("RES001");
+    }
+
+    private Reservation createReservation(String code) {
+        Reservation newReservation = new Reservation();
+        newReservation.setReservationCode(code);
+        newReservation.setCreatedAt(LocalDateTime.now());
+        newReservation.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        newReservation.setStatus(ReservationStatus.PENDING);
+        newReservation.setTotalPrice(25.0);
+        newReservation.setUser(user);
+        return reservationRepository.save(newReservation);
+    }
+
+    private SeatHold createHold(Reservation holdReservation, LocalDateTime expiresAt) {
+        SeatHold hold = new SeatHold();
+        hold.setSeance(seance);
+        hold.setSeat(seat);
+        hold.setReservation(holdReservation);
+        hold.setExpiresAt(expiresAt);
+        return hold;
+    }
+
+    @Test
+    void testSaveHoldGeneratesId() {
+        SeatHold saved = seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().plusMinutes(15)));
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    void testSecondHoldOnSameSeatIsRejected() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().plusMinutes(15)));
+        Reservation other = createReservation("RES002");
+
+        assertThatThrownBy(() -> seatHoldRepository.saveAllAndFlush(List.of(createHold(other, LocalDateTime.now().plusMinutes(15)))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testDeleteExpiredHoldsRemovesExpiredHold() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().minusMinutes(1)));
+
+        int deleted = seatHoldRepository.deleteExpiredHolds(seance.getId(), List.of(seat.getId()), LocalDateTime.now());
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(seatHoldRepository.count()).isZero();
+    }
+
+    @Test
+    void testDeleteExpiredHoldsKeepsActiveHold() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().plusMinutes(15)));
+
+        int deleted = seatHoldRepository.deleteExpiredHolds(seance.getId(), List.of(seat.getId()), LocalDateTime.now());
+
+        assertThat(deleted).isZero();
+    }
+
+    @Test
+    void testDeleteExpiredHoldsKeepsConfirmedHold() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, null));
+
+        int deleted = seatHoldRepository.deleteExpiredHolds(seance.getId(), List.of(seat.getId()), LocalDateTime.now());
+
+        assertThat(deleted).isZero();
+    }
+
+    @Test
+    void testConfirmByReservationIdClearsExpiry() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().minusMinutes(1)));
+
+        int updated = seatHoldRepository.confirmByReservationId(reservation.getId());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(seatHoldRepository.deleteExpiredHolds(seance.getId(), List.of(seat.getId()), LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void testDeleteByReservationIdRemovesHolds() {
+        seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().plusMinutes(15)));
+
+        int deleted = seatHoldRepository.deleteByReservationId(reservation.getId());
+
+        assertThat(deleted).isEqualTo(1);
+    }
+
+    @Test
+    void testCountPendingHoldsSkipsExpiredAndConfirmedHolds() {
+        SeatHold hold = seatHoldRepository.saveAndFlush(createHold(reservation, LocalDateTime.now().plusMinutes(15)));
+        assertThat(seatHoldRepository.countPendingHolds(LocalDateTime.now())).isEqualTo(1);
+
+        assertThat(seatHoldRepository.countPendingHolds(LocalDateTime.now().plusMinutes(20))).isZero();
+        hold.setExpiresAt(null);
+        seatHoldRepository.saveAndFlush(hold);
+        assertThat(seatHoldRepository.countPendingHolds(LocalDateTime.now())).isZero();
+    }
+}
@@ -1,5 +1,6 @@
 package cinema.booking.cinemabooking.repository;
 
+import cinema.booking.cinemabooking.dto.response.SeatDto;
 import cinema.booking.cinemabooking.model.CinemaRoom;
 import cinema.booking.cinemabooking.model.Seat;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Test class for SeatRepository.
@@ -124,7 +126,42 @@ public class SeatRepositoryTest {
     }
 
     @Test
-    void testFindAllByIdInWithLockReturnsMultipleSeats() {
+    void testFindSeatDtosByCinemaRoomIdReturnsLayoutOrderedByRowAndNumber() {
+        Seat seat3 = new Seat();
+        seat3.setRowNumber(2);
+        seat3.setSeatNumber(1);
+        seat3.setCinemaRoom(cinemaRoom);
+        seatRepository.save(seat3);
+
+        seatRepository.save(seat);
+
+        Seat seat2 = new Seat();
+        seat2.setRowNumber(1);
+        seat2.setSeatNumber(2);
+        seat2.setCinemaRoom(cinemaRoom);
+        seatRepository.save(seat2);
+
+        List<SeatDto> seats = seatRepository.findSeatDtosByCinemaRoomId(cinemaRoom.getId());
+        assertThat(seats)
+                .extracting(SeatDto::getRowNumber, SeatDto::getSeatNumber)
+                .containsExactly(
+                        tuple(1, 1),
+                        tuple(1, 2),
+                        tuple(2, 1));
+    }
+
+    @Test
+    void testFindSeatDtosByCinemaRoomIdReturnsFreeSeats() {
+        Seat saved = seatRepository.save(seat);
+
+        List<SeatDto> seats = seatRepository.findSeatDtosByCinemaRoomId(cinemaRoom.getId());
+        assertThat(seats).hasSize(1);
+        assertThat(seats.getFirst().getId()).isEqualTo(saved.getId());
+        assertThat(seats.getFirst().isOccupied()).isFalse();
+    }
+
+    @Test
+    void testFindAllByIdInReturnsMultipleSeats() {
         Seat saved1 = seatRepository.save(seat);
 
         Seat seat2 = new Seat();
@@ -134,13 +171,13 @@ public class SeatRepositoryTest {
         Seat saved2 = seatRepository.save(seat2);
 
         List<Long> ids = Arrays.asList(saved1.getId(), saved2.getId());
-        List<Seat> seats = seatRepository.findAllByIdInWithLock(ids);
+        List<Seat> seats = seatRepository.findAllByIdIn(ids);
 
         assertThat(seats).hasSize(2);
     }
 
     @Test
-    void testFindAllByIdInWithLockReturnsCorrectIds() {
+    void testFindAllByIdInReturnsCorrectIds() {
         Seat saved1 = seatRepository.save(seat);
 
         Seat seat2 = new Seat();
@@ -150,14 +187,14 @@ public class SeatRepositoryTest {
         Seat saved2 = seatRepository.save(seat2);
 
         List<Long> ids = Arrays.asList(saved1.getId(), saved2.getId());
-        List<Seat> seats = seatRepository.findAllByIdInWithLock(ids);
+        List<Seat> seats = seatRepository.findAllByIdIn(ids);
 
         assertThat(seats.stream().map(Seat::getId)).containsExactlyInAnyOrder(saved1.getId(), saved2.getId());
     }
 
     @Test
-    void testFindAllByIdInWithLockEmptyList() {
-        List<Seat> seats = seatRepository.findAllByIdInWithLock(Arrays.asList());
+    void testFindAllByIdInEmptyList() {
+        List<Seat> seats = seatRepository.findAllByIdIn(Arrays.asList());
         assertThat(seats).isEmpty();
     }
 
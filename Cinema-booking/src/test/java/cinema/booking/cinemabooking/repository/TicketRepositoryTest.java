@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -150,69 +151,71 @@ public class TicketRepositoryTest {
     }
 
     @Test
-    void testFindAllTakenTicketsWithPaidReservation() {
+    void testFindTakenSeatsWithPaidReservation() {
         reservation.setStatus(ReservationStatus.PAID);
         reservationRepository.save(reservation);
         ticketRepository.save(ticket);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets).hasSize(1);
+        assertThat(takenSeats).hasSize(1);
     }
 
     @Test
-    void testFindAllTakenTicketsWithPaidReservationReturnsCorrectTicket() {
+    void testFindTakenSeatsWithPaidReservationReturnsCorrectSeat() {
         reservation.setStatus(ReservationStatus.PAID);
         reservationRepository.save(reservation);
-        Ticket saved = ticketRepository.save(ticket);
+        ticketRepository.save(ticket);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets.get(0).getId()).isEqualTo(saved.getId());
+        assertThat(takenSeats.get(0).getSeatId()).isEqualTo(seat.getId());
+        assertThat(takenSeats.get(0).getReservationId()).isEqualTo(reservation.getId());
+        assertThat(takenSeats.get(0).getStatus()).isEqualTo(ReservationStatus.PAID);
     }
 
     @Test
-    void testFindAllTakenTicketsWithPendingReservation() {
+    void testFindTakenSeatsWithPendingReservation() {
         reservation.setStatus(ReservationStatus.PENDING);
         reservation.setExpiresAt(LocalDateTime.now().plusHours(1));
         reservationRepository.save(reservation);
         ticketRepository.save(ticket);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets).hasSize(1);
+        assertThat(takenSeats).hasSize(1);
     }
 
     @Test
-    void testFindAllTakenTicketsWithExpiredReservation() {
+    void testFindTakenSeatsWithExpiredReservation() {
         reservation.setStatus(ReservationStatus.PENDING);
         reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1));
         reservationRepository.save(reservation);
         ticketRepository.save(ticket);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets).isEmpty();
+        assertThat(takenSeats).isEmpty();
     }
 
     @Test
-    void testFindAllTakenTicketsWithCancelledReservation() {
+    void testFindTakenSeatsWithCancelledReservation() {
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
         ticketRepository.save(ticket);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets).isEmpty();
+        assertThat(takenSeats).isEmpty();
     }
 
     @Test
-    void testFindAllTakenTicketsMultipleTickets() {
+    void testFindTakenSeatsMultipleTickets() {
         reservation.setStatus(ReservationStatus.PAID);
         reservationRepository.save(reservation);
 
@@ -234,17 +237,17 @@ public class TicketRepositoryTest {
         Ticket saved2 = ticketRepository.save(ticket2);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets).hasSize(2);
+        assertThat(takenSeats).hasSize(2);
     }
 
     @Test
-    void testFindAllTakenTicketsMultipleTicketsContainsCorrectIds() {
+    void testFindTakenSeatsMultipleTicketsContainsCorrectSeats() {
         reservation.setStatus(ReservationStatus.PAID);
         reservationRepository.save(reservation);
 
-        Ticket ticket1 = ticketRepository.save(ticket);
+        ticketRepository.save(ticket);
 
         Seat seat2 = new Seat();
         seat2.setRowNumber(1);
@@ -259,12 +262,12 @@ public class TicketRepositoryTest {
         ticket2.setReservation(reservation);
         ticket2.setSeance(seance);
         ticket2.setSeat(seat2);
-        Ticket saved2 = ticketRepository.save(ticket2);
+        ticketRepository.save(ticket2);
 
         LocalDateTime now = LocalDateTime.now();
-        List<Ticket> takenTickets = ticketRepository.findAllTakenTickets(seance.getId(), now);
+        List<TicketRepository.TakenSeat> takenSeats = ticketRepository.findTakenSeats(seance.getId(), now);
 
-        assertThat(takenTickets.stream().map(Ticket::getId)).containsExactlyInAnyOrder(ticket1.getId(), saved2.getId());
+        assertThat(takenSeats.stream().map(TicketRepository.TakenSeat::getSeatId)).containsExactlyInAnyOrder(seat.getId(), seat2.getId());
     }
 
     @Test
@@ -379,4 +382,49 @@ public class TicketRepositoryTest {
 
         assertThat(ticketRepository.findById(saved.getId())).isEmpty();
     }
+
+    @Test
+    void testFindPaidTicketsAfterSeatPagesByRowAndSeat() {
+        Reservation paid = new Reservation();
+        paid.setReservationCode("RES002");
+        paid.setCreatedAt(LocalDateTime.now());
+        paid.setExpiresAt(LocalDateTime.now().plusHours(2));
+        paid.setStatus(ReservationStatus.PAID);
+        paid.setTotalPrice(75.0);
+        paid.setUser(user);
+        paid = reservationRepository.save(paid);
+
+        // Saved out of seat order, the pending ticket on row 1 seat 1 is skipped
+        ticketRepository.save(ticket);
+        saveTicket(paid, "PAID-21", 2, 1);
+        saveTicket(paid, "PAID-12", 1, 2);
+        saveTicket(paid, "PAID-13", 1, 3);
+
+        List<TicketRepository.PrintableTicket> first = ticketRepository.findPaidTicketsAfterSeat(seance.getId(), 0, 0, Limit.of(2));
+        List<TicketRepository.PrintableTicket> second = ticketRepository.findPaidTicketsAfterSeat(seance.getId(), 1, 3, Limit.of(2));
+
+        assertThat(first).extracting(TicketRepository.PrintableTicket::getTicketCode).containsExactly("PAID-12", "PAID-13");
+        assertThat(second).extracting(TicketRepository.PrintableTicket::getTicketCode).containsExactly("PAID-21");
+        assertThat(second.getFirst().getRowNumber()).isEqualTo(2);
+        assertThat(second.getFirst().getSeatNumber()).isEqualTo(1);
+        assertThat(second.getFirst().getTicketType()).isEqualTo(TicketType.REGULAR);
+        assertThat(second.getFirst().getPrice()).isEqualTo(25.0);
+    }
+
+    private void saveTicket(Reservation reservation, String code, int rowNumber, int seatNumber) {
+        Seat newSeat = new Seat();
+        newSeat.setRowNumber(rowNumber);
+        newSeat.setSeatNumber(seatNumber);
+        newSeat.setCinemaRoom(cinemaRoom);
+        newSeat = seatRepository.save(newSeat);
+
+        Ticket newTicket = new Ticket();
+        newTicket.setTicketCode(code);
+        newTicket.setTicketType(TicketType.REGULAR);
+        newTicket.setPrice(25.0);
+        newTicket.setReservation(reservation);
+        newTicket.setSeance(seance);
+        newTicket.setSeat(newSeat);
+        ticketRepository.save(newTicket);
+    }
 }
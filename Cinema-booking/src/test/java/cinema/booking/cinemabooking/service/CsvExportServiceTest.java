@@ -1,248 +1,158 @@
 package cinema.booking.cinemabooking.service;
 
-import cinema.booking.cinemabooking.dto.report.DailySalesDto;
-import cinema.booking.cinemabooking.dto.report.SalesReportDto;
-import cinema.booking.cinemabooking.exception.FileStorageException;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedConstruction;
-import static org.mockito.Mockito.*;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.*;
 
 class CsvExportServiceTest {
 
+    private ReportService reportService;
     private CsvExportService csvExportService;
 
     @BeforeEach
     void setUp() {
-        csvExportService = new CsvExportService();
+        reportService = mock(ReportService.class);
+        csvExportService = new CsvExportService(reportService);
     }
 
     @Test
-    void testGenerateDailySalesCsvSuccessfully() throws IOException {
+    void testWriteDailySalesCsvStreamsRows() throws IOException {
         // Arrange
-        List<DailySalesDto> data = new ArrayList<>();
-        data.add(new DailySalesDto(LocalDate.of(2024, 1, 1), 10L, 250.50));
-        data.add(new DailySalesDto(LocalDate.of(2024, 1, 2), 15L, 375.75));
+        doAnswer(invocation -> {
+            SalesDao.DailySalesRowHandler handler = invocation.getArgument(1);
+            handler.handle(LocalDate.of(2024, 1, 1), 10L, 250.5);
+            handler.handle(LocalDate.of(2024, 1, 2), 7L, 123.456);
+            return null;
+        }).when(reportService).streamDailySalesReport(any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // Act
-        ByteArrayInputStream result = csvExportService.generateDailySalesCsv(data);
+        csvExportService.writeDailySalesCsv(ReportFilterDto.none(), out);
 
         // Assert
-        String content = readContent(result);
+        byte[] bytes = out.toByteArray();
+        assertThat(bytes[0]).isEqualTo((byte) 0xEF);
+        String content = readContent(new ByteArrayInputStream(bytes));
         assertThat(content)
-                .isNotNull()
                 .contains("Date,Tickets Sold,Total Revenue")
                 .contains("2024-01-01,10,250.50")
-                .contains("2024-01-02,15,375.75");
+                .contains("2024-01-02,7,123.46");
     }
 
     @Test
-    void testGenerateDailySalesCsvWithEmptyData() throws IOException {
+    void testWriteDailySalesCsvWithDecimalPrecision() throws IOException {
         // Arrange
-        List<DailySalesDto> data = new ArrayList<>();
+        double[] revenues = {123.456, 1.005, 2.675, 0.125, 1e15 + 0.5, -1.005};
+        doAnswer(invocation -> {
+            SalesDao.DailySalesRowHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < revenues.length; i++) {
+                handler.handle(LocalDate.of(2024, 1, i + 1), 7L, revenues[i]);
+            }
+            return null;
+        }).when(reportService).streamDailySalesReport(any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // Act
-        ByteArrayInputStream result = csvExportService.generateDailySalesCsv(data);
+        csvExportService.writeDailySalesCsv(ReportFilterDto.none(), out);
 
-        // Assert
-        String content = readContent(result);
+        // Assert, rounded as the former String.format("%.2f") export did
+        String content = readContent(new ByteArrayInputStream(out.toByteArray()));
+        for (int i = 0; i < revenues.length; i++) {
+            assertThat(content).contains(String.format(Locale.US, "2024-01-%02d,7,%.2f", i + 1, revenues[i]));
+        }
         assertThat(content)
-                .isNotNull()
-                .contains("Date,Tickets Sold,Total Revenue");
-        assertThat(content.trim().split("\n"))
-                .hasSize(1);
-    }
-
-    @Test
-    void testGenerateDailySalesCsvIncludesBOM() throws IOException {
-        // Arrange
-        List<DailySalesDto> data = new ArrayList<>();
-        data.add(new DailySalesDto(LocalDate.of(2024, 1, 1), 5L, 100.00));
-
-        // Act
-        ByteArrayInputStream result = csvExportService.generateDailySalesCsv(data);
-
-        // Assert
-        byte[] bytes = result.readAllBytes();
-        assertThat(bytes[0])
-                .isEqualTo((byte) 0xEF);
-        assertThat(bytes[1])
-                .isEqualTo((byte) 0xBB);
-        assertThat(bytes[2])
-                .isEqualTo((byte) 0xBF);
+                .contains("2024-01-01,7,123.46")
+                .contains("2024-01-02,7,1.01")
+                .contains("2024-01-03,7,2.68");
     }
 
     @Test
-    void testGenerateMovieSalesCsvSuccessfully() throws IOException {
+    void testWriteMovieSalesCsvStreamsEscapedRows() throws IOException {
         // Arrange
-        List<SalesReportDto> data = new ArrayList<>();
-        data.add(new SalesReportDto("Inception", 50L, 1250.00));
-        data.add(new SalesReportDto("Avatar", 75L, 1875.50));
+        doAnswer(invocation -> {
+            SalesDao.SalesReportRowHandler handler = invocation.getArgument(1);
+            handler.handle("Inception", 50L, 1250.0);
+            handler.handle("Movie with \"Quotes\", Inc.", 2L, -0.5);
+            return null;
+        }).when(reportService).streamSalesReport(any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // Act
-        ByteArrayInputStream result = csvExportService.generateMovieSalesCsv(data);
+        csvExportService.writeMovieSalesCsv(ReportFilterDto.none(), out);
 
         // Assert
-        String content = readContent(result);
+        String content = readContent(new ByteArrayInputStream(out.toByteArray()));
         assertThat(content)
-                .isNotNull()
                 .contains("Movie Title,Tickets Sold,Total Revenue")
                 .contains("Inception,50,1250.00")
-                .contains("Avatar,75,1875.50");
+                .contains("\"Movie with \"\"Quotes\"\", Inc.\",2,-0.50");
     }
 
     @Test
-    void testGenerateMovieSalesCsvWithEmptyData() throws IOException {
+    void testWriteDailySalesCsvWithEmptyReportWritesHeaderOnly() throws IOException {
         // Arrange
-        List<SalesReportDto> data = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // Act
-        ByteArrayInputStream result = csvExportService.generateMovieSalesCsv(data);
+        csvExportService.writeDailySalesCsv(ReportFilterDto.none(), out);
 
         // Assert
-        String content = readContent(result);
-        assertThat(content)
-                .isNotNull()
-                .contains("Movie Title,Tickets Sold,Total Revenue");
+        String content = readContent(new ByteArrayInputStream(out.toByteArray()));
         assertThat(content.trim().split("\n"))
                 .hasSize(1);
+        assertThat(content).contains("Date,Tickets Sold,Total Revenue");
     }
 
     @Test
-    void testGenerateMovieSalesCsvEscapesSpecialCharacters() throws IOException {
-        // Arrange
-        List<SalesReportDto> data = new ArrayList<>();
-        data.add(new SalesReportDto("Movie with \"Quotes\" and Commas, Inc.", 20L, 500.00));
-
-        // Act
-        ByteArrayInputStream result = csvExportService.generateMovieSalesCsv(data);
-
-        // Assert
-        String content = readContent(result);
-        assertThat(content)
-                .isNotNull()
-                .contains("\"Movie with \"\"Quotes\"\" and Commas, Inc.\"");
-    }
-
-    @Test
-    void testGenerateMovieSalesCsvHandlesMultilineText() throws IOException {
+    void testWriteMovieSalesCsvFlattensMultilineTitles() throws IOException {
         // Arrange
-        List<SalesReportDto> data = new ArrayList<>();
-        data.add(new SalesReportDto("Movie\nWith\nNewlines", 10L, 250.00));
+        doAnswer(invocation -> {
+            SalesDao.SalesReportRowHandler handler = invocation.getArgument(1);
+            handler.handle("Movie\nWith\nNewlines", 10L, 0.0);
+            return null;
+        }).when(reportService).streamSalesReport(any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // Act
-        ByteArrayInputStream result = csvExportService.generateMovieSalesCsv(data);
+        csvExportService.writeMovieSalesCsv(ReportFilterDto.none(), out);
 
         // Assert
-        String content = readContent(result);
-        assertThat(content)
-                .isNotNull()
-                .contains("Movie With Newlines");
+        String content = readContent(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(content).contains("Movie With Newlines,10,0.00");
     }
 
     @Test
-    void testGenerateDailySalesCsvWithInternalIOException() {
+    void testWriteMovieSalesCsvPropagatesClientAbort() throws IOException {
         // Arrange
-        List<DailySalesDto> data = List.of(new DailySalesDto(LocalDate.now(), 10L, 100.0));
-
-        try (MockedConstruction<ByteArrayOutputStream> mocked = mockConstruction(ByteArrayOutputStream.class,
-                (mock, context) -> {
-                    doThrow(new IOException("Simulated IO error")).when(mock).write(any(byte[].class));
-                })) {
-
-            // Act & Assert
-            assertThatThrownBy(() -> csvExportService.generateDailySalesCsv(data))
-                    .isInstanceOf(FileStorageException.class)
-                    .hasMessageContaining("Error during generating CSV: Simulated IO error");
-        }
-    }
-
-    @Test
-    void testGenerateMovieSalesCsvWithInternalIOException() {
-        // Arrange
-        List<SalesReportDto> data = List.of(new SalesReportDto("Title", 10L, 100.0));
-
-        try (MockedConstruction<ByteArrayOutputStream> mocked = mockConstruction(ByteArrayOutputStream.class,
-                (mock, context) -> {
-                    doThrow(new IOException("Simulated IO error")).when(mock).write(any(byte[].class));
-                })) {
-
-            // Act & Assert
-            assertThatThrownBy(() -> csvExportService.generateMovieSalesCsv(data))
-                    .isInstanceOf(FileStorageException.class)
-                    .hasMessageContaining("Error CSV: Simulated IO error");
-        }
-    }
-
-    @Test
-    void testGenerateDailySalesCsvWithLargeDataset() throws IOException {
-        // Arrange
-        List<DailySalesDto> data = new ArrayList<>();
-        for (int i = 0; i < 1000; i++) {
-            data.add(new DailySalesDto(
-                    LocalDate.of(2024, 1, 1).plusDays(i),
-                    (long) (10 + i),
-                    250.00 + (i * 10)
-            ));
-        }
-
-        // Act
-        ByteArrayInputStream result = csvExportService.generateDailySalesCsv(data);
-
-        // Assert
-        String content = readContent(result);
-        String[] lines = content.trim().split("\n");
-        assertThat(lines)
-                .isNotNull()
-                .hasSize(1001);
-    }
-
-    @Test
-    void testGenerateMovieSalesCsvWithZeroRevenue() throws IOException {
-        // Arrange
-        List<SalesReportDto> data = new ArrayList<>();
-        data.add(new SalesReportDto("Free Screening", 30L, 0.00));
-
-        // Act
-        ByteArrayInputStream result = csvExportService.generateMovieSalesCsv(data);
-
-        // Assert
-        String content = readContent(result);
-        assertThat(content)
-                .isNotNull()
-                .contains("Free Screening,30,0.00");
-    }
-
-    @Test
-    void testGenerateDailySalesCsvWithDecimalPrecision() throws IOException {
-        // Arrange
-        List<DailySalesDto> data = new ArrayList<>();
-        data.add(new DailySalesDto(LocalDate.of(2024, 1, 1), 7L, 123.456));
-
-        // Act
-        ByteArrayInputStream result = csvExportService.generateDailySalesCsv(data);
-
-        // Assert
-        String content = readContent(result);
-        assertThat(content)
-                .isNotNull()
-                .contains("2024-01-01,7,123.46");
+        doAnswer(invocation -> {
+            SalesDao.SalesReportRowHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < 10_000; i++) {
+                handler.handle("Movie " + i, i, i);
+            }
+            return null;
+        }).when(reportService).streamSalesReport(any(), any());
+        OutputStream out = mock(OutputStream.class);
+        doThrow(new IOException("Broken pipe")).when(out).write(any(byte[].class), anyInt(), anyInt());
+
+        // Act & Assert
+        assertThatThrownBy(() -> csvExportService.writeMovieSalesCsv(ReportFilterDto.none(), out))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
     }
 
     private String readContent(ByteArrayInputStream stream) throws IOException {
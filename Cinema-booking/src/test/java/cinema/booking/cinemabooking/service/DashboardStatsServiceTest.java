@@ -0,0 +1,133 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.DashboardStatsDto;
+import cinema.booking.cinemabooking.enums.MovieEventType;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.MovieEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.event.UserRegisteredEvent;
+import cinema.booking.cinemabooking.repository.MovieRepository;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import cinema.booking.cinemabooking.repository.SeatHoldRepository;
+import cinema.booking.cinemabooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStatsServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SeatHoldRepository seatHoldRepository;
+
+    @Mock
+    private SalesDao salesDao;
+
+    @InjectMocks
+    private DashboardStatsService dashboardStatsService;
+
+    @BeforeEach
+    void setUp() {
+        when(movieRepository.count()).thenReturn(3L);
+        when(userRepository.count()).thenReturn(10L);
+        when(reservationRepository.count()).thenReturn(20L);
+        when(seatHoldRepository.countPendingHolds(any(LocalDateTime.class))).thenReturn(4L);
+        when(salesDao.fetchRevenue(LocalDate.now())).thenReturn(45.5);
+    }
+
+    private static ReservationEvent reservationEvent(ReservationEventType type, Long... seatIds) {
+        return new ReservationEvent(type, 1L, 1L, List.of(seatIds), null);
+    }
+
+    private static TicketsSoldEvent sale(LocalDateTime soldAt, double... prices) {
+        List<TicketsSoldEvent.SoldTicket> tickets = Arrays.stream(prices)
+                .mapToObj(price -> new TicketsSoldEvent.SoldTicket(1L, 1L, 1L, TicketType.REGULAR, price))
+                .toList();
+        return new TicketsSoldEvent(1L, soldAt, tickets);
+    }
+
+    @Test
+    void testStatsAreLoadedOnceAndServedFromMemory() {
+        dashboardStatsService.onApplicationReady();
+
+        DashboardStatsDto first = dashboardStatsService.getStats();
+        DashboardStatsDto second = dashboardStatsService.getStats();
+
+        assertThat(first).isEqualTo(new DashboardStatsDto(3, 10, 20, 4, 45.5));
+        assertThat(second).isEqualTo(first);
+        verify(movieRepository, times(1)).count();
+        verify(reservationRepository, times(1)).count();
+    }
+
+    @Test
+    void testEventsKeepCountersCurrent() {
+        dashboardStatsService.getStats();
+
+        dashboardStatsService.onMovieChanged(new MovieEvent(MovieEventType.ADDED, 4L));
+        dashboardStatsService.onMovieChanged(new MovieEvent(MovieEventType.UPDATED, 4L));
+        dashboardStatsService.onMovieChanged(new MovieEvent(MovieEventType.DELETED, 1L));
+        dashboardStatsService.onMovieChanged(new MovieEvent(MovieEventType.ADDED, 5L));
+        dashboardStatsService.onUserRegistered(new UserRegisteredEvent(11L, "newuser"));
+        dashboardStatsService.onReservationCommitted(reservationEvent(ReservationEventType.CREATED, 1L, 2L, 3L));
+        dashboardStatsService.onReservationCommitted(reservationEvent(ReservationEventType.TICKET_ADDED, 4L));
+        dashboardStatsService.onReservationCommitted(reservationEvent(ReservationEventType.TICKET_REMOVED, 1L));
+        dashboardStatsService.onReservationCommitted(reservationEvent(ReservationEventType.PAID, 2L, 3L, 4L));
+
+        DashboardStatsDto stats = dashboardStatsService.getStats();
+
+        assertThat(stats.getMoviesCount()).isEqualTo(4);
+        assertThat(stats.getUsersCount()).isEqualTo(11);
+        assertThat(stats.getReservationsCount()).isEqualTo(21);
+        assertThat(stats.getHeldSeats()).isEqualTo(4);
+    }
+
+    @Test
+    void testOnlyTodaysSalesAddRevenue() {
+        dashboardStatsService.getStats();
+
+        dashboardStatsService.onTicketsSold(sale(LocalDateTime.now(), 15.0, 12.25));
+        dashboardStatsService.onTicketsSold(sale(LocalDateTime.now().minusDays(1), 100.0));
+
+        assertThat(dashboardStatsService.getStats().getRevenueToday()).isEqualTo(72.75);
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        dashboardStatsService.getStats();
+        dashboardStatsService.onReservationCommitted(reservationEvent(ReservationEventType.EXPIRED, 1L, 2L, 3L, 4L, 5L, 6L));
+        assertThat(dashboardStatsService.getStats().getHeldSeats()).isZero();
+
+        when(movieRepository.count()).thenReturn(2L);
+        when(seatHoldRepository.countPendingHolds(any(LocalDateTime.class))).thenReturn(1L);
+        dashboardStatsService.reconcile();
+
+        DashboardStatsDto stats = dashboardStatsService.getStats();
+        assertThat(stats.getMoviesCount()).isEqualTo(2);
+        assertThat(stats.getHeldSeats()).isEqualTo(1);
+        assertThat(stats.getRevenueToday()).isEqualTo(45.5);
+    }
+}
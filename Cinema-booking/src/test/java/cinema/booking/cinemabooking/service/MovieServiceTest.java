@@ -2,6 +2,9 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.request.MovieRequestDto;
 import cinema.booking.cinemabooking.dto.response.MovieDto;
+import cinema.booking.cinemabooking.enums.MovieEventType;
+import cinema.booking.cinemabooking.event.MovieEvent;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
 import cinema.booking.cinemabooking.mapper.MovieMapper;
 import cinema.booking.cinemabooking.model.Movie;
@@ -12,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +29,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +45,9 @@ class MovieServiceTest {
     @Mock
     private MovieMapper movieMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MovieService movieService;
 
@@ -157,6 +165,7 @@ class MovieServiceTest {
         verify(movieRepository, times(1)).findById(eq(1L));
         verify(movieMapper, times(1)).updateEntityFromDto(eq(movieRequestDto), eq(movie));
         verify(movieRepository, times(1)).save(eq(movie));
+        verify(eventPublisher, times(1)).publishEvent(any(RepertoireChangedEvent.class));
     }
 
     @Test
@@ -269,6 +278,9 @@ class MovieServiceTest {
         // Assert
         verify(movieRepository, times(1)).findById(eq(1L));
         verify(movieRepository, times(1)).deleteById(eq(1L));
+        verify(eventPublisher, times(1)).publishEvent(any(RepertoireChangedEvent.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof MovieEvent movieEvent && movieEvent.getType() == MovieEventType.DELETED));
     }
 
     @Test
@@ -0,0 +1,139 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.OccupancySummaryDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SeanceOccupancyDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyReportServiceTest {
+
+    // 2024-05-03 is a Friday
+    private static final LocalDateTime FRIDAY_18 = LocalDateTime.of(2024, 5, 3, 18, 0);
+
+    @Mock
+    private SalesDao salesDao;
+
+    @InjectMocks
+    private OccupancyReportService occupancyReportService;
+
+    private static SeanceOccupancyDto seance(long id, long roomId, LocalDateTime startTime, long sold) {
+        return new SeanceOccupancyDto(id, 1L, roomId, startTime, 10, sold, 0, sold / 10.0);
+    }
+
+    private static ReservationEvent reservationEvent(Long seanceId) {
+        return new ReservationEvent(ReservationEventType.PAID, 1L, seanceId, List.of(1L), null);
+    }
+
+    @Test
+    void testSummaryComputesPercentilesPerRoomAndWeekday() {
+        when(salesDao.fetchSeanceOccupancy(any(ReportFilterDto.class))).thenReturn(List.of(
+                seance(1, 1, FRIDAY_18, 2),
+                seance(2, 1, FRIDAY_18.plusWeeks(1), 4),
+                seance(3, 1, FRIDAY_18.plusWeeks(2).withHour(21), 9),
+                seance(4, 1, FRIDAY_18.plusDays(1), 5),
+                seance(5, 2, FRIDAY_18, 10)));
+
+        List<OccupancySummaryDto> result = occupancyReportService.getOccupancySummary(ReportFilterDto.none(), false);
+
+        assertThat(result).extracting(OccupancySummaryDto::getCinemaRoomId, OccupancySummaryDto::getDayOfWeek, OccupancySummaryDto::getSeances)
+                .containsExactly(
+                        tuple(1L, DayOfWeek.FRIDAY, 3),
+                        tuple(1L, DayOfWeek.SATURDAY, 1),
+                        tuple(2L, DayOfWeek.FRIDAY, 1));
+        OccupancySummaryDto friday = result.get(0);
+        assertThat(friday.getStartHour()).isNull();
+        assertThat(friday.getAverageFillRate()).isEqualTo(0.5);
+        assertThat(friday.getMinFillRate()).isEqualTo(0.2);
+        assertThat(friday.getMedianFillRate()).isEqualTo(0.4);
+        assertThat(friday.getP90FillRate()).isEqualTo(0.9);
+        assertThat(friday.getMaxFillRate()).isEqualTo(0.9);
+    }
+
+    @Test
+    void testSummaryBySlotSplitsByStartHourAndAppliesFilter() {
+        when(salesDao.fetchSeanceOccupancy(any(ReportFilterDto.class))).thenReturn(List.of(
+                seance(1, 1, FRIDAY_18, 2),
+                seance(2, 1, FRIDAY_18.plusWeeks(1), 4),
+                seance(3, 1, FRIDAY_18.plusWeeks(1).withHour(21), 9),
+                seance(4, 2, FRIDAY_18, 10)));
+        ReportFilterDto filter = new ReportFilterDto(FRIDAY_18.toLocalDate().plusDays(1), null, null, List.of(1L), null);
+
+        List<OccupancySummaryDto> result = occupancyReportService.getOccupancySummary(filter, true);
+
+        assertThat(result).extracting(OccupancySummaryDto::getStartHour, OccupancySummaryDto::getSeances, OccupancySummaryDto::getMaxFillRate)
+                .containsExactly(tuple(18, 1, 0.4), tuple(21, 1, 0.9));
+    }
+
+    @Test
+    void testRefreshOnlyQueriesChangedSeances() {
+        when(salesDao.fetchSeanceOccupancy(any(ReportFilterDto.class)))
+                .thenReturn(List.of(seance(1, 1, FRIDAY_18, 2), seance(2, 1, FRIDAY_18, 4)));
+        occupancyReportService.refresh();
+
+        occupancyReportService.onReservationCommitted(reservationEvent(2L));
+        occupancyReportService.onRepertoireChanged(RepertoireChangedEvent.forSeance(1L, FRIDAY_18.toLocalDate()));
+        when(salesDao.fetchSeanceOccupancy(anyCollection())).thenReturn(List.of(seance(2, 1, FRIDAY_18, 6)));
+
+        assertThat(occupancyReportService.refresh()).isEqualTo(2);
+        assertThat(occupancyReportService.refresh()).isZero();
+
+        List<OccupancySummaryDto> result = occupancyReportService.getOccupancySummary(ReportFilterDto.none(), false);
+        assertThat(result).extracting(OccupancySummaryDto::getSeances, OccupancySummaryDto::getAverageFillRate)
+                .containsExactly(tuple(1, 0.6));
+        verify(salesDao, times(1)).fetchSeanceOccupancy(any(ReportFilterDto.class));
+        verify(salesDao, times(1)).fetchSeanceOccupancy(Set.of(1L, 2L));
+    }
+
+    @Test
+    void testMovieChangeReloadsEverySeance() {
+        when(salesDao.fetchSeanceOccupancy(any(ReportFilterDto.class))).thenReturn(List.of(seance(1, 1, FRIDAY_18, 2)));
+        occupancyReportService.refresh();
+
+        occupancyReportService.onRepertoireChanged(RepertoireChangedEvent.forMovie(1L));
+        occupancyReportService.refresh();
+
+        verify(salesDao, times(2)).fetchSeanceOccupancy(any(ReportFilterDto.class));
+        verify(salesDao, never()).fetchSeanceOccupancy(anyCollection());
+    }
+
+    @Test
+    void testSummaryRejectsTicketTypeFilter() {
+        ReportFilterDto filter = new ReportFilterDto(null, null, null, null, TicketType.REDUCED);
+
+        assertThatThrownBy(() -> occupancyReportService.getOccupancySummary(filter, false))
+                .isInstanceOf(InvalidReportQueryException.class);
+        verifyNoInteractions(salesDao);
+    }
+
+    @Test
+    void testSummaryOfDatesWithoutSeancesIsEmpty() {
+        when(salesDao.fetchSeanceOccupancy(any(ReportFilterDto.class))).thenReturn(List.of(seance(1, 1, FRIDAY_18, 2)));
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2025, 1, 1), null, null, null, null);
+
+        assertThat(occupancyReportService.getOccupancySummary(filter, false)).isEmpty();
+    }
+}
@@ -2,16 +2,36 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.enums.TicketType;
 import cinema.booking.cinemabooking.model.*;
+import cinema.booking.cinemabooking.repository.TicketRepository;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -200,6 +220,36 @@ class PdfTicketServiceTest {
                 .satisfies(stream -> assertThat(stream.available()).isGreaterThan(0));
     }
 
+    @Test
+    void testGenerateReservationPdfShrinksTitleTooLongForTwoLines() throws Exception {
+        // Arrange
+        movie.setTitle("The Lord of the Rings: The Fellowship of the Ring Extended Edition Director's Cut with Bonus Features");
+
+        // Act
+        byte[] pdf = pdfTicketService.generateReservationPdf(reservation).readAllBytes();
+
+        // Assert
+        String text = new PdfTextExtractor(new PdfReader(pdf)).getTextFromPage(1);
+        assertThat(text)
+                .contains("The Lord of the Rings", "Bonus Features")
+                .doesNotContain("...");
+    }
+
+    @Test
+    void testGenerateReservationPdfCutsTitleTooLongForMinimumSize() throws Exception {
+        // Arrange
+        movie.setTitle("Very Long Title ".repeat(40) + "Ending");
+
+        // Act
+        byte[] pdf = pdfTicketService.generateReservationPdf(reservation).readAllBytes();
+
+        // Assert
+        String text = new PdfTextExtractor(new PdfReader(pdf)).getTextFromPage(1);
+        assertThat(text)
+                .contains("Very Long Title", "...", "20.01.2024 18:30")
+                .doesNotContain("Ending");
+    }
+
     @Test
     void testGenerateReservationPdfWithEmptyReservationCode() {
         // Arrange
@@ -281,4 +331,183 @@ class PdfTicketServiceTest {
                 .isNotNull()
                 .satisfies(stream -> assertThat(stream.available()).isGreaterThan(0));
     }
+
+    @Test
+    void testGenerateReservationPdfStampsTicketFieldsOnTemplate() throws Exception {
+        // Act
+        byte[] pdf = pdfTicketService.generateReservationPdf(reservation).readAllBytes();
+
+        // Assert
+        PdfReader reader = new PdfReader(pdf);
+        String text = new PdfTextExtractor(reader).getTextFromPage(1);
+        assertThat(text)
+                .contains("Cinema Ticket", "DATE:", "TICKET CODE:")
+                .contains("Inception", "20.01.2024 18:30", "Room A", "ROW 5 | SEAT 10", "Regular", "25.00 zl", "TICKET-001");
+    }
+
+    @Test
+    void testSeancePackStreamsPagesAsTicketsAreAdded() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        PdfTicketService.TicketPack pack = pdfTicketService.openSeancePack(seance, out);
+        pack.add(printableTicket("PACK-001", TicketType.REGULAR, 25.0, 1, 1));
+        pack.add(printableTicket("PACK-002", TicketType.REDUCED, 15.0, 1, 2));
+        pack.flush();
+        int flushedAfterTwoTickets = out.size();
+        pack.add(printableTicket("PACK-003", TicketType.REGULAR, 25.0, 2, 1));
+        pack.close();
+
+        // Assert
+        assertThat(flushedAfterTwoTickets).isGreaterThan(0).isLessThan(out.size());
+        assertThat(pack.getTickets()).isEqualTo(3);
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertThat(reader.getNumberOfPages()).isEqualTo(3);
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        assertThat(extractor.getTextFromPage(1)).contains("Inception", "Room A", "ROW 1 | SEAT 1", "Regular", "PACK-001");
+        assertThat(extractor.getTextFromPage(2)).contains("ROW 1 | SEAT 2", "Reduced", "15.00 zl", "PACK-002");
+        assertThat(extractor.getTextFromPage(3)).contains("ROW 2 | SEAT 1", "PACK-003");
+    }
+
+    @Test
+    void testSeancePackWithoutTicketsHasNoticePage() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        pdfTicketService.openSeancePack(seance, out).close();
+
+        // Assert
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertThat(reader.getNumberOfPages()).isEqualTo(1);
+        assertThat(new PdfTextExtractor(reader).getTextFromPage(1)).contains("No tickets sold for this seance.");
+    }
+
+    private static TicketRepository.PrintableTicket printableTicket(String code, TicketType type, double price, int row, int seat) {
+        return new TicketRepository.PrintableTicket() {
+            @Override
+            public String getTicketCode() {
+                return code;
+            }
+
+            @Override
+            public TicketType getTicketType() {
+                return type;
+            }
+
+            @Override
+            public double getPrice() {
+                return price;
+            }
+
+            @Override
+            public int getRowNumber() {
+                return row;
+            }
+
+            @Override
+            public int getSeatNumber() {
+                return seat;
+            }
+        };
+    }
+
+    @Test
+    void testGenerateReservationPdfRendersEachTicketOnItsOwnPage() throws Exception {
+        // Arrange
+        Ticket ticket2 = new Ticket();
+        ticket2.setId(2L);
+        ticket2.setTicketCode("TICKET-002");
+        ticket2.setPrice(15.0);
+        ticket2.setTicketType(TicketType.REDUCED);
+        ticket2.setSeance(seance);
+
+        Seat seat2 = new Seat();
+        seat2.setId(2L);
+        seat2.setRowNumber(6);
+        seat2.setSeatNumber(3);
+        seat2.setCinemaRoom(cinemaRoom);
+        ticket2.setSeat(seat2);
+
+        reservation.setTickets(List.of(ticket, ticket2));
+
+        // Act
+        byte[] pdf = pdfTicketService.generateReservationPdf(reservation).readAllBytes();
+
+        // Assert
+        PdfReader reader = new PdfReader(pdf);
+        assertThat(reader.getNumberOfPages()).isEqualTo(2);
+        String secondPage = new PdfTextExtractor(reader).getTextFromPage(2);
+        assertThat(secondPage)
+                .contains("Cinema Ticket", "ROW 6 | SEAT 3", "Reduced", "15.00 zl", "TICKET-002")
+                .doesNotContain("TICKET-001");
+    }
+
+    @Test
+    void testGenerateReservationPdfDrawsQRCodeWithoutImages() throws Exception {
+        // Act
+        byte[] pdf = pdfTicketService.generateReservationPdf(reservation).readAllBytes();
+
+        // Assert
+        PdfReader reader = new PdfReader(pdf);
+        PdfDictionary xObjects = reader.getPageN(1).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+        for (PdfName name : xObjects.getKeys()) {
+            PdfDictionary xObject = (PdfDictionary) PdfReader.getPdfObject(xObjects.get(name));
+            assertThat(xObject.getAsName(PdfName.SUBTYPE)).isEqualTo(PdfName.FORM);
+        }
+        assertThat(new String(reader.getPageContent(1), StandardCharsets.ISO_8859_1)).contains(" re");
+    }
+
+    @Test
+    void testDrawQRCodeMergesModuleRunsIntoRectangles() throws Exception {
+        // Arrange
+        PdfContentByte canvas = new PdfContentByte(null);
+        BitMatrix matrix = new QRCodeWriter().encode("TICKET-001", BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.MARGIN, 2));
+        int darkModules = 0;
+        for (int row = 0; row < matrix.getHeight(); row++) {
+            for (int column = 0; column < matrix.getWidth(); column++) {
+                darkModules += matrix.get(column, row) ? 1 : 0;
+            }
+        }
+
+        // Act
+        PdfTicketService.drawQRCode(canvas, "TICKET-001", 0, 0, matrix.getWidth());
+
+        // Assert
+        String content = canvas.toString();
+        long rectangles = content.lines().filter(line -> line.endsWith(" re")).count();
+        assertThat(rectangles).isPositive().isLessThan(darkModules);
+        assertThat(content.strip()).endsWith("f");
+    }
+
+    @Test
+    void testDrawnQRCodeDecodesToTicketCode() throws Exception {
+        // Arrange
+        PdfContentByte canvas = new PdfContentByte(null);
+        int size = 200;
+
+        // Act
+        PdfTicketService.drawQRCode(canvas, "TICKET-001", 0, 0, size);
+
+        // Assert - paint the rectangles, flipping PDF coordinates to image ones, and scan the result
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(java.awt.Color.WHITE);
+        graphics.fillRect(0, 0, size, size);
+        graphics.setColor(java.awt.Color.BLACK);
+        canvas.toString().lines().filter(line -> line.endsWith(" re")).forEach(line -> {
+            String[] parts = line.split(" ");
+            float x = Float.parseFloat(parts[0]);
+            float y = Float.parseFloat(parts[1]);
+            float width = Float.parseFloat(parts[2]);
+            float height = Float.parseFloat(parts[3]);
+            graphics.fill(new Rectangle2D.Float(x, size - y - height, width, height));
+        });
+        graphics.dispose();
+
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        assertThat(new QRCodeReader().decode(bitmap).getText()).isEqualTo("TICKET-001");
+    }
 }
@@ -0,0 +1,261 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.ReportJobDto;
+import cinema.booking.cinemabooking.dto.request.ReportJobRequestDto;
+import cinema.booking.cinemabooking.enums.ReportJobStatus;
+import cinema.booking.cinemabooking.enums.ReportType;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.exception.ReportNotReadyException;
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.exception.TooManyReportJobsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    private static final String ADMIN = "admin";
+
+    @Mock
+    private CsvExportService csvExportService;
+
+    @Mock
+    private ReportService reportService;
+
+    @TempDir
+    private Path cacheDir;
+
+    private ReportJobService reportJobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        reportJobService = new ReportJobService(csvExportService, reportService, cacheDir.toString(), 1, 1, 2, 24);
+        lenient().when(reportService.getSalesVersion()).thenReturn("3:5:75.0");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        reportJobService.shutdown();
+    }
+
+    private static ReportJobRequestDto request(ReportType type, ReportFilterDto filter) {
+        return new ReportJobRequestDto(type, filter);
+    }
+
+    private void writeDailyReport(String content) throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(csvExportService).writeDailySalesCsv(any(), any());
+    }
+
+    private void blockDailyReport() throws Exception {
+        lenient().doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(csvExportService).writeDailySalesCsv(any(), any());
+    }
+
+    private ReportJobDto awaitFinished(String id, String username) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ReportJobDto job = reportJobService.getJob(id, username);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = reportJobService.getJob(id, username);
+        }
+        return job;
+    }
+
+    @Test
+    void testSubmitGeneratesReportInBackground() throws Exception {
+        writeDailyReport("date,tickets\n");
+
+        ReportJobDto submitted = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+        ReportJobDto finished = awaitFinished(submitted.getId(), ADMIN);
+
+        assertThat(submitted.getStatus()).isIn(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING, ReportJobStatus.DONE);
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.DONE);
+        assertThat(finished.isCached()).isFalse();
+
+        ReportJobService.ReportResult result = reportJobService.getResult(submitted.getId(), ADMIN);
+        assertThat(result.fileName()).isEqualTo("daily_sales_report.csv");
+        assertThat(Files.readString(result.file())).isEqualTo("date,tickets\n");
+        try (var in = new GZIPInputStream(Files.newInputStream(result.compressedFile()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("date,tickets\n");
+        }
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).containsExactlyInAnyOrder(result.file(), result.compressedFile());
+        }
+        verify(csvExportService).writeDailySalesCsv(eq(ReportFilterDto.none()), any());
+    }
+
+    @Test
+    void testSameReportIsServedFromCache() throws Exception {
+        writeDailyReport("cached");
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 5, 1), null, List.of(2L, 1L), null, TicketType.REGULAR);
+        awaitFinished(reportJobService.submit(request(ReportType.DAILY_SALES, filter), ADMIN).getId(), ADMIN);
+
+        ReportFilterDto sameFilter = new ReportFilterDto(LocalDate.of(2024, 5, 1), null, List.of(1L, 2L), null, TicketType.REGULAR);
+        ReportJobDto second = reportJobService.submit(request(ReportType.DAILY_SALES, sameFilter), "other");
+
+        assertThat(second.getStatus()).isEqualTo(ReportJobStatus.DONE);
+        assertThat(second.isCached()).isTrue();
+        assertThat(Files.readString(reportJobService.getResult(second.getId(), "other").file())).isEqualTo("cached");
+        verify(csvExportService, times(1)).writeDailySalesCsv(any(), any());
+    }
+
+    @Test
+    void testNewSalesInvalidateCachedReport() throws Exception {
+        writeDailyReport("report");
+        awaitFinished(reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN).getId(), ADMIN);
+        when(reportService.getSalesVersion()).thenReturn("4:6:90.0");
+
+        ReportJobDto second = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+
+        assertThat(second.isCached()).isFalse();
+        assertThat(awaitFinished(second.getId(), ADMIN).getStatus()).isEqualTo(ReportJobStatus.DONE);
+        verify(csvExportService, times(2)).writeDailySalesCsv(any(), any());
+    }
+
+    @Test
+    void testConcurrentJobsForSameReportShareOneGeneration() throws Exception {
+        blockDailyReport();
+
+        ReportJobDto first = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+        ReportJobDto second = reportJobService.submit(request(ReportType.DAILY_SALES, null), "other");
+        release.countDown();
+
+        assertThat(awaitFinished(first.getId(), ADMIN).getStatus()).isEqualTo(ReportJobStatus.DONE);
+        assertThat(awaitFinished(second.getId(), "other").getStatus()).isEqualTo(ReportJobStatus.DONE);
+        verify(csvExportService, times(1)).writeDailySalesCsv(any(), any());
+    }
+
+    @Test
+    void testSubmitRejectsJobsOverAdminLimit() throws Exception {
+        blockDailyReport();
+        ReportJobRequestDto request = request(ReportType.DAILY_SALES, null);
+        reportJobService.submit(request, ADMIN);
+        reportJobService.submit(request, ADMIN);
+
+        assertThatThrownBy(() -> reportJobService.submit(request, ADMIN))
+                .isInstanceOf(TooManyReportJobsException.class);
+        assertThat(reportJobService.submit(request, "other").getStatus()).isNotEqualTo(ReportJobStatus.FAILED);
+    }
+
+    @Test
+    void testSubmitRejectsJobsWhenQueueIsFull() throws Exception {
+        blockDailyReport();
+        reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+        reportJobService.submit(request(ReportType.MOVIE_SALES, null), "other");
+
+        ReportFilterDto filter = new ReportFilterDto(null, null, null, null, TicketType.REDUCED);
+        assertThatThrownBy(() -> reportJobService.submit(request(ReportType.DAILY_SALES, filter), "third"))
+                .isInstanceOf(TooManyReportJobsException.class)
+                .hasMessageContaining("try again later");
+    }
+
+    @Test
+    void testFailedGenerationFailsJobAndLeavesNoFiles() throws Exception {
+        doThrow(new IllegalStateException("Database down")).when(csvExportService).writeMovieSalesCsv(any(), any());
+
+        ReportJobDto job = awaitFinished(reportJobService.submit(request(ReportType.MOVIE_SALES, null), ADMIN).getId(), ADMIN);
+
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("Report generation failed");
+        assertThatThrownBy(() -> reportJobService.getResult(job.getId(), ADMIN))
+                .isInstanceOf(ReportNotReadyException.class);
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testResultOfUnfinishedJobIsNotReady() throws Exception {
+        blockDailyReport();
+
+        ReportJobDto job = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+
+        assertThatThrownBy(() -> reportJobService.getResult(job.getId(), ADMIN))
+                .isInstanceOf(ReportNotReadyException.class);
+    }
+
+    @Test
+    void testJobsOfOtherAdminsAreNotFound() {
+        ReportJobDto job = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN);
+
+        assertThatThrownBy(() -> reportJobService.getJob(job.getId(), "other"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> reportJobService.getResult(job.getId(), "other"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> reportJobService.getJob("missing", ADMIN))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void testMovieChangeDropsCachedMovieReports() throws Exception {
+        writeDailyReport("daily");
+        String dailyJob = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN).getId();
+        String movieJob = reportJobService.submit(request(ReportType.MOVIE_SALES, null), ADMIN).getId();
+        awaitFinished(dailyJob, ADMIN);
+        awaitFinished(movieJob, ADMIN);
+
+        reportJobService.onRepertoireChanged(RepertoireChangedEvent.forSeance(1L, null));
+        assertThat(Files.exists(reportJobService.getResult(movieJob, ADMIN).file())).isTrue();
+
+        reportJobService.onRepertoireChanged(RepertoireChangedEvent.forMovie(1L));
+        assertThatThrownBy(() -> reportJobService.getResult(movieJob, ADMIN))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("expired");
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).hasSize(2).allMatch(file -> file.getFileName().toString().startsWith("daily_sales-"));
+        }
+        assertThat(reportJobService.submit(request(ReportType.MOVIE_SALES, null), ADMIN).isCached()).isFalse();
+        assertThat(reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN).isCached()).isTrue();
+    }
+
+    @Test
+    void testEvictExpiredDeletesOldFilesOnly() throws Exception {
+        writeDailyReport("report");
+        String id = reportJobService.submit(request(ReportType.DAILY_SALES, null), ADMIN).getId();
+        awaitFinished(id, ADMIN);
+        Path report = reportJobService.getResult(id, ADMIN).file();
+        Path leftover = Files.writeString(cacheDir.resolve("daily_sales-1.tmp"), "partial");
+        Files.setLastModifiedTime(leftover, FileTime.from(Instant.now().minusSeconds(25 * 3600)));
+
+        reportJobService.evictExpired();
+
+        assertThat(report).exists();
+        assertThat(reportJobService.getResult(id, ADMIN).compressedFile()).exists();
+        assertThat(leftover).doesNotExist();
+        assertThat(reportJobService.getJob(id, ADMIN).getStatus()).isEqualTo(ReportJobStatus.DONE);
+    }
+}
@@ -2,6 +2,7 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dao.SalesDao;
 import cinema.booking.cinemabooking.dto.report.DailySalesDto;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
 import cinema.booking.cinemabooking.dto.report.SalesReportDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,10 +49,10 @@ class ReportServiceTest {
     void testGetSalesReportSuccessfully() {
         // Arrange
         List<SalesReportDto> expectedReport = List.of(salesReportDto);
-        when(salesDao.fetchSalesReport()).thenReturn(expectedReport);
+        when(salesDao.fetchSalesReport(ReportFilterDto.none())).thenReturn(expectedReport);
 
         // Act
-        List<SalesReportDto> result = reportService.getSalesReport();
+        List<SalesReportDto> result = reportService.getSalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
@@ -64,22 +65,22 @@ class ReportServiceTest {
                     assertThat(report.getTotalRevenue()).isEqualTo(2000.00);
                     assertThat(report.getTicketsSold()).isEqualTo(500);
                 });
-        verify(salesDao, times(1)).fetchSalesReport();
+        verify(salesDao, times(1)).fetchSalesReport(ReportFilterDto.none());
     }
 
     @Test
     void testGetSalesReportReturnsEmptyList() {
         // Arrange
-        when(salesDao.fetchSalesReport()).thenReturn(List.of());
+        when(salesDao.fetchSalesReport(ReportFilterDto.none())).thenReturn(List.of());
 
         // Act
-        List<SalesReportDto> result = reportService.getSalesReport();
+        List<SalesReportDto> result = reportService.getSalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
                 .isNotNull()
                 .isEmpty();
-        verify(salesDao, times(1)).fetchSalesReport();
+        verify(salesDao, times(1)).fetchSalesReport(ReportFilterDto.none());
     }
 
     @Test
@@ -91,27 +92,27 @@ class ReportServiceTest {
         secondReport.setTicketsSold(750L);
 
         List<SalesReportDto> expectedReport = List.of(salesReportDto, secondReport);
-        when(salesDao.fetchSalesReport()).thenReturn(expectedReport);
+        when(salesDao.fetchSalesReport(ReportFilterDto.none())).thenReturn(expectedReport);
 
         // Act
-        List<SalesReportDto> result = reportService.getSalesReport();
+        List<SalesReportDto> result = reportService.getSalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
                 .isNotNull()
                 .hasSize(2)
                 .containsExactly(salesReportDto, secondReport);
-        verify(salesDao, times(1)).fetchSalesReport();
+        verify(salesDao, times(1)).fetchSalesReport(ReportFilterDto.none());
     }
 
     @Test
     void testGetDailySalesReportSuccessfully() {
         // Arrange
         List<DailySalesDto> expectedReport = List.of(dailySalesDto);
-        when(salesDao.fetchDailySales()).thenReturn(expectedReport);
+        when(salesDao.fetchDailySales(ReportFilterDto.none())).thenReturn(expectedReport);
 
         // Act
-        List<DailySalesDto> result = reportService.getDailySalesReport();
+        List<DailySalesDto> result = reportService.getDailySalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
@@ -124,22 +125,22 @@ class ReportServiceTest {
                     assertThat(daily.getTotalRevenue()).isEqualTo(1500.00);
                     assertThat(daily.getTicketsSold()).isEqualTo(150L);
                 });
-        verify(salesDao, times(1)).fetchDailySales();
+        verify(salesDao, times(1)).fetchDailySales(ReportFilterDto.none());
     }
 
     @Test
     void testGetDailySalesReportReturnsEmptyList() {
         // Arrange
-        when(salesDao.fetchDailySales()).thenReturn(List.of());
+        when(salesDao.fetchDailySales(ReportFilterDto.none())).thenReturn(List.of());
 
         // Act
-        List<DailySalesDto> result = reportService.getDailySalesReport();
+        List<DailySalesDto> result = reportService.getDailySalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
                 .isNotNull()
                 .isEmpty();
-        verify(salesDao, times(1)).fetchDailySales();
+        verify(salesDao, times(1)).fetchDailySales(ReportFilterDto.none());
     }
 
     @Test
@@ -151,16 +152,55 @@ class ReportServiceTest {
         secondDailySales.setTicketsSold(200L);
 
         List<DailySalesDto> expectedReport = List.of(dailySalesDto, secondDailySales);
-        when(salesDao.fetchDailySales()).thenReturn(expectedReport);
+        when(salesDao.fetchDailySales(ReportFilterDto.none())).thenReturn(expectedReport);
 
         // Act
-        List<DailySalesDto> result = reportService.getDailySalesReport();
+        List<DailySalesDto> result = reportService.getDailySalesReport(ReportFilterDto.none());
 
         // Assert
         assertThat(result)
                 .isNotNull()
                 .hasSize(2)
                 .containsExactly(dailySalesDto, secondDailySales);
-        verify(salesDao, times(1)).fetchDailySales();
+        verify(salesDao, times(1)).fetchDailySales(ReportFilterDto.none());
+    }
+
+    @Test
+    void testStreamSalesReportDelegatesToDao() {
+        // Arrange
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 1, 1), null, null, null, null);
+        SalesDao.SalesReportRowHandler handler = (movieTitle, ticketsSold, totalRevenue) -> { };
+
+        // Act
+        reportService.streamSalesReport(filter, handler);
+
+        // Assert
+        verify(salesDao, times(1)).streamSalesReport(filter, handler);
+    }
+
+    @Test
+    void testStreamDailySalesReportDelegatesToDao() {
+        // Arrange
+        ReportFilterDto filter = new ReportFilterDto(null, null, List.of(1L), null, null);
+        SalesDao.DailySalesRowHandler handler = (date, ticketsSold, totalRevenue) -> { };
+
+        // Act
+        reportService.streamDailySalesReport(filter, handler);
+
+        // Assert
+        verify(salesDao, times(1)).streamDailySales(filter, handler);
+    }
+
+    @Test
+    void testGetSalesReportWithFilterPassesFilterToDao() {
+        // Arrange
+        ReportFilterDto filter = new ReportFilterDto(null, null, null, List.of(2L), null);
+        when(salesDao.fetchSalesReport(filter)).thenReturn(List.of(salesReportDto));
+
+        // Act
+        List<SalesReportDto> result = reportService.getSalesReport(filter);
+
+        // Assert
+        assertThat(result).containsExactly(salesReportDto);
     }
 }
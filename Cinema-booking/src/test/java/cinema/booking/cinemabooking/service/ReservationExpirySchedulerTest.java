@@ -0,0 +1,94 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpirySchedulerTest {
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private ReservationExpiryScheduler reservationExpiryScheduler;
+
+    @AfterEach
+    void tearDown() {
+        reservationExpiryScheduler.stop();
+    }
+
+    private ReservationRepository.ReservationExpiry expiry(Long id, LocalDateTime expiresAt) {
+        return new ReservationRepository.ReservationExpiry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+
+    @Test
+    void testRecoveredOverdueReservationsAreExpiredOnStart() {
+        when(reservationRepository.findExpiriesByStatus(ReservationStatus.PENDING))
+                .thenReturn(List.of(expiry(1L, LocalDateTime.now().minusMinutes(1))));
+
+        reservationExpiryScheduler.start();
+
+        verify(reservationService, timeout(2000)).expireReservations(eq(List.of(1L)));
+    }
+
+    @Test
+    void testCreatedReservationIsExpiredWhenDue() {
+        when(reservationRepository.findExpiriesByStatus(ReservationStatus.PENDING)).thenReturn(new ArrayList<>());
+        reservationExpiryScheduler.start();
+
+        reservationExpiryScheduler.onReservationCommitted(new ReservationEvent(ReservationEventType.CREATED, 2L, 1L,
+                List.of(1L), LocalDateTime.now().plusNanos(200_000_000)));
+
+        verify(reservationService, timeout(2000)).expireReservations(eq(List.of(2L)));
+    }
+
+    @Test
+    void testReservationIsNotExpiredBeforeItsTime() {
+        when(reservationRepository.findExpiriesByStatus(ReservationStatus.PENDING))
+                .thenReturn(List.of(expiry(3L, LocalDateTime.now().plusMinutes(15))));
+
+        reservationExpiryScheduler.start();
+
+        verify(reservationService, after(300).never()).expireReservations(any());
+    }
+
+    @Test
+    void testOtherEventsAreNotScheduled() {
+        when(reservationRepository.findExpiriesByStatus(ReservationStatus.PENDING)).thenReturn(new ArrayList<>());
+        reservationExpiryScheduler.start();
+
+        reservationExpiryScheduler.onReservationCommitted(new ReservationEvent(ReservationEventType.TICKET_ADDED, 4L, 1L,
+                List.of(1L), LocalDateTime.now().minusMinutes(1)));
+
+        verify(reservationService, after(300).never()).expireReservations(any());
+    }
+}
@@ -2,10 +2,13 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.request.CreateReservationDto;
 import cinema.booking.cinemabooking.dto.response.ReservationSummaryDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
 import cinema.booking.cinemabooking.enums.ReservationStatus;
 import cinema.booking.cinemabooking.enums.TicketType;
 import cinema.booking.cinemabooking.exception.InvalidReservationActionException;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
 import cinema.booking.cinemabooking.exception.SeatAlreadyOccupiedException;
 import cinema.booking.cinemabooking.mapper.ReservationMapper;
 import cinema.booking.cinemabooking.mapper.TicketMapper;
@@ -14,15 +17,21 @@ import cinema.booking.cinemabooking.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,7 +60,10 @@ class ReservationServiceTest {
     private ReservationRepository reservationRepository;
 
     @Mock
-    private PdfTicketService pdfTicketService;
+    private SeatHoldRepository seatHoldRepository;
+
+    @Mock
+    private TicketPdfCacheService ticketPdfCacheService;
 
     @Mock
     private ReservationMapper reservationMapper;
@@ -59,6 +71,21 @@ class ReservationServiceTest {
     @Mock
     private TicketMapper ticketMapper;
 
+    @Mock
+    private SeatOccupancyService seatOccupancyService;
+
+    @Mock
+    private SeatHoldManager seatHoldManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -120,6 +147,11 @@ class ReservationServiceTest {
         reservation.setTickets(new ArrayList<>(List.of(ticket)));
     }
 
+    private void stubTransactionTemplate() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     @Test
     void testCreateReservationSuccessfully() {
         // Arrange
@@ -136,8 +168,10 @@ class ReservationServiceTest {
 
         when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
         when(userRepository.findByUsername(eq("testuser"))).thenReturn(Optional.of(user));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(1L)))).thenReturn(List.of(seat));
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        when(seatRepository.findAllByIdIn(eq(List.of(1L)))).thenReturn(List.of(seat));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(1L)))).thenReturn(new ArrayList<>());
+        when(seatHoldManager.tryClaim(eq(seance), eq(List.of(1L)))).thenReturn(7L);
+        stubTransactionTemplate();
         when(ticketMapper.toEntity(any(Reservation.class), eq(seance), eq(seat), eq(TicketType.REGULAR), eq(15.0)))
                 .thenReturn(ticket);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
@@ -149,10 +183,67 @@ class ReservationServiceTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
-        verify(seanceRepository, times(1)).findById(eq(1L));
+        verify(seanceRepository, times(2)).findById(eq(1L));
         verify(userRepository, times(1)).findByUsername(eq("testuser"));
-        verify(seatRepository, times(1)).findAllByIdInWithLock(eq(List.of(1L)));
+        verify(seatRepository, times(1)).findAllByIdIn(eq(List.of(1L)));
         verify(reservationRepository, times(1)).save(any(Reservation.class));
+        verify(seatHoldRepository, times(1)).saveAllAndFlush(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(ReservationEvent.class));
+        verify(seatHoldManager, times(1)).release(eq(1L), eq(List.of(1L)), eq(7L));
+    }
+
+    @Test
+    void testCreateReservationThrowsExceptionWhenSeatClaimedInMemory() {
+        // Arrange
+        CreateReservationDto.TicketRequest ticketRequest = new CreateReservationDto.TicketRequest();
+        ticketRequest.setSeatId(1L);
+        ticketRequest.setTicketType(TicketType.REGULAR);
+
+        CreateReservationDto request = new CreateReservationDto();
+        request.setSeanceId(1L);
+        request.setTickets(List.of(ticketRequest));
+
+        when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(1L)))).thenReturn(new ArrayList<>());
+        when(seatHoldManager.tryClaim(eq(seance), eq(List.of(1L)))).thenReturn(0L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> reservationService.createReservation(request, "testuser"))
+                .isInstanceOf(SeatAlreadyOccupiedException.class);
+
+        verify(transactionTemplate, never()).execute(any());
+        verify(seatHoldManager, never()).release(any(), any(), anyLong());
+    }
+
+    @Test
+    void testCreateReservationThrowsExceptionWhenSeatClaimedConcurrently() {
+        // Arrange
+        CreateReservationDto.TicketRequest ticketRequest = new CreateReservationDto.TicketRequest();
+        ticketRequest.setSeatId(1L);
+        ticketRequest.setTicketType(TicketType.REGULAR);
+
+        CreateReservationDto request = new CreateReservationDto();
+        request.setSeanceId(1L);
+        request.setTickets(List.of(ticketRequest));
+
+        when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
+        when(userRepository.findByUsername(eq("testuser"))).thenReturn(Optional.of(user));
+        when(seatRepository.findAllByIdIn(eq(List.of(1L)))).thenReturn(List.of(seat));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(1L)))).thenReturn(new ArrayList<>());
+        when(seatHoldManager.tryClaim(eq(seance), eq(List.of(1L)))).thenReturn(7L);
+        stubTransactionTemplate();
+        when(ticketMapper.toEntity(any(Reservation.class), eq(seance), eq(seat), eq(TicketType.REGULAR), eq(15.0)))
+                .thenReturn(ticket);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        when(seatHoldRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_seat_hold_seance_seat"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> reservationService.createReservation(request, "testuser"))
+                .isInstanceOf(SeatAlreadyOccupiedException.class);
+
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(seatHoldManager, times(1)).release(eq(1L), eq(List.of(1L)), eq(7L));
     }
 
     @Test
@@ -189,6 +280,8 @@ class ReservationServiceTest {
         request.setTickets(List.of(ticketRequest));
 
         when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
+        when(seatHoldManager.tryClaim(eq(seance), eq(List.of(1L)))).thenReturn(7L);
+        stubTransactionTemplate();
         when(userRepository.findByUsername(eq("nonexistent"))).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -212,9 +305,7 @@ class ReservationServiceTest {
         request.setTickets(List.of(ticketRequest));
 
         when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
-        when(userRepository.findByUsername(eq("testuser"))).thenReturn(Optional.of(user));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(1L)))).thenReturn(List.of(seat));
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(ticket));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(1L)))).thenReturn(List.of(1L));
 
         // Act & Assert
         assertThatThrownBy(() -> reservationService.createReservation(request, "testuser"))
@@ -235,8 +326,10 @@ class ReservationServiceTest {
         request.setTickets(List.of(ticketRequest));
 
         when(seanceRepository.findById(eq(1L))).thenReturn(Optional.of(seance));
+        when(seatHoldManager.tryClaim(eq(seance), eq(List.of(999L)))).thenReturn(7L);
+        stubTransactionTemplate();
         when(userRepository.findByUsername(eq("testuser"))).thenReturn(Optional.of(user));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(999L)))).thenReturn(new ArrayList<>());
+        when(seatRepository.findAllByIdIn(eq(List.of(999L)))).thenReturn(new ArrayList<>());
 
         // Act & Assert
         assertThatThrownBy(() -> reservationService.createReservation(request, "testuser"))
@@ -249,6 +342,7 @@ class ReservationServiceTest {
     void testPayForReservationSuccessfully() {
         // Arrange
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
+        when(reservationRepository.updateStatusById(1L, ReservationStatus.PENDING, ReservationStatus.PAID)).thenReturn(1);
 
         // Act
         reservationService.payForReservation(1L);
@@ -259,6 +353,9 @@ class ReservationServiceTest {
         assertThat(ticket.getTicketCode()).isNotNull();
         verify(reservationRepository, times(1)).findById(eq(1L));
         verify(reservationRepository, times(1)).save(eq(reservation));
+        verify(seatHoldRepository, times(1)).confirmByReservationId(eq(1L));
+        verify(salesRollupService, times(1)).recordPayment(eq(reservation));
+        verify(eventPublisher, times(1)).publishEvent(any(TicketsSoldEvent.class));
     }
 
     @Test
@@ -289,6 +386,24 @@ class ReservationServiceTest {
         verify(reservationRepository, never()).save(any());
     }
 
+    @Test
+    void testPayForReservationThrowsExceptionWhenExpiredBetweenReadAndWrite() {
+        // Arrange
+        when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
+        when(reservationRepository.updateStatusById(1L, ReservationStatus.PENDING, ReservationStatus.PAID)).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> reservationService.payForReservation(1L))
+                .isInstanceOf(InvalidReservationActionException.class)
+                .hasMessageContaining("cannot be paid");
+
+        assertThat(reservation.getReservationCode()).isNull();
+        verify(reservationRepository, never()).save(any());
+        verify(seatHoldRepository, never()).confirmByReservationId(any());
+        verify(salesRollupService, never()).recordPayment(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void testPayForReservationThrowsExceptionWhenExpired() {
         // Arrange
@@ -503,6 +618,8 @@ class ReservationServiceTest {
         // Assert
         assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CANCELLED);
         verify(reservationRepository, times(1)).save(eq(reservation));
+        verify(seatHoldRepository, times(1)).deleteByReservationId(eq(1L));
+        verify(eventPublisher, times(1)).publishEvent(any(ReservationEvent.class));
     }
 
     @Test
@@ -586,8 +703,8 @@ class ReservationServiceTest {
         ReservationSummaryDto summaryDto = mock(ReservationSummaryDto.class);
 
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(2L)))).thenReturn(List.of(seat2));
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        when(seatRepository.findById(eq(2L))).thenReturn(Optional.of(seat2));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(2L)))).thenReturn(new ArrayList<>());
         when(ticketMapper.toEntity(eq(reservation), eq(seance), eq(seat2), eq(TicketType.REGULAR), eq(15.0)))
                 .thenReturn(newTicket);
         when(ticketRepository.save(any(Ticket.class))).thenReturn(newTicket);
@@ -633,7 +750,7 @@ class ReservationServiceTest {
     void testAddTicketToReservationThrowsExceptionWhenSeatNotFound() {
         // Arrange
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(999L)))).thenReturn(new ArrayList<>());
+        when(seatRepository.findById(eq(999L))).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> reservationService.addTicketToReservation(1L, 999L))
@@ -648,13 +765,9 @@ class ReservationServiceTest {
         Seat seat2 = new Seat();
         seat2.setId(2L);
 
-        Ticket takenTicket = new Ticket();
-        takenTicket.setId(2L);
-        takenTicket.setSeat(seat2);
-
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
-        when(seatRepository.findAllByIdInWithLock(eq(List.of(2L)))).thenReturn(List.of(seat2));
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(takenTicket));
+        when(seatRepository.findById(eq(2L))).thenReturn(Optional.of(seat2));
+        when(seatOccupancyService.findOccupiedSeatIds(eq(seance), eq(List.of(2L)))).thenReturn(List.of(2L));
 
         // Act & Assert
         assertThatThrownBy(() -> reservationService.addTicketToReservation(1L, 2L))
@@ -664,64 +777,125 @@ class ReservationServiceTest {
     }
 
     @Test
-    void testGeneratePdfForReservationSuccessfully() {
+    void testGetPdfForReservationSuccessfully() {
         // Arrange
+        stubTransactionTemplate();
         reservation.setStatus(ReservationStatus.PAID);
-        ByteArrayInputStream pdfStream = new ByteArrayInputStream(new byte[]{});
+        TicketPdfCacheService.CachedPdf pdf = new TicketPdfCacheService.CachedPdf(Path.of("ticket.pdf"), 100, "\"abc\"");
 
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
-        when(pdfTicketService.generateReservationPdf(eq(reservation))).thenReturn(pdfStream);
+        when(ticketPdfCacheService.getPdf(eq(reservation))).thenReturn(pdf);
 
         // Act
-        ByteArrayInputStream result = reservationService.generatePdfForReservation(1L, "testuser");
+        TicketPdfCacheService.CachedPdf result = reservationService.getPdfForReservation(1L, "testuser");
 
         // Assert
-        assertThat(result).isNotNull();
-        verify(pdfTicketService, times(1)).generateReservationPdf(eq(reservation));
+        assertThat(result).isSameAs(pdf);
+        verify(ticketPdfCacheService, times(1)).getPdf(eq(reservation));
     }
 
     @Test
-    void testGeneratePdfForReservationThrowsExceptionWhenUnpaid() {
+    void testGetPdfForReservationThrowsExceptionWhenUnpaid() {
         // Arrange
+        stubTransactionTemplate();
         when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
 
         // Act & Assert
-        assertThatThrownBy(() -> reservationService.generatePdfForReservation(1L, "testuser"))
+        assertThatThrownBy(() -> reservationService.getPdfForReservation(1L, "testuser"))
                 .isInstanceOf(InvalidReservationActionException.class);
 
-        verify(pdfTicketService, never()).generateReservationPdf(any());
+        verify(ticketPdfCacheService, never()).getPdf(any());
+    }
+
+    @Test
+    void testGetPdfForReservationThrowsExceptionForOtherUser() {
+        // Arrange
+        stubTransactionTemplate();
+        reservation.setStatus(ReservationStatus.PAID);
+        when(reservationRepository.findById(eq(1L))).thenReturn(Optional.of(reservation));
+
+        // Act & Assert
+        assertThatThrownBy(() -> reservationService.getPdfForReservation(1L, "otheruser"))
+                .isInstanceOf(SecurityException.class);
+
+        verify(ticketPdfCacheService, never()).getPdf(any());
+    }
+
+    private TicketRepository.ReservationSeat reservationSeat(Long reservationId, Long seanceId, Long seatId) {
+        return new TicketRepository.ReservationSeat() {
+            @Override
+            public Long getReservationId() {
+                return reservationId;
+            }
+
+            @Override
+            public Long getSeanceId() {
+                return seanceId;
+            }
+
+            @Override
+            public Long getSeatId() {
+                return seatId;
+            }
+        };
     }
 
     @Test
     void testAutoCancelExpiredReservationsSuccessfully() {
         // Arrange
-        Reservation expiredReservation = new Reservation();
-        expiredReservation.setId(2L);
-        expiredReservation.setStatus(ReservationStatus.PENDING);
-        expiredReservation.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        stubTransactionTemplate();
+        when(reservationRepository.findIdsByStatusAndExpiresAtBefore(eq(ReservationStatus.PENDING), any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(2L));
+        when(reservationRepository.updateStatusByIdIn(eq(List.of(2L)), eq(ReservationStatus.PENDING), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(1);
+        when(ticketRepository.findSeatsByReservationIds(eq(List.of(2L))))
+                .thenReturn(List.of(reservationSeat(2L, 1L, 1L), reservationSeat(2L, 1L, 2L)));
 
-        when(reservationRepository.findAllByStatusAndExpiresAtBefore(eq(ReservationStatus.PENDING), any(LocalDateTime.class)))
-                .thenReturn(List.of(expiredReservation));
+        // Act
+        reservationService.autoCancelExpiredReservations();
+
+        // Assert
+        ArgumentCaptor<ReservationEvent> eventCaptor = ArgumentCaptor.forClass(ReservationEvent.class);
+        verify(seatHoldRepository, times(1)).deleteByReservationIdIn(eq(List.of(2L)));
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getType()).isEqualTo(ReservationEventType.EXPIRED);
+        assertThat(eventCaptor.getValue().getSeatIds()).containsExactly(1L, 2L);
+        verify(reservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testAutoCancelExpiredReservationsSkipsReservationsChangedConcurrently() {
+        // Arrange
+        stubTransactionTemplate();
+        when(reservationRepository.findIdsByStatusAndExpiresAtBefore(eq(ReservationStatus.PENDING), any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(2L, 3L));
+        when(reservationRepository.updateStatusByIdIn(eq(List.of(2L, 3L)), eq(ReservationStatus.PENDING), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(1);
+        when(reservationRepository.findIdsByIdInAndStatus(eq(List.of(2L, 3L)), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(3L));
+        when(ticketRepository.findSeatsByReservationIds(eq(List.of(3L)))).thenReturn(List.of(reservationSeat(3L, 1L, 4L)));
 
         // Act
         reservationService.autoCancelExpiredReservations();
 
         // Assert
-        assertThat(expiredReservation.getStatus()).isEqualTo(ReservationStatus.CANCELLED);
-        verify(reservationRepository, times(1)).saveAll(any());
+        verify(seatHoldRepository, times(1)).deleteByReservationIdIn(eq(List.of(3L)));
+        verify(eventPublisher, times(1)).publishEvent(any(ReservationEvent.class));
     }
 
     @Test
     void testAutoCancelExpiredReservationsWithNoExpiredReservations() {
         // Arrange
-        when(reservationRepository.findAllByStatusAndExpiresAtBefore(eq(ReservationStatus.PENDING), any(LocalDateTime.class)))
+        stubTransactionTemplate();
+        when(reservationRepository.findIdsByStatusAndExpiresAtBefore(eq(ReservationStatus.PENDING), any(LocalDateTime.class), any(Limit.class)))
                 .thenReturn(new ArrayList<>());
 
         // Act
         reservationService.autoCancelExpiredReservations();
 
         // Assert
-        verify(reservationRepository, never()).saveAll(any());
+        verify(reservationRepository, never()).updateStatusByIdIn(any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -744,7 +918,7 @@ class ReservationServiceTest {
                 .hasMessage("Cannot create reservation for past seance.");
 
         verify(userRepository, never()).findByUsername(any());
-        verify(seatRepository, never()).findAllByIdInWithLock(any());
+        verify(seatRepository, never()).findAllByIdIn(any());
         verify(reservationRepository, never()).save(any());
     }
 
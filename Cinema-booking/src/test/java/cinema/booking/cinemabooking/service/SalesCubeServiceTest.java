@@ -0,0 +1,215 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.dto.report.ReportFilterDto;
+import cinema.booking.cinemabooking.dto.report.SalesCubeCellDto;
+import cinema.booking.cinemabooking.enums.SalesDimension;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.exception.InvalidReportQueryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesCubeServiceTest {
+
+    private static final LocalDateTime MAY_1 = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private static final LocalDateTime MAY_2 = LocalDateTime.of(2024, 5, 2, 18, 30);
+
+    @Mock
+    private SalesDao salesDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SalesCubeService salesCubeService;
+
+    private final List<Row> rows = new ArrayList<>();
+
+    private record Row(long reservationId, LocalDateTime soldAt, long movieId, long roomId, TicketType type, double price) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        rows.add(new Row(1, MAY_1, 10, 1, TicketType.REGULAR, 15.0));
+        rows.add(new Row(1, MAY_1, 10, 1, TicketType.REDUCED, 10.0));
+        rows.add(new Row(2, MAY_1, 20, 2, TicketType.REGULAR, 15.0));
+        rows.add(new Row(3, MAY_2, 10, 1, TicketType.REGULAR, 12.5));
+    }
+
+    private void streamRows(Consumer<SalesDao.PaidTicketRowHandler> beforeEnd) {
+        doAnswer(invocation -> {
+            SalesDao.PaidTicketRowHandler handler = invocation.getArgument(0);
+            rows.forEach(row -> handler.handle(row.reservationId(), row.soldAt(), row.movieId(), row.roomId(), row.type(), row.price()));
+            beforeEnd.accept(handler);
+            return null;
+        }).when(salesDao).streamPaidTickets(any());
+    }
+
+    private static TicketsSoldEvent sale(long reservationId, LocalDateTime soldAt, long movieId, TicketType type, double price) {
+        return new TicketsSoldEvent(reservationId, soldAt,
+                List.of(new TicketsSoldEvent.SoldTicket(100L, movieId, 1L, type, price)));
+    }
+
+    @Test
+    void testAggregateByMovieSumsTicketsAndRevenue() {
+        streamRows(handler -> { });
+
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.MOVIE));
+
+        assertThat(result).containsExactly(
+                new SalesCubeCellDto(null, null, 10L, null, null, 3L, 37.5),
+                new SalesCubeCellDto(null, null, 20L, null, null, 1L, 15.0));
+    }
+
+    @Test
+    void testAggregateByMovieAndDayOrdersByFirstDimension() {
+        streamRows(handler -> { });
+
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(ReportFilterDto.none(),
+                List.of(SalesDimension.DAY, SalesDimension.MOVIE));
+
+        assertThat(result).extracting(SalesCubeCellDto::getDate, SalesCubeCellDto::getMovieId, SalesCubeCellDto::getTicketsSold)
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 5, 1), 10L, 2L),
+                        tuple(LocalDate.of(2024, 5, 1), 20L, 1L),
+                        tuple(LocalDate.of(2024, 5, 2), 10L, 1L));
+    }
+
+    @Test
+    void testAggregateByRoomAndHour() {
+        streamRows(handler -> { });
+
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(ReportFilterDto.none(),
+                List.of(SalesDimension.ROOM, SalesDimension.HOUR));
+
+        assertThat(result).containsExactly(
+                new SalesCubeCellDto(null, 10, null, 1L, null, 2L, 25.0),
+                new SalesCubeCellDto(null, 18, null, 1L, null, 1L, 12.5),
+                new SalesCubeCellDto(null, 10, null, 2L, null, 1L, 15.0));
+    }
+
+    @Test
+    void testAggregateAppliesFilters() {
+        streamRows(handler -> { });
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 1),
+                List.of(10L, 99L), List.of(1L), TicketType.REGULAR);
+
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(filter, List.of(SalesDimension.TICKET_TYPE));
+
+        assertThat(result).containsExactly(new SalesCubeCellDto(null, null, null, null, TicketType.REGULAR, 1L, 15.0));
+    }
+
+    @Test
+    void testAggregateWithDateRangeOutsideSalesIsEmpty() {
+        streamRows(handler -> { });
+        ReportFilterDto filter = new ReportFilterDto(LocalDate.of(2025, 1, 1), null, null, null, null);
+
+        assertThat(salesCubeService.aggregate(filter, List.of(SalesDimension.DAY))).isEmpty();
+    }
+
+    @Test
+    void testLoadsOnceAndAppendsCommittedSales() {
+        streamRows(handler -> { });
+        salesCubeService.loadOnStartup();
+
+        salesCubeService.onTicketsSold(sale(4L, MAY_2, 20L, TicketType.REDUCED, 8.0));
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.MOVIE));
+
+        assertThat(result).extracting(SalesCubeCellDto::getTicketsSold).containsExactly(3L, 2L);
+        assertThat(salesCubeService.size()).isEqualTo(5);
+        verify(salesDao, times(1)).streamPaidTickets(any());
+    }
+
+    @Test
+    void testSalesBeforeLoadAreLeftToTheLoad() {
+        streamRows(handler -> { });
+
+        salesCubeService.onTicketsSold(sale(3L, MAY_2, 10L, TicketType.REGULAR, 12.5));
+
+        assertThat(salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.DAY)))
+                .extracting(SalesCubeCellDto::getTicketsSold).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void testSalesDuringLoadAreAddedUnlessAlreadyLoaded() {
+        streamRows(handler -> {
+            salesCubeService.onTicketsSold(sale(3L, MAY_2, 10L, TicketType.REGULAR, 12.5));
+            salesCubeService.onTicketsSold(sale(5L, MAY_2, 10L, TicketType.REGULAR, 20.0));
+        });
+
+        salesCubeService.loadOnStartup();
+
+        assertThat(salesCubeService.size()).isEqualTo(5);
+        assertThat(salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.DAY)))
+                .extracting(SalesCubeCellDto::getTotalRevenue).containsExactly(40.0, 32.5);
+    }
+
+    @Test
+    void testFailedLoadIsRetriedOnFirstQuery() {
+        doThrow(new IllegalStateException("Database down")).doAnswer(invocation -> null)
+                .when(salesDao).streamPaidTickets(any());
+
+        salesCubeService.loadOnStartup();
+
+        assertThat(salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.MOVIE))).isEmpty();
+        verify(salesDao, times(2)).streamPaidTickets(any());
+    }
+
+    @Test
+    void testAggregateRejectsMissingOrRepeatedDimensions() {
+        assertThatThrownBy(() -> salesCubeService.aggregate(ReportFilterDto.none(), List.of()))
+                .isInstanceOf(InvalidReportQueryException.class);
+        assertThatThrownBy(() -> salesCubeService.aggregate(ReportFilterDto.none(), List.of(SalesDimension.DAY, SalesDimension.DAY)))
+                .isInstanceOf(InvalidReportQueryException.class);
+        verifyNoInteractions(salesDao);
+    }
+
+    @Test
+    void testAggregateRejectsTooManyGroups() {
+        rows.clear();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Row(i, MAY_1.plusDays(i * 40L), i, i, TicketType.REGULAR, 10.0));
+        }
+        streamRows(handler -> { });
+
+        assertThatThrownBy(() -> salesCubeService.aggregate(ReportFilterDto.none(),
+                List.of(SalesDimension.DAY, SalesDimension.MOVIE, SalesDimension.ROOM)))
+                .isInstanceOf(InvalidReportQueryException.class)
+                .hasMessageContaining("narrow the date range");
+    }
+
+    @Test
+    void testParallelScanMatchesTotals() {
+        rows.clear();
+        for (int i = 0; i < 200_000; i++) {
+            rows.add(new Row(i / 2, MAY_1.plusHours(i % 240), i % 7, i % 3, TicketType.values()[i % 2], 10.0 + i % 5));
+        }
+        streamRows(handler -> { });
+
+        List<SalesCubeCellDto> result = salesCubeService.aggregate(ReportFilterDto.none(),
+                List.of(SalesDimension.MOVIE, SalesDimension.TICKET_TYPE));
+
+        assertThat(result).hasSize(14);
+        assertThat(result.stream().mapToLong(SalesCubeCellDto::getTicketsSold).sum()).isEqualTo(200_000L);
+        assertThat(result.stream().mapToDouble(SalesCubeCellDto::getTotalRevenue).sum()).isEqualTo(2_400_000.0);
+    }
+}
@@ -0,0 +1,106 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dao.SalesDao;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private SalesDao salesDao;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        Movie movie = new Movie();
+        movie.setId(1L);
+
+        CinemaRoom cinemaRoom = new CinemaRoom();
+        cinemaRoom.setId(2L);
+
+        Seance seance = new Seance();
+        seance.setId(3L);
+        seance.setMovie(movie);
+        seance.setCinemaRoom(cinemaRoom);
+
+        reservation = new Reservation();
+        reservation.setId(4L);
+        reservation.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        reservation.setTickets(List.of(
+                ticket(seance, TicketType.REGULAR, 25.0),
+                ticket(seance, TicketType.REGULAR, 25.0),
+                ticket(seance, TicketType.REDUCED, 15.0)));
+    }
+
+    private Ticket ticket(Seance seance, TicketType ticketType, double price) {
+        Ticket ticket = new Ticket();
+        ticket.setSeance(seance);
+        ticket.setTicketType(ticketType);
+        ticket.setPrice(price);
+        return ticket;
+    }
+
+    @Test
+    void testRecordPaymentAddsTicketsToExistingRows() {
+        when(salesDao.addMovieSales(anyLong(), anyLong(), anyDouble())).thenReturn(true);
+        when(salesDao.addDailySales(any(), anyLong(), anyLong(), any(), anyLong(), anyDouble())).thenReturn(true);
+
+        salesRollupService.recordPayment(reservation);
+
+        LocalDate date = LocalDate.of(2024, 5, 1);
+        verify(salesDao).addMovieSales(1L, 3, 65.0);
+        verify(salesDao).addDailySales(date, 1L, 2L, TicketType.REGULAR, 2, 50.0);
+        verify(salesDao).addDailySales(date, 1L, 2L, TicketType.REDUCED, 1, 15.0);
+        verify(salesDao, never()).insertMovieSalesRow(any());
+    }
+
+    @Test
+    void testRecordPaymentCreatesMissingRowsBeforeAdding() {
+        when(salesDao.addMovieSales(anyLong(), anyLong(), anyDouble())).thenReturn(false, true);
+        when(salesDao.addDailySales(any(), anyLong(), anyLong(), any(), anyLong(), anyDouble())).thenReturn(true);
+
+        salesRollupService.recordPayment(reservation);
+
+        verify(salesDao).insertMovieSalesRow(1L);
+        verify(salesDao, times(2)).addMovieSales(1L, 3, 65.0);
+    }
+
+    @Test
+    void testBackfillRebuildsMissingRollups() {
+        when(salesDao.isRollupMissing()).thenReturn(true);
+
+        salesRollupService.backfillIfMissing();
+
+        verify(salesDao).rebuildRollups();
+    }
+
+    @Test
+    void testBackfillSkipsBuiltRollups() {
+        when(salesDao.isRollupMissing()).thenReturn(false);
+
+        salesRollupService.backfillIfMissing();
+
+        verify(salesDao, never()).rebuildRollups();
+    }
+}
@@ -0,0 +1,247 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.SalesTickerDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.TicketType;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SalesTickerServiceTest {
+
+    private static final long MINUTE = 29_000_000L;
+
+    private SalesTickerService salesTickerService;
+
+    @BeforeEach
+    void setUp() {
+        salesTickerService = new SalesTickerService(2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        salesTickerService.shutdown();
+    }
+
+    private static TicketsSoldEvent sale(Long seanceId, double... prices) {
+        List<TicketsSoldEvent.SoldTicket> tickets = Arrays.stream(prices)
+                .mapToObj(price -> new TicketsSoldEvent.SoldTicket(seanceId, 1L, 1L, TicketType.REGULAR, price))
+                .toList();
+        return new TicketsSoldEvent(1L, LocalDateTime.now().minusDays(1), tickets);
+    }
+
+    private static ReservationEvent reservationEvent(ReservationEventType type, Long seanceId) {
+        return new ReservationEvent(type, 1L, seanceId, List.of(1L), null);
+    }
+
+    @Test
+    void testWindowSumsOnlyMinutesInSpan() {
+        SalesTickerService.RollingWindow window = new SalesTickerService.RollingWindow();
+        window.add(MINUTE - 61, SalesTickerService.Metric.TICKETS_SOLD, 100);
+        window.add(MINUTE - 30, SalesTickerService.Metric.TICKETS_SOLD, 2);
+        window.add(MINUTE, SalesTickerService.Metric.TICKETS_SOLD, 3);
+        window.add(MINUTE, SalesTickerService.Metric.REVENUE_CENTS, 4500);
+
+        assertThat(window.sum(MINUTE, 1, SalesTickerService.Metric.TICKETS_SOLD)).isEqualTo(3);
+        assertThat(window.sum(MINUTE, 60, SalesTickerService.Metric.TICKETS_SOLD)).isEqualTo(5);
+        assertThat(window.sum(MINUTE, 60, SalesTickerService.Metric.REVENUE_CENTS)).isEqualTo(4500);
+
+        long[] series = window.series(MINUTE, SalesTickerService.Metric.TICKETS_SOLD);
+        assertThat(series).hasSize(60);
+        assertThat(series[29]).isEqualTo(2);
+        assertThat(series[59]).isEqualTo(3);
+    }
+
+    @Test
+    void testWindowReusesSlotOfAnOldMinuteAndDropsLateUpdates() {
+        SalesTickerService.RollingWindow window = new SalesTickerService.RollingWindow();
+        window.add(MINUTE, SalesTickerService.Metric.TICKETS_SOLD, 7);
+        window.add(MINUTE + 60, SalesTickerService.Metric.TICKETS_SOLD, 1);
+        window.add(MINUTE, SalesTickerService.Metric.TICKETS_SOLD, 5);
+
+        assertThat(window.sum(MINUTE + 60, 60, SalesTickerService.Metric.TICKETS_SOLD)).isEqualTo(1);
+        assertThat(window.lastMinute()).isEqualTo(MINUTE + 60);
+    }
+
+    @Test
+    void testWindowCountsConcurrentUpdates() throws Exception {
+        SalesTickerService.RollingWindow window = new SalesTickerService.RollingWindow();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    window.add(MINUTE + i / 5_000, SalesTickerService.Metric.TICKETS_SOLD, 1);
+                }
+            });
+        }
+        tasks.forEach(executor::execute);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(window.sum(MINUTE + 1, 2, SalesTickerService.Metric.TICKETS_SOLD)).isEqualTo(40_000);
+    }
+
+    @Test
+    void testEventsFeedGlobalAndSeanceWindows() {
+        salesTickerService.onReservationCommitted(reservationEvent(ReservationEventType.CREATED, 1L));
+        salesTickerService.onReservationCommitted(reservationEvent(ReservationEventType.CREATED, 2L));
+        salesTickerService.onReservationCommitted(reservationEvent(ReservationEventType.TICKET_ADDED, 2L));
+        salesTickerService.onReservationCommitted(reservationEvent(ReservationEventType.CANCELLED, 2L));
+        salesTickerService.onReservationCommitted(reservationEvent(ReservationEventType.EXPIRED, 1L));
+        salesTickerService.onTicketsSold(sale(1L, 15.0, 12.5));
+        salesTickerService.onTicketsSold(sale(2L, 15.0, 15.0, 15.0));
+
+        SalesTickerDto ticker = salesTickerService.getTicker(null);
+
+        assertThat(ticker.getLastHour().getSeanceId()).isNull();
+        assertThat(ticker.getLastHour().getMinutes()).isEqualTo(60);
+        assertThat(ticker.getLastHour().getTicketsSold()).isEqualTo(5);
+        assertThat(ticker.getLastHour().getRevenue()).isEqualTo(72.5);
+        assertThat(ticker.getLastHour().getReservationsCreated()).isEqualTo(2);
+        assertThat(ticker.getLastHour().getReservationsCancelled()).isEqualTo(1);
+        assertThat(ticker.getLastHour().getReservationsExpired()).isEqualTo(1);
+        assertThat(ticker.getTicketsPerMinute()).hasSize(60);
+        assertThat(ticker.getTicketsPerMinute().stream().mapToLong(Long::longValue).sum()).isEqualTo(5);
+        assertThat(ticker.getTopSeances()).extracting("seanceId", "ticketsSold")
+                .containsExactly(tuple(2L, 3L), tuple(1L, 2L));
+
+        SalesTickerDto seance = salesTickerService.getTicker(1L);
+        assertThat(seance.getLastHour().getSeanceId()).isEqualTo(1L);
+        assertThat(seance.getLastHour().getRevenue()).isEqualTo(27.5);
+        assertThat(seance.getLastHour().getReservationsExpired()).isEqualTo(1);
+        assertThat(seance.getTopSeances()).isEmpty();
+    }
+
+    @Test
+    void testUnknownSeanceHasNoActivity() {
+        SalesTickerDto ticker = salesTickerService.getTicker(99L);
+
+        assertThat(ticker.getLastMinute().getTicketsSold()).isZero();
+        assertThat(ticker.getLastHour().getReservationsCreated()).isZero();
+    }
+
+    @Test
+    void testEvictIdleSeancesKeepsActiveOnes() {
+        salesTickerService.onTicketsSold(sale(1L, 15.0));
+
+        salesTickerService.evictIdleSeances();
+
+        assertThat(salesTickerService.getTicker(null).getTopSeances()).hasSize(1);
+    }
+
+    @Test
+    void testSubscribeRejectsAboveLimit() throws InterruptedException {
+        salesTickerService.subscribe(null);
+        salesTickerService.subscribe(1L);
+        SseEmitter third = salesTickerService.subscribe(2L);
+
+        assertThatThrownBy(() -> salesTickerService.subscribe(null))
+                .isInstanceOf(TooManySubscribersException.class);
+        assertThat(salesTickerService.getSubscriberCount()).isEqualTo(3);
+
+        // A closed stream frees its place once it is found closed
+        third.complete();
+        salesTickerService.pushTicker();
+        awaitSubscriberCount(2);
+        salesTickerService.subscribe(null);
+        assertThat(salesTickerService.getSubscriberCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testStalledSubscriberDoesNotBlockOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        salesTickerService.shutdown();
+        salesTickerService = new SalesTickerService(2, 100) {
+            private int created;
+
+            @Override
+            SseEmitter createEmitter() {
+                boolean slow = created++ == 0;
+                return new SseEmitter() {
+                    @Override
+                    public void send(Set<DataWithMediaType> items) throws IOException {
+                        if (slow) {
+                            stalled.countDown();
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        } else {
+                            delivered.countDown();
+                        }
+                    }
+                };
+            }
+        };
+
+        salesTickerService.subscribe(null);
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        salesTickerService.subscribe(1L);
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void testSubscriberFallingBehindIsDropped() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        salesTickerService.shutdown();
+        salesTickerService = new SalesTickerService(1, 100) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter() {
+                    @Override
+                    public void send(Set<DataWithMediaType> items) throws IOException {
+                        stalled.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+            }
+        };
+        salesTickerService.subscribe(null);
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 100; i++) {
+            salesTickerService.pushTicker();
+        }
+
+        assertThat(salesTickerService.getSubscriberCount()).isZero();
+        release.countDown();
+    }
+
+    private void awaitSubscriberCount(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (salesTickerService.getSubscriberCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -4,11 +4,11 @@ import cinema.booking.cinemabooking.dto.request.SeanceRequestDto;
 import cinema.booking.cinemabooking.dto.response.MovieWithSeancesDto;
 import cinema.booking.cinemabooking.dto.response.SeanceDto;
 import cinema.booking.cinemabooking.dto.response.SeatDto;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
 import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
 import cinema.booking.cinemabooking.exception.SeanceConflictException;
 import cinema.booking.cinemabooking.mapper.MovieMapper;
 import cinema.booking.cinemabooking.mapper.SeanceMapper;
-import cinema.booking.cinemabooking.mapper.SeatMapper;
 import cinema.booking.cinemabooking.model.*;
 import cinema.booking.cinemabooking.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,6 +27,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -42,7 +45,7 @@ class SeanceServiceTest {
     private SeatRepository seatRepository;
 
     @Mock
-    private TicketRepository ticketRepository;
+    private SeatOccupancyService seatOccupancyService;
 
     @Mock
     private CinemaRoomRepository cinemaRoomRepository;
@@ -57,7 +60,7 @@ class SeanceServiceTest {
     private MovieMapper movieMapper;
 
     @Mock
-    private SeatMapper seatMapper;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private SeanceService seanceService;
@@ -222,6 +225,99 @@ class SeanceServiceTest {
         verify(seanceRepository, times(1)).findByStartTimeBetween(startOfDay, endOfDay);
     }
 
+    @Test
+    void testGetRepertoireForDateIsCached() {
+        LocalDate date = LocalDate.now();
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(seance));
+        when(movieMapper.toMovieWithSeancesDto(eq(movie), any())).thenReturn(createMovieWithSeancesDto());
+
+        List<MovieWithSeancesDto> first = seanceService.getRepertoireForDate(date);
+        List<MovieWithSeancesDto> second = seanceService.getRepertoireForDate(date);
+
+        assertThat(second).isSameAs(first);
+        verify(seanceRepository, times(1)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testGetRepertoireForDateOutsidePrewarmWindowIsNotCached() {
+        ReflectionTestUtils.setField(seanceService, "prewarmDays", 6);
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of());
+
+        seanceService.getRepertoireForDate(LocalDate.now().plusDays(7));
+        seanceService.getRepertoireForDate(LocalDate.now().plusDays(7));
+        seanceService.getRepertoireForDate(LocalDate.now().minusDays(1));
+        seanceService.getRepertoireForDate(LocalDate.now().minusDays(1));
+        seanceService.getRepertoireForDate(LocalDate.now().plusDays(6));
+        seanceService.getRepertoireForDate(LocalDate.now().plusDays(6));
+
+        verify(seanceRepository, times(5)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testRepertoireIsReloadedAfterSeanceOfDateChanged() {
+        LocalDate date = LocalDate.now();
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of());
+
+        seanceService.getRepertoireForDate(date);
+        seanceService.onRepertoireChanged(RepertoireChangedEvent.forSeance(2L, date));
+        seanceService.getRepertoireForDate(date);
+
+        verify(seanceRepository, times(2)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testRepertoireIsReloadedAfterCachedSeanceDeleted() {
+        LocalDate date = LocalDate.now();
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(seance));
+        when(movieMapper.toMovieWithSeancesDto(eq(movie), any())).thenReturn(createMovieWithSeancesDto());
+
+        seanceService.getRepertoireForDate(date);
+        seanceService.onRepertoireChanged(RepertoireChangedEvent.forSeance(1L, null));
+        seanceService.getRepertoireForDate(date);
+
+        verify(seanceRepository, times(2)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testRepertoireIsReloadedAfterCachedMovieChanged() {
+        LocalDate date = LocalDate.now();
+        MovieWithSeancesDto movieWithSeancesDto = createMovieWithSeancesDto();
+        movieWithSeancesDto.setMovieId(1L);
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(seance));
+        when(movieMapper.toMovieWithSeancesDto(eq(movie), any())).thenReturn(movieWithSeancesDto);
+
+        seanceService.getRepertoireForDate(date);
+        seanceService.onRepertoireChanged(RepertoireChangedEvent.forMovie(1L));
+        seanceService.getRepertoireForDate(date);
+
+        verify(seanceRepository, times(2)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testUnrelatedChangeKeepsCachedRepertoire() {
+        LocalDate date = LocalDate.now();
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(seance));
+        when(movieMapper.toMovieWithSeancesDto(eq(movie), any())).thenReturn(createMovieWithSeancesDto());
+
+        seanceService.getRepertoireForDate(date);
+        seanceService.onRepertoireChanged(RepertoireChangedEvent.forSeance(7L, date.plusDays(1)));
+        seanceService.onRepertoireChanged(RepertoireChangedEvent.forMovie(7L));
+        seanceService.getRepertoireForDate(date);
+
+        verify(seanceRepository, times(1)).findByStartTimeBetween(any(), any());
+    }
+
+    @Test
+    void testPrewarmRepertoireLoadsToday() {
+        when(seanceRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of());
+
+        seanceService.prewarmRepertoire();
+        seanceService.getRepertoireForDate(LocalDate.now());
+
+        verify(seanceRepository, times(1))
+                .findByStartTimeBetween(LocalDate.now().atStartOfDay(), LocalDate.now().atTime(LocalTime.MAX));
+    }
+
     @Test
     void testGetSeanceDetailsSuccessfully() {
         SeanceDto seanceDto = createSeanceDto();
@@ -247,6 +343,33 @@ class SeanceServiceTest {
         verify(seanceMapper, never()).toDto(any());
     }
 
+    @Test
+    void testCheckSeanceExistsThrowsExceptionWhenNotFound() {
+        when(seanceRepository.existsById(999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> seanceService.checkSeanceExists(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void testGetSeatMapVersionOfTrackedSeanceSkipsLookup() {
+        when(seatOccupancyService.isTracked(1L)).thenReturn(true);
+        when(seatOccupancyService.getVersion(1L)).thenReturn("v1-7");
+
+        assertThat(seanceService.getSeatMapVersion(1L)).isEqualTo("v1-7");
+        verify(seanceRepository, never()).existsById(any());
+    }
+
+    @Test
+    void testGetSeatMapVersionOfUntrackedSeanceThrowsExceptionWhenNotFound() {
+        when(seatOccupancyService.isTracked(999L)).thenReturn(false);
+        when(seanceRepository.existsById(999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> seanceService.getSeatMapVersion(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(seatOccupancyService, never()).getVersion(any());
+    }
+
     @Test
     void testGetSeanceDetailsReturnsCorrectSeance() {
         SeanceDto seanceDto = createSeanceDto();
@@ -267,19 +390,16 @@ class SeanceServiceTest {
         assertThatThrownBy(() -> seanceService.getSeatsStatusForMovie(999L))
                 .isInstanceOf(ResourceNotFoundException.class);
         verify(seanceRepository, times(1)).findById(999L);
-        verify(seatRepository, never()).findAllByCinemaRoom_Id(any());
+        verify(seatRepository, never()).findSeatDtosByCinemaRoomId(any());
     }
 
     @Test
     void testGetSeatsStatusForMovieSuccessfully() {
-        List<Seat> allSeats = List.of(seat);
-        List<Ticket> takenTickets = List.of(ticket);
-        SeatDto seatDto = createSeatDto(1L, 1, 1, true);
+        SeatDto seatDto = createSeatDto(1L, 1, 1, false);
 
         when(seanceRepository.findById(1L)).thenReturn(Optional.of(seance));
-        when(seatRepository.findAllByCinemaRoom_Id(1L)).thenReturn(allSeats);
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(takenTickets);
-        when(seatMapper.toDto(eq(seat), eq(true))).thenReturn(seatDto);
+        when(seatRepository.findSeatDtosByCinemaRoomId(1L)).thenReturn(List.of(seatDto));
+        when(seatOccupancyService.getOccupiedSeatIds(seance)).thenReturn(Set.of(1L));
 
         List<SeatDto> result = seanceService.getSeatsStatusForMovie(1L);
 
@@ -288,56 +408,36 @@ class SeanceServiceTest {
                 .isNotEmpty()
                 .contains(seatDto);
         verify(seanceRepository, times(1)).findById(1L);
-        verify(seatRepository, times(1)).findAllByCinemaRoom_Id(1L);
+        verify(seatRepository, times(1)).findSeatDtosByCinemaRoomId(1L);
     }
 
     @Test
     void testGetSeatsStatusForMovieMarksTakenSeats() {
-        List<Seat> allSeats = List.of(seat);
-        List<Ticket> takenTickets = List.of(ticket);
-        SeatDto seatDto = createSeatDto(1L, 1, 1, true);
+        SeatDto seatDto = createSeatDto(1L, 1, 1, false);
 
         when(seanceRepository.findById(1L)).thenReturn(Optional.of(seance));
-        when(seatRepository.findAllByCinemaRoom_Id(1L)).thenReturn(allSeats);
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(takenTickets);
-        when(seatMapper.toDto(eq(seat), eq(true))).thenReturn(seatDto);
+        when(seatRepository.findSeatDtosByCinemaRoomId(1L)).thenReturn(List.of(seatDto));
+        when(seatOccupancyService.getOccupiedSeatIds(seance)).thenReturn(Set.of(1L));
 
         seanceService.getSeatsStatusForMovie(1L);
 
-        assertThat(seatDto)
-                .isNotNull()
-                .satisfies(dto -> {
-                    verify(seatMapper, times(1)).toDto(eq(seat), eq(true));
-                });
+        assertThat(seatDto.isOccupied()).isTrue();
     }
 
     @Test
     void testGetSeatsStatusForMovieMarksFreeSeats() {
-        Seat seat2 = new Seat();
-        seat2.setId(2L);
-        seat2.setCinemaRoom(cinemaRoom);
-        seat2.setRowNumber(1);
-        seat2.setSeatNumber(2);
-
-        List<Seat> allSeats = List.of(seat, seat2);
-        List<Ticket> takenTickets = List.of(ticket);
-        SeatDto seatDto1 = createSeatDto(1L, 1, 1, true);
+        SeatDto seatDto1 = createSeatDto(1L, 1, 1, false);
         SeatDto seatDto2 = createSeatDto(2L, 1, 2, false);
 
         when(seanceRepository.findById(1L)).thenReturn(Optional.of(seance));
-        when(seatRepository.findAllByCinemaRoom_Id(1L)).thenReturn(allSeats);
-        when(ticketRepository.findAllTakenTickets(eq(1L), any(LocalDateTime.class))).thenReturn(takenTickets);
-        when(seatMapper.toDto(eq(seat), eq(true))).thenReturn(seatDto1);
-        when(seatMapper.toDto(eq(seat2), eq(false))).thenReturn(seatDto2);
+        when(seatRepository.findSeatDtosByCinemaRoomId(1L)).thenReturn(List.of(seatDto1, seatDto2));
+        when(seatOccupancyService.getOccupiedSeatIds(seance)).thenReturn(Set.of(1L));
 
-        seanceService.getSeatsStatusForMovie(1L);
+        List<SeatDto> result = seanceService.getSeatsStatusForMovie(1L);
 
-        assertThat(seatDto1)
-                .isNotNull()
-                .satisfies(dto -> {
-                    verify(seatMapper, times(1)).toDto(eq(seat), eq(true));
-                    verify(seatMapper, times(1)).toDto(eq(seat2), eq(false));
-                });
+        assertThat(result)
+                .extracting(SeatDto::isOccupied)
+                .containsExactly(true, false);
     }
 
     @Test
@@ -356,6 +456,7 @@ class SeanceServiceTest {
         verify(cinemaRoomRepository, times(1)).findById(1L);
         verify(seanceRepository, times(1)).findOverlappingSeances(eq(1L), any(), any());
         verify(seanceRepository, times(1)).save(seance);
+        verify(eventPublisher, times(1)).publishEvent(any(RepertoireChangedEvent.class));
     }
 
     @Test
@@ -390,6 +491,7 @@ class SeanceServiceTest {
         assertThatThrownBy(() -> seanceService.createSeance(seanceRequestDto))
                 .isInstanceOf(SeanceConflictException.class);
         verify(seanceRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -415,6 +517,7 @@ class SeanceServiceTest {
         assertThat(1L)
                 .isNotNull()
                 .satisfies(id -> verify(seanceRepository, times(1)).deleteById(id));
+        verify(eventPublisher, times(1)).publishEvent(any(RepertoireChangedEvent.class));
     }
 
     @Test
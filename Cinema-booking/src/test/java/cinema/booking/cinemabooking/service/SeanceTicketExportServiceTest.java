@@ -0,0 +1,106 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeanceRepository;
+import cinema.booking.cinemabooking.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeanceTicketExportServiceTest {
+
+    @Mock
+    private SeanceRepository seanceRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private PdfTicketService pdfTicketService;
+
+    @Mock
+    private PdfTicketService.TicketPack pack;
+
+    @InjectMocks
+    private SeanceTicketExportService seanceTicketExportService;
+
+    private Seance seance;
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        seance = new Seance();
+        seance.setId(1L);
+        out = new ByteArrayOutputStream();
+    }
+
+    private static List<TicketRepository.PrintableTicket> chunk(int firstRow, int count) {
+        List<TicketRepository.PrintableTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TicketRepository.PrintableTicket ticket = mock(TicketRepository.PrintableTicket.class);
+            lenient().when(ticket.getRowNumber()).thenReturn(firstRow + i / 10);
+            lenient().when(ticket.getSeatNumber()).thenReturn(i % 10 + 1);
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+
+    @Test
+    void testGetSeanceThrowsWhenNotFound() {
+        when(seanceRepository.findWithMovieAndCinemaRoomById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> seanceTicketExportService.getSeance(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void testWriteTicketPackReadsChunksAfterTheLastSeat() throws IOException {
+        // A full chunk ends on row 10 seat 10, so the next chunk starts after it
+        List<TicketRepository.PrintableTicket> first = chunk(1, 100);
+        List<TicketRepository.PrintableTicket> second = chunk(11, 5);
+        when(pdfTicketService.openSeancePack(seance, out)).thenReturn(pack);
+        when(ticketRepository.findPaidTicketsAfterSeat(1L, 0, 0, Limit.of(100))).thenReturn(first);
+        when(ticketRepository.findPaidTicketsAfterSeat(1L, 10, 10, Limit.of(100))).thenReturn(second);
+
+        seanceTicketExportService.writeTicketPack(seance, out);
+
+        verify(pack, times(105)).add(any());
+        InOrder inOrder = inOrder(pack, ticketRepository);
+        inOrder.verify(pack).add(first.getLast());
+        inOrder.verify(pack).flush();
+        inOrder.verify(ticketRepository).findPaidTicketsAfterSeat(1L, 10, 10, Limit.of(100));
+        inOrder.verify(pack).add(second.getLast());
+        inOrder.verify(pack).flush();
+        inOrder.verify(pack).close();
+        verify(ticketRepository, times(2)).findPaidTicketsAfterSeat(eq(1L), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void testWriteTicketPackClosesEmptyPack() throws IOException {
+        when(pdfTicketService.openSeancePack(seance, out)).thenReturn(pack);
+        when(ticketRepository.findPaidTicketsAfterSeat(1L, 0, 0, Limit.of(100))).thenReturn(List.of());
+
+        seanceTicketExportService.writeTicketPack(seance, out);
+
+        verify(pack, never()).add(any());
+        verify(pack).close();
+    }
+}
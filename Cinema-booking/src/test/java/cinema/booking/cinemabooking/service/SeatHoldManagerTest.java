@@ -0,0 +1,130 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.model.CinemaRoom;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldManagerTest {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @InjectMocks
+    private SeatHoldManager seatHoldManager;
+
+    private Seance seance;
+
+    @BeforeEach
+    void setUp() {
+        CinemaRoom cinemaRoom = new CinemaRoom();
+        cinemaRoom.setId(1L);
+
+        seance = new Seance();
+        seance.setId(1L);
+        seance.setCinemaRoom(cinemaRoom);
+        seance.setStartTime(LocalDateTime.now().plusDays(1));
+        seance.setEndTime(LocalDateTime.now().plusDays(1).plusHours(2));
+
+        when(seatRepository.findIdsByCinemaRoomId(1L)).thenReturn(List.of(1L, 2L, 3L, 4L));
+    }
+
+    @Test
+    void testClaimFreeSeatsReturnsToken() {
+        assertThat(seatHoldManager.tryClaim(seance, List.of(1L, 2L))).isPositive();
+    }
+
+    @Test
+    void testClaimOfClaimedSeatFails() {
+        seatHoldManager.tryClaim(seance, List.of(1L, 2L));
+
+        assertThat(seatHoldManager.tryClaim(seance, List.of(2L, 3L))).isZero();
+    }
+
+    @Test
+    void testFailedClaimIsAllOrNothing() {
+        seatHoldManager.tryClaim(seance, List.of(3L));
+        seatHoldManager.tryClaim(seance, List.of(1L, 2L, 3L));
+
+        assertThat(seatHoldManager.tryClaim(seance, List.of(1L, 2L))).isPositive();
+    }
+
+    @Test
+    void testReleasedSeatsCanBeClaimedAgain() {
+        long token = seatHoldManager.tryClaim(seance, List.of(1L));
+        seatHoldManager.release(seance.getId(), List.of(1L), token);
+
+        assertThat(seatHoldManager.tryClaim(seance, List.of(1L))).isPositive();
+    }
+
+    @Test
+    void testReleaseWithForeignTokenIsIgnored() {
+        long token = seatHoldManager.tryClaim(seance, List.of(1L));
+        seatHoldManager.release(seance.getId(), List.of(1L), token + 100);
+
+        assertThat(seatHoldManager.tryClaim(seance, List.of(1L))).isZero();
+    }
+
+    @Test
+    void testDuplicateSeatIdsInOneClaim() {
+        assertThat(seatHoldManager.tryClaim(seance, List.of(1L, 1L))).isPositive();
+    }
+
+    @Test
+    void testSeatsOutsideRoomAreIgnored() {
+        assertThat(seatHoldManager.tryClaim(seance, List.of(99L))).isPositive();
+        assertThat(seatHoldManager.tryClaim(seance, List.of(99L))).isPositive();
+    }
+
+    @Test
+    void testClaimArrayIsBuiltOnlyOnce() {
+        seatHoldManager.tryClaim(seance, List.of(1L));
+        seatHoldManager.tryClaim(seance, List.of(2L));
+
+        verify(seatRepository, times(1)).findIdsByCinemaRoomId(1L);
+    }
+
+    @Test
+    void testOnlyOneConcurrentClaimWins() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (seatHoldManager.tryClaim(seance, List.of(2L, 3L)) != 0) {
+                        winners.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(winners.get()).isEqualTo(1);
+    }
+}
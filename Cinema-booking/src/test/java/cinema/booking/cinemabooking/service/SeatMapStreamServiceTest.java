@@ -0,0 +1,208 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.response.SeatMapDeltaDto;
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.exception.TooManySubscribersException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatMapStreamServiceTest {
+
+    private SeatMapStreamService seatMapStreamService;
+
+    @BeforeEach
+    void setUp() {
+        seatMapStreamService = new SeatMapStreamService(2, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatMapStreamService.shutdown();
+    }
+
+    @Test
+    void testSubscribeRegistersSubscriberPerSeance() {
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.subscribe(2L);
+
+        assertThat(seatMapStreamService.getSubscriberCount(1L)).isEqualTo(2);
+        assertThat(seatMapStreamService.getSubscriberCount(2L)).isEqualTo(1);
+        assertThat(seatMapStreamService.getSubscriberCount(3L)).isZero();
+    }
+
+    @Test
+    void testSubscribeRejectsAboveSeanceLimit() {
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.subscribe(1L);
+
+        assertThatThrownBy(() -> seatMapStreamService.subscribe(1L))
+                .isInstanceOf(TooManySubscribersException.class);
+        assertThat(seatMapStreamService.getSubscriberCount(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void testSubscribeRejectsAboveGlobalLimit() throws InterruptedException {
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.subscribe(2L);
+        SseEmitter third = seatMapStreamService.subscribe(3L);
+
+        assertThatThrownBy(() -> seatMapStreamService.subscribe(4L))
+                .isInstanceOf(TooManySubscribersException.class);
+        assertThat(seatMapStreamService.getSubscriberCount(4L)).isZero();
+
+        // A closed stream frees its place once it is found closed
+        third.complete();
+        seatMapStreamService.onReservationCommitted(cancelled(3L));
+        awaitSubscriberCount(3L, 0);
+        seatMapStreamService.subscribe(4L);
+        assertThat(seatMapStreamService.getSubscriberCount(4L)).isEqualTo(1);
+    }
+
+    @Test
+    void testStalledSubscriberDoesNotBlockOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        seatMapStreamService.shutdown();
+        seatMapStreamService = new SeatMapStreamService(2, 100, 100) {
+            private int created;
+
+            @Override
+            SseEmitter createEmitter() {
+                boolean slow = created++ == 0;
+                return new SseEmitter() {
+                    @Override
+                    public void send(Set<DataWithMediaType> items) throws IOException {
+                        if (slow) {
+                            stalled.countDown();
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        } else {
+                            delivered.countDown();
+                        }
+                    }
+                };
+            }
+        };
+
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.subscribe(2L);
+        seatMapStreamService.onReservationCommitted(cancelled(1L));
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        seatMapStreamService.onReservationCommitted(cancelled(2L));
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void testSubscriberFallingBehindIsDropped() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        seatMapStreamService.shutdown();
+        seatMapStreamService = new SeatMapStreamService(1, 100, 100) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter() {
+                    @Override
+                    public void send(Set<DataWithMediaType> items) throws IOException {
+                        stalled.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+            }
+        };
+        seatMapStreamService.subscribe(1L);
+        seatMapStreamService.onReservationCommitted(cancelled(1L));
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 100; i++) {
+            seatMapStreamService.onReservationCommitted(cancelled(1L));
+        }
+
+        assertThat(seatMapStreamService.getSubscriberCount(1L)).isZero();
+        release.countDown();
+    }
+
+    private static ReservationEvent cancelled(Long seanceId) {
+        return new ReservationEvent(ReservationEventType.CANCELLED, 1L, seanceId, List.of(3L), null);
+    }
+
+    private void awaitSubscriberCount(Long seanceId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (seatMapStreamService.getSubscriberCount(seanceId) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testCreatedEventBecomesOccupiedDelta() {
+        SeatMapDeltaDto delta = SeatMapStreamService.toDelta(new ReservationEvent(ReservationEventType.CREATED, 1L, 2L,
+                List.of(3L, 4L), LocalDateTime.now().plusMinutes(15)));
+
+        assertThat(delta.getSeanceId()).isEqualTo(2L);
+        assertThat(delta.getOccupiedSeatIds()).containsExactly(3L, 4L);
+        assertThat(delta.getFreedSeatIds()).isEmpty();
+    }
+
+    @Test
+    void testExpiredEventBecomesFreedDelta() {
+        SeatMapDeltaDto delta = SeatMapStreamService.toDelta(new ReservationEvent(ReservationEventType.EXPIRED, 1L, 2L,
+                List.of(3L), null));
+
+        assertThat(delta.getOccupiedSeatIds()).isEmpty();
+        assertThat(delta.getFreedSeatIds()).containsExactly(3L);
+    }
+
+    @Test
+    void testPaidEventProducesNoDelta() {
+        assertThat(SeatMapStreamService.toDelta(new ReservationEvent(ReservationEventType.PAID, 1L, 2L,
+                List.of(3L), null))).isNull();
+    }
+
+    @Test
+    void testBroadcastToOpenSubscriberKeepsSubscription() {
+        SseEmitter emitter = seatMapStreamService.subscribe(1L);
+
+        seatMapStreamService.onReservationCommitted(new ReservationEvent(ReservationEventType.CANCELLED, 1L, 1L,
+                List.of(3L), null));
+
+        assertThat(seatMapStreamService.getSubscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void testCompletedSubscriberIsRemovedOnBroadcast() throws Exception {
+        SseEmitter emitter = seatMapStreamService.subscribe(1L);
+        emitter.complete();
+
+        seatMapStreamService.onReservationCommitted(new ReservationEvent(ReservationEventType.CANCELLED, 1L, 1L,
+                List.of(3L), null));
+
+        for (int i = 0; i < 50 && seatMapStreamService.getSubscriberCount(1L) > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(seatMapStreamService.getSubscriberCount(1L)).isZero();
+    }
+}
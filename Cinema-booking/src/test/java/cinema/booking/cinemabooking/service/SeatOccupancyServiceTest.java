@@ -0,0 +1,223 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationEventType;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.event.ReservationEvent;
+import cinema.booking.cinemabooking.model.CinemaRoom;
+import cinema.booking.cinemabooking.model.Seance;
+import cinema.booking.cinemabooking.repository.SeatRepository;
+import cinema.booking.cinemabooking.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatOccupancyServiceTest {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private SeatOccupancyService seatOccupancyService;
+
+    private Seance seance;
+
+    @BeforeEach
+    void setUp() {
+        CinemaRoom cinemaRoom = new CinemaRoom();
+        cinemaRoom.setId(1L);
+
+        seance = new Seance();
+        seance.setId(1L);
+        seance.setCinemaRoom(cinemaRoom);
+        seance.setStartTime(LocalDateTime.now().plusDays(1));
+        seance.setEndTime(LocalDateTime.now().plusDays(1).plusHours(2));
+
+        when(seatRepository.findIdsByCinemaRoomId(1L)).thenReturn(List.of(1L, 2L, 3L, 4L));
+    }
+
+    private TicketRepository.TakenSeat takenSeat(Long seatId, Long reservationId, ReservationStatus status, LocalDateTime expiresAt) {
+        return new TicketRepository.TakenSeat() {
+            @Override
+            public Long getSeatId() {
+                return seatId;
+            }
+
+            @Override
+            public Long getReservationId() {
+                return reservationId;
+            }
+
+            @Override
+            public ReservationStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+
+    @Test
+    void testGetOccupiedSeatIdsLoadsPaidAndPendingSeats() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                takenSeat(1L, 10L, ReservationStatus.PAID, LocalDateTime.now().minusHours(1)),
+                takenSeat(2L, 11L, ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(10))
+        ));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void testSnapshotIsBuiltOnlyOnce() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+
+        seatOccupancyService.getOccupiedSeatIds(seance);
+        seatOccupancyService.findOccupiedSeatIds(seance, List.of(1L, 2L));
+
+        verify(seatRepository, times(1)).findIdsByCinemaRoomId(1L);
+        verify(ticketRepository, times(1)).findTakenSeats(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testSnapshotRacedByEventIsNotStored() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    // A reservation committed while the snapshot is being loaded
+                    seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.CREATED, 20L, 1L,
+                            List.of(2L), LocalDateTime.now().plusMinutes(15)));
+                    return new ArrayList<>();
+                })
+                .thenReturn(List.of(takenSeat(2L, 20L, ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(15))));
+
+        seatOccupancyService.getOccupiedSeatIds(seance);
+        Set<Long> occupied = seatOccupancyService.getOccupiedSeatIds(seance);
+
+        assertThat(occupied).containsExactly(2L);
+        verify(ticketRepository, times(2)).findTakenSeats(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testFindOccupiedSeatIdsReturnsOnlyTakenRequestedSeats() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                takenSeat(3L, 10L, ReservationStatus.PAID, LocalDateTime.now())
+        ));
+
+        assertThat(seatOccupancyService.findOccupiedSeatIds(seance, List.of(1L, 3L))).containsExactly(3L);
+    }
+
+    @Test
+    void testHoldEventMarksSeatsAsOccupied() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.CREATED, 20L, 1L,
+                List.of(1L, 2L), LocalDateTime.now().plusMinutes(15)));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void testExpiredHoldIsNotReportedAsOccupied() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.CREATED, 20L, 1L,
+                List.of(1L), LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).isEmpty();
+    }
+
+    @Test
+    void testReleaseByOtherReservationIsIgnored() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                takenSeat(1L, 10L, ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(10))
+        ));
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.EXPIRED, 99L, 1L,
+                List.of(1L), null));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).containsExactly(1L);
+    }
+
+    @Test
+    void testReleaseByHolderFreesSeat() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                takenSeat(1L, 10L, ReservationStatus.PENDING, LocalDateTime.now().plusMinutes(10))
+        ));
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.CANCELLED, 10L, 1L,
+                List.of(1L), null));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).isEmpty();
+    }
+
+    @Test
+    void testPaidEventKeepsSeatAfterHoldExpiry() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.PAID, 20L, 1L,
+                List.of(4L), LocalDateTime.now().minusMinutes(1)));
+
+        assertThat(seatOccupancyService.getOccupiedSeatIds(seance)).containsExactly(4L);
+    }
+
+    @Test
+    void testRollbackEvictsSnapshot() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        seatOccupancyService.onReservationRolledBack(new ReservationEvent(ReservationEventType.CREATED, 20L, 1L,
+                List.of(1L), LocalDateTime.now().plusMinutes(15)));
+        seatOccupancyService.getOccupiedSeatIds(seance);
+
+        verify(ticketRepository, times(2)).findTakenSeats(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testEventChangesVersion() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        seatOccupancyService.getOccupiedSeatIds(seance);
+        String before = seatOccupancyService.getVersion(1L);
+
+        seatOccupancyService.onReservationEvent(new ReservationEvent(ReservationEventType.CREATED, 20L, 1L,
+                List.of(1L), LocalDateTime.now().plusMinutes(15)));
+
+        assertThat(seatOccupancyService.getVersion(1L)).isNotEqualTo(before);
+        assertThat(seatOccupancyService.getVersion(2L)).endsWith("-0");
+    }
+
+    @Test
+    void testSeanceIsTrackedUntilItChanges() {
+        when(ticketRepository.findTakenSeats(eq(1L), any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+        assertThat(seatOccupancyService.isTracked(1L)).isFalse();
+
+        seatOccupancyService.getOccupiedSeatIds(seance);
+        assertThat(seatOccupancyService.isTracked(1L)).isTrue();
+
+        seatOccupancyService.onRepertoireChanged(RepertoireChangedEvent.forSeance(1L, null));
+        assertThat(seatOccupancyService.isTracked(1L)).isFalse();
+    }
+}
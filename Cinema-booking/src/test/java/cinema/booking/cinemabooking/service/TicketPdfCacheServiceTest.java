@@ -0,0 +1,193 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.RepertoireChangedEvent;
+import cinema.booking.cinemabooking.exception.ResourceNotFoundException;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketPdfCacheServiceTest {
+
+    private static final String RESERVATION_CODE = "0b7e4c1a-5f2d-4e8b-9a36-2c1d7f0e8b94";
+    private static final byte[] PDF = "%PDF-1.4\n%Sample PDF content".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private PdfTicketService pdfTicketService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @TempDir
+    private Path cacheDir;
+
+    private TicketPdfCacheService ticketPdfCacheService;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        ticketPdfCacheService = new TicketPdfCacheService(pdfTicketService, reservationRepository, cacheDir.toString(), 30);
+        reservation = new Reservation();
+        reservation.setId(1L);
+        reservation.setReservationCode(RESERVATION_CODE);
+        lenient().when(reservationRepository.findWithTicketsById(1L)).thenReturn(Optional.of(reservation));
+    }
+
+    @Test
+    void testGetPdfGeneratesOnceAndServesFromCache() throws IOException {
+        when(pdfTicketService.generateReservationPdf(reservation)).thenReturn(new ByteArrayInputStream(PDF));
+
+        TicketPdfCacheService.CachedPdf first = ticketPdfCacheService.getPdf(reservation);
+        TicketPdfCacheService.CachedPdf second = ticketPdfCacheService.getPdf(reservation);
+
+        assertThat(first.file()).isEqualTo(cacheDir.resolve(RESERVATION_CODE + ".pdf"));
+        assertThat(Files.readAllBytes(first.file())).isEqualTo(PDF);
+        assertThat(first.size()).isEqualTo(PDF.length);
+        assertThat(first.eTag()).startsWith("\"" + RESERVATION_CODE + "-").endsWith("\"");
+        assertThat(second).isEqualTo(first);
+        verify(pdfTicketService, times(1)).generateReservationPdf(reservation);
+        verify(reservationRepository, times(1)).findWithTicketsById(1L);
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).containsExactly(first.file());
+        }
+    }
+
+    @Test
+    void testGetPdfRendersReservationFetchedWithTickets() {
+        Reservation fetched = new Reservation();
+        fetched.setId(1L);
+        fetched.setReservationCode(RESERVATION_CODE);
+        when(reservationRepository.findWithTicketsById(1L)).thenReturn(Optional.of(fetched));
+        when(pdfTicketService.generateReservationPdf(fetched)).thenReturn(new ByteArrayInputStream(PDF));
+
+        ticketPdfCacheService.getPdf(reservation);
+
+        verify(pdfTicketService, never()).generateReservationPdf(reservation);
+    }
+
+    @Test
+    void testGetPdfOfDeletedReservationThrowsException() {
+        when(reservationRepository.findWithTicketsById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ticketPdfCacheService.getPdf(reservation))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(pdfTicketService);
+    }
+
+    @Test
+    void testGetPdfHashesUnsafeReservationCodes() {
+        reservation.setReservationCode("../../etc/passwd");
+        when(pdfTicketService.generateReservationPdf(reservation)).thenReturn(new ByteArrayInputStream(PDF));
+
+        TicketPdfCacheService.CachedPdf pdf = ticketPdfCacheService.getPdf(reservation);
+
+        assertThat(pdf.file().getParent()).isEqualTo(cacheDir);
+        assertThat(pdf.file().getFileName().toString()).matches("[0-9a-f]{64}\\.pdf");
+    }
+
+    @Test
+    void testGetPdfGeneratesOnceForConcurrentDownloads() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(pdfTicketService.generateReservationPdf(reservation)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ByteArrayInputStream(PDF);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<TicketPdfCacheService.CachedPdf> first = executor.submit(() -> ticketPdfCacheService.getPdf(reservation));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<TicketPdfCacheService.CachedPdf> second = executor.submit(() -> ticketPdfCacheService.getPdf(reservation));
+            release.countDown();
+
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(pdfTicketService, times(1)).generateReservationPdf(any());
+    }
+
+    @Test
+    void testGetPdfLeavesNoFileWhenGenerationFails() throws IOException {
+        when(pdfTicketService.generateReservationPdf(reservation)).thenThrow(new RuntimeException("Error generating PDF"));
+
+        assertThatThrownBy(() -> ticketPdfCacheService.getPdf(reservation))
+                .hasMessage("Error generating PDF");
+
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testMovieChangeDropsPdfsOfItsReservations() throws IOException {
+        when(pdfTicketService.generateReservationPdf(reservation)).thenReturn(new ByteArrayInputStream(PDF));
+        TicketPdfCacheService.CachedPdf stale = ticketPdfCacheService.getPdf(reservation);
+        Path other = Files.write(cacheDir.resolve("other.pdf"), PDF);
+        when(reservationRepository.findReservationCodesByMovieIdAndStatus(7L, ReservationStatus.PAID))
+                .thenReturn(List.of(RESERVATION_CODE));
+
+        ticketPdfCacheService.onRepertoireChanged(RepertoireChangedEvent.forMovie(7L));
+
+        assertThat(stale.file()).doesNotExist();
+        assertThat(other).exists();
+        ticketPdfCacheService.getPdf(reservation);
+        verify(pdfTicketService, times(2)).generateReservationPdf(reservation);
+    }
+
+    @Test
+    void testSeanceChangeKeepsCachedPdfs() throws IOException {
+        when(pdfTicketService.generateReservationPdf(reservation)).thenReturn(new ByteArrayInputStream(PDF));
+        Path file = ticketPdfCacheService.getPdf(reservation).file();
+
+        ticketPdfCacheService.onRepertoireChanged(RepertoireChangedEvent.forSeance(1L, null));
+
+        assertThat(file).exists();
+        verify(reservationRepository, never()).findReservationCodesByMovieIdAndStatus(any(), any());
+    }
+
+    @Test
+    void testEvictExpiredDeletesOldPdfs() throws IOException {
+        when(pdfTicketService.generateReservationPdf(reservation)).thenReturn(new ByteArrayInputStream(PDF));
+        Path old = ticketPdfCacheService.getPdf(reservation).file();
+        Files.setLastModifiedTime(old, FileTime.from(Instant.now().minus(Duration.ofDays(31))));
+        Path fresh = Files.write(cacheDir.resolve("fresh.pdf"), PDF);
+        Path leftover = Files.write(cacheDir.resolve("abc.pdf123.tmp"), PDF);
+        Files.setLastModifiedTime(leftover, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        ticketPdfCacheService.evictExpired();
+
+        assertThat(old).doesNotExist();
+        assertThat(leftover).doesNotExist();
+        assertThat(fresh).exists();
+    }
+}
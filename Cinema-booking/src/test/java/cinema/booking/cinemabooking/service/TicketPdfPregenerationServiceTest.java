@@ -0,0 +1,145 @@
+package cinema.booking.cinemabooking.service;
+
+import cinema.booking.cinemabooking.dto.report.TicketPdfQueueStatsDto;
+import cinema.booking.cinemabooking.enums.ReservationStatus;
+import cinema.booking.cinemabooking.event.TicketsSoldEvent;
+import cinema.booking.cinemabooking.model.Reservation;
+import cinema.booking.cinemabooking.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketPdfPregenerationServiceTest {
+
+    @Mock
+    private TicketPdfCacheService ticketPdfCacheService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private TicketPdfPregenerationService pregenerationService;
+
+    @BeforeEach
+    void setUp() {
+        pregenerationService = new TicketPdfPregenerationService(ticketPdfCacheService, reservationRepository, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pregenerationService.shutdown();
+    }
+
+    private Reservation givenReservation(Long id, ReservationStatus status) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setStatus(status);
+        when(reservationRepository.findById(id)).thenReturn(Optional.of(reservation));
+        return reservation;
+    }
+
+    private static TicketsSoldEvent sold(Long reservationId) {
+        return new TicketsSoldEvent(reservationId, LocalDateTime.now(), List.of());
+    }
+
+    @Test
+    void testOnTicketsSoldGeneratesPdfInBackground() throws InterruptedException {
+        Reservation reservation = givenReservation(1L, ReservationStatus.PAID);
+
+        pregenerationService.onTicketsSold(sold(1L));
+
+        verify(ticketPdfCacheService, timeout(5000)).getPdf(reservation);
+        TicketPdfQueueStatsDto stats = awaitStats(s -> s.getCompleted() == 1);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+        assertThat(stats.getSkipped()).isZero();
+        assertThat(stats.getFailed()).isZero();
+    }
+
+    @Test
+    void testOnTicketsSoldSkipsReservationsNoLongerPaid() throws InterruptedException {
+        givenReservation(1L, ReservationStatus.CANCELLED);
+
+        pregenerationService.onTicketsSold(sold(1L));
+
+        TicketPdfQueueStatsDto stats = awaitStats(s -> s.getSkipped() == 1);
+        assertThat(stats.getSkipped()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isZero();
+        verifyNoInteractions(ticketPdfCacheService);
+    }
+
+    @Test
+    void testOnTicketsSoldSkipsDeletedReservations() throws InterruptedException {
+        when(reservationRepository.findById(1L)).thenReturn(Optional.empty());
+
+        pregenerationService.onTicketsSold(sold(1L));
+
+        TicketPdfQueueStatsDto stats = awaitStats(s -> s.getSkipped() == 1);
+        assertThat(stats.getSkipped()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isZero();
+        verifyNoInteractions(ticketPdfCacheService);
+    }
+
+    @Test
+    void testOnTicketsSoldRejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        givenReservation(1L, ReservationStatus.PAID);
+        givenReservation(2L, ReservationStatus.PAID);
+        when(ticketPdfCacheService.getPdf(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        pregenerationService.onTicketsSold(sold(1L));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        pregenerationService.onTicketsSold(sold(2L));
+        pregenerationService.onTicketsSold(sold(3L));
+
+        TicketPdfQueueStatsDto stats = pregenerationService.getStats();
+        assertThat(stats.getQueued()).isEqualTo(1);
+        assertThat(stats.getQueueCapacity()).isEqualTo(1);
+        assertThat(stats.getRunning()).isEqualTo(1);
+        assertThat(stats.getRejected()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(awaitStats(s -> s.getCompleted() == 2).getCompleted()).isEqualTo(2);
+        verify(reservationRepository, never()).findById(3L);
+    }
+
+    @Test
+    void testOnTicketsSoldCountsFailures() throws InterruptedException {
+        givenReservation(1L, ReservationStatus.PAID);
+        when(ticketPdfCacheService.getPdf(any())).thenThrow(new RuntimeException("Error generating PDF"));
+
+        pregenerationService.onTicketsSold(sold(1L));
+
+        TicketPdfQueueStatsDto stats = awaitStats(s -> s.getFailed() == 1);
+        assertThat(stats.getFailed()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isZero();
+    }
+
+    private TicketPdfQueueStatsDto awaitStats(Predicate<TicketPdfQueueStatsDto> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        TicketPdfQueueStatsDto stats = pregenerationService.getStats();
+        while (!condition.test(stats) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            stats = pregenerationService.getStats();
+        }
+        return stats;
+    }
+}
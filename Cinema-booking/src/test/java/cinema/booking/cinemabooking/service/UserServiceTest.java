@@ -2,6 +2,7 @@ package cinema.booking.cinemabooking.service;
 
 import cinema.booking.cinemabooking.dto.request.UserDto;
 import cinema.booking.cinemabooking.enums.UserRole;
+import cinema.booking.cinemabooking.event.UserRegisteredEvent;
 import cinema.booking.cinemabooking.exception.UserAlreadyExistsException;
 import cinema.booking.cinemabooking.mapper.UserMapper;
 import cinema.booking.cinemabooking.model.User;
@@ -13,6 +14,7 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,6 +35,9 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -77,6 +82,7 @@ class UserServiceTest {
         verify(userMapper, times(1)).toEntity(userDto);
         verify(passwordEncoder, times(1)).encode(userDto.getPassword());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(any(UserRegisteredEvent.class));
     }
 
     @Test